@@ -14,6 +14,10 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Sync server base URL, e.g. -PsyncServerUrl=http://10.0.2.2:8080 for the benchmark
+        // module's stand-in server seen from the emulator; sync stays off when empty.
+        buildConfigField("String", "SYNC_SERVER_URL", "\"${project.findProperty("syncServerUrl") ?: ""}\"")
     }
 
     buildTypes {
@@ -25,10 +29,17 @@ android {
             )
         }
     }
+    buildFeatures {
+        buildConfig = true
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_18
         targetCompatibility = JavaVersion.VERSION_18
     }
+    // JVM tests run code that logs; android.util.Log calls return defaults instead of throwing.
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -45,13 +56,19 @@ dependencies {
     implementation(libs.androidx.lifecycle.common.java8)
 
     implementation(libs.room.runtime)
+    implementation(libs.androidx.sqlite.framework)
     implementation(libs.androidx.activity)
     annotationProcessor(libs.room.compiler)
 
+    implementation(libs.paging.runtime)
+    implementation(libs.paging.guava)
+    implementation(libs.guava)
+
     implementation(libs.dagger)
     annotationProcessor(libs.dagger.compiler)
 
     testImplementation(libs.junit)
+    testImplementation(libs.sqlite.jdbc)
     androidTestImplementation(libs.junit.v113)
     androidTestImplementation(libs.espresso.core.v340)
 
@@ -0,0 +1,155 @@
+package com.roosoars.taskflow.db;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteConstraintException;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Deletes every category twice at once, half of them with their tasks and half keeping them,
+ * while other threads insert tasks into them and read the counts. Each delete runs in one
+ * transaction, so racing deletes never return the same task and no task is left pointing at a
+ * deleted category.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CategoryDeleteStressTest {
+
+    private static final int TASKS = 20_000;
+    private static final int RACERS = 2;
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int INSERTS = 200;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private AppDatabase database;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        database = TestDatabase.seeded(TASKS, 5);
+        executor = Executors.newFixedThreadPool(TestDatabase.CATEGORY_COUNT * RACERS + WRITERS + READERS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        database.close();
+    }
+
+    @Test
+    public void racingDeletes_leaveNoOrphansAndReturnEachTaskOnce() throws Exception {
+        CategoryDao categoryDao = database.categoryDao();
+        TaskDao taskDao = database.taskDao();
+        Set<Long> keptTaskIds = new HashSet<>();
+        for (long categoryId = 1; categoryId <= TestDatabase.CATEGORY_COUNT; categoryId++) {
+            if (!deletesTasks(categoryId)) {
+                keptTaskIds.addAll(categoryDao.getTaskIdsForCategory(categoryId));
+            }
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Long>>> deletes = new ArrayList<>();
+        List<Future<?>> others = new ArrayList<>();
+        for (long categoryId = 1; categoryId <= TestDatabase.CATEGORY_COUNT; categoryId++) {
+            Category category = new Category("Category " + categoryId, (int) categoryId);
+            category.setId(categoryId);
+            boolean withTasks = deletesTasks(categoryId);
+            for (int racer = 0; racer < RACERS; racer++) {
+                deletes.add(executor.submit(gated(start, () -> {
+                    if (withTasks) {
+                        return categoryDao.deleteWithTasks(category);
+                    }
+                    categoryDao.deleteKeepingTasks(category);
+                    return new ArrayList<>();
+                })));
+            }
+        }
+        for (int writer = 0; writer < WRITERS; writer++) {
+            Random random = new Random(writer);
+            others.add(executor.submit(gated(start, () -> {
+                for (int i = 0; i < INSERTS; i++) {
+                    long categoryId = 1 + random.nextInt(TestDatabase.CATEGORY_COUNT);
+                    try {
+                        taskDao.insert(new Task("stress " + i, new Date(TestDatabase.NOW), 1,
+                                categoryId, "regular"));
+                    } catch (SQLiteConstraintException deleted) {
+                        // The category is already gone; the foreign key rejects the task.
+                    }
+                }
+                return null;
+            })));
+        }
+        for (int reader = 0; reader < READERS; reader++) {
+            others.add(executor.submit(gated(start, () -> {
+                for (int i = 0; i < INSERTS; i++) {
+                    taskDao.countByCategory();
+                }
+                return null;
+            })));
+        }
+
+        start.countDown();
+        Set<Long> deletedTaskIds = new HashSet<>();
+        for (Future<List<Long>> delete : deletes) {
+            for (long taskId : delete.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                assertTrue("task " + taskId + " returned twice", deletedTaskIds.add(taskId));
+            }
+        }
+        for (Future<?> other : others) {
+            other.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        assertEquals(0, count("SELECT COUNT(*) FROM categories"));
+        assertEquals(0, count("SELECT COUNT(*) FROM tasks WHERE categoryId IS NOT NULL"));
+        assertTrue(deletedTaskIds.size() > 0);
+        for (long taskId : deletedTaskIds) {
+            assertEquals(0, count("SELECT COUNT(*) FROM tasks WHERE id = " + taskId));
+        }
+        for (long taskId : keptTaskIds) {
+            assertEquals(1, count("SELECT COUNT(*) FROM tasks WHERE id = " + taskId));
+        }
+    }
+
+    private static boolean deletesTasks(long categoryId) {
+        return categoryId % 2 == 1;
+    }
+
+    private static <T> Callable<T> gated(CountDownLatch start, Callable<T> work) {
+        return () -> {
+            start.await();
+            return work.call();
+        };
+    }
+
+    private long count(String sql) {
+        try (Cursor cursor = database.query(sql, null)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.roosoars.taskflow.db;
+
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertFalse;
+
+
+/**
+ * The task lists are read in index order, at a table size where a sort would show. The shapes
+ * Task leaves to a sort are not listed here.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskQueryPlanTest {
+
+    private static final int TASKS = 100_000;
+    private static final int PAGE_SIZE = 50;
+
+    private AppDatabase database;
+
+    @Before
+    public void setUp() {
+        database = TestDatabase.seeded(TASKS, 7);
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void filteredListsAreReadInIndexOrder() {
+        for (TaskQuery list : new TaskQuery[]{TaskQuery.all(), TaskQuery.pending(), TaskQuery.completed()}) {
+            for (TaskQuery.SortKey sortKey : TaskQuery.SortKey.values()) {
+                TaskQuery query = list.sortedBy(sortKey);
+                assertNoSort(query);
+                assertNoSort(query.firstPage(PAGE_SIZE));
+                assertNoSort(query.count());
+            }
+        }
+    }
+
+    @Test
+    public void categoryAndTypeListsAreReadInIndexOrder() {
+        for (TaskQuery list : new TaskQuery[]{TaskQuery.inCategory(1), TaskQuery.ofType("project")}) {
+            TaskQuery query = list.sortedBy(TaskQuery.SortKey.DATE);
+            assertNoSort(query);
+            assertNoSort(query.firstPage(PAGE_SIZE));
+            assertNoSort(query.count());
+        }
+    }
+
+    @Test
+    public void categoryCountsAreReadInIndexOrder() {
+        String plan = plan("SELECT categoryId AS groupKey, COUNT(*) AS count FROM tasks GROUP BY categoryId",
+                new Object[0]);
+        assertFalse(plan, plan.contains("TEMP B-TREE"));
+    }
+
+    private void assertNoSort(TaskQuery query) {
+        String plan = plan(query.getSql(), query.getArgs());
+        assertFalse(query.getSql() + "\n" + plan, plan.contains("TEMP B-TREE"));
+        assertFalse(query.getSql() + "\n" + plan, plan.matches("(?s).*SCAN tasks\\s*\n.*"));
+    }
+
+    private String plan(String sql, Object[] args) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = database.query("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
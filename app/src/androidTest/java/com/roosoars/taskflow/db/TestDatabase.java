@@ -0,0 +1,75 @@
+package com.roosoars.taskflow.db;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import java.util.Random;
+
+
+/**
+ * In-memory AppDatabase for instrumented tests, filled with deterministic synthetic tasks.
+ */
+public final class TestDatabase {
+
+    public static final long NOW = 1_700_000_000_000L;
+    public static final int CATEGORY_COUNT = 8;
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final String[] WORDS = {
+            "review", "report", "call", "email", "fix", "deploy", "plan", "meeting",
+            "invoice", "design", "draft", "update", "backup", "refactor", "groceries", "gym"
+    };
+
+    private TestDatabase() {
+    }
+
+    public static AppDatabase create() {
+        return Room.inMemoryDatabaseBuilder(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext(), AppDatabase.class)
+                .build();
+    }
+
+    /** A database with {@link #CATEGORY_COUNT} categories and {@code tasks} tasks. */
+    public static AppDatabase seeded(int tasks, long seed) {
+        AppDatabase database = create();
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        Random random = new Random(seed);
+        db.beginTransaction();
+        try {
+            for (int i = 1; i <= CATEGORY_COUNT; i++) {
+                db.execSQL("INSERT INTO categories (id, name, color) VALUES (?, ?, ?)",
+                        new Object[]{i, "Category " + i, i});
+            }
+            SupportSQLiteStatement insert = db.compileStatement("INSERT INTO tasks"
+                    + " (title, description, dueDate, priority, categoryId, completed, type)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?)");
+            for (int i = 0; i < tasks; i++) {
+                insert.clearBindings();
+                insert.bindString(1, title(random));
+                if (random.nextInt(3) != 0) {
+                    insert.bindString(2, title(random) + " " + title(random));
+                }
+                if (random.nextInt(10) != 0) {
+                    insert.bindLong(3, NOW + (long) ((random.nextDouble() - 0.5) * 120 * DAY));
+                }
+                insert.bindLong(4, random.nextInt(3));
+                if (random.nextInt(10) != 0) {
+                    insert.bindLong(5, 1 + random.nextInt(CATEGORY_COUNT));
+                }
+                insert.bindLong(6, random.nextInt(4) == 0 ? 1 : 0);
+                insert.bindString(7, random.nextInt(5) == 0 ? "project" : "regular");
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return database;
+    }
+
+    private static String title(Random random) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+    }
+}
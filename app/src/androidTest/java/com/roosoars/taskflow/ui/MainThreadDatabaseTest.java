@@ -0,0 +1,103 @@
+package com.roosoars.taskflow.ui;
+
+import android.app.Instrumentation;
+import android.os.StrictMode;
+import android.os.strictmode.Violation;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.roosoars.taskflow.R;
+import com.roosoars.taskflow.db.AppDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static androidx.test.espresso.Espresso.onView;
+import static androidx.test.espresso.action.ViewActions.click;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Opens the task and category screens under a StrictMode policy that records disk access on the
+ * main thread, and fails on any that came from the database. Debuggable builds crash on these.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MainThreadDatabaseTest {
+
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private final List<Violation> violations = new CopyOnWriteArrayList<>();
+    private StrictMode.ThreadPolicy appPolicy;
+
+    @Before
+    public void setUp() {
+        instrumentation.runOnMainSync(() -> {
+            appPolicy = StrictMode.getThreadPolicy();
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectDiskReads()
+                    .detectDiskWrites()
+                    .penaltyListener(Runnable::run, violations::add)
+                    .build());
+        });
+    }
+
+    @After
+    public void tearDown() {
+        instrumentation.runOnMainSync(() -> StrictMode.setThreadPolicy(appPolicy));
+    }
+
+    @Test
+    public void taskAndCategoryScreens_neverQueryOnTheMainThread() throws InterruptedException {
+        try (ActivityScenario<MainActivity> ignored = ActivityScenario.launch(MainActivity.class)) {
+            settle();
+            onView(withId(R.id.categoryFragment)).perform(click());
+            settle();
+            onView(withId(R.id.taskListFragment)).perform(click());
+            settle();
+        }
+
+        for (Violation violation : violations) {
+            if (fromDatabase(violation)) {
+                throw new AssertionError("Database access on the main thread", violation);
+            }
+        }
+    }
+
+    // Lets queued queries finish and their results reach the main thread.
+    private void settle() throws InterruptedException {
+        for (int round = 0; round < 2; round++) {
+            drain(AppDatabase.databaseWriteExecutor);
+            drain(AppDatabase.databaseReadExecutor);
+            instrumentation.waitForIdleSync();
+        }
+    }
+
+    private static void drain(Executor executor) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(done::countDown);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    private static boolean fromDatabase(Violation violation) {
+        for (StackTraceElement frame : violation.getStackTrace()) {
+            String className = frame.getClassName();
+            if (className.startsWith("android.database.sqlite.")
+                    || className.startsWith("androidx.sqlite.")
+                    || className.startsWith("androidx.room.")
+                    || className.startsWith("com.roosoars.taskflow.db.")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
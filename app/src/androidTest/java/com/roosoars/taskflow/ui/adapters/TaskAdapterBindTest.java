@@ -0,0 +1,167 @@
+package com.roosoars.taskflow.ui.adapters;
+
+import android.app.Instrumentation;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.model.TaskWithCategory;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Counts the rows TaskAdapter rebinds after an edit, as the notifications its differ dispatches:
+ * a change without payload is a full bind, one with a payload rebinds only the flagged views.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskAdapterBindTest {
+
+    private static final int ROWS = 200;
+    private static final int CATEGORIES = 4;
+
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private final List<Object> payloads = new ArrayList<>();
+    private TaskAdapter adapter;
+    private int fullBinds;
+    private int structuralChanges;
+
+    @Before
+    public void setUp() throws InterruptedException {
+        instrumentation.runOnMainSync(() -> {
+            adapter = new TaskAdapter(instrumentation.getTargetContext(), null);
+            adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+                @Override
+                public void onItemRangeChanged(int positionStart, int itemCount) {
+                    fullBinds += itemCount;
+                }
+
+                @Override
+                public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+                    if (payload == null) {
+                        fullBinds += itemCount;
+                        return;
+                    }
+                    for (int i = 0; i < itemCount; i++) {
+                        payloads.add(payload);
+                    }
+                }
+
+                @Override
+                public void onItemRangeInserted(int positionStart, int itemCount) {
+                    structuralChanges++;
+                }
+
+                @Override
+                public void onItemRangeRemoved(int positionStart, int itemCount) {
+                    structuralChanges++;
+                }
+
+                @Override
+                public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                    structuralChanges++;
+                }
+            });
+        });
+        submit(rows(task -> { }, null));
+        instrumentation.runOnMainSync(() -> {
+            payloads.clear();
+            fullBinds = 0;
+            structuralChanges = 0;
+        });
+    }
+
+    @Test
+    public void unchangedList_rebindsNothing() throws InterruptedException {
+        submit(rows(task -> { }, null));
+
+        assertBinds(0, 0);
+    }
+
+    @Test
+    public void completingOneTask_rebindsOnlyItsCompletion() throws InterruptedException {
+        submit(rows(task -> task.setCompleted(task.getId() == 42), null));
+
+        assertBinds(0, 1);
+        assertEquals(TaskDiff.COMPLETED, payloads.get(0));
+    }
+
+    @Test
+    public void changingPriority_flagsNothingTheRowDraws() throws InterruptedException {
+        submit(rows(task -> task.setPriority(task.getId() == 7 ? 2 : task.getPriority()), null));
+
+        assertBinds(0, 1);
+        assertEquals(TaskDiff.PRIORITY, payloads.get(0));
+    }
+
+    @Test
+    public void editingSeveralFields_sendsTheirFlagsInOnePayload() throws InterruptedException {
+        submit(rows(task -> {
+            if (task.getId() == 3) {
+                task.setTitle("renamed");
+                task.setDueDate(new Date(0));
+            }
+        }, null));
+
+        assertBinds(0, 1);
+        assertEquals(TaskDiff.TITLE | TaskDiff.DUE_DATE, payloads.get(0));
+    }
+
+    @Test
+    public void renamingACategory_rebindsOnlyItsRowsCategory() throws InterruptedException {
+        submit(rows(task -> { }, "renamed"));
+
+        assertBinds(0, ROWS / CATEGORIES);
+        for (Object payload : payloads) {
+            assertEquals(TaskDiff.CATEGORY, payload);
+        }
+    }
+
+    private void assertBinds(int expectedFull, int expectedPartial) {
+        instrumentation.runOnMainSync(() -> {
+            assertEquals(0, structuralChanges);
+            assertEquals(expectedFull, fullBinds);
+            assertEquals(expectedPartial, payloads.size());
+        });
+    }
+
+    private void submit(List<TaskRowModel> rows) throws InterruptedException {
+        CountDownLatch committed = new CountDownLatch(1);
+        instrumentation.runOnMainSync(() -> adapter.submitList(rows, committed::countDown));
+        assertTrue(committed.await(5, TimeUnit.SECONDS));
+    }
+
+    // A fresh copy of the list every time, as the database would emit it; edit changes one copy.
+    private static List<TaskRowModel> rows(Consumer<Task> edit, @Nullable String firstCategoryName) {
+        List<TaskRowModel> rows = new ArrayList<>(ROWS);
+        for (int i = 1; i <= ROWS; i++) {
+            long categoryId = i % CATEGORIES + 1;
+            Task task = new Task("task " + i, new Date(1_700_000_000_000L + i * 60_000L), 0, categoryId, "regular");
+            task.setId(i);
+            edit.accept(task);
+            String categoryName = categoryId == 1 && firstCategoryName != null
+                    ? firstCategoryName : "category " + categoryId;
+            Category category = new Category(categoryName, (int) categoryId);
+            category.setId(categoryId);
+            rows.add(new TaskRowModel(new TaskWithCategory(task, category), "01/01", "01/01",
+                    0, 0, 0, categoryName, category.getColor(), Long.MAX_VALUE));
+        }
+        return rows;
+    }
+}
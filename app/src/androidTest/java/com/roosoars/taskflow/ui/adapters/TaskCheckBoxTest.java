@@ -0,0 +1,173 @@
+package com.roosoars.taskflow.ui.adapters;
+
+import android.app.Instrumentation;
+import android.database.Cursor;
+import android.view.ContextThemeWrapper;
+import android.widget.FrameLayout;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.roosoars.taskflow.R;
+import com.roosoars.taskflow.changes.ChangeLog;
+import com.roosoars.taskflow.changes.OverdueCounter;
+import com.roosoars.taskflow.db.AppDatabase;
+import com.roosoars.taskflow.db.TestDatabase;
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.model.TaskWithCategory;
+import com.roosoars.taskflow.observer.TaskObserver;
+import com.roosoars.taskflow.observer.TaskStatusClock;
+import com.roosoars.taskflow.repository.TaskRepository;
+import com.roosoars.taskflow.repository.TaskWriteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Ticks the checkbox of a bound row, wired to the repository as TaskListFragment wires it, and
+ * reads back what reached the database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskCheckBoxTest {
+
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private AppDatabase database;
+    private TaskRepository repository;
+
+    @Before
+    public void setUp() {
+        database = TestDatabase.create();
+        TaskObserver taskObserver = new TaskObserver();
+        TaskStatusClock statusClock = new TaskStatusClock(database);
+        repository = new TaskRepository(database, taskObserver, new TaskWriteBuffer(database, taskObserver),
+                statusClock, new OverdueCounter(database, new ChangeLog(database), statusClock));
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void tickingARecurringTask_completesItAndCreatesTheNextOccurrence() throws InterruptedException {
+        Task task = insert("weekly review", "FREQ=WEEKLY;COUNT=3");
+
+        tick(task);
+
+        Task saved = load(task.getId());
+        assertTrue(saved.isCompleted());
+        assertNull(saved.getRecurrenceRule());
+        long nextDue = ZonedDateTime.ofInstant(Instant.ofEpochMilli(TestDatabase.NOW), ZoneId.systemDefault())
+                .plusWeeks(1).toInstant().toEpochMilli();
+        try (Cursor next = database.query("SELECT dueDate, recurrenceRule, completed FROM tasks"
+                + " WHERE id != ?", new Object[]{task.getId()})) {
+            assertEquals(1, next.getCount());
+            next.moveToFirst();
+            assertEquals(nextDue, next.getLong(0));
+            assertEquals("FREQ=WEEKLY;COUNT=2", next.getString(1));
+            assertEquals(0, next.getInt(2));
+        }
+        // The row's task is the UI's: the list finds the change by comparing it with the new row.
+        assertFalse(task.isCompleted());
+
+        assertTrue(repository.undo());
+        settle();
+        saved = load(task.getId());
+        assertFalse(saved.isCompleted());
+        assertEquals("FREQ=WEEKLY;COUNT=3", saved.getRecurrenceRule());
+        assertEquals(1, count());
+    }
+
+    @Test
+    public void tickingAndUntickingATask_savesBothStates() throws InterruptedException {
+        Task task = insert("one-off", null);
+
+        tick(task);
+        Task completed = load(task.getId());
+        assertTrue(completed.isCompleted());
+
+        tick(completed);
+        assertFalse(load(task.getId()).isCompleted());
+        assertEquals(1, count());
+    }
+
+    private Task insert(String title, String recurrenceRule) {
+        Task task = new Task(title, new Date(TestDatabase.NOW), 1, null, "regular");
+        task.setRecurrenceRule(recurrenceRule);
+        task.setId(database.taskDao().insert(task));
+        return task;
+    }
+
+    // Binds the task to a row and clicks its checkbox, then waits for the write to commit.
+    private void tick(Task task) throws InterruptedException {
+        instrumentation.runOnMainSync(() -> {
+            TaskAdapter adapter = new TaskAdapter(instrumentation.getTargetContext(), new Listener());
+            FrameLayout parent = new FrameLayout(
+                    new ContextThemeWrapper(instrumentation.getTargetContext(), R.style.AppTheme));
+            TaskViewHolder holder = adapter.onCreateViewHolder(parent, 0);
+            holder.bind(new TaskRowModel(new TaskWithCategory(task, null), "01/01", "01/01",
+                    0, 0, 0, null, 0, Long.MAX_VALUE));
+            holder.itemView.findViewById(R.id.checkbox_completed).performClick();
+        });
+        settle();
+    }
+
+    private void settle() throws InterruptedException {
+        repository.flushPendingWrites();
+        CountDownLatch done = new CountDownLatch(1);
+        AppDatabase.databaseWriteExecutor.execute(done::countDown);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    private Task load(long taskId) {
+        return database.taskDao().getTasksByIdsSync(Collections.singletonList(taskId)).get(0);
+    }
+
+    private long count() {
+        try (Cursor cursor = database.query("SELECT COUNT(*) FROM tasks", null)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+
+    // What TaskListFragment does with a tick; the rest of the list's callbacks are not used here.
+    private class Listener implements TaskAdapter.OnTaskClickListener {
+        @Override
+        public void onTaskClick(TaskWithCategory taskWithCategory) {
+        }
+
+        @Override
+        public void onTaskLongClick(TaskWithCategory taskWithCategory) {
+        }
+
+        @Override
+        public void onTaskCheckedChange(Task task, boolean isChecked) {
+            repository.toggleTaskCompletion(task);
+        }
+
+        @Override
+        public void onTaskSwiped(Task task, int direction) {
+        }
+
+        @Override
+        public boolean isTaskSelected(Task task) {
+            return false;
+        }
+    }
+}
@@ -1,24 +1,75 @@
 package com.roosoars.taskflow;
 
 import android.app.Application;
+import android.content.pm.ApplicationInfo;
+import android.os.StrictMode;
 
+import com.roosoars.taskflow.db.AppDatabase;
 import com.roosoars.taskflow.di.AppComponent;
 import com.roosoars.taskflow.di.DaggerAppComponent;
+import com.roosoars.taskflow.reminder.ReminderScheduler;
+import com.roosoars.taskflow.repository.TaskRepository;
+import com.roosoars.taskflow.sync.SyncManager;
+
+import java.io.File;
+
+import javax.inject.Inject;
 
 
 public class TaskFlowApplication extends Application {
 
+    // Query metrics report of debuggable builds, in the app's files dir:
+    // adb shell run-as com.roosoars.taskflow cat files/query-metrics.tsv
+    private static final String QUERY_METRICS_FILE = "query-metrics.tsv";
+
     private AppComponent appComponent;
 
+    @Inject
+    TaskRepository taskRepository;
+
+    @Inject
+    ReminderScheduler reminderScheduler;
+
+    @Inject
+    SyncManager syncManager;
+
     @Override
     public void onCreate() {
         super.onCreate();
 
+        // Debuggable builds crash on any disk or network access on the main thread, database
+        // queries included, after logging where it happened.
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectDiskReads()
+                    .detectDiskWrites()
+                    .detectNetwork()
+                    .penaltyLog()
+                    .penaltyDeath()
+                    .build());
+        }
+
         appComponent = DaggerAppComponent.builder()
                 .application(this)
                 .build();
 
         appComponent.inject(this);
+        taskRepository.loadTaskIndex();
+        reminderScheduler.start();
+        syncManager.start();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // UI_HIDDEN arrives when the last screen leaves the foreground: commit buffered edits now.
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            taskRepository.flushPendingWrites();
+            if (AppDatabase.queryMetrics.isEnabled()) {
+                File report = new File(getFilesDir(), QUERY_METRICS_FILE);
+                AppDatabase.databaseReadExecutor.execute(() -> AppDatabase.queryMetrics.writeReport(report));
+            }
+        }
     }
 
     public AppComponent getAppComponent() {
@@ -0,0 +1,108 @@
+package com.roosoars.taskflow.backup;
+
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+
+
+/**
+ * Column layout shared by the text formats. A record is a {@code String[]} indexed by these
+ * constants, with null for absent values; numbers and booleans are kept as their literals.
+ */
+final class BackupColumns {
+
+    static final String KIND_CATEGORY = "category";
+    static final String KIND_TASK = "task";
+
+    static final String[] NAMES = {
+            "kind", "id", "name", "color", "title", "description",
+            "dueDate", "priority", "categoryId", "completed", "type", "recurrenceRule"
+    };
+
+    static final int KIND = 0;
+    static final int ID = 1;
+    static final int NAME = 2;
+    static final int COLOR = 3;
+    static final int TITLE = 4;
+    static final int DESCRIPTION = 5;
+    static final int DUE_DATE = 6;
+    static final int PRIORITY = 7;
+    static final int CATEGORY_ID = 8;
+    static final int COMPLETED = 9;
+    static final int TYPE = 10;
+    static final int RECURRENCE_RULE = 11;
+
+    private BackupColumns() {
+    }
+
+    static int indexOf(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static void fromCategory(Category category, String[] values) {
+        Arrays.fill(values, null);
+        values[KIND] = KIND_CATEGORY;
+        values[ID] = Long.toString(category.getId());
+        values[NAME] = category.getName();
+        values[COLOR] = Integer.toString(category.getColor());
+    }
+
+    static void fromTask(Task task, String[] values) {
+        Arrays.fill(values, null);
+        values[KIND] = KIND_TASK;
+        values[ID] = Long.toString(task.getId());
+        values[TITLE] = task.getTitle();
+        values[DESCRIPTION] = task.getDescription();
+        values[DUE_DATE] = task.getDueDate() != null ? Long.toString(task.getDueDate().getTime()) : null;
+        values[PRIORITY] = Integer.toString(task.getPriority());
+        values[CATEGORY_ID] = task.getCategoryId() != null ? Long.toString(task.getCategoryId()) : null;
+        values[COMPLETED] = task.isCompleted() ? "true" : "false";
+        values[TYPE] = task.getType();
+        values[RECURRENCE_RULE] = task.getRecurrenceRule();
+    }
+
+    /** Hands the record to {@code sink}; returns false for kinds this version does not know. */
+    static boolean dispatch(String[] values, BackupSink sink) throws IOException {
+        try {
+            if (KIND_CATEGORY.equals(values[KIND])) {
+                Category category = new Category(values[NAME], parseInt(values[COLOR], 0));
+                category.setId(parseLong(values[ID], 0));
+                sink.onCategory(category);
+                return true;
+            }
+            if (KIND_TASK.equals(values[KIND])) {
+                Task task = new Task();
+                task.setId(parseLong(values[ID], 0));
+                task.setTitle(values[TITLE]);
+                task.setDescription(values[DESCRIPTION]);
+                task.setDueDate(values[DUE_DATE] != null ? new Date(Long.parseLong(values[DUE_DATE])) : null);
+                task.setPriority(parseInt(values[PRIORITY], 1));
+                task.setCategoryId(values[CATEGORY_ID] != null ? Long.parseLong(values[CATEGORY_ID]) : null);
+                task.setCompleted(Boolean.parseBoolean(values[COMPLETED]));
+                task.setType(values[TYPE]);
+                task.setRecurrenceRule(values[RECURRENCE_RULE]);
+                sink.onTask(task);
+                return true;
+            }
+            return false;
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed number in " + values[KIND] + " record", e);
+        }
+    }
+
+    private static long parseLong(String value, long fallback) {
+        return value != null ? Long.parseLong(value) : fallback;
+    }
+
+    private static int parseInt(String value, int fallback) {
+        return value != null ? Integer.parseInt(value) : fallback;
+    }
+}
@@ -0,0 +1,69 @@
+package com.roosoars.taskflow.backup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+
+public enum BackupFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv"),
+    BINARY("application/octet-stream", "tfb");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String mimeType;
+    private final String extension;
+
+    BackupFormat(String mimeType, String extension) {
+        this.mimeType = mimeType;
+        this.extension = extension;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /** Guesses the format from the first byte; {@code in} must support mark/reset. */
+    public static BackupFormat detect(InputStream in) throws IOException {
+        in.mark(1);
+        int first = in.read();
+        in.reset();
+        if (first == BinaryBackupWriter.MAGIC[0]) {
+            return BINARY;
+        }
+        return first == '{' ? NDJSON : CSV;
+    }
+
+    public BackupWriter newWriter(OutputStream out) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        switch (this) {
+            case CSV:
+                return new CsvBackupWriter(buffered);
+            case BINARY:
+                return new BinaryBackupWriter(buffered);
+            case NDJSON:
+            default:
+                return new NdjsonBackupWriter(buffered);
+        }
+    }
+
+    public BackupReader newReader(InputStream in) throws IOException {
+        InputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        switch (this) {
+            case CSV:
+                return new CsvBackupReader(buffered);
+            case BINARY:
+                return new BinaryBackupReader(buffered);
+            case NDJSON:
+            default:
+                return new NdjsonBackupReader(buffered);
+        }
+    }
+}
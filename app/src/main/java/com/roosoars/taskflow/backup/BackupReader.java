@@ -0,0 +1,11 @@
+package com.roosoars.taskflow.backup;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+
+public interface BackupReader extends Closeable {
+
+    /** Parses the next record into {@code sink}; returns false once the stream is exhausted. */
+    boolean next(BackupSink sink) throws IOException;
+}
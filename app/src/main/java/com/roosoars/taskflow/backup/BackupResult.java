@@ -0,0 +1,38 @@
+package com.roosoars.taskflow.backup;
+
+import androidx.annotation.NonNull;
+
+
+public class BackupResult {
+    private final int categories;
+    private final long tasks;
+    private final long elapsedMillis;
+
+    public BackupResult(int categories, long tasks, long elapsedMillis) {
+        this.categories = categories;
+        this.tasks = tasks;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getCategories() {
+        return categories;
+    }
+
+    public long getTasks() {
+        return tasks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getTasksPerSecond() {
+        return elapsedMillis > 0 ? tasks * 1000 / elapsedMillis : tasks;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return categories + " categories, " + tasks + " tasks in " + elapsedMillis + " ms";
+    }
+}
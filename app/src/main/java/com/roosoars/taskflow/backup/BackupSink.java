@@ -0,0 +1,10 @@
+package com.roosoars.taskflow.backup;
+
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+
+
+public interface BackupSink {
+    void onCategory(Category category);
+    void onTask(Task task);
+}
@@ -0,0 +1,17 @@
+package com.roosoars.taskflow.backup;
+
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+
+/**
+ * Writes one record at a time to a buffered stream. Categories are written before tasks so an
+ * importer can remap category ids as it goes.
+ */
+public interface BackupWriter extends Closeable {
+    void writeCategory(Category category) throws IOException;
+    void writeTask(Task task) throws IOException;
+}
@@ -0,0 +1,148 @@
+package com.roosoars.taskflow.backup;
+
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+
+
+public class BinaryBackupReader implements BackupReader {
+
+    private final InputStream in;
+    private byte[] record = new byte[256];
+    private int position;
+    private int limit;
+
+    public BinaryBackupReader(InputStream in) throws IOException {
+        this.in = in;
+        byte[] header = new byte[BinaryBackupWriter.MAGIC.length + 1];
+        readFully(header, header.length);
+        if (!Arrays.equals(Arrays.copyOf(header, BinaryBackupWriter.MAGIC.length), BinaryBackupWriter.MAGIC)) {
+            throw new IOException("Not a TaskFlow binary backup");
+        }
+        if (header[header.length - 1] > BinaryBackupWriter.VERSION) {
+            throw new IOException("Unsupported backup version " + header[header.length - 1]);
+        }
+    }
+
+    @Override
+    public boolean next(BackupSink sink) throws IOException {
+        while (true) {
+            long size = readLengthPrefix();
+            if (size < 0) {
+                return false;
+            }
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IOException("Corrupt record length " + size);
+            }
+            if (record.length < size) {
+                record = new byte[Math.max(record.length * 2, (int) size)];
+            }
+            readFully(record, (int) size);
+            position = 0;
+            limit = (int) size;
+
+            int tag = (int) getVarint();
+            if (tag == BinaryBackupWriter.TAG_CATEGORY) {
+                sink.onCategory(readCategory());
+                return true;
+            } else if (tag == BinaryBackupWriter.TAG_TASK) {
+                sink.onTask(readTask());
+                return true;
+            }
+            // Unknown record types from a newer writer are skipped.
+        }
+    }
+
+    private Category readCategory() throws IOException {
+        long id = unZigZag(getVarint());
+        String name = getString();
+        Category category = new Category(name, (int) unZigZag(getVarint()));
+        category.setId(id);
+        return category;
+    }
+
+    private Task readTask() throws IOException {
+        Task task = new Task();
+        task.setId(unZigZag(getVarint()));
+        int flags = (int) getVarint();
+        task.setPriority((int) unZigZag(getVarint()));
+        task.setCompleted((flags & BinaryBackupWriter.FLAG_COMPLETED) != 0);
+        if ((flags & BinaryBackupWriter.FLAG_TITLE) != 0) task.setTitle(getString());
+        if ((flags & BinaryBackupWriter.FLAG_DESCRIPTION) != 0) task.setDescription(getString());
+        if ((flags & BinaryBackupWriter.FLAG_DUE_DATE) != 0) task.setDueDate(new Date(unZigZag(getVarint())));
+        if ((flags & BinaryBackupWriter.FLAG_CATEGORY) != 0) task.setCategoryId(unZigZag(getVarint()));
+        if ((flags & BinaryBackupWriter.FLAG_TYPE) != 0) task.setType(getString());
+        if ((flags & BinaryBackupWriter.FLAG_RECURRENCE_RULE) != 0) task.setRecurrenceRule(getString());
+        return task;
+    }
+
+    // -1 at a clean end of stream.
+    private long readLengthPrefix() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0) {
+                    return -1;
+                }
+                throw new EOFException("Truncated record length");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private long getVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= limit) {
+                throw new EOFException("Truncated record");
+            }
+            byte b = record[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private String getString() throws IOException {
+        int size = (int) getVarint();
+        if (size < 0 || position + size > limit) {
+            throw new EOFException("Truncated string");
+        }
+        String value = new String(record, position, size, StandardCharsets.UTF_8);
+        position += size;
+        return value;
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private void readFully(byte[] buffer, int size) throws IOException {
+        int read = 0;
+        while (read < size) {
+            int n = in.read(buffer, read, size - read);
+            if (n < 0) {
+                throw new EOFException("Truncated backup");
+            }
+            read += n;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
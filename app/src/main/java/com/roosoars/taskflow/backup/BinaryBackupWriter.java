@@ -0,0 +1,120 @@
+package com.roosoars.taskflow.backup;
+
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+
+/**
+ * Compact binary format: a {@code TFB} magic and version byte, then one record per entry as a
+ * varint byte length followed by a tag byte and the fields. Numbers are zig-zag varints and
+ * strings are length-prefixed UTF-8, so a typical task takes a few dozen bytes. The length
+ * prefix lets older readers skip fields appended by newer versions.
+ */
+public class BinaryBackupWriter implements BackupWriter {
+
+    static final byte[] MAGIC = {'T', 'F', 'B'};
+    static final int VERSION = 1;
+
+    static final int TAG_CATEGORY = 1;
+    static final int TAG_TASK = 2;
+
+    static final int FLAG_COMPLETED = 1;
+    static final int FLAG_DESCRIPTION = 1 << 1;
+    static final int FLAG_DUE_DATE = 1 << 2;
+    static final int FLAG_CATEGORY = 1 << 3;
+    static final int FLAG_TYPE = 1 << 4;
+    static final int FLAG_TITLE = 1 << 5;
+    static final int FLAG_RECURRENCE_RULE = 1 << 6;
+
+    private final OutputStream out;
+    private byte[] record = new byte[256];
+    private int length;
+
+    public BinaryBackupWriter(OutputStream out) throws IOException {
+        this.out = out;
+        out.write(MAGIC);
+        out.write(VERSION);
+    }
+
+    @Override
+    public void writeCategory(Category category) throws IOException {
+        length = 0;
+        putVarint(TAG_CATEGORY);
+        putVarint(zigZag(category.getId()));
+        putString(category.getName() != null ? category.getName() : "");
+        putVarint(zigZag(category.getColor()));
+        flushRecord();
+    }
+
+    @Override
+    public void writeTask(Task task) throws IOException {
+        length = 0;
+        int flags = 0;
+        if (task.isCompleted()) flags |= FLAG_COMPLETED;
+        if (task.getDescription() != null) flags |= FLAG_DESCRIPTION;
+        if (task.getDueDate() != null) flags |= FLAG_DUE_DATE;
+        if (task.getCategoryId() != null) flags |= FLAG_CATEGORY;
+        if (task.getType() != null) flags |= FLAG_TYPE;
+        if (task.getTitle() != null) flags |= FLAG_TITLE;
+        if (task.getRecurrenceRule() != null) flags |= FLAG_RECURRENCE_RULE;
+
+        putVarint(TAG_TASK);
+        putVarint(zigZag(task.getId()));
+        putVarint(flags);
+        putVarint(zigZag(task.getPriority()));
+        if (task.getTitle() != null) putString(task.getTitle());
+        if (task.getDescription() != null) putString(task.getDescription());
+        if (task.getDueDate() != null) putVarint(zigZag(task.getDueDate().getTime()));
+        if (task.getCategoryId() != null) putVarint(zigZag(task.getCategoryId()));
+        if (task.getType() != null) putString(task.getType());
+        if (task.getRecurrenceRule() != null) putString(task.getRecurrenceRule());
+        flushRecord();
+    }
+
+    private void flushRecord() throws IOException {
+        long size = length;
+        while ((size & ~0x7FL) != 0) {
+            out.write((int) ((size & 0x7F) | 0x80));
+            size >>>= 7;
+        }
+        out.write((int) size);
+        out.write(record, 0, length);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void putVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            record[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        record[length++] = (byte) value;
+    }
+
+    private void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarint(bytes.length);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, record, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > record.length) {
+            record = Arrays.copyOf(record, Math.max(record.length * 2, length + extra));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
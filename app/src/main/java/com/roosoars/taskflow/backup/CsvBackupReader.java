@@ -0,0 +1,121 @@
+package com.roosoars.taskflow.backup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Reads CSV written by {@link CsvBackupWriter}. Columns are matched by the header row, so
+ * reordered or extra columns are accepted. Quoted fields may span lines.
+ */
+public class CsvBackupReader implements BackupReader {
+
+    private final Reader in;
+    private final String[] values = new String[BackupColumns.NAMES.length];
+    private final List<String> row = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private final int[] columnMap;
+    private int pending = -2;
+    private long rowNumber;
+
+    public CsvBackupReader(InputStream in) throws IOException {
+        this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        if (!readRow()) {
+            throw new IOException("Empty CSV backup");
+        }
+        columnMap = new int[row.size()];
+        for (int i = 0; i < row.size(); i++) {
+            columnMap[i] = row.get(i) != null ? BackupColumns.indexOf(row.get(i).trim()) : -1;
+        }
+    }
+
+    @Override
+    public boolean next(BackupSink sink) throws IOException {
+        while (readRow()) {
+            if (row.size() == 1 && row.get(0) == null) {
+                continue;
+            }
+            Arrays.fill(values, null);
+            for (int i = 0; i < row.size() && i < columnMap.length; i++) {
+                if (columnMap[i] >= 0) {
+                    values[columnMap[i]] = row.get(i);
+                }
+            }
+            if (BackupColumns.dispatch(values, sink)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Fills row with the next record's fields, null for empty unquoted ones.
+    private boolean readRow() throws IOException {
+        row.clear();
+        int c = read();
+        if (c < 0) {
+            return false;
+        }
+        rowNumber++;
+        while (true) {
+            field.setLength(0);
+            boolean quoted = false;
+            if (c == '"') {
+                quoted = true;
+                while (true) {
+                    c = read();
+                    if (c < 0) {
+                        throw new IOException("Unterminated quoted field in row " + rowNumber);
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            break;
+                        }
+                    }
+                    field.append((char) c);
+                }
+            } else {
+                while (c >= 0 && c != ',' && c != '\n' && c != '\r') {
+                    field.append((char) c);
+                    c = read();
+                }
+            }
+            row.add(quoted || field.length() > 0 ? field.toString() : null);
+
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c == '\r') {
+                int after = read();
+                if (after != '\n') {
+                    pending = after;
+                }
+            } else if (c >= 0 && c != '\n') {
+                throw new IOException("Unexpected character after quoted field in row " + rowNumber);
+            }
+            return true;
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,73 @@
+package com.roosoars.taskflow.backup;
+
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * RFC 4180 CSV with a header row and one column per {@link BackupColumns} entry. Absent values
+ * are empty fields; an empty string is written as {@code ""} so the two stay distinct.
+ */
+public class CsvBackupWriter implements BackupWriter {
+
+    private final Writer out;
+    private final String[] values = new String[BackupColumns.NAMES.length];
+
+    public CsvBackupWriter(OutputStream out) throws IOException {
+        this.out = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writeRow(BackupColumns.NAMES);
+    }
+
+    @Override
+    public void writeCategory(Category category) throws IOException {
+        BackupColumns.fromCategory(category, values);
+        writeRow(values);
+    }
+
+    @Override
+    public void writeTask(Task task) throws IOException {
+        BackupColumns.fromTask(task, values);
+        writeRow(values);
+    }
+
+    private void writeRow(String[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String value = row[i];
+            if (value == null) {
+                continue;
+            }
+            if (value.isEmpty() || needsQuotes(value)) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write("\r\n");
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
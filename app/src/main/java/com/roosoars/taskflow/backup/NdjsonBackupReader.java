@@ -0,0 +1,160 @@
+package com.roosoars.taskflow.backup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+
+/**
+ * Reads the flat objects written by {@link NdjsonBackupWriter} one line at a time. Only flat
+ * objects with string, number, boolean or null values are accepted; unknown keys are ignored.
+ */
+public class NdjsonBackupReader implements BackupReader {
+
+    private final BufferedReader in;
+    private final String[] values = new String[BackupColumns.NAMES.length];
+    private final StringBuilder token = new StringBuilder();
+    private String line;
+    private int position;
+    private int lineNumber;
+
+    public NdjsonBackupReader(InputStream in) {
+        this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean next(BackupSink sink) throws IOException {
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            parseLine();
+            if (BackupColumns.dispatch(values, sink)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void parseLine() throws IOException {
+        Arrays.fill(values, null);
+        position = 0;
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return;
+        }
+        while (true) {
+            String key = readString();
+            expect(':');
+            String value = readValue();
+            int column = BackupColumns.indexOf(key);
+            if (column >= 0) {
+                values[column] = value;
+            }
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                return;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private String readValue() throws IOException {
+        skipWhitespace();
+        char c = peek();
+        if (c == '"') {
+            return readString();
+        }
+        int start = position;
+        while (position < line.length() && ",} \t".indexOf(line.charAt(position)) < 0) {
+            position++;
+        }
+        String literal = line.substring(start, position);
+        if (literal.isEmpty()) {
+            throw error("Expected a value");
+        }
+        if (c == '{' || c == '[') {
+            throw error("Nested values are not supported");
+        }
+        return "null".equals(literal) ? null : literal;
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        token.setLength(0);
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return token.toString();
+            }
+            if (c != '\\') {
+                token.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case 'n': token.append('\n'); break;
+                case 'r': token.append('\r'); break;
+                case 't': token.append('\t'); break;
+                case 'b': token.append('\b'); break;
+                case 'f': token.append('\f'); break;
+                case 'u':
+                    if (position + 4 > line.length()) {
+                        throw error("Truncated unicode escape");
+                    }
+                    try {
+                        token.append((char) Integer.parseInt(line.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Malformed unicode escape");
+                    }
+                    position += 4;
+                    break;
+                default: token.append(escaped);
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        skipWhitespace();
+        if (next() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+    }
+
+    private char peek() throws IOException {
+        if (position >= line.length()) {
+            throw error("Unexpected end of line");
+        }
+        return line.charAt(position);
+    }
+
+    private char next() throws IOException {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private IOException error(String message) {
+        return new IOException(message + " at line " + lineNumber + ", column " + (position + 1));
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,105 @@
+package com.roosoars.taskflow.backup;
+
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+
+/** One flat JSON object per line; numbers and booleans are written unquoted, absent values as null. */
+public class NdjsonBackupWriter implements BackupWriter {
+
+    private static final boolean[] QUOTED = new boolean[BackupColumns.NAMES.length];
+
+    static {
+        QUOTED[BackupColumns.KIND] = true;
+        QUOTED[BackupColumns.NAME] = true;
+        QUOTED[BackupColumns.TITLE] = true;
+        QUOTED[BackupColumns.DESCRIPTION] = true;
+        QUOTED[BackupColumns.TYPE] = true;
+        QUOTED[BackupColumns.RECURRENCE_RULE] = true;
+    }
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    private final String[] values = new String[BackupColumns.NAMES.length];
+
+    public NdjsonBackupWriter(OutputStream out) {
+        this.out = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void writeCategory(Category category) throws IOException {
+        BackupColumns.fromCategory(category, values);
+        writeRecord(BackupColumns.KIND, BackupColumns.ID, BackupColumns.NAME, BackupColumns.COLOR);
+    }
+
+    @Override
+    public void writeTask(Task task) throws IOException {
+        BackupColumns.fromTask(task, values);
+        writeRecord(BackupColumns.KIND, BackupColumns.ID, BackupColumns.TITLE, BackupColumns.DESCRIPTION,
+                BackupColumns.DUE_DATE, BackupColumns.PRIORITY, BackupColumns.CATEGORY_ID,
+                BackupColumns.COMPLETED, BackupColumns.TYPE, BackupColumns.RECURRENCE_RULE);
+    }
+
+    private void writeRecord(int... columns) throws IOException {
+        out.write('{');
+        for (int i = 0; i < columns.length; i++) {
+            int column = columns[i];
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write('"');
+            out.write(BackupColumns.NAMES[column]);
+            out.write("\":");
+            String value = values[column];
+            if (value == null) {
+                out.write("null");
+            } else if (QUOTED[column]) {
+                writeString(value);
+            } else {
+                out.write(value);
+            }
+        }
+        out.write("}\n");
+    }
+
+    private void writeString(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape;
+            if (c == '"') {
+                escape = "\\\"";
+            } else if (c == '\\') {
+                escape = "\\\\";
+            } else if (c == '\n') {
+                escape = "\\n";
+            } else if (c == '\r') {
+                escape = "\\r";
+            } else if (c == '\t') {
+                escape = "\\t";
+            } else if (c < 0x20) {
+                escape = "\\u00" + HEX[c >> 4] + HEX[c & 0xF];
+            } else {
+                continue;
+            }
+            out.write(value, start, i - start);
+            out.write(escape);
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
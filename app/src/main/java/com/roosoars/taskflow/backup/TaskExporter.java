@@ -0,0 +1,66 @@
+package com.roosoars.taskflow.backup;
+
+import android.database.Cursor;
+
+import com.roosoars.taskflow.db.AppDatabase;
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+
+
+/**
+ * Streams categories and then tasks from a cursor straight into a {@link BackupWriter}. Rows
+ * are copied into one reused entity each, so memory stays flat however many tasks there are.
+ */
+public class TaskExporter {
+
+    private static final String SELECT_CATEGORIES = "SELECT id, name, color FROM categories ORDER BY id";
+    private static final String SELECT_TASKS = "SELECT id, title, description, dueDate, priority,"
+            + " categoryId, completed, type, recurrenceRule FROM tasks ORDER BY id";
+
+    private final AppDatabase database;
+
+    public TaskExporter(AppDatabase database) {
+        this.database = database;
+    }
+
+    public BackupResult export(OutputStream out, BackupFormat format) throws IOException {
+        long start = System.currentTimeMillis();
+        int categories = 0;
+        long tasks = 0;
+
+        try (BackupWriter writer = format.newWriter(out)) {
+            Category category = new Category(null, 0);
+            try (Cursor cursor = database.query(SELECT_CATEGORIES, null)) {
+                while (cursor.moveToNext()) {
+                    category.setId(cursor.getLong(0));
+                    category.setName(cursor.getString(1));
+                    category.setColor(cursor.getInt(2));
+                    writer.writeCategory(category);
+                    categories++;
+                }
+            }
+
+            Task task = new Task();
+            try (Cursor cursor = database.query(SELECT_TASKS, null)) {
+                while (cursor.moveToNext()) {
+                    task.setId(cursor.getLong(0));
+                    task.setTitle(cursor.getString(1));
+                    task.setDescription(cursor.getString(2));
+                    task.setDueDate(cursor.isNull(3) ? null : new Date(cursor.getLong(3)));
+                    task.setPriority(cursor.getInt(4));
+                    task.setCategoryId(cursor.isNull(5) ? null : cursor.getLong(5));
+                    task.setCompleted(cursor.getInt(6) != 0);
+                    task.setType(cursor.getString(7));
+                    task.setRecurrenceRule(cursor.getString(8));
+                    writer.writeTask(task);
+                    tasks++;
+                }
+            }
+        }
+        return new BackupResult(categories, tasks, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,143 @@
+package com.roosoars.taskflow.backup;
+
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.roosoars.taskflow.db.AppDatabase;
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Reads a backup record by record and inserts it in transactions of {@link #BATCH_SIZE} rows
+ * through prepared statements. Imported rows get new ids: category ids are remapped as the
+ * categories are inserted and tasks pointing at a category missing from the backup lose it.
+ * No task events are sent, so callers refresh what keeps its own copy of the tasks, as
+ * BackupRepository does with the reminders. Must run on the database writer.
+ */
+public class TaskImporter {
+
+    public static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_CATEGORY = "INSERT INTO categories (name, color) VALUES (?, ?)";
+    private static final String INSERT_TASK = "INSERT INTO tasks (title, description, dueDate, priority,"
+            + " categoryId, completed, type, recurrenceRule) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final AppDatabase database;
+
+    public TaskImporter(AppDatabase database) {
+        this.database = database;
+    }
+
+    public BackupResult importFrom(InputStream in, BackupFormat format) throws IOException {
+        long start = System.currentTimeMillis();
+        Batch batch = new Batch();
+        try (BackupReader reader = format.newReader(in)) {
+            while (reader.next(batch)) {
+                if (batch.size() >= BATCH_SIZE) {
+                    batch.flush();
+                }
+            }
+            batch.flush();
+        }
+        return new BackupResult(batch.categoryIds.size(), batch.importedTasks,
+                System.currentTimeMillis() - start);
+    }
+
+    private class Batch implements BackupSink {
+        final Map<Long, Long> categoryIds = new HashMap<>();
+        final List<Category> categories = new ArrayList<>();
+        final List<Task> tasks = new ArrayList<>(BATCH_SIZE);
+        long importedTasks;
+
+        @Override
+        public void onCategory(Category category) {
+            categories.add(category);
+        }
+
+        @Override
+        public void onTask(Task task) {
+            tasks.add(task);
+        }
+
+        int size() {
+            return categories.size() + tasks.size();
+        }
+
+        // Categories go first: every task in the batch was read after the categories it uses.
+        void flush() {
+            if (size() == 0) {
+                return;
+            }
+            database.runInTransaction(() -> {
+                insertCategories();
+                insertTasks();
+            });
+            importedTasks += tasks.size();
+            categories.clear();
+            tasks.clear();
+        }
+
+        private void insertCategories() {
+            if (categories.isEmpty()) {
+                return;
+            }
+            try (SupportSQLiteStatement insert = database.compileStatement(INSERT_CATEGORY)) {
+                for (Category category : categories) {
+                    bindString(insert, 1, category.getName());
+                    insert.bindLong(2, category.getColor());
+                    categoryIds.put(category.getId(), insert.executeInsert());
+                    insert.clearBindings();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void insertTasks() {
+            if (tasks.isEmpty()) {
+                return;
+            }
+            try (SupportSQLiteStatement insert = database.compileStatement(INSERT_TASK)) {
+                for (Task task : tasks) {
+                    bindString(insert, 1, task.getTitle());
+                    bindString(insert, 2, task.getDescription());
+                    if (task.getDueDate() != null) {
+                        insert.bindLong(3, task.getDueDate().getTime());
+                    } else {
+                        insert.bindNull(3);
+                    }
+                    insert.bindLong(4, task.getPriority());
+                    Long categoryId = task.getCategoryId() != null ? categoryIds.get(task.getCategoryId()) : null;
+                    if (categoryId != null) {
+                        insert.bindLong(5, categoryId);
+                    } else {
+                        insert.bindNull(5);
+                    }
+                    insert.bindLong(6, task.isCompleted() ? 1 : 0);
+                    bindString(insert, 7, task.getType());
+                    bindString(insert, 8, task.getRecurrenceRule());
+                    insert.executeInsert();
+                    insert.clearBindings();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static void bindString(SupportSQLiteStatement statement, int index, String value) {
+        if (value != null) {
+            statement.bindString(index, value);
+        } else {
+            statement.bindNull(index);
+        }
+    }
+}
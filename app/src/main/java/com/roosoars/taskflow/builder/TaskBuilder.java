@@ -2,6 +2,7 @@ package com.roosoars.taskflow.builder;
 
 import com.roosoars.taskflow.model.Priority;
 import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.recurrence.RecurrenceRule;
 
 import java.util.Date;
 
@@ -14,6 +15,7 @@ public class TaskBuilder {
     private Long categoryId;
     private boolean completed = false;
     private String type = "regular";
+    private String recurrenceRule;
 
 
     public static TaskBuilder aTask(String title) {
@@ -59,6 +61,12 @@ public class TaskBuilder {
     }
 
 
+    public TaskBuilder repeating(RecurrenceRule rule) {
+        this.recurrenceRule = rule != null ? rule.toString() : null;
+        return this;
+    }
+
+
     public Task build() {
         Task task = new Task();
         task.setTitle(title);
@@ -68,6 +76,7 @@ public class TaskBuilder {
         task.setCategoryId(categoryId);
         task.setCompleted(completed);
         task.setType(type);
+        task.setRecurrenceRule(recurrenceRule);
 
         return task;
     }
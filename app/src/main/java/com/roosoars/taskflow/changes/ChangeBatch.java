@@ -0,0 +1,77 @@
+package com.roosoars.taskflow.changes;
+
+import com.roosoars.taskflow.model.TaskChange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * What a consumer has to apply to move its checkpoint to {@link #getSeq()}: the tasks to re-read,
+ * which exist and were inserted or updated, and the ids of the deleted ones. A task changed
+ * several times is listed once, by its latest change. A reset batch carries no ids: the consumer
+ * has no checkpoint and rebuilds its state from the tasks table.
+ */
+public final class ChangeBatch {
+
+    private final long seq;
+    private final boolean reset;
+    private final boolean more;
+    private final List<Long> changedIds;
+    private final List<Long> deletedIds;
+
+    private ChangeBatch(long seq, boolean reset, boolean more, List<Long> changedIds, List<Long> deletedIds) {
+        this.seq = seq;
+        this.reset = reset;
+        this.more = more;
+        this.changedIds = changedIds;
+        this.deletedIds = deletedIds;
+    }
+
+    public static ChangeBatch reset(long seq) {
+        return new ChangeBatch(seq, true, false, Collections.emptyList(), Collections.emptyList());
+    }
+
+    /** The batch of {@code changes}, read after {@code afterSeq} with a limit of {@code limit}. */
+    public static ChangeBatch of(long afterSeq, List<TaskChange> changes, int limit) {
+        Map<Long, Integer> latest = new LinkedHashMap<>(changes.size() * 2);
+        long seq = afterSeq;
+        for (TaskChange change : changes) {
+            latest.put(change.getTaskId(), change.getOp());
+            seq = Math.max(seq, change.getSeq());
+        }
+        List<Long> changedIds = new ArrayList<>(latest.size());
+        List<Long> deletedIds = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : latest.entrySet()) {
+            (entry.getValue() == TaskChange.DELETE ? deletedIds : changedIds).add(entry.getKey());
+        }
+        return new ChangeBatch(seq, false, changes.size() >= limit, changedIds, deletedIds);
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public boolean hasMore() {
+        return more;
+    }
+
+    public boolean isEmpty() {
+        return !reset && changedIds.isEmpty() && deletedIds.isEmpty();
+    }
+
+    public List<Long> getChangedIds() {
+        return changedIds;
+    }
+
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+}
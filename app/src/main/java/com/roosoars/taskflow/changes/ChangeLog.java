@@ -0,0 +1,102 @@
+package com.roosoars.taskflow.changes;
+
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.roosoars.taskflow.db.AppDatabase;
+import com.roosoars.taskflow.db.TaskChangeDao;
+import com.roosoars.taskflow.model.ChangeCursor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+/**
+ * Cursor API over the {@code task_changes} log. A consumer has a name and a checkpoint kept in
+ * the database; it reads a batch after its checkpoint, applies it, then commits the batch. A
+ * consumer that dies in between gets the same changes again, so applying must be idempotent,
+ * as re-reading the listed tasks is. The log is compacted every {@link #COMPACT_EVERY} entries.
+ */
+@Singleton
+public class ChangeLog {
+
+    private static final String TAG = "ChangeLog";
+
+    private static final long COMPACT_EVERY = 10_000;
+
+    private final TaskChangeDao changeDao;
+    private final Consumer<Runnable> transaction;
+    private final Executor compactExecutor;
+    // Seq up to which the log was compacted, or is being compacted.
+    private final AtomicLong compactedSeq = new AtomicLong();
+
+    @Inject
+    public ChangeLog(AppDatabase database) {
+        this(database.taskChangeDao(), database::runInTransaction, AppDatabase.databaseWriteExecutor);
+    }
+
+    // Compaction runs its deletes through transaction and is scheduled on compactExecutor.
+    ChangeLog(TaskChangeDao changeDao, Consumer<Runnable> transaction, Executor compactExecutor) {
+        this.changeDao = changeDao;
+        this.transaction = transaction;
+        this.compactExecutor = compactExecutor;
+    }
+
+    /**
+     * Moves the checkpoint of {@code consumer} to the latest change and returns it. For consumers
+     * that keep their state in memory: they call it when starting empty, then load the tasks.
+     */
+    @WorkerThread
+    public long restart(String consumer) {
+        long seq = changeDao.getLatestSeq();
+        changeDao.saveCursor(new ChangeCursor(consumer, seq));
+        return seq;
+    }
+
+    /** Up to {@code limit} changes after the checkpoint; a reset batch for a new consumer. */
+    @WorkerThread
+    public ChangeBatch read(String consumer, int limit) {
+        Long checkpoint = changeDao.getCursorSeq(consumer);
+        if (checkpoint == null) {
+            return ChangeBatch.reset(restart(consumer));
+        }
+        return ChangeBatch.of(checkpoint, changeDao.getChangesAfter(checkpoint, limit), limit);
+    }
+
+    @WorkerThread
+    public void commit(String consumer, ChangeBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        changeDao.saveCursor(new ChangeCursor(consumer, batch.getSeq()));
+        long compacted = compactedSeq.get();
+        if (batch.getSeq() - compacted >= COMPACT_EVERY && compactedSeq.compareAndSet(compacted, batch.getSeq())) {
+            compactExecutor.execute(this::compact);
+        }
+    }
+
+    /** Stops keeping changes for {@code consumer}, which no longer reads them. */
+    @WorkerThread
+    public void remove(String consumer) {
+        changeDao.deleteCursor(consumer);
+    }
+
+    /**
+     * Drops the entries every consumer has applied and those superseded by a later change of the
+     * same task. Neither can change what a consumer reads from its checkpoint on.
+     */
+    @WorkerThread
+    public int compact() {
+        int[] removed = {0};
+        transaction.accept(() -> {
+            removed[0] = changeDao.deleteSuperseded() + changeDao.deleteApplied();
+        });
+        Log.d(TAG, "Log de alterações compactado: " + removed[0] + " removidas, " + changeDao.count() + " restantes");
+        return removed[0];
+    }
+}
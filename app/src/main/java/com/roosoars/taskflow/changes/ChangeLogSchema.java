@@ -0,0 +1,39 @@
+package com.roosoars.taskflow.changes;
+
+
+/**
+ * Triggers that append to {@code task_changes}, the table of
+ * {@link com.roosoars.taskflow.model.TaskChange}. Room creates the tables of the change log but
+ * not triggers, so these run when the database is created and in MIGRATION_5_6. Being triggers,
+ * they log every write to {@code tasks}, whatever code path made it, in its own transaction.
+ */
+public final class ChangeLogSchema {
+
+    private static final String[] TASK_COLUMNS = {
+            "title", "description", "dueDate", "priority", "categoryId", "completed", "type",
+            "recurrenceRule"
+    };
+
+    public static final String[] TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS `task_changes_AFTER_INSERT` AFTER INSERT ON `tasks` BEGIN"
+                    + " INSERT INTO `task_changes` (`taskId`, `op`) VALUES (NEW.`id`, 0); END",
+            // An update that changes nothing is not a change.
+            "CREATE TRIGGER IF NOT EXISTS `task_changes_AFTER_UPDATE` AFTER UPDATE ON `tasks`"
+                    + " WHEN " + anyChanged() + " BEGIN"
+                    + " INSERT INTO `task_changes` (`taskId`, `op`) VALUES (NEW.`id`, 1); END",
+            "CREATE TRIGGER IF NOT EXISTS `task_changes_AFTER_DELETE` AFTER DELETE ON `tasks` BEGIN"
+                    + " INSERT INTO `task_changes` (`taskId`, `op`) VALUES (OLD.`id`, 2); END"
+    };
+
+    private ChangeLogSchema() {
+    }
+
+    private static String anyChanged() {
+        StringBuilder sql = new StringBuilder();
+        for (String column : TASK_COLUMNS) {
+            sql.append(sql.length() == 0 ? "" : " OR ")
+                    .append("NEW.`").append(column).append("` IS NOT OLD.`").append(column).append('`');
+        }
+        return sql.toString();
+    }
+}
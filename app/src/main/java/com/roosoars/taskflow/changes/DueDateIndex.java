@@ -0,0 +1,107 @@
+package com.roosoars.taskflow.changes;
+
+import com.roosoars.taskflow.model.TaskSchedule;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Due dates of the pending tasks, kept current from change batches, with a sorted copy to count
+ * them by binary search. A batch costs one merge pass over the sorted copy instead of a reload.
+ * Not thread-safe; the array {@link #getSorted()} returns is never modified, so it can be handed
+ * to other threads.
+ */
+public final class DueDateIndex {
+
+    private final Map<Long, Long> dueById = new HashMap<>();
+    private long[] sorted = new long[0];
+
+    public void load(List<TaskSchedule> schedules) {
+        dueById.clear();
+        long[] due = new long[schedules.size()];
+        for (int i = 0; i < due.length; i++) {
+            TaskSchedule schedule = schedules.get(i);
+            dueById.put(schedule.getId(), schedule.getDueDate());
+            due[i] = schedule.getDueDate();
+        }
+        Arrays.sort(due);
+        sorted = due;
+    }
+
+    /**
+     * Applies changes to the tasks {@code taskIds}, given as {@code schedules} the ones among them
+     * that are now pending with a due date.
+     */
+    public void apply(Collection<Long> taskIds, List<TaskSchedule> schedules) {
+        long[] removed = new long[taskIds.size()];
+        int removedCount = 0;
+        for (Long taskId : taskIds) {
+            Long due = dueById.remove(taskId);
+            if (due != null) {
+                removed[removedCount++] = due;
+            }
+        }
+        long[] added = new long[schedules.size()];
+        for (int i = 0; i < added.length; i++) {
+            TaskSchedule schedule = schedules.get(i);
+            dueById.put(schedule.getId(), schedule.getDueDate());
+            added[i] = schedule.getDueDate();
+        }
+        removed = Arrays.copyOf(removed, removedCount);
+        Arrays.sort(removed);
+        Arrays.sort(added);
+        sorted = merge(sorted, removed, added);
+    }
+
+    public long[] getSorted() {
+        return sorted;
+    }
+
+    public int size() {
+        return dueById.size();
+    }
+
+    /** Values in {@code sorted} below {@code key}. */
+    public static int countBefore(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // One pass: sorted minus removed (as a multiset), merged with added. All three are sorted.
+    private static long[] merge(long[] sorted, long[] removed, long[] added) {
+        long[] result = new long[sorted.length - removed.length + added.length];
+        int size = 0;
+        int r = 0;
+        int a = 0;
+        for (long value : sorted) {
+            while (r < removed.length && removed[r] < value) {
+                r++;
+            }
+            if (r < removed.length && removed[r] == value) {
+                r++;
+                continue;
+            }
+            while (a < added.length && added[a] <= value) {
+                result[size++] = added[a++];
+            }
+            result[size++] = value;
+        }
+        while (a < added.length) {
+            result[size++] = added[a++];
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+}
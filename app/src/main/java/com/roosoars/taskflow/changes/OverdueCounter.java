@@ -0,0 +1,127 @@
+package com.roosoars.taskflow.changes;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.room.InvalidationTracker;
+
+import com.roosoars.taskflow.db.AppDatabase;
+import com.roosoars.taskflow.db.DatabaseExecutor;
+import com.roosoars.taskflow.db.TaskDao;
+import com.roosoars.taskflow.model.TaskSchedule;
+import com.roosoars.taskflow.observer.TaskStatusClock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+/**
+ * Number of overdue tasks, for the badge. The due dates of pending tasks are loaded once into a
+ * {@link DueDateIndex}, then kept current from the change log: a write re-reads only the tasks it
+ * changed, and a status tick is a binary search with no query at all. Changes are followed while
+ * the count is observed and caught up on when it is observed again.
+ */
+@Singleton
+public class OverdueCounter extends MediatorLiveData<Integer> {
+
+    private static final String CONSUMER = "overdue_badge";
+    private static final int BATCH_SIZE = 2000;
+
+    private final TaskDao taskDao;
+    private final ChangeLog changeLog;
+    private final TaskStatusClock statusClock;
+    private final InvalidationTracker invalidationTracker;
+    private final DatabaseExecutor executor = DatabaseExecutor.serial("taskflow-overdue");
+    private final AtomicBoolean catchUpPending = new AtomicBoolean();
+    private final InvalidationTracker.Observer changesObserver =
+            new InvalidationTracker.Observer("task_changes") {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    scheduleCatchUp();
+                }
+            };
+
+    // Only touched on the executor; null until the first load.
+    private DueDateIndex index;
+    private volatile long[] pendingDue;
+
+    @Inject
+    public OverdueCounter(AppDatabase database, ChangeLog changeLog, TaskStatusClock statusClock) {
+        this.taskDao = database.taskDao();
+        this.changeLog = changeLog;
+        this.statusClock = statusClock;
+        this.invalidationTracker = database.getInvalidationTracker();
+    }
+
+    @Override
+    protected void onActive() {
+        super.onActive();
+        addSource(statusClock.getTicks(), tick -> recount());
+        // Adding and removing an observer syncs the tracker's triggers with the database: done
+        // on the executor, in order, and before the catch-up queued after it.
+        executor.execute(() -> invalidationTracker.addObserver(changesObserver));
+        scheduleCatchUp();
+    }
+
+    @Override
+    protected void onInactive() {
+        super.onInactive();
+        executor.execute(() -> invalidationTracker.removeObserver(changesObserver));
+        removeSource(statusClock.getTicks());
+    }
+
+    private void recount() {
+        long[] due = pendingDue;
+        if (due != null) {
+            setValue(DueDateIndex.countBefore(due, System.currentTimeMillis()));
+        }
+    }
+
+    // Invalidations arriving while a catch-up is queued are covered by it.
+    private void scheduleCatchUp() {
+        if (catchUpPending.compareAndSet(false, true)) {
+            executor.execute(this::catchUp);
+        }
+    }
+
+    private void catchUp() {
+        catchUpPending.set(false);
+        if (index == null) {
+            index = new DueDateIndex();
+            changeLog.restart(CONSUMER);
+            load();
+        }
+        ChangeBatch batch;
+        do {
+            batch = changeLog.read(CONSUMER, BATCH_SIZE);
+            if (batch.isReset()) {
+                load();
+            } else if (!batch.isEmpty()) {
+                apply(batch);
+            }
+            changeLog.commit(CONSUMER, batch);
+        } while (batch.hasMore());
+        pendingDue = index.getSorted();
+        postValue(DueDateIndex.countBefore(pendingDue, System.currentTimeMillis()));
+    }
+
+    private void load() {
+        index.load(taskDao.getPendingSchedules(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    private void apply(ChangeBatch batch) {
+        List<Long> taskIds = new ArrayList<>(batch.getChangedIds());
+        taskIds.addAll(batch.getDeletedIds());
+        List<Long> changedIds = batch.getChangedIds();
+        List<TaskSchedule> schedules = new ArrayList<>();
+        for (int from = 0; from < changedIds.size(); from += TaskDao.MAX_IDS_PER_STATEMENT) {
+            int to = Math.min(from + TaskDao.MAX_IDS_PER_STATEMENT, changedIds.size());
+            schedules.addAll(taskDao.getPendingSchedulesByIds(changedIds.subList(from, to)));
+        }
+        index.apply(taskIds, schedules);
+    }
+}
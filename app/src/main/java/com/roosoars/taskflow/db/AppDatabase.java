@@ -1,55 +1,170 @@
 package com.roosoars.taskflow.db;
 
 import android.content.Context;
+import android.content.pm.ApplicationInfo;
 
 import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.roosoars.taskflow.R;
+import com.roosoars.taskflow.changes.ChangeLogSchema;
 import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.ChangeCursor;
 import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.model.TaskChange;
+import com.roosoars.taskflow.model.TaskFts;
+import com.roosoars.taskflow.sync.SyncSchema;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 
-@Database(entities = {Task.class, Category.class}, version = 1, exportSchema = false)
+@Database(entities = {Task.class, Category.class, TaskFts.class, TaskChange.class, ChangeCursor.class}, version = 8, exportSchema = false)
 @TypeConverters({Converters.class})
 public abstract class AppDatabase extends RoomDatabase {
 
     public abstract TaskDao taskDao();
     public abstract CategoryDao categoryDao();
+    public abstract TaskChangeDao taskChangeDao();
 
     private static volatile AppDatabase INSTANCE;
 
-    private static final int NUMBER_OF_THREADS = 4;
-    public static final ExecutorService databaseWriteExecutor =
-            Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+    // One writer keeps writes in submission order; WAL lets the readers run alongside it.
+    public static final DatabaseExecutor databaseWriteExecutor =
+            DatabaseExecutor.serial("taskflow-db-writer");
+    public static final DatabaseExecutor databaseReadExecutor =
+            DatabaseExecutor.pool("taskflow-db-reader", Runtime.getRuntime().availableProcessors());
+
+    // Per-statement latencies; only recorded in debuggable builds, see getInstance.
+    public static final QueryMetrics queryMetrics = new QueryMetrics();
 
     public static AppDatabase getInstance(final Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(
+                    RoomDatabase.Builder<AppDatabase> builder = Room.databaseBuilder(
                                     context.getApplicationContext(),
                                     AppDatabase.class,
                                     "taskflow_database")
-                            .addCallback(sRoomDatabaseCallback)
-                            .build();
+                            .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6,
+                                    MIGRATION_6_7, MIGRATION_7_8)
+                            .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                            .setQueryExecutor(databaseReadExecutor)
+                            .setTransactionExecutor(databaseWriteExecutor)
+                            .addCallback(sRoomDatabaseCallback);
+                    if ((context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+                        builder.openHelperFactory(new InstrumentedOpenHelperFactory(queryMetrics));
+                        queryMetrics.setEnabled(true);
+                    }
+                    INSTANCE = builder.build();
                 }
             }
         }
         return INSTANCE;
     }
 
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_completed_dueDate` ON `tasks` (`completed`, `dueDate`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_completed_priority` ON `tasks` (`completed`, `priority`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_completed_categoryId` ON `tasks` (`completed`, `categoryId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_categoryId_dueDate` ON `tasks` (`categoryId`, `dueDate`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_type_dueDate` ON `tasks` (`type`, `dueDate`)");
+        }
+    };
+
+    // Same table and sync triggers Room creates for TaskFts, then a rebuild to index existing rows.
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `tasks_fts` USING FTS4("
+                    + "`title` TEXT, `description` TEXT, tokenize=unicode61, content=`tasks`)");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_tasks_fts_BEFORE_UPDATE"
+                    + " BEFORE UPDATE ON `tasks` BEGIN DELETE FROM `tasks_fts` WHERE `docid`=OLD.`rowid`; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_tasks_fts_BEFORE_DELETE"
+                    + " BEFORE DELETE ON `tasks` BEGIN DELETE FROM `tasks_fts` WHERE `docid`=OLD.`rowid`; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_tasks_fts_AFTER_UPDATE"
+                    + " AFTER UPDATE ON `tasks` BEGIN INSERT INTO `tasks_fts`(`docid`, `title`, `description`)"
+                    + " VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`); END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_tasks_fts_AFTER_INSERT"
+                    + " AFTER INSERT ON `tasks` BEGIN INSERT INTO `tasks_fts`(`docid`, `title`, `description`)"
+                    + " VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`); END");
+            db.execSQL("INSERT INTO `tasks_fts`(`tasks_fts`) VALUES ('rebuild')");
+        }
+    };
+
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `tasks` ADD COLUMN `recurrenceRule` TEXT");
+        }
+    };
+
+    // Sync tracking; the existing tasks become changes to push on the first sync.
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            for (String sql : SyncSchema.CREATE) {
+                db.execSQL(sql);
+            }
+            for (String sql : SyncSchema.BACKFILL) {
+                db.execSQL(sql);
+            }
+        }
+    };
+
+    // Change log tables as Room creates them for TaskChange and ChangeCursor; the log starts empty.
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `task_changes` (`seq` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                    + " `taskId` INTEGER NOT NULL, `op` INTEGER NOT NULL)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_task_changes_taskId_seq` ON `task_changes` (`taskId`, `seq`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `change_cursors` (`name` TEXT NOT NULL, `seq` INTEGER NOT NULL,"
+                    + " PRIMARY KEY(`name`))");
+            for (String sql : ChangeLogSchema.TRIGGERS) {
+                db.execSQL(sql);
+            }
+        }
+    };
+
+    // tasks_fts as Room creates it with prefix indices; the sync triggers on tasks are kept.
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP TABLE IF EXISTS `tasks_fts`");
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `tasks_fts` USING FTS4("
+                    + "`title` TEXT, `description` TEXT, tokenize=unicode61, content=`tasks`, prefix=`1,2`)");
+            db.execSQL("INSERT INTO `tasks_fts`(`tasks_fts`) VALUES ('rebuild')");
+        }
+    };
+
+    // tasks_fts with its doclists in descending docid order, rebuilt from tasks.
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP TABLE IF EXISTS `tasks_fts`");
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `tasks_fts` USING FTS4(`title` TEXT, `description` TEXT,"
+                    + " tokenize=unicode61, content=`tasks`, prefix=`1,2`, order=DESC)");
+            db.execSQL("INSERT INTO `tasks_fts`(`tasks_fts`) VALUES ('rebuild')");
+        }
+    };
+
     private static final RoomDatabase.Callback sRoomDatabaseCallback = new RoomDatabase.Callback() {
         @Override
         public void onCreate(@NonNull SupportSQLiteDatabase db) {
             super.onCreate(db);
+            // Not Room entities: tables and triggers are created here and in MIGRATION_4_5.
+            for (String sql : SyncSchema.CREATE) {
+                db.execSQL(sql);
+            }
+            for (String sql : ChangeLogSchema.TRIGGERS) {
+                db.execSQL(sql);
+            }
 
             databaseWriteExecutor.execute(() -> {
                 CategoryDao categoryDao = INSTANCE.categoryDao();
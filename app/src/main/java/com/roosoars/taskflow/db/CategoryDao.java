@@ -5,6 +5,7 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.roosoars.taskflow.model.Category;
@@ -29,6 +30,31 @@ public interface CategoryDao {
     @Query("SELECT * FROM categories ORDER BY name ASC")
     LiveData<List<Category>> getAllCategories();
 
-    @Query("SELECT COUNT(*) FROM tasks WHERE categoryId = :categoryId")
-    int getTaskCountForCategory(long categoryId);
-}
\ No newline at end of file
+    @Query("SELECT id FROM categories")
+    List<Long> getAllCategoryIds();
+
+    @Query("SELECT id FROM tasks WHERE categoryId = :categoryId")
+    List<Long> getTaskIdsForCategory(long categoryId);
+
+    @Query("DELETE FROM tasks WHERE categoryId = :categoryId")
+    int deleteTasksForCategory(long categoryId);
+
+    @Query("UPDATE tasks SET categoryId = NULL WHERE categoryId = :categoryId")
+    int clearCategoryForTasks(long categoryId);
+
+    /** Deletes the category and its tasks atomically, returning the ids of the deleted tasks. */
+    @Transaction
+    default List<Long> deleteWithTasks(Category category) {
+        List<Long> taskIds = getTaskIdsForCategory(category.getId());
+        deleteTasksForCategory(category.getId());
+        delete(category);
+        return taskIds;
+    }
+
+    /** Deletes the category atomically, leaving its tasks uncategorized. */
+    @Transaction
+    default void deleteKeepingTasks(Category category) {
+        clearCategoryForTasks(category.getId());
+        delete(category);
+    }
+}
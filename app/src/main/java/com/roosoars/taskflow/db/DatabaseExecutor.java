@@ -0,0 +1,163 @@
+package com.roosoars.taskflow.db;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Thread pool for database work that records its queue depth, how long tasks wait before
+ * running and how long they run. A pool of one thread is a serial queue: SQLite only has one
+ * writer, so writes run one at a time in submission order instead of contending for the lock.
+ */
+public class DatabaseExecutor extends ThreadPoolExecutor {
+
+    private static final ThreadLocal<Thread> SUBMITTER = new ThreadLocal<>();
+
+    private final String name;
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    private DatabaseExecutor(String name, int threads) {
+        super(threads, threads, 30L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory(name));
+        this.name = name;
+        allowCoreThreadTimeOut(true);
+    }
+
+    public static DatabaseExecutor serial(String name) {
+        return new DatabaseExecutor(name, 1);
+    }
+
+    public static DatabaseExecutor pool(String name, int threads) {
+        return new DatabaseExecutor(name, Math.max(1, threads));
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        submitted.incrementAndGet();
+        long enqueuedAt = System.nanoTime();
+        Thread submitter = Thread.currentThread();
+        super.execute(() -> {
+            long startedAt = System.nanoTime();
+            record(totalWaitNanos, maxWaitNanos, startedAt - enqueuedAt);
+            SUBMITTER.set(submitter);
+            try {
+                command.run();
+            } finally {
+                SUBMITTER.remove();
+                record(totalRunNanos, maxRunNanos, System.nanoTime() - startedAt);
+                completed.incrementAndGet();
+            }
+        });
+    }
+
+    /** The thread that submitted the task running on the current thread, or null outside a task. */
+    static Thread submittingThread() {
+        return SUBMITTER.get();
+    }
+
+    private static void record(AtomicLong total, AtomicLong max, long nanos) {
+        total.addAndGet(nanos);
+        long current;
+        while (nanos > (current = max.get()) && !max.compareAndSet(current, nanos)) {
+            // Retry until the new maximum is stored or a larger one wins.
+        }
+    }
+
+    public Stats getStats() {
+        long done = completed.get();
+        return new Stats(name, getQueue().size(), getActiveCount(), submitted.get(), done,
+                done == 0 ? 0 : totalWaitNanos.get() / done, maxWaitNanos.get(),
+                done == 0 ? 0 : totalRunNanos.get() / done, maxRunNanos.get());
+    }
+
+    public static final class Stats {
+        private final String name;
+        private final int queueDepth;
+        private final int activeThreads;
+        private final long submitted;
+        private final long completed;
+        private final long averageWaitNanos;
+        private final long maxWaitNanos;
+        private final long averageRunNanos;
+        private final long maxRunNanos;
+
+        Stats(String name, int queueDepth, int activeThreads, long submitted, long completed,
+              long averageWaitNanos, long maxWaitNanos, long averageRunNanos, long maxRunNanos) {
+            this.name = name;
+            this.queueDepth = queueDepth;
+            this.activeThreads = activeThreads;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.averageWaitNanos = averageWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.averageRunNanos = averageRunNanos;
+            this.maxRunNanos = maxRunNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public int getActiveThreads() {
+            return activeThreads;
+        }
+
+        public long getSubmitted() {
+            return submitted;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getAverageWaitNanos() {
+            return averageWaitNanos;
+        }
+
+        public long getMaxWaitNanos() {
+            return maxWaitNanos;
+        }
+
+        public long getAverageRunNanos() {
+            return averageRunNanos;
+        }
+
+        public long getMaxRunNanos() {
+            return maxRunNanos;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return name + ": queue=" + queueDepth + " active=" + activeThreads
+                    + " submitted=" + submitted + " completed=" + completed
+                    + " wait(avg/max)=" + TimeUnit.NANOSECONDS.toMillis(averageWaitNanos)
+                    + "/" + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + "ms"
+                    + " run(avg/max)=" + TimeUnit.NANOSECONDS.toMillis(averageRunNanos)
+                    + "/" + TimeUnit.NANOSECONDS.toMillis(maxRunNanos) + "ms";
+        }
+    }
+}
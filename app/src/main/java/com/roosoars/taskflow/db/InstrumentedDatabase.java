@@ -0,0 +1,287 @@
+package com.roosoars.taskflow.db;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteTransactionListener;
+import android.os.CancellationSignal;
+import android.util.Pair;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+
+/**
+ * Delegating database that records each statement's duration and row count in
+ * {@link QueryMetrics}. A query is timed up to its first {@link Cursor#getCount()}: the framework
+ * cursor runs the statement and counts every row on its first fill anyway, so calling it here
+ * measures the SQLite work without adding a pass, and leaves the mapping to the caller.
+ */
+class InstrumentedDatabase implements SupportSQLiteDatabase {
+
+    private static final String BEGIN = "BEGIN";
+    private static final String END = "END TRANSACTION";
+
+    private final SupportSQLiteDatabase delegate;
+    private final QueryMetrics metrics;
+
+    InstrumentedDatabase(SupportSQLiteDatabase delegate, QueryMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    boolean wraps(SupportSQLiteDatabase db) {
+        return delegate == db;
+    }
+
+    private Cursor timedQuery(String sql, QueryRunner runner) {
+        long start = System.nanoTime();
+        Cursor cursor = runner.run();
+        int rows = cursor.getCount();
+        metrics.record(metrics.normalizedSql(sql), System.nanoTime() - start, rows);
+        return cursor;
+    }
+
+    private void timed(String sql, Runnable runnable) {
+        long start = System.nanoTime();
+        runnable.run();
+        metrics.record(metrics.normalizedSql(sql), System.nanoTime() - start, 0);
+    }
+
+    private interface QueryRunner {
+        Cursor run();
+    }
+
+    @NonNull
+    @Override
+    public SupportSQLiteStatement compileStatement(@NonNull String sql) {
+        return new InstrumentedStatement(delegate.compileStatement(sql), metrics.normalizedSql(sql), metrics);
+    }
+
+    @Override
+    public void beginTransaction() {
+        timed(BEGIN, delegate::beginTransaction);
+    }
+
+    @Override
+    public void beginTransactionNonExclusive() {
+        timed(BEGIN, delegate::beginTransactionNonExclusive);
+    }
+
+    @Override
+    public void beginTransactionWithListener(@NonNull SQLiteTransactionListener transactionListener) {
+        timed(BEGIN, () -> delegate.beginTransactionWithListener(transactionListener));
+    }
+
+    @Override
+    public void beginTransactionWithListenerNonExclusive(@NonNull SQLiteTransactionListener transactionListener) {
+        timed(BEGIN, () -> delegate.beginTransactionWithListenerNonExclusive(transactionListener));
+    }
+
+    // The commit happens here, so this is where a transaction's write cost shows up.
+    @Override
+    public void endTransaction() {
+        timed(END, delegate::endTransaction);
+    }
+
+    @Override
+    public void setTransactionSuccessful() {
+        delegate.setTransactionSuccessful();
+    }
+
+    @Override
+    public boolean inTransaction() {
+        return delegate.inTransaction();
+    }
+
+    @Override
+    public boolean isDbLockedByCurrentThread() {
+        return delegate.isDbLockedByCurrentThread();
+    }
+
+    @Override
+    public boolean yieldIfContendedSafely() {
+        return delegate.yieldIfContendedSafely();
+    }
+
+    @Override
+    public boolean yieldIfContendedSafely(long sleepAfterYieldDelayMillis) {
+        return delegate.yieldIfContendedSafely(sleepAfterYieldDelayMillis);
+    }
+
+    @Override
+    public boolean isExecPerConnectionSQLSupported() {
+        return delegate.isExecPerConnectionSQLSupported();
+    }
+
+    @Override
+    public void execPerConnectionSQL(@NonNull String sql, @Nullable Object[] bindArgs) {
+        timed(sql, () -> delegate.execPerConnectionSQL(sql, bindArgs));
+    }
+
+    @Override
+    public int getVersion() {
+        return delegate.getVersion();
+    }
+
+    @Override
+    public void setVersion(int version) {
+        delegate.setVersion(version);
+    }
+
+    @Override
+    public long getMaximumSize() {
+        return delegate.getMaximumSize();
+    }
+
+    @Override
+    public long setMaximumSize(long numBytes) {
+        return delegate.setMaximumSize(numBytes);
+    }
+
+    @Override
+    public long getPageSize() {
+        return delegate.getPageSize();
+    }
+
+    @Override
+    public void setPageSize(long numBytes) {
+        delegate.setPageSize(numBytes);
+    }
+
+    @NonNull
+    @Override
+    public Cursor query(@NonNull String query) {
+        return timedQuery(query, () -> delegate.query(query));
+    }
+
+    @NonNull
+    @Override
+    public Cursor query(@NonNull String query, @NonNull Object[] bindArgs) {
+        return timedQuery(query, () -> delegate.query(query, bindArgs));
+    }
+
+    @NonNull
+    @Override
+    public Cursor query(@NonNull SupportSQLiteQuery query) {
+        return timedQuery(query.getSql(), () -> delegate.query(query));
+    }
+
+    @NonNull
+    @Override
+    public Cursor query(@NonNull SupportSQLiteQuery query, @Nullable CancellationSignal cancellationSignal) {
+        return timedQuery(query.getSql(), () -> delegate.query(query, cancellationSignal));
+    }
+
+    @Override
+    public long insert(@NonNull String table, int conflictAlgorithm, @NonNull ContentValues values)
+            throws SQLException {
+        long start = System.nanoTime();
+        long rowId = delegate.insert(table, conflictAlgorithm, values);
+        metrics.record("INSERT INTO " + table, System.nanoTime() - start, rowId == -1 ? 0 : 1);
+        return rowId;
+    }
+
+    @Override
+    public int delete(@NonNull String table, @Nullable String whereClause, @Nullable Object[] whereArgs) {
+        long start = System.nanoTime();
+        int rows = delegate.delete(table, whereClause, whereArgs);
+        metrics.record(metrics.normalizedSql("DELETE FROM " + table
+                + (whereClause != null ? " WHERE " + whereClause : "")), System.nanoTime() - start, rows);
+        return rows;
+    }
+
+    @Override
+    public int update(@NonNull String table, int conflictAlgorithm, @NonNull ContentValues values,
+                      @Nullable String whereClause, @Nullable Object[] whereArgs) {
+        long start = System.nanoTime();
+        int rows = delegate.update(table, conflictAlgorithm, values, whereClause, whereArgs);
+        metrics.record(metrics.normalizedSql("UPDATE " + table
+                + (whereClause != null ? " WHERE " + whereClause : "")), System.nanoTime() - start, rows);
+        return rows;
+    }
+
+    @Override
+    public void execSQL(@NonNull String sql) throws SQLException {
+        timed(sql, () -> delegate.execSQL(sql));
+    }
+
+    @Override
+    public void execSQL(@NonNull String sql, @NonNull Object[] bindArgs) throws SQLException {
+        timed(sql, () -> delegate.execSQL(sql, bindArgs));
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return delegate.isReadOnly();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return delegate.isOpen();
+    }
+
+    @Override
+    public boolean needUpgrade(int newVersion) {
+        return delegate.needUpgrade(newVersion);
+    }
+
+    @Nullable
+    @Override
+    public String getPath() {
+        return delegate.getPath();
+    }
+
+    @Override
+    public void setLocale(@NonNull Locale locale) {
+        delegate.setLocale(locale);
+    }
+
+    @Override
+    public void setMaxSqlCacheSize(int cacheSize) {
+        delegate.setMaxSqlCacheSize(cacheSize);
+    }
+
+    @Override
+    public void setForeignKeyConstraintsEnabled(boolean enabled) {
+        delegate.setForeignKeyConstraintsEnabled(enabled);
+    }
+
+    @Override
+    public boolean enableWriteAheadLogging() {
+        return delegate.enableWriteAheadLogging();
+    }
+
+    @Override
+    public void disableWriteAheadLogging() {
+        delegate.disableWriteAheadLogging();
+    }
+
+    @Override
+    public boolean isWriteAheadLoggingEnabled() {
+        return delegate.isWriteAheadLoggingEnabled();
+    }
+
+    @Nullable
+    @Override
+    public List<Pair<String, String>> getAttachedDbs() {
+        return delegate.getAttachedDbs();
+    }
+
+    @Override
+    public boolean isDatabaseIntegrityOk() {
+        return delegate.isDatabaseIntegrityOk();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
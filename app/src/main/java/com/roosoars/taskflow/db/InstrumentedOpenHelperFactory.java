@@ -0,0 +1,84 @@
+package com.roosoars.taskflow.db;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+
+
+/**
+ * Open helper factory that hands Room an {@link InstrumentedDatabase}, so every statement Room
+ * runs (DAO queries, writes, transactions and invalidation tracking) is timed into
+ * {@link QueryMetrics}. Room's QueryCallback only reports the SQL before it runs, without
+ * duration or row count, which is why the measurement sits at this level instead.
+ */
+public class InstrumentedOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
+
+    private final SupportSQLiteOpenHelper.Factory delegate;
+    private final QueryMetrics metrics;
+
+    public InstrumentedOpenHelperFactory(QueryMetrics metrics) {
+        this(new FrameworkSQLiteOpenHelperFactory(), metrics);
+    }
+
+    public InstrumentedOpenHelperFactory(SupportSQLiteOpenHelper.Factory delegate, QueryMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @NonNull
+    @Override
+    public SupportSQLiteOpenHelper create(@NonNull SupportSQLiteOpenHelper.Configuration configuration) {
+        return new OpenHelper(delegate.create(configuration), metrics);
+    }
+
+    private static final class OpenHelper implements SupportSQLiteOpenHelper {
+        private final SupportSQLiteOpenHelper delegate;
+        private final QueryMetrics metrics;
+        private volatile InstrumentedDatabase database;
+
+        OpenHelper(SupportSQLiteOpenHelper delegate, QueryMetrics metrics) {
+            this.delegate = delegate;
+            this.metrics = metrics;
+        }
+
+        @Nullable
+        @Override
+        public String getDatabaseName() {
+            return delegate.getDatabaseName();
+        }
+
+        @Override
+        public void setWriteAheadLoggingEnabled(boolean enabled) {
+            delegate.setWriteAheadLoggingEnabled(enabled);
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteDatabase getWritableDatabase() {
+            return wrap(delegate.getWritableDatabase());
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteDatabase getReadableDatabase() {
+            return wrap(delegate.getReadableDatabase());
+        }
+
+        // The framework helper returns the same database object every time, so one wrapper is kept.
+        private SupportSQLiteDatabase wrap(SupportSQLiteDatabase db) {
+            InstrumentedDatabase current = database;
+            if (current == null || !current.wraps(db)) {
+                current = new InstrumentedDatabase(db, metrics);
+                database = current;
+            }
+            return current;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.roosoars.taskflow.db;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.io.IOException;
+
+
+/** Compiled statement that records each execution in {@link QueryMetrics}. */
+class InstrumentedStatement implements SupportSQLiteStatement {
+
+    private final SupportSQLiteStatement delegate;
+    private final String sql;
+    private final QueryMetrics metrics;
+
+    InstrumentedStatement(SupportSQLiteStatement delegate, String sql, QueryMetrics metrics) {
+        this.delegate = delegate;
+        this.sql = sql;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void execute() {
+        long start = System.nanoTime();
+        delegate.execute();
+        metrics.record(sql, System.nanoTime() - start, 0);
+    }
+
+    @Override
+    public int executeUpdateDelete() {
+        long start = System.nanoTime();
+        int rows = delegate.executeUpdateDelete();
+        metrics.record(sql, System.nanoTime() - start, rows);
+        return rows;
+    }
+
+    @Override
+    public long executeInsert() {
+        long start = System.nanoTime();
+        long rowId = delegate.executeInsert();
+        metrics.record(sql, System.nanoTime() - start, rowId == -1 ? 0 : 1);
+        return rowId;
+    }
+
+    @Override
+    public long simpleQueryForLong() {
+        long start = System.nanoTime();
+        long value = delegate.simpleQueryForLong();
+        metrics.record(sql, System.nanoTime() - start, 1);
+        return value;
+    }
+
+    @Nullable
+    @Override
+    public String simpleQueryForString() {
+        long start = System.nanoTime();
+        String value = delegate.simpleQueryForString();
+        metrics.record(sql, System.nanoTime() - start, 1);
+        return value;
+    }
+
+    @Override
+    public void bindNull(int index) {
+        delegate.bindNull(index);
+    }
+
+    @Override
+    public void bindLong(int index, long value) {
+        delegate.bindLong(index, value);
+    }
+
+    @Override
+    public void bindDouble(int index, double value) {
+        delegate.bindDouble(index, value);
+    }
+
+    @Override
+    public void bindString(int index, @NonNull String value) {
+        delegate.bindString(index, value);
+    }
+
+    @Override
+    public void bindBlob(int index, @NonNull byte[] value) {
+        delegate.bindBlob(index, value);
+    }
+
+    @Override
+    public void clearBindings() {
+        delegate.clearBindings();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
@@ -0,0 +1,123 @@
+package com.roosoars.taskflow.db;
+
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+
+/**
+ * Registry of per-statement latency histograms fed by {@link InstrumentedOpenHelperFactory}.
+ * Statements are keyed by their normalized SQL. A statement counts as a main-thread query when it
+ * runs on the main thread, or when the main thread submitted it to a database executor and is
+ * blocked waiting for the result.
+ */
+public final class QueryMetrics {
+
+    private static final String TAG = "QueryMetrics";
+
+    // Normalized text is cached per raw SQL string; past this size new strings are normalized
+    // on every call instead, so ad-hoc SQL cannot grow the cache without bound.
+    private static final int MAX_CACHED_SQL = 512;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+    private final Map<String, String> normalized = new ConcurrentHashMap<>();
+    private final Map<String, QueryHistogram> histograms = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    static String normalize(String sql) {
+        String text = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return PLACEHOLDER_LIST.matcher(text).replaceAll("?, ...");
+    }
+
+    String normalizedSql(String sql) {
+        String text = normalized.get(sql);
+        if (text == null) {
+            text = normalize(sql);
+            if (normalized.size() < MAX_CACHED_SQL) {
+                normalized.put(sql, text);
+            }
+        }
+        return text;
+    }
+
+    void record(String normalizedSql, long nanos, long rows) {
+        Thread mainThread = Looper.getMainLooper().getThread();
+        Thread current = Thread.currentThread();
+        boolean onMain = current == mainThread;
+        boolean blockingMain = !onMain && DatabaseExecutor.submittingThread() == mainThread
+                && isWaiting(mainThread);
+
+        QueryHistogram histogram = histograms.get(normalizedSql);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(normalizedSql, QueryHistogram::new);
+        }
+        boolean firstOnMain = (onMain || blockingMain) && histogram.getMainThreadCount() == 0;
+        histogram.record(nanos, rows, onMain || blockingMain);
+
+        if (firstOnMain) {
+            Throwable trace = new Throwable(onMain ? "consulta na thread principal"
+                    : "thread principal bloqueada esperando " + current.getName());
+            if (blockingMain) {
+                trace.setStackTrace(mainThread.getStackTrace());
+            }
+            Log.w(TAG, normalizedSql, trace);
+        }
+    }
+
+    private static boolean isWaiting(Thread thread) {
+        Thread.State state = thread.getState();
+        return state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING
+                || state == Thread.State.BLOCKED;
+    }
+
+    /** Histograms ordered by total time spent, most expensive first. */
+    public List<QueryHistogram> getHistograms() {
+        List<QueryHistogram> list = new ArrayList<>(histograms.values());
+        list.sort((a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()));
+        return list;
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+
+    public void writeReport(File file) {
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            out.println("count\trows\ttotal_ms\tp50_us\tp99_us\tmax_us\tmain_thread\tsql");
+            for (QueryHistogram histogram : getHistograms()) {
+                out.println(String.join("\t", Arrays.asList(
+                        Long.toString(histogram.getCount()),
+                        Long.toString(histogram.getRows()),
+                        String.format(Locale.ROOT, "%.1f", histogram.getTotalNanos() / 1e6),
+                        Long.toString(histogram.getPercentileMicros(50)),
+                        Long.toString(histogram.getPercentileMicros(99)),
+                        Long.toString(histogram.getMaxNanos() / 1000),
+                        Long.toString(histogram.getMainThreadCount()),
+                        histogram.getSql())));
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Erro ao gravar métricas de consultas", e);
+        }
+    }
+}
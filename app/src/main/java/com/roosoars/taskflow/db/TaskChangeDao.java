@@ -0,0 +1,45 @@
+package com.roosoars.taskflow.db;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.roosoars.taskflow.model.ChangeCursor;
+import com.roosoars.taskflow.model.TaskChange;
+
+import java.util.List;
+
+
+@Dao
+public interface TaskChangeDao {
+    @Query("SELECT * FROM task_changes WHERE seq > :afterSeq ORDER BY seq LIMIT :limit")
+    List<TaskChange> getChangesAfter(long afterSeq, int limit);
+
+    // Compaction always keeps the newest entry, so this never goes back.
+    @Query("SELECT ifnull(max(seq), 0) FROM task_changes")
+    long getLatestSeq();
+
+    @Query("SELECT COUNT(*) FROM task_changes")
+    int count();
+
+    @Query("SELECT seq FROM change_cursors WHERE name = :name")
+    Long getCursorSeq(String name);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void saveCursor(ChangeCursor cursor);
+
+    @Query("DELETE FROM change_cursors WHERE name = :name")
+    void deleteCursor(String name);
+
+    // Consumers re-read the task of an entry, so only its latest entry matters. Each row is
+    // checked against the (taskId, seq) index.
+    @Query("DELETE FROM task_changes WHERE seq < (SELECT max(c.seq) FROM task_changes AS c"
+            + " WHERE c.taskId = task_changes.taskId)")
+    int deleteSuperseded();
+
+    // Entries every consumer has applied; none at all while no consumer is registered.
+    @Query("DELETE FROM task_changes WHERE seq <= (SELECT min(seq) FROM change_cursors)"
+            + " AND seq < (SELECT max(seq) FROM task_changes)")
+    int deleteApplied();
+}
@@ -4,21 +4,37 @@ import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
 import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
+import com.roosoars.taskflow.model.Category;
 import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.model.TaskCount;
+import com.roosoars.taskflow.model.TaskSchedule;
+import com.roosoars.taskflow.model.TaskSearchHit;
 import com.roosoars.taskflow.model.TaskWithCategory;
 
+import java.util.Collections;
 import java.util.List;
 
 
 @Dao
 public interface TaskDao {
+    /** Most ids bound in one IN (:ids) list; callers chunk larger lists under SQLite's 999 limit. */
+    int MAX_IDS_PER_STATEMENT = 900;
+
     @Insert
     long insert(Task task);
 
+    // Ids already taken are skipped, with -1 in their place.
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertAll(List<Task> tasks);
+
     @Update
     void update(Task task);
 
@@ -31,81 +47,122 @@ public interface TaskDao {
     @Query("DELETE FROM tasks WHERE id IN (:taskIds)")
     void deleteTasks(List<Long> taskIds);
 
-    @Query("UPDATE tasks SET categoryId = NULL WHERE categoryId = :categoryId")
-    void clearCategoryForTasks(long categoryId);
+    @Query("UPDATE tasks SET completed = :completed WHERE id IN (:taskIds)")
+    int setCompleted(List<Long> taskIds, boolean completed);
+
+    // A completed occurrence keeps no rule; its series goes on in the task of the next occurrence.
+    @Query("UPDATE tasks SET completed = 1, recurrenceRule = NULL WHERE id IN (:taskIds)")
+    int completeTasks(List<Long> taskIds);
+
+    @Query("UPDATE tasks SET recurrenceRule = :recurrenceRule WHERE id IN (:taskIds)")
+    int setRecurrenceRule(List<Long> taskIds, String recurrenceRule);
+
+    @Query("UPDATE tasks SET categoryId = :categoryId WHERE id IN (:taskIds)")
+    int setCategory(List<Long> taskIds, Long categoryId);
+
+    @Query("UPDATE tasks SET priority = :priority WHERE id IN (:taskIds)")
+    int setPriority(List<Long> taskIds, int priority);
+
+    @Query("UPDATE tasks SET dueDate = dueDate + :offsetMillis WHERE id IN (:taskIds) AND dueDate IS NOT NULL")
+    int shiftDueDates(List<Long> taskIds, long offsetMillis);
 
     @Query("SELECT * FROM tasks WHERE id = :id")
     LiveData<Task> getTaskById(long id);
 
-    @Query("SELECT * FROM tasks ORDER BY dueDate ASC")
-    LiveData<List<Task>> getAllTasksByDate();
+    @Query("SELECT dueDate FROM tasks WHERE completed = 0 AND dueDate > :fromMillis AND dueDate <= :toMillis")
+    List<Long> getPendingDueDatesBetween(long fromMillis, long toMillis);
 
-    @Query("SELECT * FROM tasks ORDER BY priority ASC")
-    LiveData<List<Task>> getAllTasksByPriority();
+    // Pending tasks that can fall due before :toMillis: recurring ones from any start, since
+    // their later occurrences may land in the window, and one-off ones due inside it.
+    @Query("SELECT id, dueDate, recurrenceRule FROM tasks WHERE completed = 0 AND dueDate < :toMillis"
+            + " AND (recurrenceRule IS NOT NULL OR dueDate >= :fromMillis)")
+    List<TaskSchedule> getPendingSchedules(long fromMillis, long toMillis);
 
-    @Query("SELECT * FROM tasks ORDER BY categoryId ASC")
-    LiveData<List<Task>> getAllTasksByCategory();
+    @Query("SELECT id, dueDate, recurrenceRule FROM tasks WHERE id IN (:taskIds) AND completed = 0"
+            + " AND dueDate IS NOT NULL")
+    List<TaskSchedule> getPendingSchedulesByIds(List<Long> taskIds);
 
-    @Query("SELECT * FROM tasks WHERE categoryId = :categoryId ORDER BY dueDate ASC")
-    LiveData<List<Task>> getTasksByCategory(long categoryId);
+    // Counted on the (completed, dueDate) index, no row is read.
+    @Query("SELECT COUNT(*) FROM tasks WHERE completed = 0 AND dueDate < :nowMillis")
+    int countOverdue(long nowMillis);
 
-    @Query("SELECT * FROM tasks WHERE categoryId = :categoryId")
-    List<Task> getTasksByCategorySync(long categoryId);
+    @Query("SELECT categoryId AS groupKey, COUNT(*) AS count FROM tasks GROUP BY categoryId")
+    List<TaskCount> countByCategory();
 
-    @Transaction
-    @Query("SELECT * FROM tasks ORDER BY completed ASC, dueDate ASC")
-    LiveData<List<TaskWithCategory>> getAllTasksWithCategoryByDate();
+    @Query("SELECT priority AS groupKey, COUNT(*) AS count FROM tasks GROUP BY priority")
+    List<TaskCount> countByPriority();
 
-    @Transaction
-    @Query("SELECT * FROM tasks ORDER BY completed ASC, priority ASC")
-    LiveData<List<TaskWithCategory>> getAllTasksWithCategoryByPriority();
+    // Keys 0 to 2 are the COMPLETED, OVERDUE and DUE_SOON ordinals of TaskStatus, with the
+    // thresholds of TaskStatus.of; key 3 is every task. Each part is a range count on an index,
+    // where grouping by a CASE expression would read and sort the whole table.
+    @Query("SELECT 0 AS groupKey, COUNT(*) AS count FROM tasks WHERE completed = 1"
+            + " UNION ALL SELECT 1, COUNT(*) FROM tasks WHERE completed = 0 AND dueDate < :nowMillis"
+            + " UNION ALL SELECT 2, COUNT(*) FROM tasks"
+            + " WHERE completed = 0 AND dueDate > :nowMillis AND dueDate <= :dueSoonMillis"
+            + " UNION ALL SELECT 3, COUNT(*) FROM tasks")
+    List<TaskCount> countByStatus(long nowMillis, long dueSoonMillis);
 
-    @Transaction
-    @Query("SELECT * FROM tasks ORDER BY completed ASC, categoryId ASC")
-    LiveData<List<TaskWithCategory>> getAllTasksWithCategoryByCategory();
+    @Query("SELECT * FROM tasks WHERE id IN (:taskIds)")
+    List<Task> getTasksByIdsSync(List<Long> taskIds);
 
-    @Query("SELECT * FROM tasks WHERE completed = 0 ORDER BY dueDate ASC")
-    LiveData<List<Task>> getPendingTasksByDate();
+    @Query(TaskQuery.SELECT_TASKS + " WHERE tasks.id IN (:taskIds)")
+    List<TaskWithCategory> getTasksWithCategoryByIds(List<Long> taskIds);
 
-    @Query("SELECT * FROM tasks WHERE completed = 0 ORDER BY priority ASC")
-    LiveData<List<Task>> getPendingTasksByPriority();
+    /**
+     * Up to {@code maxHits} hits of {@code match}, newest task first. Only those are ranked, so
+     * a prefix matching more tasks ranks the most recent ones; scoring every hit of a one-letter
+     * prefix costs several times the per-keystroke budget at 100k tasks. tasks_fts stores its
+     * doclists in this order, so the hits are read without loading and reversing whole doclists.
+     */
+    @Query("SELECT docid AS taskId, matchinfo(tasks_fts, 'pcy') AS matchInfo FROM tasks_fts"
+            + " WHERE tasks_fts MATCH :match ORDER BY docid DESC LIMIT :maxHits")
+    List<TaskSearchHit> searchHits(String match, int maxHits);
 
-    @Query("SELECT * FROM tasks WHERE completed = 0 ORDER BY categoryId ASC")
-    LiveData<List<Task>> getPendingTasksByCategory();
+    @RawQuery(observedEntities = Task.class)
+    LiveData<List<Task>> observeTasksRaw(SupportSQLiteQuery query);
 
-    @Transaction
-    @Query("SELECT * FROM tasks WHERE completed = 0 ORDER BY dueDate ASC")
-    LiveData<List<TaskWithCategory>> getPendingTasksWithCategoryByDate();
+    @RawQuery(observedEntities = {Task.class, Category.class})
+    LiveData<List<TaskWithCategory>> observeTasksWithCategoryRaw(SupportSQLiteQuery query);
 
-    @Transaction
-    @Query("SELECT * FROM tasks WHERE completed = 0 ORDER BY priority ASC")
-    LiveData<List<TaskWithCategory>> getPendingTasksWithCategoryByPriority();
+    @RawQuery(observedEntities = {Task.class, Category.class})
+    List<TaskWithCategory> getTasksWithCategoryRaw(SupportSQLiteQuery query);
 
-    @Transaction
-    @Query("SELECT * FROM tasks WHERE completed = 0 ORDER BY categoryId ASC")
-    LiveData<List<TaskWithCategory>> getPendingTasksWithCategoryByCategory();
+    @RawQuery
+    int countTasksRaw(SupportSQLiteQuery query);
 
-    @Query("SELECT * FROM tasks WHERE completed = 1 ORDER BY dueDate DESC")
-    LiveData<List<Task>> getCompletedTasksByDate();
+    default LiveData<List<Task>> observeTasks(TaskQuery query) {
+        return observeTasksRaw(new SimpleSQLiteQuery(query.getSql(), query.getArgs()));
+    }
 
-    @Query("SELECT * FROM tasks WHERE completed = 1 ORDER BY priority ASC")
-    LiveData<List<Task>> getCompletedTasksByPriority();
+    default LiveData<List<TaskWithCategory>> observeTasksWithCategory(TaskQuery query) {
+        return observeTasksWithCategoryRaw(new SimpleSQLiteQuery(query.getSql(), query.getArgs()));
+    }
 
-    @Query("SELECT * FROM tasks WHERE completed = 1 ORDER BY categoryId ASC")
-    LiveData<List<Task>> getCompletedTasksByCategory();
+    default List<TaskWithCategory> getTasksWithCategory(TaskQuery query) {
+        return getTasksWithCategoryRaw(new SimpleSQLiteQuery(query.getSql(), query.getArgs()));
+    }
 
-    @Transaction
-    @Query("SELECT * FROM tasks WHERE completed = 1 ORDER BY dueDate DESC")
-    LiveData<List<TaskWithCategory>> getCompletedTasksWithCategoryByDate();
+    default int countTasks(TaskQuery query) {
+        return countTasksRaw(new SimpleSQLiteQuery(query.getSql(), query.getArgs()));
+    }
 
+    /** Saves a completed occurrence and inserts the task of the next one in one transaction. */
     @Transaction
-    @Query("SELECT * FROM tasks WHERE completed = 1 ORDER BY priority ASC")
-    LiveData<List<TaskWithCategory>> getCompletedTasksWithCategoryByPriority();
+    default long completeOccurrence(Task completed, Task next) {
+        update(completed);
+        return insert(next);
+    }
 
     @Transaction
-    @Query("SELECT * FROM tasks WHERE completed = 1 ORDER BY categoryId ASC")
-    LiveData<List<TaskWithCategory>> getCompletedTasksWithCategoryByCategory();
-
-    @Query("SELECT * FROM tasks WHERE type = :type ORDER BY dueDate ASC")
-    LiveData<List<Task>> getTasksByType(String type);
-}
\ No newline at end of file
+    default List<TaskWithCategory> search(String query, int limit) {
+        String match = TaskSearch.toMatchQuery(query);
+        if (match == null) {
+            return Collections.emptyList();
+        }
+        List<Long> taskIds = TaskSearch.rank(searchHits(match, TaskSearch.MAX_HITS), limit);
+        if (taskIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return TaskSearch.orderByIds(getTasksWithCategoryByIds(taskIds), taskIds);
+    }
+}
@@ -0,0 +1,49 @@
+package com.roosoars.taskflow.db;
+
+import java.util.Objects;
+
+
+/**
+ * Position of a row inside a {@link TaskQuery} order: the values of its sort columns.
+ * {@code completed} is only set for queries that group by completion.
+ */
+public final class TaskPageKey {
+
+    private final Integer completed;
+    private final Long sortValue;
+    private final long id;
+
+    public TaskPageKey(Integer completed, Long sortValue, long id) {
+        this.completed = completed;
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    public Integer getCompleted() {
+        return completed;
+    }
+
+    public Long getSortValue() {
+        return sortValue;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TaskPageKey that = (TaskPageKey) o;
+        return id == that.id
+                && Objects.equals(completed, that.completed)
+                && Objects.equals(sortValue, that.sortValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(completed, sortValue, id);
+    }
+}
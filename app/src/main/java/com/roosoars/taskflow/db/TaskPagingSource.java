@@ -0,0 +1,144 @@
+package com.roosoars.taskflow.db;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingState;
+import androidx.room.InvalidationTracker;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.roosoars.taskflow.model.TaskWithCategory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import kotlin.Unit;
+
+
+/**
+ * Keyset paging over a {@link TaskQuery}: every page seeks from the sort key of the previous
+ * page boundary instead of using OFFSET, so each load costs the same wherever the user is in
+ * the list. Row counts are only taken on refresh to size the placeholders.
+ */
+public class TaskPagingSource extends ListenableFuturePagingSource<TaskPageKey, TaskWithCategory> {
+
+    private final AppDatabase database;
+    private final TaskDao taskDao;
+    private final TaskQuery query;
+    private final Executor executor;
+    private final AtomicBoolean observing = new AtomicBoolean();
+    private final InvalidationTracker.Observer observer =
+            new InvalidationTracker.Observer("tasks", "categories") {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    invalidate();
+                }
+            };
+
+    public TaskPagingSource(AppDatabase database, TaskQuery query, Executor executor) {
+        this.database = database;
+        this.taskDao = database.taskDao();
+        this.query = query;
+        this.executor = executor;
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<TaskPageKey, TaskWithCategory>> loadFuture(
+            @NonNull LoadParams<TaskPageKey> params) {
+        return Futures.submit(() -> {
+            try {
+                observeTables();
+                return load(params);
+            } catch (RuntimeException e) {
+                return new LoadResult.Error<>(e);
+            }
+        }, executor);
+    }
+
+    /*
+     * Adding and removing the observer syncs the tracker's triggers on the database, so both run
+     * on the executor, never on the thread that builds or invalidates the source. Registering
+     * before the first load means no write after that load goes unseen.
+     */
+    private void observeTables() {
+        if (!observing.compareAndSet(false, true)) {
+            return;
+        }
+        InvalidationTracker tracker = database.getInvalidationTracker();
+        tracker.addObserver(observer);
+        registerInvalidatedCallback(() -> {
+            executor.execute(() -> tracker.removeObserver(observer));
+            return Unit.INSTANCE;
+        });
+    }
+
+    private LoadResult<TaskPageKey, TaskWithCategory> load(LoadParams<TaskPageKey> params) {
+        TaskPageKey key = params.getKey();
+        int loadSize = params.getLoadSize();
+
+        if (params instanceof LoadParams.Append) {
+            List<TaskWithCategory> rows = taskDao.getTasksWithCategory(query.pageAfter(key, loadSize));
+            return page(rows, LoadResult.Page.COUNT_UNDEFINED, LoadResult.Page.COUNT_UNDEFINED,
+                    true, rows.size() == loadSize);
+        }
+
+        if (params instanceof LoadParams.Prepend) {
+            List<TaskWithCategory> rows = taskDao.getTasksWithCategory(query.pageBefore(key, loadSize));
+            Collections.reverse(rows);
+            return page(rows, LoadResult.Page.COUNT_UNDEFINED, LoadResult.Page.COUNT_UNDEFINED,
+                    rows.size() == loadSize, true);
+        }
+
+        // Page and counts are read in one transaction so the placeholders match the rows.
+        return database.runInTransaction(() -> refresh(key, loadSize));
+    }
+
+    private LoadResult<TaskPageKey, TaskWithCategory> refresh(TaskPageKey key, int loadSize) {
+        List<TaskWithCategory> rows = key != null
+                ? taskDao.getTasksWithCategory(query.pageFrom(key, loadSize))
+                : Collections.emptyList();
+        int itemsBefore = 0;
+        if (rows.isEmpty()) {
+            rows = taskDao.getTasksWithCategory(query.firstPage(loadSize));
+        } else {
+            itemsBefore = taskDao.countTasks(query.countBefore(key));
+        }
+        int total = taskDao.countTasks(query.count());
+        int itemsAfter = Math.max(0, total - itemsBefore - rows.size());
+        return page(rows, itemsBefore, itemsAfter, itemsBefore > 0, itemsAfter > 0);
+    }
+
+    private LoadResult.Page<TaskPageKey, TaskWithCategory> page(List<TaskWithCategory> rows,
+                                                              int itemsBefore, int itemsAfter,
+                                                              boolean hasPrevious, boolean hasNext) {
+        TaskPageKey prevKey = null;
+        TaskPageKey nextKey = null;
+        if (!rows.isEmpty()) {
+            if (hasPrevious) {
+                prevKey = query.keyOf(rows.get(0).getTask());
+            }
+            if (hasNext) {
+                nextKey = query.keyOf(rows.get(rows.size() - 1).getTask());
+            }
+        }
+        return new LoadResult.Page<>(rows, prevKey, nextKey, itemsBefore, itemsAfter);
+    }
+
+    // Reload around the first visible rows so the list keeps its position after an edit.
+    @Nullable
+    @Override
+    public TaskPageKey getRefreshKey(@NonNull PagingState<TaskPageKey, TaskWithCategory> state) {
+        Integer anchorPosition = state.getAnchorPosition();
+        if (anchorPosition == null) {
+            return null;
+        }
+        int position = Math.max(0, anchorPosition - state.getConfig().initialLoadSize / 2);
+        TaskWithCategory item = state.closestItemToPosition(position);
+        return item != null ? query.keyOf(item.getTask()) : null;
+    }
+}
@@ -0,0 +1,406 @@
+package com.roosoars.taskflow.db;
+
+import com.roosoars.taskflow.model.Task;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Immutable description of a task list (filter, sort key and direction) compiled to SQL.
+ * The SQL text only depends on the shape of the query and is cached, values are always
+ * bound as arguments, so SQLite can reuse the prepared statement of each shape.
+ */
+public final class TaskQuery {
+
+    public enum Filter {
+        ALL,
+        PENDING,
+        COMPLETED,
+        CATEGORY,
+        TYPE,
+        DATE_RANGE
+    }
+
+    public enum SortKey {
+        DATE("dueDate"),
+        PRIORITY("priority"),
+        CATEGORY("categoryId");
+
+        private final String column;
+
+        SortKey(String column) {
+            this.column = column;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public static SortKey fromSortType(String sortType) {
+            if (sortType == null) {
+                return DATE;
+            }
+            switch (sortType) {
+                case "priority":
+                    return PRIORITY;
+                case "category":
+                    return CATEGORY;
+                case "date":
+                default:
+                    return DATE;
+            }
+        }
+    }
+
+    public enum Direction {
+        ASC,
+        DESC;
+
+        Direction reverse() {
+            return this == ASC ? DESC : ASC;
+        }
+    }
+
+    private enum Seek {
+        NONE,
+        AFTER,
+        FROM,
+        BEFORE
+    }
+
+    // Categories are joined in the same cursor pass and mapped into TaskWithCategory's
+    // prefixed @Embedded category, so no second relation query or transaction is needed.
+    static final String SELECT_TASKS = "SELECT tasks.*, categories.id AS category_id,"
+            + " categories.name AS category_name, categories.color AS category_color"
+            + " FROM tasks LEFT JOIN categories ON categories.id = tasks.categoryId";
+    private static final String COUNT_TASKS = "SELECT COUNT(*) FROM tasks";
+
+    private static final Map<String, String> SQL_CACHE = new ConcurrentHashMap<>();
+
+    private Filter filter;
+    private Long categoryId;
+    private String type;
+    private Long dueFrom;
+    private Long dueTo;
+    private SortKey sortKey = SortKey.DATE;
+    private Direction direction;
+    private Seek seek = Seek.NONE;
+    private TaskPageKey seekKey;
+    private int limit;
+    private boolean countOnly;
+
+    private TaskQuery(Filter filter) {
+        this.filter = filter;
+        this.direction = defaultDirection(filter, sortKey);
+    }
+
+    private TaskQuery copy() {
+        TaskQuery copy = new TaskQuery(filter);
+        copy.categoryId = categoryId;
+        copy.type = type;
+        copy.dueFrom = dueFrom;
+        copy.dueTo = dueTo;
+        copy.sortKey = sortKey;
+        copy.direction = direction;
+        copy.seek = seek;
+        copy.seekKey = seekKey;
+        copy.limit = limit;
+        copy.countOnly = countOnly;
+        return copy;
+    }
+
+    /** Every task, pending ones first and each group in the sort order. */
+    public static TaskQuery all() {
+        return new TaskQuery(Filter.ALL);
+    }
+
+    public static TaskQuery pending() {
+        return new TaskQuery(Filter.PENDING);
+    }
+
+    public static TaskQuery completed() {
+        return new TaskQuery(Filter.COMPLETED);
+    }
+
+    public static TaskQuery inCategory(long categoryId) {
+        TaskQuery query = new TaskQuery(Filter.CATEGORY);
+        query.categoryId = categoryId;
+        return query;
+    }
+
+    public static TaskQuery ofType(String type) {
+        TaskQuery query = new TaskQuery(Filter.TYPE);
+        query.type = type;
+        return query;
+    }
+
+    public static TaskQuery dueBetween(Date from, Date to) {
+        TaskQuery query = new TaskQuery(Filter.DATE_RANGE);
+        query.dueFrom = Converters.dateToTimestamp(from);
+        query.dueTo = Converters.dateToTimestamp(to);
+        return query;
+    }
+
+    public TaskQuery sortedBy(SortKey sortKey) {
+        return sortedBy(sortKey, defaultDirection(filter, sortKey));
+    }
+
+    public TaskQuery sortedBy(SortKey sortKey, Direction direction) {
+        TaskQuery query = copy();
+        // Every row of a category list shares the same categoryId, so order it by date instead.
+        if (filter == Filter.CATEGORY && sortKey == SortKey.CATEGORY) {
+            sortKey = SortKey.DATE;
+        }
+        query.sortKey = sortKey;
+        query.direction = direction;
+        return query;
+    }
+
+    // Completed tasks are listed most recent first by date; every other list is ascending.
+    private static Direction defaultDirection(Filter filter, SortKey sortKey) {
+        if (filter == Filter.COMPLETED && sortKey == SortKey.DATE) {
+            return Direction.DESC;
+        }
+        return Direction.ASC;
+    }
+
+    /** The first {@code limit} rows of this list. */
+    public TaskQuery firstPage(int limit) {
+        return page(Seek.NONE, null, limit);
+    }
+
+    /** Up to {@code limit} rows strictly after {@code key}, in list order. */
+    public TaskQuery pageAfter(TaskPageKey key, int limit) {
+        return page(Seek.AFTER, key, limit);
+    }
+
+    /** Up to {@code limit} rows starting at {@code key} inclusive, in list order. */
+    public TaskQuery pageFrom(TaskPageKey key, int limit) {
+        return page(Seek.FROM, key, limit);
+    }
+
+    /** Up to {@code limit} rows strictly before {@code key}, nearest first (reverse list order). */
+    public TaskQuery pageBefore(TaskPageKey key, int limit) {
+        return page(Seek.BEFORE, key, limit);
+    }
+
+    private TaskQuery page(Seek seek, TaskPageKey key, int limit) {
+        TaskQuery query = copy();
+        query.seek = seek;
+        query.seekKey = key;
+        query.limit = limit;
+        query.countOnly = false;
+        return query;
+    }
+
+    /** Counts the rows of this list. */
+    public TaskQuery count() {
+        TaskQuery query = copy();
+        query.seek = Seek.NONE;
+        query.seekKey = null;
+        query.limit = 0;
+        query.countOnly = true;
+        return query;
+    }
+
+    /** Counts the rows of this list strictly before {@code key}. */
+    public TaskQuery countBefore(TaskPageKey key) {
+        TaskQuery query = count();
+        query.seek = Seek.BEFORE;
+        query.seekKey = key;
+        return query;
+    }
+
+    public TaskPageKey keyOf(Task task) {
+        Integer completed = isGroupedByCompletion() ? (task.isCompleted() ? 1 : 0) : null;
+        Long sortValue;
+        switch (sortKey) {
+            case PRIORITY:
+                sortValue = (long) task.getPriority();
+                break;
+            case CATEGORY:
+                sortValue = task.getCategoryId();
+                break;
+            case DATE:
+            default:
+                sortValue = Converters.dateToTimestamp(task.getDueDate());
+                break;
+        }
+        return new TaskPageKey(completed, sortValue, task.getId());
+    }
+
+    public Filter getFilter() {
+        return filter;
+    }
+
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    private boolean isGroupedByCompletion() {
+        return filter == Filter.ALL;
+    }
+
+    public String getSql() {
+        boolean nullSortValue = seekKey != null && seekKey.getSortValue() == null;
+        String shape = filter.name() + '|' + sortKey.name() + '|' + direction.name()
+                + '|' + seek.name() + '|' + nullSortValue + '|' + (limit > 0) + '|' + countOnly;
+        String sql = SQL_CACHE.get(shape);
+        if (sql == null) {
+            sql = buildSql();
+            SQL_CACHE.put(shape, sql);
+        }
+        return sql;
+    }
+
+    public Object[] getArgs() {
+        List<Object> args = new ArrayList<>(8);
+        switch (filter) {
+            case CATEGORY:
+                args.add(categoryId);
+                break;
+            case TYPE:
+                args.add(type);
+                break;
+            case DATE_RANGE:
+                args.add(dueFrom);
+                args.add(dueTo);
+                break;
+            default:
+                break;
+        }
+        if (seek != Seek.NONE) {
+            addSeekArgs(args);
+        }
+        if (limit > 0 && !countOnly) {
+            args.add(limit);
+        }
+        return args.toArray();
+    }
+
+    private String buildSql() {
+        List<String> conditions = new ArrayList<>(2);
+        String filterCondition = filterCondition();
+        if (filterCondition != null) {
+            conditions.add(filterCondition);
+        }
+        if (seek != Seek.NONE) {
+            conditions.add(seekCondition());
+        }
+
+        StringBuilder sql = new StringBuilder(countOnly ? COUNT_TASKS : SELECT_TASKS);
+        for (int i = 0; i < conditions.size(); i++) {
+            sql.append(i == 0 ? " WHERE " : " AND ").append(conditions.get(i));
+        }
+        if (!countOnly) {
+            sql.append(orderByClause());
+            if (limit > 0) {
+                sql.append(" LIMIT ?");
+            }
+        }
+        return sql.toString();
+    }
+
+    private String filterCondition() {
+        switch (filter) {
+            case PENDING:
+                return "tasks.completed = 0";
+            case COMPLETED:
+                return "tasks.completed = 1";
+            case CATEGORY:
+                return "tasks.categoryId = ?";
+            case TYPE:
+                return "tasks.type = ?";
+            case DATE_RANGE:
+                return "tasks.dueDate >= ? AND tasks.dueDate < ?";
+            case ALL:
+            default:
+                return null;
+        }
+    }
+
+    // Paging backwards walks the list in reverse, so every column flips its direction.
+    private Direction effective(Direction columnDirection) {
+        return seek == Seek.BEFORE && !countOnly ? columnDirection.reverse() : columnDirection;
+    }
+
+    // The id tie-breaker makes the order total, which keeps DiffUtil moves and keyset pages stable.
+    private String orderByClause() {
+        StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+        if (isGroupedByCompletion()) {
+            orderBy.append("tasks.completed ").append(effective(Direction.ASC).name()).append(", ");
+        }
+        orderBy.append("tasks.").append(sortKey.getColumn()).append(' ')
+                .append(effective(direction).name())
+                .append(", tasks.id ").append(effective(direction).name());
+        return orderBy.toString();
+    }
+
+    /*
+     * Keyset predicate over (completed, sort column, id): a row follows the key when it is
+     * past the key on the first column where they differ. SQLite sorts NULL first in ascending
+     * order, so a NULL sort value is only ever followed by non-NULL values (and vice versa).
+     * The redundant leading bounds let the (completed, ...) and (..., dueDate) indices seek
+     * to the key instead of scanning up to it.
+     */
+    private String seekCondition() {
+        boolean forward = seek != Seek.BEFORE;
+        Direction sortDirection = forward ? direction : direction.reverse();
+        String sortColumn = "tasks." + sortKey.getColumn();
+        boolean nullSortValue = seekKey.getSortValue() == null;
+
+        String sortAfter = sortAfter(sortColumn, sortDirection, nullSortValue);
+        String sortEquals = nullSortValue ? sortColumn + " IS NULL" : sortColumn + " = ?";
+        String idAfter = "tasks.id " + (sortDirection == Direction.ASC ? ">" : "<")
+                + (seek == Seek.FROM ? "= ?" : " ?");
+
+        StringBuilder within = new StringBuilder("(");
+        if (sortAfter != null) {
+            within.append(sortAfter).append(" OR ");
+        }
+        within.append('(').append(sortEquals).append(" AND ").append(idAfter).append("))");
+
+        if (!isGroupedByCompletion()) {
+            if (sortDirection == Direction.ASC && !nullSortValue) {
+                return sortColumn + " >= ? AND " + within;
+            }
+            return within.toString();
+        }
+        String completedOp = forward ? ">" : "<";
+        return "tasks.completed " + completedOp + "= ? AND (tasks.completed " + completedOp
+                + " ? OR (tasks.completed = ? AND " + within + "))";
+    }
+
+    private static String sortAfter(String column, Direction direction, boolean nullSortValue) {
+        if (direction == Direction.ASC) {
+            return nullSortValue ? column + " IS NOT NULL" : column + " > ?";
+        }
+        return nullSortValue ? null : "(" + column + " < ? OR " + column + " IS NULL)";
+    }
+
+    private void addSeekArgs(List<Object> args) {
+        if (isGroupedByCompletion()) {
+            Integer completed = seekKey.getCompleted() != null ? seekKey.getCompleted() : 0;
+            args.add(completed);
+            args.add(completed);
+            args.add(completed);
+        }
+        Long sortValue = seekKey.getSortValue();
+        if (sortValue != null) {
+            if (!isGroupedByCompletion() && (seek == Seek.BEFORE ? direction.reverse() : direction) == Direction.ASC) {
+                args.add(sortValue);
+            }
+            args.add(sortValue);
+            args.add(sortValue);
+        }
+        args.add(seekKey.getId());
+    }
+}
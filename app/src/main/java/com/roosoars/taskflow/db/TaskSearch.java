@@ -0,0 +1,160 @@
+package com.roosoars.taskflow.db;
+
+import com.roosoars.taskflow.model.TaskSearchHit;
+import com.roosoars.taskflow.model.TaskWithCategory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+
+/**
+ * Builds FTS4 MATCH expressions from user input and ranks the hits of {@code tasks_fts}.
+ * FTS4 has no built-in ranking, so hits carry {@code matchinfo(tasks_fts, 'pcy')} and are
+ * scored here with a BM25-style weight, title matches counting twice as much as description.
+ */
+public final class TaskSearch {
+
+    // Upper bound on FTS hits scored per query, the most recent ones; keeps very short prefixes
+    // cheap on large tables, see TaskDao.searchHits.
+    public static final int MAX_HITS = 2000;
+
+    private static final double[] COLUMN_WEIGHTS = {2.0, 1.0};
+    private static final double K1 = 1.2;
+
+    private TaskSearch() {
+    }
+
+    /**
+     * Turns free text into a prefix query ({@code "fix bu"} becomes {@code "fix* bu*"}), or
+     * returns null when the input has no searchable token. Tokens are lower-cased so they can
+     * never be read as the AND/OR/NOT/NEAR operators.
+     */
+    public static String toMatchQuery(String input) {
+        if (input == null) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        StringBuilder token = new StringBuilder();
+        String lower = input.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (token.length() > 0) {
+                if (match.length() > 0) {
+                    match.append(' ');
+                }
+                match.append(token).append('*');
+                token.setLength(0);
+            }
+        }
+        return match.length() > 0 ? match.toString() : null;
+    }
+
+    /**
+     * BM25-style score of one hit from its matchinfo {@code 'pcy'}, with the document frequencies
+     * of each phrase in each column taken over the {@code rows} hits being ranked.
+     */
+    public static double score(byte[] matchInfo, int rows, int[] rowsWithHits) {
+        if (matchInfo == null || matchInfo.length < 8) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phrases = buffer.getInt(0);
+        int columns = buffer.getInt(4);
+
+        double score = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                int index = phrase * columns + column;
+                int offset = 8 + 4 * index;
+                if (offset + 4 > matchInfo.length || index >= rowsWithHits.length) {
+                    return score;
+                }
+                int hitsInRow = buffer.getInt(offset);
+                if (hitsInRow == 0) {
+                    continue;
+                }
+                double idf = Math.log(1 + (rows - rowsWithHits[index] + 0.5) / (rowsWithHits[index] + 0.5));
+                double tf = hitsInRow * (K1 + 1) / (hitsInRow + K1);
+                double weight = column < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[column] : 1.0;
+                score += weight * tf * idf;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Ids of the {@code limit} best hits, best first; ties keep the most recent task first.
+     * Term rarity is measured over these hits rather than the whole table: matchinfo's global
+     * counts ({@code 'x'}) walk every row matching a short prefix, which alone overruns the
+     * per-keystroke budget at 100k tasks.
+     */
+    public static List<Long> rank(List<TaskSearchHit> hits, int limit) {
+        int size = hits.size();
+        int[] rowsWithHits = rowsWithHits(hits);
+        long[] ids = new long[size];
+        double[] scores = new double[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            TaskSearchHit hit = hits.get(i);
+            ids[i] = hit.getTaskId();
+            scores[i] = score(hit.getMatchInfo(), size, rowsWithHits);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byScore = Double.compare(scores[b], scores[a]);
+            return byScore != 0 ? byScore : Long.compare(ids[b], ids[a]);
+        });
+
+        int count = Math.min(limit, size);
+        List<Long> ranked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ranked.add(ids[order[i]]);
+        }
+        return ranked;
+    }
+
+    // For each phrase and column, in matchinfo order, the number of hits with the phrase there.
+    static int[] rowsWithHits(List<TaskSearchHit> hits) {
+        int[] counts = new int[0];
+        for (TaskSearchHit hit : hits) {
+            byte[] matchInfo = hit.getMatchInfo();
+            if (matchInfo == null || matchInfo.length < 8) {
+                continue;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+            int entries = Math.min(buffer.getInt(0) * buffer.getInt(4), (matchInfo.length - 8) / 4);
+            if (counts.length < entries) {
+                counts = Arrays.copyOf(counts, entries);
+            }
+            for (int index = 0; index < entries; index++) {
+                if (buffer.getInt(8 + 4 * index) != 0) {
+                    counts[index]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    public static List<TaskWithCategory> orderByIds(List<TaskWithCategory> rows, List<Long> ids) {
+        Map<Long, TaskWithCategory> byId = new HashMap<>(rows.size() * 2);
+        for (TaskWithCategory row : rows) {
+            byId.put(row.getTask().getId(), row);
+        }
+        List<TaskWithCategory> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            TaskWithCategory row = byId.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+}
@@ -3,6 +3,7 @@ package com.roosoars.taskflow.di;
 import android.app.Application;
 
 import com.roosoars.taskflow.TaskFlowApplication;
+import com.roosoars.taskflow.reminder.ReminderReceiver;
 import com.roosoars.taskflow.ui.MainActivity;
 import com.roosoars.taskflow.ui.fragments.AddTaskFragment;
 import com.roosoars.taskflow.ui.fragments.CategoryFragment;
@@ -28,6 +29,8 @@ public interface AppComponent {
 
     void inject(CategoryFragment fragment);
 
+    void inject(ReminderReceiver receiver);
+
     @Component.Builder
     interface Builder {
         @BindsInstance
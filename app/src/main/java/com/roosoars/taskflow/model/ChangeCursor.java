@@ -0,0 +1,39 @@
+package com.roosoars.taskflow.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+
+/** Checkpoint of a change log consumer: the last {@link TaskChange} seq it has applied. */
+@Entity(tableName = "change_cursors")
+public class ChangeCursor {
+
+    @PrimaryKey
+    @NonNull
+    private String name;
+
+    private long seq;
+
+    public ChangeCursor(@NonNull String name, long seq) {
+        this.name = name;
+        this.seq = seq;
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    public void setName(@NonNull String name) {
+        this.name = name;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+}
@@ -2,6 +2,7 @@ package com.roosoars.taskflow.model;
 
 import androidx.room.Entity;
 import androidx.room.ForeignKey;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.TypeConverters;
 
@@ -10,13 +11,25 @@ import com.roosoars.taskflow.db.Converters;
 import java.util.Date;
 
 
+// The indices read the all/pending/completed lists, the category and type lists by date, and the
+// counts in index order (see TaskQueryPlanTest). Left to a temp B-tree sort: category and type
+// lists by priority, type lists by category, date-range lists, the all list in reversed
+// directions, and keyset pages walking due dates downwards past a key (completed list pages and
+// prepends of the all list), where NULL dates turn the seek into an OR of index ranges.
 @Entity(tableName = "tasks",
         foreignKeys = @ForeignKey(
                 entity = Category.class,
                 parentColumns = "id",
                 childColumns = "categoryId",
                 onDelete = ForeignKey.SET_NULL
-        ))
+        ),
+        indices = {
+                @Index({"completed", "dueDate"}),
+                @Index({"completed", "priority"}),
+                @Index({"completed", "categoryId"}),
+                @Index({"categoryId", "dueDate"}),
+                @Index({"type", "dueDate"})
+        })
 @TypeConverters(Converters.class)
 public class Task {
     @PrimaryKey(autoGenerate = true)
@@ -29,6 +42,8 @@ public class Task {
     private Long categoryId;
     private boolean completed;
     private String type;
+    // RRULE value of a recurring task, see RecurrenceRule; null for a one-off task.
+    private String recurrenceRule;
 
     public Task() {
         this.completed = false;
@@ -115,6 +130,29 @@ public class Task {
         this.type = type;
     }
 
+    public String getRecurrenceRule() {
+        return recurrenceRule;
+    }
+
+    public void setRecurrenceRule(String recurrenceRule) {
+        this.recurrenceRule = recurrenceRule;
+    }
+
+    public boolean isRecurring() {
+        return recurrenceRule != null;
+    }
+
+    /** A copy to change and save without touching this task, which the UI may still hold. */
+    public Task copy() {
+        Task copy = new Task(title, dueDate != null ? new Date(dueDate.getTime()) : null, priority,
+                categoryId, type);
+        copy.id = id;
+        copy.description = description;
+        copy.completed = completed;
+        copy.recurrenceRule = recurrenceRule;
+        return copy;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
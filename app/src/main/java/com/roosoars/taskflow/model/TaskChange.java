@@ -0,0 +1,55 @@
+package com.roosoars.taskflow.model;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+
+/**
+ * One entry of the change log: a task was inserted, updated or deleted. Entries are written by
+ * triggers on {@code tasks}, in the writing transaction; {@code seq} only ever grows, also
+ * across compactions.
+ */
+@Entity(tableName = "task_changes",
+        indices = @Index({"taskId", "seq"}))
+public class TaskChange {
+
+    public static final int INSERT = 0;
+    public static final int UPDATE = 1;
+    public static final int DELETE = 2;
+
+    @PrimaryKey(autoGenerate = true)
+    private long seq;
+
+    private long taskId;
+    private int op;
+
+    public TaskChange(long taskId, int op) {
+        this.taskId = taskId;
+        this.op = op;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(long taskId) {
+        this.taskId = taskId;
+    }
+
+    public int getOp() {
+        return op;
+    }
+
+    public void setOp(int op) {
+        this.op = op;
+    }
+}
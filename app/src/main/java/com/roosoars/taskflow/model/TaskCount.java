@@ -0,0 +1,30 @@
+package com.roosoars.taskflow.model;
+
+
+/** One row of a grouped task count: the group's key (category id, priority, ...) and its size. */
+public class TaskCount {
+
+    private Long groupKey;
+    private int count;
+
+    public TaskCount(Long groupKey, int count) {
+        this.groupKey = groupKey;
+        this.count = count;
+    }
+
+    public Long getGroupKey() {
+        return groupKey;
+    }
+
+    public void setGroupKey(Long groupKey) {
+        this.groupKey = groupKey;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,39 @@
+package com.roosoars.taskflow.model;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+
+// The 1 and 2 character prefix indices serve the first keystrokes of a search, which otherwise
+// merge the doclists of every term sharing the prefix. Doclists are kept newest first, the order
+// TaskDao.searchHits reads them in, so its LIMIT stops reading early.
+@Entity(tableName = "tasks_fts")
+@Fts4(contentEntity = Task.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61, prefix = {1, 2},
+        order = FtsOptions.Order.DESC)
+public class TaskFts {
+
+    private String title;
+    private String description;
+
+    public TaskFts(String title, String description) {
+        this.title = title;
+        this.description = description;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
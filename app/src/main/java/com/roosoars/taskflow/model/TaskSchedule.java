@@ -0,0 +1,40 @@
+package com.roosoars.taskflow.model;
+
+
+/** When a pending task falls due: its due date, the first occurrence, and its RRULE, if any. */
+public class TaskSchedule {
+
+    private long id;
+    private long dueDate;
+    private String recurrenceRule;
+
+    public TaskSchedule(long id, long dueDate, String recurrenceRule) {
+        this.id = id;
+        this.dueDate = dueDate;
+        this.recurrenceRule = recurrenceRule;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(long dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public String getRecurrenceRule() {
+        return recurrenceRule;
+    }
+
+    public void setRecurrenceRule(String recurrenceRule) {
+        this.recurrenceRule = recurrenceRule;
+    }
+}
@@ -0,0 +1,29 @@
+package com.roosoars.taskflow.model;
+
+
+public class TaskSearchHit {
+
+    private long taskId;
+    private byte[] matchInfo;
+
+    public TaskSearchHit(long taskId, byte[] matchInfo) {
+        this.taskId = taskId;
+        this.matchInfo = matchInfo;
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(long taskId) {
+        this.taskId = taskId;
+    }
+
+    public byte[] getMatchInfo() {
+        return matchInfo;
+    }
+
+    public void setMatchInfo(byte[] matchInfo) {
+        this.matchInfo = matchInfo;
+    }
+}
@@ -1,17 +1,13 @@
 package com.roosoars.taskflow.model;
 
 import androidx.room.Embedded;
-import androidx.room.Relation;
 
 
 public class TaskWithCategory {
     @Embedded
     private Task task;
 
-    @Relation(
-            parentColumn = "categoryId",
-            entityColumn = "id"
-    )
+    @Embedded(prefix = "category_")
     private Category category;
 
     public TaskWithCategory(Task task, Category category) {
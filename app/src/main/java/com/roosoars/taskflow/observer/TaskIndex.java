@@ -0,0 +1,228 @@
+package com.roosoars.taskflow.observer;
+
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.model.TaskSchedule;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+
+/**
+ * Due times of the pending tasks, kept current from {@link TaskObserver} events, so upcoming and
+ * overdue counts are range queries. They sit in a persistent treap ordered by due time and id,
+ * each node knowing the size of its subtree: a write copies the O(log n) nodes on its path and
+ * publishes a new root, and a count walks one root from any thread without locking. Writes are
+ * serialized on the index.
+ */
+public final class TaskIndex {
+
+    private static final class Node {
+        final long due;
+        final long id;
+        final int priority;
+        final int size;
+        final Node left;
+        final Node right;
+
+        Node(long due, long id, int priority, Node left, Node right) {
+            this.due = due;
+            this.id = id;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+        }
+
+        Node with(Node left, Node right) {
+            return new Node(due, id, priority, left, right);
+        }
+    }
+
+    private volatile Node root;
+    // Task id to the due time it is indexed under; Task objects are shared with the UI and may
+    // change after they were notified. Guarded by this.
+    private final Map<Long, Long> dueById = new HashMap<>();
+    // Ids written while load reads the database; what it read for them may be out of date.
+    private Set<Long> writtenDuringLoad;
+
+    /**
+     * Adds the pending tasks read by {@code query}, which runs on the calling thread. Tasks
+     * notified while it runs keep what the notification said.
+     */
+    public void load(Supplier<List<TaskSchedule>> query) {
+        synchronized (this) {
+            writtenDuringLoad = new HashSet<>();
+        }
+        List<TaskSchedule> schedules = null;
+        try {
+            schedules = query.get();
+        } finally {
+            synchronized (this) {
+                if (schedules != null) {
+                    for (TaskSchedule schedule : schedules) {
+                        if (!writtenDuringLoad.contains(schedule.getId())) {
+                            set(schedule.getId(), schedule.getDueDate());
+                        }
+                    }
+                }
+                writtenDuringLoad = null;
+            }
+        }
+    }
+
+    /** Indexes the task's due time if it is pending and has one, and drops it otherwise. */
+    public synchronized void put(Task task) {
+        written(task.getId());
+        if (!task.isCompleted() && task.getDueDate() != null) {
+            set(task.getId(), task.getDueDate().getTime());
+        } else {
+            clear(task.getId());
+        }
+    }
+
+    public synchronized void putAll(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            put(task);
+        }
+    }
+
+    public synchronized void remove(long taskId) {
+        written(taskId);
+        clear(taskId);
+    }
+
+    public synchronized void removeAll(Collection<Long> taskIds) {
+        for (Long taskId : taskIds) {
+            remove(taskId);
+        }
+    }
+
+    /** Number of pending tasks with a due time. */
+    public int size() {
+        return size(root);
+    }
+
+    /** Pending tasks due in {@code [fromMillis, toMillis)}. */
+    public int countPendingDueBetween(long fromMillis, long toMillis) {
+        if (toMillis <= fromMillis) {
+            return 0;
+        }
+        Node current = root;
+        return countBefore(current, toMillis) - countBefore(current, fromMillis);
+    }
+
+    public int countOverdue(long nowMillis) {
+        return countBefore(root, nowMillis);
+    }
+
+    private void written(long taskId) {
+        if (writtenDuringLoad != null) {
+            writtenDuringLoad.add(taskId);
+        }
+    }
+
+    private void set(long taskId, long due) {
+        Long previous = dueById.put(taskId, due);
+        Node current = root;
+        if (previous != null) {
+            if (previous == due) {
+                return;
+            }
+            current = delete(current, previous, taskId);
+        }
+        root = insert(current, due, taskId, priority(taskId));
+    }
+
+    private void clear(long taskId) {
+        Long previous = dueById.remove(taskId);
+        if (previous != null) {
+            root = delete(root, previous, taskId);
+        }
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    // Entries due before dueMillis: one walk from the root.
+    private static int countBefore(Node node, long dueMillis) {
+        int count = 0;
+        while (node != null) {
+            if (node.due < dueMillis) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    private static int compare(long due, long id, Node node) {
+        int byDue = Long.compare(due, node.due);
+        return byDue != 0 ? byDue : Long.compare(id, node.id);
+    }
+
+    // A hash of the id, so the treap is balanced in expectation whatever order tasks come in.
+    private static int priority(long taskId) {
+        long hash = taskId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static Node insert(Node node, long due, long id, int priority) {
+        if (node == null || priority > node.priority) {
+            Node[] parts = split(node, due, id);
+            return new Node(due, id, priority, parts[0], parts[1]);
+        }
+        if (compare(due, id, node) < 0) {
+            return node.with(insert(node.left, due, id, priority), node.right);
+        }
+        return node.with(node.left, insert(node.right, due, id, priority));
+    }
+
+    // The entries before (due, id) and the others.
+    private static Node[] split(Node node, long due, long id) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (compare(due, id, node) <= 0) {
+            Node[] parts = split(node.left, due, id);
+            return new Node[]{parts[0], node.with(parts[1], node.right)};
+        }
+        Node[] parts = split(node.right, due, id);
+        return new Node[]{node.with(node.left, parts[0]), parts[1]};
+    }
+
+    private static Node delete(Node node, long due, long id) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(due, id, node);
+        if (order < 0) {
+            return node.with(delete(node.left, due, id), node.right);
+        }
+        if (order > 0) {
+            return node.with(node.left, delete(node.right, due, id));
+        }
+        return merge(node.left, node.right);
+    }
+
+    // Joins two treaps whose entries are all ordered left before right.
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return left.with(left.left, merge(left.right, right));
+        }
+        return right.with(merge(left, right.left), right.right);
+    }
+}
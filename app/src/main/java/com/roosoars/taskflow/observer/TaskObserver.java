@@ -5,14 +5,16 @@ import android.util.Log;
 import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.LifecycleObserver;
 import androidx.lifecycle.LifecycleOwner;
-import androidx.lifecycle.Observer;
 import androidx.lifecycle.OnLifecycleEvent;
 
 import com.roosoars.taskflow.model.Task;
 
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 
 public class TaskObserver implements LifecycleObserver {
@@ -24,15 +26,47 @@ public class TaskObserver implements LifecycleObserver {
         void onTaskUpdated(Task task);
         void onTaskDeleted(Task task);
         void onTaskCompleted(Task task);
+
+        default void onTasksAdded(List<Task> tasks) {
+            for (Task task : tasks) {
+                onTaskAdded(task);
+            }
+        }
+
+        default void onTasksUpdated(List<Task> tasks) {
+            for (Task task : tasks) {
+                onTaskUpdated(task);
+            }
+        }
+
+        default void onTasksDeleted(List<Task> tasks) {
+            for (Task task : tasks) {
+                onTaskDeleted(task);
+            }
+        }
+
+        // Tasks removed by a set-based delete, known only by id; by default they are reported
+        // as tasks that carry nothing but their id.
+        default void onTasksDeletedById(Collection<Long> taskIds) {
+            List<Task> tasks = new ArrayList<>(taskIds.size());
+            for (Long id : taskIds) {
+                Task task = new Task();
+                task.setId(id);
+                tasks.add(task);
+            }
+            onTasksDeleted(tasks);
+        }
     }
 
-    private final List<TaskChangeListener> listeners = new ArrayList<>();
-    private final List<Task> tasks = new ArrayList<>();
+    private static final long HOUR_MILLIS = 60 * 60 * 1000;
+
+    // Notifications arrive on database threads while listeners register on the main thread:
+    // listeners are copy-on-write, and the index serializes its writes and reads lock-free.
+    private final CopyOnWriteArrayList<TaskChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final TaskIndex index = new TaskIndex();
 
     public void addListener(TaskChangeListener listener) {
-        if (!listeners.contains(listener)) {
-            listeners.add(listener);
-        }
+        listeners.addIfAbsent(listener);
     }
 
     public void removeListener(TaskChangeListener listener) {
@@ -40,7 +74,7 @@ public class TaskObserver implements LifecycleObserver {
     }
 
     public void notifyTaskAdded(Task task) {
-        tasks.add(task);
+        index.put(task);
         for (TaskChangeListener listener : listeners) {
             listener.onTaskAdded(task);
         }
@@ -48,12 +82,7 @@ public class TaskObserver implements LifecycleObserver {
     }
 
     public void notifyTaskUpdated(Task task) {
-        for (int i = 0; i < tasks.size(); i++) {
-            if (tasks.get(i).getId() == task.getId()) {
-                tasks.set(i, task);
-                break;
-            }
-        }
+        index.put(task);
         for (TaskChangeListener listener : listeners) {
             listener.onTaskUpdated(task);
         }
@@ -61,7 +90,7 @@ public class TaskObserver implements LifecycleObserver {
     }
 
     public void notifyTaskDeleted(Task task) {
-        tasks.removeIf(t -> t.getId() == task.getId());
+        index.remove(task.getId());
         for (TaskChangeListener listener : listeners) {
             listener.onTaskDeleted(task);
         }
@@ -69,43 +98,62 @@ public class TaskObserver implements LifecycleObserver {
     }
 
     public void notifyTaskCompleted(Task task) {
-        for (int i = 0; i < tasks.size(); i++) {
-            if (tasks.get(i).getId() == task.getId()) {
-                tasks.get(i).setCompleted(true);
-                break;
-            }
-        }
+        index.put(task);
         for (TaskChangeListener listener : listeners) {
             listener.onTaskCompleted(task);
         }
         Log.d(TAG, "Tarefa Completa: " + task.getTitle());
     }
 
-    public int getUpcomingTasksCount() {
-        Date now = new Date();
-        int count = 0;
+    public void notifyTasksAdded(List<Task> added) {
+        index.putAll(added);
+        for (TaskChangeListener listener : listeners) {
+            listener.onTasksAdded(added);
+        }
+        Log.d(TAG, "Tarefas Adicionadas: " + added.size());
+    }
 
-        for (Task task : tasks) {
-            if (!task.isCompleted() && task.getDueDate() != null) {
-                long diffInMillis = task.getDueDate().getTime() - now.getTime();
-                long diffInHours = diffInMillis / (60 * 60 * 1000);
+    public void notifyTasksUpdated(List<Task> changed) {
+        index.putAll(changed);
+        for (TaskChangeListener listener : listeners) {
+            listener.onTasksUpdated(changed);
+        }
+        Log.d(TAG, "Tarefas Atualizadas: " + changed.size());
+    }
 
-                if (diffInHours >= 0 && diffInHours <= 24) {
-                    count++;
-                }
-            }
+    public void notifyTasksDeleted(List<Task> deleted) {
+        Set<Long> ids = new HashSet<>();
+        for (Task task : deleted) {
+            ids.add(task.getId());
+        }
+        index.removeAll(ids);
+        for (TaskChangeListener listener : listeners) {
+            listener.onTasksDeleted(deleted);
         }
+        Log.d(TAG, "Tarefas Deletadas: " + deleted.size());
+    }
 
-        return count;
+    /** Batch delete known only by id, as a set-based delete reports it. */
+    public void notifyTasksDeletedById(Collection<Long> taskIds) {
+        index.removeAll(taskIds);
+        for (TaskChangeListener listener : listeners) {
+            listener.onTasksDeletedById(taskIds);
+        }
+        Log.d(TAG, "Tarefas Deletadas: " + taskIds.size());
     }
 
-    public Observer<List<Task>> createTaskListObserver() {
-        return taskList -> {
-            tasks.clear();
-            if (taskList != null) {
-                tasks.addAll(taskList);
-            }
-        };
+    public TaskIndex getIndex() {
+        return index;
+    }
+
+    // Same window as before: due between 0 and 24 whole hours from now, truncated toward zero.
+    public int getUpcomingTasksCount() {
+        long now = System.currentTimeMillis();
+        return index.countPendingDueBetween(now - HOUR_MILLIS + 1, now + 25 * HOUR_MILLIS);
+    }
+
+    public int getOverdueTasksCount() {
+        return index.countOverdue(System.currentTimeMillis());
     }
 
     @OnLifecycleEvent(Lifecycle.Event.ON_START)
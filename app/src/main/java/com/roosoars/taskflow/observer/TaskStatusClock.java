@@ -0,0 +1,137 @@
+package com.roosoars.taskflow.observer;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import com.roosoars.taskflow.db.AppDatabase;
+import com.roosoars.taskflow.db.TaskDao;
+import com.roosoars.taskflow.ui.decorators.TaskStatus;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+/**
+ * Emits a tick, the current time in millis, at each instant a pending task changes status with
+ * no write involved: when it enters the due-soon window, when it becomes overdue, and at
+ * midnight, when due dates move to today or tomorrow. Views that show a status recompute on
+ * these ticks instead of comparing against the clock on every bind or query.
+ *
+ * <p>Upcoming instants sit in a min-heap and a single main-thread callback is posted for the
+ * earliest one. Only tasks due within {@link #WINDOW_MILLIS} are loaded, which covers every
+ * instant up to {@link #RELOAD_AFTER_MILLIS}; the due dates are reloaded then, and whenever the
+ * tasks table changes. Nothing is loaded or posted while the ticks have no active observer.
+ */
+@Singleton
+public class TaskStatusClock {
+
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000;
+    private static final long RELOAD_AFTER_MILLIS = DAY_MILLIS;
+    private static final long WINDOW_MILLIS = RELOAD_AFTER_MILLIS + TaskStatus.DUE_SOON_WINDOW_MILLIS;
+
+    private final AppDatabase database;
+    private final TaskDao taskDao;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Ticks ticks = new Ticks();
+
+    @Inject
+    public TaskStatusClock(AppDatabase database) {
+        this.database = database;
+        this.taskDao = database.taskDao();
+    }
+
+    public LiveData<Long> getTicks() {
+        return ticks;
+    }
+
+    private final class Ticks extends MediatorLiveData<Long> {
+        private final PriorityQueue<Long> instants = new PriorityQueue<>();
+        private final Runnable onInstant = this::onInstant;
+        private LiveData<List<Long>> dueDates;
+        private long reloadAt;
+
+        @Override
+        protected void onActive() {
+            // An instant may have passed while nobody was observing.
+            long now = System.currentTimeMillis();
+            if (!instants.isEmpty() && instants.peek() <= now) {
+                instants.clear();
+                setValue(now);
+            }
+            reload();
+            super.onActive();
+        }
+
+        @Override
+        protected void onInactive() {
+            super.onInactive();
+            handler.removeCallbacks(onInstant);
+        }
+
+        private void reload() {
+            if (dueDates != null) {
+                removeSource(dueDates);
+            }
+            dueDates = database.getInvalidationTracker().createLiveData(new String[]{"tasks"}, false, () -> {
+                long now = System.currentTimeMillis();
+                return taskDao.getPendingDueDatesBetween(now, now + WINDOW_MILLIS);
+            });
+            addSource(dueDates, this::schedule);
+        }
+
+        private void schedule(List<Long> dues) {
+            long now = System.currentTimeMillis();
+            instants.clear();
+            for (Long due : dues) {
+                if (due - TaskStatus.DUE_SOON_WINDOW_MILLIS > now) {
+                    instants.add(due - TaskStatus.DUE_SOON_WINDOW_MILLIS);
+                }
+                instants.add(due);
+            }
+            instants.add(nextMidnight(now));
+            reloadAt = now + RELOAD_AFTER_MILLIS;
+            postNext(now);
+        }
+
+        private void onInstant() {
+            long now = System.currentTimeMillis();
+            boolean flipped = false;
+            while (!instants.isEmpty() && instants.peek() <= now) {
+                instants.poll();
+                flipped = true;
+            }
+            if (flipped) {
+                setValue(now);
+            }
+            if (now >= reloadAt) {
+                reload();
+            } else {
+                postNext(now);
+            }
+        }
+
+        private void postNext(long now) {
+            handler.removeCallbacks(onInstant);
+            long next = instants.isEmpty() ? reloadAt : Math.min(instants.peek(), reloadAt);
+            handler.postDelayed(onInstant, Math.max(0, next - now));
+        }
+    }
+
+    private static long nextMidnight(long now) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(now);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        calendar.add(Calendar.DAY_OF_YEAR, 1);
+        return calendar.getTimeInMillis();
+    }
+}
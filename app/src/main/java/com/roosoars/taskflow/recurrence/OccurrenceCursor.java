@@ -0,0 +1,308 @@
+package com.roosoars.taskflow.recurrence;
+
+import androidx.annotation.Nullable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+
+/**
+ * Walks the occurrences of one series in time order, {@link android.database.Cursor}-style:
+ * {@link #moveToNext()} then {@link #getTimeMillis()}. The first occurrence is the start itself;
+ * the later ones keep its local time of day across DST changes, and dates a month or year lacks
+ * (the 31st, February 29) are skipped as RFC 5545 specifies.
+ *
+ * <p>The position is a few primitives and the zone offset is cached until the next transition,
+ * so stepping allocates nothing; {@link #reset} points the same cursor at another series.
+ */
+public final class OccurrenceCursor {
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final long NO_DAY = Long.MIN_VALUE;
+    // Periods in a row without a valid date before a rule is taken to have no more occurrences,
+    // e.g. BYMONTHDAY=31 every 12 months starting in April.
+    private static final int MAX_EMPTY_PERIODS = 1000;
+
+    private final ZoneRules zoneRules;
+
+    private long taskId;
+    @Nullable
+    private RecurrenceRule rule;
+    private long startMillis;
+    private long startDay;
+    private int secondOfDay;
+    private int milliOfSecond;
+    private int weekdays;
+    private int monthDay;
+
+    private boolean started;
+    private boolean exhausted;
+    private long timeMillis;
+    private int emitted;
+    // DAILY: next candidate day. WEEKLY: Monday of the current week, with the next weekday to try.
+    // MONTHLY and YEARLY: the current month.
+    private long day;
+    private int weekday;
+    private int year;
+    private int month;
+
+    private int offsetSeconds;
+    private long offsetFromLocal = Long.MAX_VALUE;
+    private long offsetUntilLocal = Long.MIN_VALUE;
+
+    public OccurrenceCursor(ZoneId zone) {
+        this.zoneRules = zone.getRules();
+    }
+
+    /** Points the cursor before the first occurrence of a series; a null rule is a one-off. */
+    public void reset(long taskId, long startMillis, @Nullable RecurrenceRule rule) {
+        this.taskId = taskId;
+        this.rule = rule;
+        this.startMillis = startMillis;
+        long localSecond = Math.floorDiv(startMillis, 1000)
+                + zoneRules.getOffset(Instant.ofEpochMilli(startMillis)).getTotalSeconds();
+        startDay = Math.floorDiv(localSecond, SECONDS_PER_DAY);
+        secondOfDay = (int) Math.floorMod(localSecond, SECONDS_PER_DAY);
+        milliOfSecond = (int) Math.floorMod(startMillis, 1000);
+        if (rule != null) {
+            weekdays = rule.getWeekdays() != 0 ? rule.getWeekdays() : 1 << dayOfWeek(startDay);
+            monthDay = rule.getMonthDay() != 0
+                    ? rule.getMonthDay() : LocalDate.ofEpochDay(startDay).getDayOfMonth();
+        }
+        rewind();
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    /** The current occurrence; only valid after {@link #moveToNext()} returned true. */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public boolean moveToNext() {
+        if (exhausted) {
+            return false;
+        }
+        if (!started) {
+            started = true;
+            emitted = 1;
+            timeMillis = startMillis;
+            return true;
+        }
+        if (rule == null || (rule.getCount() != 0 && emitted >= rule.getCount())) {
+            exhausted = true;
+            return false;
+        }
+        int emptyPeriods = 0;
+        while (emptyPeriods < MAX_EMPTY_PERIODS) {
+            long candidateDay = nextCandidateDay();
+            if (candidateDay == NO_DAY) {
+                emptyPeriods++;
+                continue;
+            }
+            long candidate = toMillis(candidateDay);
+            // Dates of the first period that fall before the start.
+            if (candidate <= timeMillis) {
+                continue;
+            }
+            if (candidate > rule.getUntilMillis()) {
+                break;
+            }
+            timeMillis = candidate;
+            emitted++;
+            return true;
+        }
+        exhausted = true;
+        return false;
+    }
+
+    /**
+     * Moves to the first occurrence at or after {@code fromMillis}, from the start of the series.
+     * Unbounded rules jump straight to the period that contains it instead of stepping there.
+     */
+    public boolean seek(long fromMillis) {
+        rewind();
+        if (!moveToNext()) {
+            return false;
+        }
+        if (timeMillis >= fromMillis) {
+            return true;
+        }
+        if (rule != null && rule.getCount() == 0) {
+            jumpTowards(fromMillis);
+        }
+        while (timeMillis < fromMillis) {
+            if (!moveToNext()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rewind() {
+        started = false;
+        exhausted = false;
+        timeMillis = startMillis;
+        emitted = 0;
+        if (rule == null) {
+            return;
+        }
+        switch (rule.getFrequency()) {
+            case DAILY:
+                day = startDay;
+                break;
+            case WEEKLY:
+                weekday = dayOfWeek(startDay);
+                day = startDay - weekday;
+                break;
+            case MONTHLY:
+            case YEARLY:
+                LocalDate start = LocalDate.ofEpochDay(startDay);
+                year = start.getYear();
+                month = start.getMonthValue();
+                break;
+        }
+    }
+
+    // Skips whole periods that end before the target. The target's UTC day is at most one day off
+    // its local day, so the period holding the day before is kept.
+    private void jumpTowards(long fromMillis) {
+        long targetDay = Math.floorDiv(fromMillis, 1000L * SECONDS_PER_DAY) - 1;
+        int interval = rule.getInterval();
+        switch (rule.getFrequency()) {
+            case DAILY:
+                if (targetDay > day) {
+                    day += (targetDay - day) / interval * interval;
+                }
+                break;
+            case WEEKLY:
+                long targetWeek = targetDay - dayOfWeek(targetDay);
+                long periods = (targetWeek - day) / (7L * interval);
+                if (periods > 0) {
+                    day += periods * 7 * interval;
+                    weekday = 0;
+                }
+                break;
+            case MONTHLY:
+            case YEARLY:
+                LocalDate target = LocalDate.ofEpochDay(targetDay);
+                int months = rule.getFrequency() == RecurrenceRule.Frequency.MONTHLY
+                        ? (target.getYear() - year) * 12 + target.getMonthValue() - month
+                        : (target.getYear() - year) * 12;
+                int step = rule.getFrequency() == RecurrenceRule.Frequency.MONTHLY ? interval : interval * 12;
+                if (months >= step) {
+                    addMonths(months / step * step);
+                }
+                break;
+        }
+    }
+
+    // The next date the rule generates, advancing the period state, or NO_DAY when the period
+    // just finished had no valid date.
+    private long nextCandidateDay() {
+        switch (rule.getFrequency()) {
+            case DAILY: {
+                long candidate = day;
+                day += rule.getInterval();
+                return candidate;
+            }
+            case WEEKLY:
+                while (weekday < 7) {
+                    int candidate = weekday++;
+                    if ((weekdays & (1 << candidate)) != 0) {
+                        return day + candidate;
+                    }
+                }
+                day += 7L * rule.getInterval();
+                weekday = 0;
+                return nextCandidateDay();
+            case MONTHLY:
+            case YEARLY: {
+                int length = lengthOfMonth(year, month);
+                int dayOfMonth = monthDay == RecurrenceRule.LAST_DAY_OF_MONTH ? length : monthDay;
+                long candidate = dayOfMonth <= length ? epochDay(year, month, dayOfMonth) : NO_DAY;
+                addMonths(rule.getFrequency() == RecurrenceRule.Frequency.MONTHLY
+                        ? rule.getInterval() : rule.getInterval() * 12);
+                return candidate;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private void addMonths(int months) {
+        int index = year * 12 + month - 1 + months;
+        year = Math.floorDiv(index, 12);
+        month = Math.floorMod(index, 12) + 1;
+    }
+
+    private long toMillis(long epochDay) {
+        long localSecond = epochDay * SECONDS_PER_DAY + secondOfDay;
+        return (localSecond - offsetAt(localSecond)) * 1000 + milliOfSecond;
+    }
+
+    // The offset for a local time, cached for the span of local times between two transitions.
+    private int offsetAt(long localSecond) {
+        if (localSecond >= offsetFromLocal && localSecond < offsetUntilLocal) {
+            return offsetSeconds;
+        }
+        LocalDateTime local = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
+        ZoneOffsetTransition transition = zoneRules.getTransition(local);
+        if (transition != null) {
+            // A skipped time moves forward by the gap and a repeated one takes its earlier
+            // instant, both by using the offset before the transition, as ZonedDateTime does.
+            return transition.getOffsetBefore().getTotalSeconds();
+        }
+        offsetSeconds = zoneRules.getOffset(local).getTotalSeconds();
+        Instant instant = Instant.ofEpochSecond(localSecond - offsetSeconds);
+        ZoneOffsetTransition previous = zoneRules.previousTransition(instant.plusSeconds(1));
+        ZoneOffsetTransition next = zoneRules.nextTransition(instant);
+        offsetFromLocal = previous != null
+                ? Math.max(toLocalSecond(previous.getDateTimeBefore()), toLocalSecond(previous.getDateTimeAfter()))
+                : Long.MIN_VALUE;
+        offsetUntilLocal = next != null
+                ? Math.min(toLocalSecond(next.getDateTimeBefore()), toLocalSecond(next.getDateTimeAfter()))
+                : Long.MAX_VALUE;
+        return offsetSeconds;
+    }
+
+    private static long toLocalSecond(LocalDateTime local) {
+        return local.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // Monday is 0; epoch day 0 was a Thursday.
+    private static int dayOfWeek(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // Days from civil, as in LocalDate.toEpochDay but without allocating.
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+}
@@ -0,0 +1,281 @@
+package com.roosoars.taskflow.recurrence;
+
+import androidx.annotation.Nullable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Objects;
+
+
+/**
+ * The subset of RFC 5545 RRULE stored on a recurring task: {@code FREQ} (DAILY, WEEKLY, MONTHLY
+ * or YEARLY), {@code INTERVAL}, {@code BYDAY} for weekly rules, a single {@code BYMONTHDAY} for
+ * monthly rules, {@code COUNT} and {@code UNTIL}. The task's due date is the first occurrence,
+ * so it also gives the time of day and, when BYDAY or BYMONTHDAY are absent, the day.
+ */
+public final class RecurrenceRule {
+
+    public enum Frequency {DAILY, WEEKLY, MONTHLY, YEARLY}
+
+    public static final int LAST_DAY_OF_MONTH = -1;
+
+    private static final String[] WEEKDAYS = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+    private static final DateTimeFormatter UNTIL_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'", Locale.ROOT);
+
+    private final Frequency frequency;
+    private final int interval;
+    private final int weekdays;
+    private final int monthDay;
+    private final int count;
+    private final long untilMillis;
+
+    private RecurrenceRule(Frequency frequency, int interval, int weekdays, int monthDay,
+                           int count, long untilMillis) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.weekdays = weekdays;
+        this.monthDay = monthDay;
+        this.count = count;
+        this.untilMillis = untilMillis;
+    }
+
+    public static RecurrenceRule of(Frequency frequency) {
+        return new RecurrenceRule(frequency, 1, 0, 0, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Parses an RRULE value, with or without the {@code RRULE:} prefix.
+     *
+     * @throws IllegalArgumentException if the rule is malformed or uses parts outside the subset
+     */
+    public static RecurrenceRule parse(String value) {
+        String rule = value.trim();
+        if (rule.regionMatches(true, 0, "RRULE:", 0, 6)) {
+            rule = rule.substring(6);
+        }
+        Frequency frequency = null;
+        int interval = 1;
+        int weekdays = 0;
+        int monthDay = 0;
+        int count = 0;
+        long untilMillis = Long.MAX_VALUE;
+        for (String part : rule.split(";")) {
+            int equals = part.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Malformed RRULE part: " + part);
+            }
+            String name = part.substring(0, equals).toUpperCase(Locale.ROOT);
+            String argument = part.substring(equals + 1).toUpperCase(Locale.ROOT);
+            switch (name) {
+                case "FREQ":
+                    try {
+                        frequency = Frequency.valueOf(argument);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unsupported FREQ: " + argument);
+                    }
+                    break;
+                case "INTERVAL":
+                    interval = parsePositive(name, argument);
+                    break;
+                case "COUNT":
+                    count = parsePositive(name, argument);
+                    break;
+                case "BYDAY":
+                    weekdays = parseWeekdays(argument);
+                    break;
+                case "BYMONTHDAY":
+                    monthDay = parseMonthDay(argument);
+                    break;
+                case "UNTIL":
+                    untilMillis = parseUntil(argument);
+                    break;
+                case "WKST":
+                    if (!"MO".equals(argument)) {
+                        throw new IllegalArgumentException("Only WKST=MO is supported");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported RRULE part: " + name);
+            }
+        }
+        if (frequency == null) {
+            throw new IllegalArgumentException("RRULE without FREQ: " + value);
+        }
+        if (weekdays != 0 && frequency != Frequency.WEEKLY) {
+            throw new IllegalArgumentException("BYDAY is only supported with FREQ=WEEKLY");
+        }
+        if (monthDay != 0 && frequency != Frequency.MONTHLY) {
+            throw new IllegalArgumentException("BYMONTHDAY is only supported with FREQ=MONTHLY");
+        }
+        if (count != 0 && untilMillis != Long.MAX_VALUE) {
+            throw new IllegalArgumentException("COUNT and UNTIL cannot both be set");
+        }
+        return new RecurrenceRule(frequency, interval, weekdays, monthDay, count, untilMillis);
+    }
+
+    /** Like {@link #parse}, but null for a null, blank or unsupported rule. */
+    @Nullable
+    public static RecurrenceRule tryParse(@Nullable String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return parse(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    /** BYDAY as a bit set, Monday in bit 0; 0 means the weekday of the first occurrence. */
+    public int getWeekdays() {
+        return weekdays;
+    }
+
+    /** 1 to 31, {@link #LAST_DAY_OF_MONTH}, or 0 for the day of the first occurrence. */
+    public int getMonthDay() {
+        return monthDay;
+    }
+
+    /** Total number of occurrences, the first one included, or 0 when unbounded. */
+    public int getCount() {
+        return count;
+    }
+
+    /** Last instant an occurrence may fall on, or {@code Long.MAX_VALUE}. */
+    public long getUntilMillis() {
+        return untilMillis;
+    }
+
+    public RecurrenceRule withInterval(int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("INTERVAL must be positive");
+        }
+        return new RecurrenceRule(frequency, interval, weekdays, monthDay, count, untilMillis);
+    }
+
+    /**
+     * The rule of the same series once its first occurrence is done, so the task created for the
+     * next occurrence keeps the remaining COUNT; null when that was the last one.
+     */
+    @Nullable
+    public RecurrenceRule afterFirstOccurrence() {
+        if (count == 0) {
+            return this;
+        }
+        if (count == 1) {
+            return null;
+        }
+        return new RecurrenceRule(frequency, interval, weekdays, monthDay, count - 1, untilMillis);
+    }
+
+    /** The canonical RRULE value, as stored in the tasks table. */
+    @Override
+    public String toString() {
+        StringBuilder rule = new StringBuilder("FREQ=").append(frequency.name());
+        if (interval != 1) {
+            rule.append(";INTERVAL=").append(interval);
+        }
+        if (weekdays != 0) {
+            rule.append(";BYDAY=");
+            boolean first = true;
+            for (int day = 0; day < WEEKDAYS.length; day++) {
+                if ((weekdays & (1 << day)) != 0) {
+                    rule.append(first ? "" : ",").append(WEEKDAYS[day]);
+                    first = false;
+                }
+            }
+        }
+        if (monthDay != 0) {
+            rule.append(";BYMONTHDAY=").append(monthDay);
+        }
+        if (count != 0) {
+            rule.append(";COUNT=").append(count);
+        }
+        if (untilMillis != Long.MAX_VALUE) {
+            rule.append(";UNTIL=").append(UNTIL_FORMAT.format(
+                    LocalDateTime.ofEpochSecond(Math.floorDiv(untilMillis, 1000), 0, ZoneOffset.UTC)));
+        }
+        return rule.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RecurrenceRule that = (RecurrenceRule) o;
+        return interval == that.interval && weekdays == that.weekdays && monthDay == that.monthDay
+                && count == that.count && untilMillis == that.untilMillis
+                && frequency == that.frequency;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(frequency, interval, weekdays, monthDay, count, untilMillis);
+    }
+
+    private static int parsePositive(String name, String argument) {
+        try {
+            int value = Integer.parseInt(argument);
+            if (value >= 1) {
+                return value;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException(name + " must be a positive integer: " + argument);
+    }
+
+    private static int parseWeekdays(String argument) {
+        int weekdays = 0;
+        for (String day : argument.split(",")) {
+            int index = -1;
+            for (int i = 0; i < WEEKDAYS.length; i++) {
+                if (WEEKDAYS[i].equals(day)) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                throw new IllegalArgumentException("Unsupported BYDAY value: " + day);
+            }
+            weekdays |= 1 << index;
+        }
+        return weekdays;
+    }
+
+    private static int parseMonthDay(String argument) {
+        try {
+            int day = Integer.parseInt(argument);
+            if ((day >= 1 && day <= 31) || day == LAST_DAY_OF_MONTH) {
+                return day;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException("Unsupported BYMONTHDAY value: " + argument);
+    }
+
+    // UTC date-time, or a date taken as the last second of that day in UTC.
+    private static long parseUntil(String argument) {
+        try {
+            if (argument.length() == 8) {
+                LocalDate date = LocalDate.parse(argument, DateTimeFormatter.BASIC_ISO_DATE);
+                return date.atTime(23, 59, 59).toEpochSecond(ZoneOffset.UTC) * 1000;
+            }
+            return LocalDateTime.parse(argument, UNTIL_FORMAT).toEpochSecond(ZoneOffset.UTC) * 1000;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed UNTIL: " + argument);
+        }
+    }
+}
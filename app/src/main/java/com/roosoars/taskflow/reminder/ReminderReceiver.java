@@ -0,0 +1,30 @@
+package com.roosoars.taskflow.reminder;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+import com.roosoars.taskflow.TaskFlowApplication;
+
+import javax.inject.Inject;
+
+
+/**
+ * Receives the reminder alarm. It also listens for the boot broadcast, which needs no handling:
+ * starting the process is enough, as {@link TaskFlowApplication} loads the reminders again.
+ */
+public class ReminderReceiver extends BroadcastReceiver {
+
+    @Inject
+    ReminderScheduler reminderScheduler;
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (!ReminderScheduler.ACTION_REMIND.equals(intent.getAction())) {
+            return;
+        }
+        ((TaskFlowApplication) context.getApplicationContext()).getAppComponent().inject(this);
+        PendingResult result = goAsync();
+        reminderScheduler.onAlarm(result::finish);
+    }
+}
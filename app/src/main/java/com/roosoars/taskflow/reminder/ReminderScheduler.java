@@ -0,0 +1,294 @@
+package com.roosoars.taskflow.reminder;
+
+import android.app.AlarmManager;
+import android.app.Application;
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.util.Log;
+
+import com.roosoars.taskflow.R;
+import com.roosoars.taskflow.db.DatabaseExecutor;
+import com.roosoars.taskflow.db.TaskDao;
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.model.TaskSchedule;
+import com.roosoars.taskflow.observer.TaskObserver;
+import com.roosoars.taskflow.ui.MainActivity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+/**
+ * Posts a notification when pending tasks come due. Reminders live in a {@link TimingWheel} with
+ * one-minute ticks, loaded once at startup and then kept current from {@link TaskObserver}
+ * events; only the earliest one is registered with the {@link AlarmManager}. Each alarm expires
+ * everything due up to that moment into a single notification, so reminders of the same minute,
+ * or all those missed while the device slept, arrive together.
+ *
+ * <p>The wheel is only touched from its own serial executor. The time up to which reminders were
+ * posted survives the process, so a reminder that came due while it was dead is still posted
+ * when the alarm or a reboot brings it back.
+ */
+@Singleton
+public class ReminderScheduler implements TaskObserver.TaskChangeListener {
+
+    private static final String TAG = "ReminderScheduler";
+
+    static final String ACTION_REMIND = "com.roosoars.taskflow.action.REMIND";
+
+    private static final String CHANNEL_ID = "reminders";
+    private static final long MINUTE_MILLIS = 60 * 1000;
+    private static final String PREFERENCES = "reminders";
+    private static final String KEY_POSTED_UNTIL = "posted_until";
+    private static final int MAX_LISTED_TASKS = 5;
+
+    private final Context context;
+    private final TaskDao taskDao;
+    private final AlarmManager alarmManager;
+    private final NotificationManager notificationManager;
+    private final SharedPreferences preferences;
+    private final Executor executor = DatabaseExecutor.serial("taskflow-reminders");
+    private final TimingWheel wheel;
+    private long alarmAt = -1;
+
+    @Inject
+    public ReminderScheduler(Application application, TaskDao taskDao, TaskObserver taskObserver) {
+        this.context = application;
+        this.taskDao = taskDao;
+        this.alarmManager = application.getSystemService(AlarmManager.class);
+        this.notificationManager = application.getSystemService(NotificationManager.class);
+        this.preferences = application.getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+        this.wheel = new TimingWheel(MINUTE_MILLIS, System.currentTimeMillis());
+
+        NotificationChannel channel = new NotificationChannel(CHANNEL_ID,
+                application.getString(R.string.reminder_channel_name), NotificationManager.IMPORTANCE_HIGH);
+        channel.setDescription(application.getString(R.string.reminder_channel_description));
+        notificationManager.createNotificationChannel(channel);
+
+        taskObserver.addListener(this);
+    }
+
+    /**
+     * Loads the reminders of pending tasks due after the last one posted and registers the
+     * alarm. Events that arrive before the load only get ahead of what it reads.
+     */
+    public void start() {
+        executor.execute(() -> {
+            long now = System.currentTimeMillis();
+            // On the first run, tasks already overdue get no reminder.
+            long postedUntil = preferences.getLong(KEY_POSTED_UNTIL, now);
+            if (!preferences.contains(KEY_POSTED_UNTIL)) {
+                preferences.edit().putLong(KEY_POSTED_UNTIL, now).apply();
+            }
+            schedulePending(postedUntil);
+            postDue(now);
+            updateAlarm();
+        });
+    }
+
+    /**
+     * Reloads the reminders of pending tasks due from now on, for tasks written without events
+     * such as a backup import. Reminders already due are posted first, as the alarm would.
+     */
+    public void reload() {
+        executor.execute(() -> {
+            long now = System.currentTimeMillis();
+            postDue(now);
+            schedulePending(now);
+            updateAlarm();
+        });
+    }
+
+    /** Called by the alarm; {@code done} runs once the due reminders are posted. */
+    void onAlarm(Runnable done) {
+        executor.execute(() -> {
+            try {
+                // The alarm that brought us here is spent.
+                alarmAt = -1;
+                postDue(System.currentTimeMillis());
+                updateAlarm();
+            } finally {
+                done.run();
+            }
+        });
+    }
+
+    @Override
+    public void onTaskAdded(Task task) {
+        onTasksUpdated(List.of(task));
+    }
+
+    @Override
+    public void onTaskUpdated(Task task) {
+        onTasksUpdated(List.of(task));
+    }
+
+    @Override
+    public void onTaskDeleted(Task task) {
+        onTasksDeleted(List.of(task));
+    }
+
+    @Override
+    public void onTaskCompleted(Task task) {
+        onTasksUpdated(List.of(task));
+    }
+
+    @Override
+    public void onTasksUpdated(List<Task> tasks) {
+        // Task objects are shared with the UI: read them now, on the notifying thread.
+        long[] ids = new long[tasks.size()];
+        long[] deadlines = new long[tasks.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Task task = tasks.get(i);
+            ids[i] = task.getId();
+            deadlines[i] = task.isCompleted() || task.getDueDate() == null ? -1 : task.getDueDate().getTime();
+        }
+        executor.execute(() -> {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < ids.length; i++) {
+                if (deadlines[i] > now) {
+                    wheel.schedule(ids[i], deadlines[i]);
+                } else {
+                    wheel.cancel(ids[i]);
+                }
+            }
+            updateAlarm();
+        });
+    }
+
+    @Override
+    public void onTasksDeleted(List<Task> tasks) {
+        long[] ids = new long[tasks.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = tasks.get(i).getId();
+        }
+        cancel(ids);
+    }
+
+    @Override
+    public void onTasksDeletedById(Collection<Long> taskIds) {
+        long[] ids = new long[taskIds.size()];
+        int i = 0;
+        for (Long id : taskIds) {
+            ids[i++] = id;
+        }
+        cancel(ids);
+    }
+
+    private void cancel(long[] ids) {
+        executor.execute(() -> {
+            for (long id : ids) {
+                wheel.cancel(id);
+            }
+            updateAlarm();
+        });
+    }
+
+    private void schedulePending(long after) {
+        for (TaskSchedule schedule : taskDao.getPendingSchedules(after, Long.MAX_VALUE)) {
+            if (schedule.getDueDate() > after) {
+                wheel.schedule(schedule.getId(), schedule.getDueDate());
+            }
+        }
+        Log.d(TAG, "Lembretes carregados: " + wheel.size());
+    }
+
+    private void updateAlarm() {
+        long next = wheel.nextDeadline();
+        if (next == alarmAt) {
+            return;
+        }
+        alarmAt = next;
+        PendingIntent operation = PendingIntent.getBroadcast(context, 0,
+                new Intent(context, ReminderReceiver.class).setAction(ACTION_REMIND),
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        if (next < 0) {
+            alarmManager.cancel(operation);
+        } else if (Build.VERSION.SDK_INT < Build.VERSION_CODES.S || alarmManager.canScheduleExactAlarms()) {
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, next, operation);
+        } else {
+            // Without the exact alarm permission the system may deliver it a few minutes late.
+            alarmManager.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, next, operation);
+        }
+    }
+
+    private void postDue(long now) {
+        List<Long> due = new ArrayList<>();
+        wheel.advanceTo(now, (id, deadlineMillis) -> due.add(id));
+        preferences.edit().putLong(KEY_POSTED_UNTIL, now).apply();
+        if (due.isEmpty()) {
+            return;
+        }
+
+        // Tasks deleted without an event, e.g. with their category, are simply gone here.
+        List<Task> tasks = new ArrayList<>();
+        for (int from = 0; from < due.size(); from += TaskDao.MAX_IDS_PER_STATEMENT) {
+            int to = Math.min(from + TaskDao.MAX_IDS_PER_STATEMENT, due.size());
+            List<Long> chunk = due.subList(from, to);
+            for (Task task : taskDao.getTasksByIdsSync(chunk)) {
+                if (!task.isCompleted()) {
+                    tasks.add(task);
+                }
+            }
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+        if (!notificationManager.areNotificationsEnabled()) {
+            Log.d(TAG, "Notificações desativadas, lembretes ignorados: " + tasks.size());
+            return;
+        }
+        notificationManager.notify((int) (now / MINUTE_MILLIS), buildNotification(tasks));
+        Log.d(TAG, "Lembretes enviados: " + tasks.size());
+    }
+
+    private Notification buildNotification(List<Task> tasks) {
+        PendingIntent contentIntent = PendingIntent.getActivity(context, 0,
+                new Intent(context, MainActivity.class).setFlags(Intent.FLAG_ACTIVITY_NEW_TASK
+                        | Intent.FLAG_ACTIVITY_CLEAR_TOP),
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        Notification.Builder builder = new Notification.Builder(context, CHANNEL_ID)
+                .setSmallIcon(android.R.drawable.ic_popup_reminder)
+                .setCategory(Notification.CATEGORY_REMINDER)
+                .setContentIntent(contentIntent)
+                .setAutoCancel(true);
+
+        if (tasks.size() == 1) {
+            Task task = tasks.get(0);
+            String description = task.getDescription();
+            return builder.setContentTitle(task.getTitle())
+                    .setContentText(description != null && !description.isEmpty()
+                            ? description : context.getString(R.string.reminder_due_now))
+                    .build();
+        }
+
+        String title = context.getResources().getQuantityString(R.plurals.reminder_title,
+                tasks.size(), tasks.size());
+        Notification.InboxStyle style = new Notification.InboxStyle().setBigContentTitle(title);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < Math.min(tasks.size(), MAX_LISTED_TASKS); i++) {
+            style.addLine(tasks.get(i).getTitle());
+            text.append(i == 0 ? "" : ", ").append(tasks.get(i).getTitle());
+        }
+        int more = tasks.size() - MAX_LISTED_TASKS;
+        if (more > 0) {
+            style.setSummaryText(context.getResources().getQuantityString(R.plurals.reminder_more, more, more));
+        }
+        return builder.setContentTitle(title)
+                .setContentText(text)
+                .setStyle(style)
+                .setNumber(tasks.size())
+                .build();
+    }
+}
@@ -0,0 +1,245 @@
+package com.roosoars.taskflow.reminder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Pending reminders keyed by task id, in a hierarchical timing wheel of {@link #LEVELS} levels
+ * of 64 slots. Time is counted in ticks of {@code tickMillis}; level 0 holds the reminders of
+ * the current block of 64 ticks, one slot per tick, and each level above holds 64 blocks of the
+ * level below. A reminder sits at the lowest level whose block also contains the current tick,
+ * so everything at a level is due before everything at the levels above, and the next reminder
+ * is found from one occupancy bit set per level.
+ *
+ * <p>Scheduling and cancelling are a map lookup and a list link; {@link #advanceTo} jumps over
+ * empty slots and, at a block boundary, moves the reminders of the next slot down a level. Time
+ * only moves when it is given, so the caller's clock, real or fake, drives the wheel. Not thread
+ * safe.
+ */
+public final class TimingWheel {
+
+    public interface Visitor {
+        void onExpired(long id, long deadlineMillis);
+    }
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final long SLOT_MASK = SLOTS - 1;
+    // 64^6 ticks: with one-minute ticks, far beyond any due date.
+    private static final int LEVELS = 6;
+    private static final long HORIZON_MASK = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private static final class Timer {
+        final long id;
+        long deadlineMillis;
+        long tick;
+        int slot;
+        Timer prev;
+        Timer next;
+
+        Timer(long id) {
+            this.id = id;
+        }
+    }
+
+    private final long tickMillis;
+    private final Map<Long, Timer> timers = new HashMap<>();
+    // Slot heads, level by level, and per level a bit per non-empty slot.
+    private final Timer[] slots = new Timer[LEVELS * SLOTS];
+    private final long[] occupied = new long[LEVELS];
+    // Earliest deadline filed in each slot since it was last empty; cancelling does not raise it.
+    private final long[] earliest = new long[LEVELS * SLOTS];
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+    }
+
+    public int size() {
+        return timers.size();
+    }
+
+    public boolean contains(long id) {
+        return timers.containsKey(id);
+    }
+
+    /**
+     * Schedules {@code id} at {@code deadlineMillis}, replacing its previous deadline. A deadline
+     * at or before the current tick expires on the next {@link #advanceTo}.
+     */
+    public void schedule(long id, long deadlineMillis) {
+        Timer timer = timers.get(id);
+        if (timer == null) {
+            timer = new Timer(id);
+            timers.put(id, timer);
+        } else {
+            unlink(timer);
+        }
+        timer.deadlineMillis = deadlineMillis;
+        timer.tick = Math.floorDiv(deadlineMillis, tickMillis);
+        file(timer);
+    }
+
+    public boolean cancel(long id) {
+        Timer timer = timers.remove(id);
+        if (timer == null) {
+            return false;
+        }
+        unlink(timer);
+        return true;
+    }
+
+    public void clear() {
+        timers.clear();
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = null;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            occupied[level] = 0;
+        }
+    }
+
+    /**
+     * The earliest deadline filed in the first slot that will expire, or -1 when nothing is
+     * scheduled. It is never later than the next reminder; after a cancel it may be earlier.
+     */
+    public long nextDeadline() {
+        for (int level = 0; level < LEVELS; level++) {
+            long ahead = occupied[level] & slotsFrom(level);
+            if (ahead != 0) {
+                return earliest[level * SLOTS + Long.numberOfTrailingZeros(ahead)];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis} and expires every reminder whose tick has been
+     * reached, earliest tick first; reminders of one tick come in no particular order. Returns
+     * how many expired.
+     */
+    public int advanceTo(long nowMillis, Visitor visitor) {
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        int expired = expire(visitor);
+        while (currentTick < target) {
+            long next = nextTick();
+            if (next < 0 || next > target) {
+                currentTick = target;
+                break;
+            }
+            currentTick = next;
+            cascade();
+            expired += expire(visitor);
+        }
+        return expired;
+    }
+
+    // The first tick after the current one that starts a non-empty slot, or -1.
+    private long nextTick() {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = level * SLOT_BITS;
+            long ahead = occupied[level] & slotsFrom(level) & ~(1L << digit(currentTick, level));
+            if (ahead != 0) {
+                long blockStart = currentTick >>> (shift + SLOT_BITS) << (shift + SLOT_BITS);
+                return blockStart | (long) Long.numberOfTrailingZeros(ahead) << shift;
+            }
+        }
+        return -1;
+    }
+
+    // Files the reminders of the slots that start at the current tick into the levels below.
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (level * SLOT_BITS)) - 1)) != 0) {
+                continue;
+            }
+            int index = level * SLOTS + digit(currentTick, level);
+            Timer timer = slots[index];
+            if (timer == null) {
+                continue;
+            }
+            slots[index] = null;
+            occupied[level] &= ~(1L << digit(currentTick, level));
+            while (timer != null) {
+                Timer next = timer.next;
+                file(timer);
+                timer = next;
+            }
+        }
+    }
+
+    private int expire(Visitor visitor) {
+        int index = digit(currentTick, 0);
+        Timer timer = slots[index];
+        if (timer == null) {
+            return 0;
+        }
+        slots[index] = null;
+        occupied[0] &= ~(1L << index);
+        int expired = 0;
+        while (timer != null) {
+            Timer next = timer.next;
+            timers.remove(timer.id);
+            timer.prev = null;
+            timer.next = null;
+            visitor.onExpired(timer.id, timer.deadlineMillis);
+            expired++;
+            timer = next;
+        }
+        return expired;
+    }
+
+    private void file(Timer timer) {
+        long tick = Math.max(timer.tick, currentTick);
+        long differing = tick ^ currentTick;
+        if ((differing & ~HORIZON_MASK) != 0) {
+            tick = currentTick | HORIZON_MASK;
+            differing = tick ^ currentTick;
+        }
+        int level = differing == 0 ? 0 : (63 - Long.numberOfLeadingZeros(differing)) / SLOT_BITS;
+        int index = level * SLOTS + digit(tick, level);
+        Timer head = slots[index];
+        if (head == null) {
+            occupied[level] |= 1L << digit(tick, level);
+            earliest[index] = timer.deadlineMillis;
+        } else {
+            head.prev = timer;
+            earliest[index] = Math.min(earliest[index], timer.deadlineMillis);
+        }
+        timer.slot = index;
+        timer.prev = null;
+        timer.next = head;
+        slots[index] = timer;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            slots[timer.slot] = timer.next;
+            if (timer.next == null) {
+                occupied[timer.slot / SLOTS] &= ~(1L << (timer.slot % SLOTS));
+            }
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+    }
+
+    // Slots of a level that are still ahead: from the current tick's own slot at level 0, after
+    // it at the levels above, whose slot of the current tick is always empty.
+    private long slotsFrom(int level) {
+        return -1L << digit(currentTick, level);
+    }
+
+    private static int digit(long tick, int level) {
+        return (int) ((tick >>> (level * SLOT_BITS)) & SLOT_MASK);
+    }
+}
@@ -0,0 +1,74 @@
+package com.roosoars.taskflow.repository;
+
+import android.app.Application;
+import android.net.Uri;
+
+import com.roosoars.taskflow.backup.BackupFormat;
+import com.roosoars.taskflow.backup.BackupResult;
+import com.roosoars.taskflow.backup.TaskExporter;
+import com.roosoars.taskflow.backup.TaskImporter;
+import com.roosoars.taskflow.db.AppDatabase;
+import com.roosoars.taskflow.reminder.ReminderScheduler;
+
+import java.io.BufferedInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+@Singleton
+public class BackupRepository {
+
+    public interface Callback {
+        void onComplete(BackupResult result);
+        void onError(Exception e);
+    }
+
+    private final Application application;
+    private final TaskExporter exporter;
+    private final TaskImporter importer;
+    private final ReminderScheduler reminderScheduler;
+
+    @Inject
+    public BackupRepository(Application application, AppDatabase database,
+                            ReminderScheduler reminderScheduler) {
+        this.application = application;
+        this.reminderScheduler = reminderScheduler;
+        this.exporter = new TaskExporter(database);
+        this.importer = new TaskImporter(database);
+    }
+
+    public void exportTo(Uri uri, BackupFormat format, Callback callback) {
+        AppDatabase.databaseReadExecutor.execute(() -> {
+            try (OutputStream out = application.getContentResolver().openOutputStream(uri, "wt")) {
+                if (out == null) {
+                    throw new FileNotFoundException(uri.toString());
+                }
+                callback.onComplete(exporter.export(out, format));
+            } catch (Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    public void importFrom(Uri uri, Callback callback) {
+        AppDatabase.databaseWriteExecutor.execute(() -> {
+            try (InputStream raw = application.getContentResolver().openInputStream(uri)) {
+                if (raw == null) {
+                    throw new FileNotFoundException(uri.toString());
+                }
+                InputStream in = new BufferedInputStream(raw);
+                callback.onComplete(importer.importFrom(in, BackupFormat.detect(in)));
+            } catch (Exception e) {
+                callback.onError(e);
+            } finally {
+                // The importer sends no task events and a failed import keeps the batches it
+                // committed: reminders are read back from the database either way.
+                reminderScheduler.reload();
+            }
+        });
+    }
+}
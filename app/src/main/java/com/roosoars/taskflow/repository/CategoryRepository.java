@@ -4,13 +4,10 @@ import androidx.lifecycle.LiveData;
 
 import com.roosoars.taskflow.db.AppDatabase;
 import com.roosoars.taskflow.db.CategoryDao;
-import com.roosoars.taskflow.db.TaskDao;
 import com.roosoars.taskflow.model.Category;
-import com.roosoars.taskflow.model.Task;
 import com.roosoars.taskflow.observer.TaskObserver;
 
 import java.util.List;
-import java.util.concurrent.ExecutionException;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -19,14 +16,14 @@ import javax.inject.Singleton;
 public class CategoryRepository {
 
     private final CategoryDao categoryDao;
-    private final TaskDao taskDao;
     private final TaskObserver taskObserver;
+    private final TaskWriteBuffer taskWriteBuffer;
 
     @Inject
-    public CategoryRepository(AppDatabase database, TaskObserver taskObserver) {
+    public CategoryRepository(AppDatabase database, TaskObserver taskObserver, TaskWriteBuffer taskWriteBuffer) {
         this.categoryDao = database.categoryDao();
-        this.taskDao = database.taskDao();
         this.taskObserver = taskObserver;
+        this.taskWriteBuffer = taskWriteBuffer;
     }
 
     public LiveData<List<Category>> getAllCategories() {
@@ -52,52 +49,16 @@ public class CategoryRepository {
 
     public void delete(Category category, boolean deleteTasks) {
         AppDatabase.databaseWriteExecutor.execute(() -> {
+            // Buffered task edits may still point at this category; commit them before it goes.
+            taskWriteBuffer.flush();
             if (deleteTasks) {
-                List<Task> tasksToDelete = getTasksWithCategorySync(category.getId());
-                if (tasksToDelete != null && !tasksToDelete.isEmpty()) {
-                    for (Task task : tasksToDelete) {
-                        taskDao.delete(task);
-                        taskObserver.notifyTaskDeleted(task);
-                    }
+                List<Long> deletedIds = categoryDao.deleteWithTasks(category);
+                if (!deletedIds.isEmpty()) {
+                    taskObserver.notifyTasksDeletedById(deletedIds);
                 }
             } else {
-                taskDao.clearCategoryForTasks(category.getId());
+                categoryDao.deleteKeepingTasks(category);
             }
-
-            categoryDao.delete(category);
         });
     }
-
-    private List<Task> getTasksWithCategorySync(long categoryId) {
-        try {
-            return AppDatabase.databaseWriteExecutor.submit(() ->
-                    taskDao.getTasksByCategorySync(categoryId)).get();
-        } catch (InterruptedException | ExecutionException e) {
-            e.printStackTrace();
-            return null;
-        }
-    }
-
-    public boolean canDeleteCategory(long categoryId) {
-        final boolean[] canDelete = {false};
-        try {
-            AppDatabase.databaseWriteExecutor.submit(() -> {
-                int taskCount = categoryDao.getTaskCountForCategory(categoryId);
-                canDelete[0] = (taskCount == 0);
-            }).get();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return canDelete[0];
-    }
-
-    public int getTaskCountForCategory(long categoryId) {
-        try {
-            return AppDatabase.databaseWriteExecutor.submit(() ->
-                    categoryDao.getTaskCountForCategory(categoryId)).get();
-        } catch (Exception e) {
-            e.printStackTrace();
-            return 0;
-        }
-    }
-}
\ No newline at end of file
+}
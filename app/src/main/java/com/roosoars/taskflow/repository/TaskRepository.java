@@ -1,18 +1,45 @@
 package com.roosoars.taskflow.repository;
 
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.Transformations;
 
+import com.roosoars.taskflow.builder.TaskBuilder;
+import com.roosoars.taskflow.changes.OverdueCounter;
 import com.roosoars.taskflow.db.AppDatabase;
 import com.roosoars.taskflow.db.TaskDao;
+import com.roosoars.taskflow.db.TaskPagingSource;
+import com.roosoars.taskflow.db.TaskQuery;
+import com.roosoars.taskflow.db.TaskSearch;
+import com.roosoars.taskflow.model.Priority;
 import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.model.TaskCount;
+import com.roosoars.taskflow.model.TaskSchedule;
 import com.roosoars.taskflow.model.TaskWithCategory;
 import com.roosoars.taskflow.observer.TaskObserver;
-import com.roosoars.taskflow.strategy.SortStrategy;
+import com.roosoars.taskflow.observer.TaskStatusClock;
+import com.roosoars.taskflow.recurrence.OccurrenceExpander;
+import com.roosoars.taskflow.recurrence.RecurrenceRule;
+import com.roosoars.taskflow.ui.decorators.TaskStatus;
+import com.roosoars.taskflow.undo.TaskEdit;
+import com.roosoars.taskflow.undo.TaskEditor;
+import com.roosoars.taskflow.undo.UndoStack;
 
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -21,22 +48,38 @@ import javax.inject.Singleton;
 @Singleton
 public class TaskRepository {
 
+    private final AppDatabase database;
     private final TaskDao taskDao;
     private final TaskObserver taskObserver;
-    private SortStrategy sortStrategy;
+    private final TaskWriteBuffer writeBuffer;
+    private final TaskStatusClock statusClock;
+    private final OverdueCounter overdueCounter;
+    private final UndoStack undoStack = new UndoStack(MAX_UNDO_EDITS, MAX_UNDO_BYTES);
     private static final String SORT_TYPE_DATE = "date";
-    private static final String SORT_TYPE_PRIORITY = "priority";
-    private static final String SORT_TYPE_CATEGORY = "category";
+    private static final int SEARCH_RESULT_LIMIT = 100;
+    private static final String[] TASK_TABLES = {"tasks"};
+    // Enough to undo deleting tens of thousands of tasks; older edits are dropped first.
+    private static final int MAX_UNDO_EDITS = 20;
+    private static final long MAX_UNDO_BYTES = 8 * 1024 * 1024;
+    // Group key of the total in TaskDao.countByStatus.
+    private static final long ALL_TASKS_KEY = 3;
     private String currentSortType = SORT_TYPE_DATE;
 
     @Inject
-    public TaskRepository(AppDatabase database, TaskObserver taskObserver) {
+    public TaskRepository(AppDatabase database, TaskObserver taskObserver, TaskWriteBuffer writeBuffer,
+                          TaskStatusClock statusClock, OverdueCounter overdueCounter) {
+        this.database = database;
         this.taskDao = database.taskDao();
         this.taskObserver = taskObserver;
+        this.writeBuffer = writeBuffer;
+        this.statusClock = statusClock;
+        this.overdueCounter = overdueCounter;
     }
 
-    public void setSortStrategy(SortStrategy sortStrategy) {
-        this.sortStrategy = sortStrategy;
+    /** Loads the due dates of pending tasks into the task observer's index; called once at startup. */
+    public void loadTaskIndex() {
+        AppDatabase.databaseReadExecutor.execute(() -> taskObserver.getIndex().load(
+                () -> taskDao.getPendingSchedules(Long.MIN_VALUE, Long.MAX_VALUE)));
     }
 
     public String getCurrentSortType() {
@@ -47,16 +90,41 @@ public class TaskRepository {
         this.currentSortType = sortType;
     }
 
-    public LiveData<List<TaskWithCategory>> getAllTasksWithCategory() {
-        switch (currentSortType) {
-            case SORT_TYPE_PRIORITY:
-                return taskDao.getAllTasksWithCategoryByPriority();
-            case SORT_TYPE_CATEGORY:
-                return taskDao.getAllTasksWithCategoryByCategory();
-            case SORT_TYPE_DATE:
-            default:
-                return taskDao.getAllTasksWithCategoryByDate();
+    private TaskQuery.SortKey getCurrentSortKey() {
+        return TaskQuery.SortKey.fromSortType(currentSortType);
+    }
+
+    public TaskQuery getAllTasksQuery() {
+        return TaskQuery.all().sortedBy(getCurrentSortKey());
+    }
+
+    public TaskQuery getPendingTasksQuery() {
+        return TaskQuery.pending().sortedBy(getCurrentSortKey());
+    }
+
+    public TaskQuery getCompletedTasksQuery() {
+        return TaskQuery.completed().sortedBy(getCurrentSortKey());
+    }
+
+    public LiveData<List<TaskWithCategory>> getTasksWithCategory(TaskQuery query) {
+        return taskDao.observeTasksWithCategory(query);
+    }
+
+    public TaskPagingSource createPagingSource(TaskQuery query) {
+        return new TaskPagingSource(database, query, AppDatabase.databaseReadExecutor);
+    }
+
+    public LiveData<List<TaskWithCategory>> search(String query) {
+        if (TaskSearch.toMatchQuery(query) == null) {
+            return new MutableLiveData<>(Collections.emptyList());
         }
+        return database.getInvalidationTracker().createLiveData(
+                new String[]{"tasks", "categories"}, false,
+                () -> taskDao.search(query, SEARCH_RESULT_LIMIT));
+    }
+
+    public LiveData<List<TaskWithCategory>> getAllTasksWithCategory() {
+        return getTasksWithCategory(getAllTasksQuery());
     }
 
     public LiveData<Task> getTaskById(long taskId) {
@@ -64,130 +132,445 @@ public class TaskRepository {
     }
 
     public LiveData<List<Task>> getTasksByCategory(long categoryId) {
-        return taskDao.getTasksByCategory(categoryId);
+        return taskDao.observeTasks(TaskQuery.inCategory(categoryId));
     }
 
     public LiveData<List<Task>> getPendingTasks() {
-        switch (currentSortType) {
-            case SORT_TYPE_PRIORITY:
-                return taskDao.getPendingTasksByPriority();
-            case SORT_TYPE_CATEGORY:
-                return taskDao.getPendingTasksByCategory();
-            case SORT_TYPE_DATE:
-            default:
-                return taskDao.getPendingTasksByDate();
-        }
+        return taskDao.observeTasks(getPendingTasksQuery());
     }
 
     public LiveData<List<TaskWithCategory>> getPendingTasksWithCategory() {
-        switch (currentSortType) {
-            case SORT_TYPE_PRIORITY:
-                return taskDao.getPendingTasksWithCategoryByPriority();
-            case SORT_TYPE_CATEGORY:
-                return taskDao.getPendingTasksWithCategoryByCategory();
-            case SORT_TYPE_DATE:
-            default:
-                return taskDao.getPendingTasksWithCategoryByDate();
-        }
+        return getTasksWithCategory(getPendingTasksQuery());
     }
 
     public LiveData<List<Task>> getCompletedTasks() {
-        switch (currentSortType) {
-            case SORT_TYPE_PRIORITY:
-                return taskDao.getCompletedTasksByPriority();
-            case SORT_TYPE_CATEGORY:
-                return taskDao.getCompletedTasksByCategory();
-            case SORT_TYPE_DATE:
-            default:
-                return taskDao.getCompletedTasksByDate();
-        }
+        return taskDao.observeTasks(getCompletedTasksQuery());
     }
 
     public LiveData<List<TaskWithCategory>> getCompletedTasksWithCategory() {
-        switch (currentSortType) {
-            case SORT_TYPE_PRIORITY:
-                return taskDao.getCompletedTasksWithCategoryByPriority();
-            case SORT_TYPE_CATEGORY:
-                return taskDao.getCompletedTasksWithCategoryByCategory();
-            case SORT_TYPE_DATE:
-            default:
-                return taskDao.getCompletedTasksWithCategoryByDate();
-        }
+        return getTasksWithCategory(getCompletedTasksQuery());
     }
 
     public LiveData<List<Task>> getTasksByType(String type) {
-        return taskDao.getTasksByType(type);
+        return taskDao.observeTasks(TaskQuery.ofType(type));
     }
 
     public void insert(Task task) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            long id = taskDao.insert(task);
-            task.setId(id);
-            taskObserver.notifyTaskAdded(task);
-        });
+        writeBuffer.insert(task);
     }
 
     public void update(Task task) {
+        writeBuffer.update(task);
+    }
+
+    /** Deletes the task; returns whether the delete can be undone, see {@link #undo()}. */
+    public boolean delete(Task task) {
+        boolean undoable = undoStack.push(TaskEdit.delete(Collections.singletonList(task)));
+        writeBuffer.delete(task);
+        return undoable;
+    }
+
+    /**
+     * Deletes the tasks, given with their ids; returns whether the delete can be undone. An undo
+     * inserts the given tasks back as they are, so they must hold their current values.
+     */
+    public boolean deleteTasks(List<Long> taskIds, List<Task> tasks) {
+        boolean undoable = undoStack.push(TaskEdit.delete(tasks));
         AppDatabase.databaseWriteExecutor.execute(() -> {
-            taskDao.update(task);
-            taskObserver.notifyTaskUpdated(task);
+            writeBuffer.flush();
+            forEachIdChunk(taskIds, taskDao::deleteTasks);
+            taskObserver.notifyTasksDeleted(tasks);
         });
+        return undoable;
+    }
+
+    // Each bulk update below returns whether it can be undone.
+
+    public boolean setCompleted(List<Task> tasks, boolean completed) {
+        if (!completed) {
+            runBulkUpdate(tasks, ids -> taskDao.setCompleted(ids, false));
+            return undoStack.push(TaskEdit.setCompleted(tasks, false, Collections.emptyList()));
+        }
+        List<Task> nextOccurrences = new ArrayList<>();
+        for (Task task : tasks) {
+            Task next = task.isCompleted() ? null : nextOccurrence(task);
+            if (next != null) {
+                nextOccurrences.add(next);
+            }
+        }
+        runBulkUpdate(tasks, taskDao::completeTasks, nextOccurrences);
+        return undoStack.push(TaskEdit.setCompleted(tasks, true, nextOccurrences));
     }
 
-    public void delete(Task task) {
+    public boolean moveToCategory(List<Task> tasks, Long categoryId) {
+        runBulkUpdate(tasks, ids -> taskDao.setCategory(ids, categoryId));
+        return undoStack.push(TaskEdit.moveToCategory(tasks, categoryId));
+    }
+
+    public boolean setPriority(List<Task> tasks, Priority priority) {
+        runBulkUpdate(tasks, ids -> taskDao.setPriority(ids, priority.toInt()));
+        return undoStack.push(TaskEdit.setPriority(tasks, priority.toInt()));
+    }
+
+    public boolean reschedule(List<Task> tasks, long offsetMillis) {
+        runBulkUpdate(tasks, ids -> taskDao.shiftDueDates(ids, offsetMillis));
+        return undoStack.push(TaskEdit.reschedule(tasks, offsetMillis));
+    }
+
+    /**
+     * Undoes the latest delete, completion or bulk update still in the history, in one
+     * transaction after the writes queued before it; returns false if there was none to undo.
+     */
+    public boolean undo() {
+        TaskEdit edit = undoStack.undo();
+        if (edit == null) {
+            return false;
+        }
+        applyEdit(edit::undo);
+        return true;
+    }
+
+    /** Redoes the latest undone edit; the redo history is dropped by any new delete or update. */
+    public boolean redo() {
+        TaskEdit edit = undoStack.redo();
+        if (edit == null) {
+            return false;
+        }
+        applyEdit(edit::redo);
+        return true;
+    }
+
+    public boolean canUndo() {
+        return undoStack.canUndo();
+    }
+
+    public boolean canRedo() {
+        return undoStack.canRedo();
+    }
+
+    private void applyEdit(Consumer<TaskEditor> change) {
         AppDatabase.databaseWriteExecutor.execute(() -> {
-            taskDao.delete(task);
-            taskObserver.notifyTaskDeleted(task);
+            writeBuffer.flush();
+            TransactionEditor editor = new TransactionEditor();
+            List<Task> updated = new ArrayList<>();
+            database.runInTransaction(() -> {
+                change.accept(editor);
+                editor.updatedIds.removeAll(editor.deletedIds);
+                forEachIdChunk(new ArrayList<>(editor.updatedIds),
+                        ids -> updated.addAll(taskDao.getTasksByIdsSync(ids)));
+            });
+            if (!editor.deletedIds.isEmpty()) {
+                taskObserver.notifyTasksDeletedById(editor.deletedIds);
+            }
+            if (!updated.isEmpty()) {
+                taskObserver.notifyTasksUpdated(updated);
+            }
+            if (!editor.inserted.isEmpty()) {
+                taskObserver.notifyTasksAdded(editor.inserted);
+            }
         });
     }
 
-    public void deleteTasks(List<Long> taskIds, List<Task> tasks) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            taskDao.deleteTasks(taskIds);
+    // Applies an edit's writes in the caller's transaction, noting the tasks it touched.
+    private final class TransactionEditor implements TaskEditor {
+        final List<Task> inserted = new ArrayList<>();
+        final Set<Long> updatedIds = new LinkedHashSet<>();
+        final Set<Long> deletedIds = new HashSet<>();
+        private Set<Long> categoryIds;
 
+        @Override
+        public void insert(List<Task> tasks) {
+            if (tasks.isEmpty()) {
+                return;
+            }
+            // A task whose category was deleted since comes back uncategorized.
             for (Task task : tasks) {
-                taskObserver.notifyTaskDeleted(task);
+                if (task.getCategoryId() != null && !categoryExists(task.getCategoryId())) {
+                    task.setCategoryId(null);
+                }
             }
-        });
+            long[] rowIds = taskDao.insertAll(tasks);
+            for (int i = 0; i < rowIds.length; i++) {
+                if (rowIds[i] != -1) {
+                    inserted.add(tasks.get(i));
+                    deletedIds.remove(rowIds[i]);
+                }
+            }
+        }
+
+        @Override
+        public void delete(long[] taskIds) {
+            if (taskIds.length == 0) {
+                return;
+            }
+            forEachIdChunk(toList(taskIds), taskDao::deleteTasks);
+            for (long id : taskIds) {
+                deletedIds.add(id);
+            }
+        }
+
+        @Override
+        public void setCompleted(long[] taskIds, boolean completed) {
+            update(taskIds, ids -> taskDao.setCompleted(ids, completed));
+        }
+
+        @Override
+        public void complete(long[] taskIds) {
+            update(taskIds, taskDao::completeTasks);
+        }
+
+        @Override
+        public void setRecurrenceRule(long[] taskIds, String recurrenceRule) {
+            update(taskIds, ids -> taskDao.setRecurrenceRule(ids, recurrenceRule));
+        }
+
+        @Override
+        public void setPriority(long[] taskIds, int priority) {
+            update(taskIds, ids -> taskDao.setPriority(ids, priority));
+        }
+
+        // Tasks are not moved back into a category deleted since.
+        @Override
+        public void setCategory(long[] taskIds, Long categoryId) {
+            if (categoryId == null || categoryExists(categoryId)) {
+                update(taskIds, ids -> taskDao.setCategory(ids, categoryId));
+            }
+        }
+
+        @Override
+        public void shiftDueDates(long[] taskIds, long offsetMillis) {
+            update(taskIds, ids -> taskDao.shiftDueDates(ids, offsetMillis));
+        }
+
+        private void update(long[] taskIds, Consumer<List<Long>> statement) {
+            if (taskIds.length == 0) {
+                return;
+            }
+            List<Long> ids = toList(taskIds);
+            forEachIdChunk(ids, statement);
+            updatedIds.addAll(ids);
+        }
+
+        private boolean categoryExists(long categoryId) {
+            if (categoryIds == null) {
+                categoryIds = new HashSet<>(database.categoryDao().getAllCategoryIds());
+            }
+            return categoryIds.contains(categoryId);
+        }
     }
 
-    public void completeTask(Task task) {
-        task.setCompleted(true);
+    private static List<Long> toList(long[] taskIds) {
+        List<Long> ids = new ArrayList<>(taskIds.length);
+        for (long id : taskIds) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private void runBulkUpdate(List<Task> tasks, Consumer<List<Long>> statement) {
+        runBulkUpdate(tasks, statement, Collections.emptyList());
+    }
+
+    // The selected rows are left untouched so list diffing still sees the old values; observers
+    // get the rows as re-read after the statement. The inserts go in the same transaction.
+    private void runBulkUpdate(List<Task> tasks, Consumer<List<Long>> statement, List<Task> inserts) {
+        List<Long> taskIds = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            taskIds.add(task.getId());
+        }
         AppDatabase.databaseWriteExecutor.execute(() -> {
-            taskDao.update(task);
-            taskObserver.notifyTaskCompleted(task);
+            writeBuffer.flush();
+            List<Task> updated = new ArrayList<>(taskIds.size());
+            database.runInTransaction(() -> {
+                forEachIdChunk(taskIds, statement);
+                for (Task task : inserts) {
+                    task.setId(taskDao.insert(task));
+                }
+                forEachIdChunk(taskIds, ids -> updated.addAll(taskDao.getTasksByIdsSync(ids)));
+            });
+            taskObserver.notifyTasksUpdated(updated);
+            for (Task task : inserts) {
+                taskObserver.notifyTaskAdded(task);
+            }
         });
     }
 
-    public void toggleTaskCompletion(Task task) {
-        boolean newCompletionState = !task.isCompleted();
-        task.setCompleted(newCompletionState);
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            taskDao.update(task);
-            if (newCompletionState) {
-                taskObserver.notifyTaskCompleted(task);
-            } else {
-                taskObserver.notifyTaskUpdated(task);
+    // One statement per chunk, all in one transaction; chunks stay under SQLite's 999 bind limit.
+    private void forEachIdChunk(List<Long> taskIds, Consumer<List<Long>> statement) {
+        if (taskIds.size() <= TaskDao.MAX_IDS_PER_STATEMENT) {
+            statement.accept(taskIds);
+            return;
+        }
+        database.runInTransaction(() -> {
+            for (int from = 0; from < taskIds.size(); from += TaskDao.MAX_IDS_PER_STATEMENT) {
+                int to = Math.min(from + TaskDao.MAX_IDS_PER_STATEMENT, taskIds.size());
+                statement.accept(taskIds.subList(from, to));
             }
         });
     }
 
+    /**
+     * Completes the task and creates its next occurrence; returns whether it can be undone. The
+     * given task is left as it is: the list compares it with the row the database emits next.
+     */
+    public boolean completeTask(Task task) {
+        Task next = nextOccurrence(task);
+        boolean undoable = undoStack.push(TaskEdit.setCompleted(Collections.singletonList(task), true,
+                next == null ? Collections.emptyList() : Collections.singletonList(next)));
+        Task completed = task.copy();
+        completed.setCompleted(true);
+        completed.setRecurrenceRule(null);
+        if (next == null) {
+            writeBuffer.complete(completed);
+            return undoable;
+        }
+        // Bypasses the buffer so the occurrence and the next one commit together.
+        AppDatabase.databaseWriteExecutor.execute(() -> {
+            writeBuffer.flush();
+            next.setId(taskDao.completeOccurrence(completed, next));
+            taskObserver.notifyTaskCompleted(completed);
+            taskObserver.notifyTaskAdded(next);
+        });
+        return undoable;
+    }
+
+    /** Completes the task as {@link #completeTask} does or reopens it; returns whether it can be undone. */
+    public boolean toggleTaskCompletion(Task task) {
+        if (!task.isCompleted()) {
+            return completeTask(task);
+        }
+        boolean undoable = undoStack.push(TaskEdit.setCompleted(
+                Collections.singletonList(task), false, Collections.emptyList()));
+        Task reopened = task.copy();
+        reopened.setCompleted(false);
+        writeBuffer.update(reopened);
+        return undoable;
+    }
+
+    // The task of the occurrence after this one, or null for a one-off task or a finished series.
+    @Nullable
+    private static Task nextOccurrence(Task task) {
+        RecurrenceRule rule = RecurrenceRule.tryParse(task.getRecurrenceRule());
+        if (rule == null || task.getDueDate() == null) {
+            return null;
+        }
+        RecurrenceRule remaining = rule.afterFirstOccurrence();
+        long dueDate = remaining != null
+                ? OccurrenceExpander.nextOccurrence(task.getDueDate().getTime(), rule, ZoneId.systemDefault())
+                : -1;
+        if (dueDate < 0) {
+            return null;
+        }
+        return TaskBuilder.aTask(task.getTitle())
+                .withDescription(task.getDescription())
+                .withDueDate(new Date(dueDate))
+                .withPriority(task.getPriorityEnum())
+                .withCategory(task.getCategoryId())
+                .ofType(task.getType())
+                .repeating(remaining)
+                .build();
+    }
+
+    /**
+     * Streams every pending occurrence in {@code [fromMillis, toMillis)} to {@code visitor},
+     * earliest first, and returns how many there were. Recurring tasks are expanded on the fly,
+     * never stored per occurrence. Reads the database, so it must run off the main thread.
+     */
+    @WorkerThread
+    public int expandOccurrences(long fromMillis, long toMillis, OccurrenceExpander.Visitor visitor) {
+        OccurrenceExpander expander = new OccurrenceExpander(ZoneId.systemDefault());
+        // Most series share one of a few rules, so each distinct rule is parsed once.
+        Map<String, RecurrenceRule> rules = new HashMap<>();
+        for (TaskSchedule schedule : taskDao.getPendingSchedules(fromMillis, toMillis)) {
+            RecurrenceRule rule = null;
+            if (schedule.getRecurrenceRule() != null) {
+                rule = rules.computeIfAbsent(schedule.getRecurrenceRule(), RecurrenceRule::tryParse);
+            }
+            expander.add(schedule.getId(), schedule.getDueDate(), rule);
+        }
+        return expander.expand(fromMillis, toMillis, visitor);
+    }
+
+    public void flushPendingWrites() {
+        writeBuffer.flushAsync();
+    }
+
     public TaskObserver getTaskObserver() {
         return taskObserver;
     }
 
+    /** Ticks at each instant a task's due status changes by itself; see {@link TaskStatusClock}. */
+    public LiveData<Long> getStatusTicks() {
+        return statusClock.getTicks();
+    }
+
+    /** Pending tasks past their due date, kept current from the change log; see {@link OverdueCounter}. */
     public LiveData<Integer> getOverdueTasksCount() {
-        return Transformations.map(getPendingTasks(), tasks -> {
-            int count = 0;
-            Date now = new Date();
+        return overdueCounter;
+    }
 
-            for (Task task : tasks) {
-                if (task.getDueDate() != null && task.getDueDate().before(now)) {
-                    count++;
-                }
+    /** Number of tasks per category id; uncategorized tasks are under the {@code null} key. */
+    public LiveData<Map<Long, Integer>> getTaskCountsByCategory() {
+        return database.getInvalidationTracker().createLiveData(TASK_TABLES, false,
+                () -> toMap(taskDao.countByCategory()));
+    }
+
+    public LiveData<Map<Integer, Integer>> getTaskCountsByPriority() {
+        return database.getInvalidationTracker().createLiveData(TASK_TABLES, false, () -> {
+            Map<Integer, Integer> counts = new HashMap<>();
+            for (TaskCount row : taskDao.countByPriority()) {
+                counts.put(row.getGroupKey().intValue(), row.getCount());
             }
+            return counts;
+        });
+    }
 
-            return count;
+    /** Number of tasks in each {@link TaskStatus}, every status present, recounted as tasks age. */
+    public LiveData<Map<TaskStatus, Integer>> getTaskCountsByStatus() {
+        return new TimeDependentCount<>(() -> {
+            long now = System.currentTimeMillis();
+            Map<Long, Integer> rows = toMap(taskDao.countByStatus(now, now + TaskStatus.DUE_SOON_WINDOW_MILLIS));
+            Map<TaskStatus, Integer> counts = new EnumMap<>(TaskStatus.class);
+            int normal = rows.getOrDefault(ALL_TASKS_KEY, 0);
+            for (TaskStatus status : TaskStatus.values()) {
+                if (status != TaskStatus.NORMAL) {
+                    int count = rows.getOrDefault((long) status.ordinal(), 0);
+                    counts.put(status, count);
+                    normal -= count;
+                }
+            }
+            counts.put(TaskStatus.NORMAL, normal);
+            return counts;
         });
     }
-}
\ No newline at end of file
+
+    private static Map<Long, Integer> toMap(List<TaskCount> rows) {
+        Map<Long, Integer> counts = new HashMap<>(rows.size() * 2);
+        for (TaskCount row : rows) {
+            counts.put(row.getGroupKey(), row.getCount());
+        }
+        return counts;
+    }
+
+    // A count that depends on the current time: it is queried again on every write to the tasks
+    // table and at every status tick. Each tick swaps in a fresh source, so a result computed
+    // before the tick can never be delivered after one computed after it.
+    private final class TimeDependentCount<T> extends MediatorLiveData<T> {
+        private final Callable<T> query;
+        private LiveData<T> source;
+
+        TimeDependentCount(Callable<T> query) {
+            this.query = query;
+            requery();
+            addSource(statusClock.getTicks(), tick -> requery());
+        }
+
+        private void requery() {
+            if (source != null) {
+                removeSource(source);
+            }
+            source = database.getInvalidationTracker().createLiveData(TASK_TABLES, false, query);
+            addSource(source, this::setValue);
+        }
+    }
+}
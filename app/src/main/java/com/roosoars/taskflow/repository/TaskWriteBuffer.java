@@ -0,0 +1,172 @@
+package com.roosoars.taskflow.repository;
+
+import com.roosoars.taskflow.db.AppDatabase;
+import com.roosoars.taskflow.db.TaskDao;
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.observer.TaskObserver;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+/**
+ * Write-behind buffer for task mutations. Writes arriving within {@link #WINDOW_MILLIS} of the
+ * first pending one are committed together in a single transaction on the writer, so a burst of
+ * edits costs one commit and one invalidation. Updates and deletes are keyed by task id and the
+ * last one wins; inserts have no id yet and are kept in order.
+ */
+@Singleton
+public class TaskWriteBuffer {
+
+    static final long WINDOW_MILLIS = 250;
+
+    enum Op {INSERT, UPDATE, COMPLETE, DELETE}
+
+    private static final class PendingWrite {
+        final Op op;
+        final Task task;
+
+        PendingWrite(Op op, Task task) {
+            this.op = op;
+            this.task = task;
+        }
+    }
+
+    private final AppDatabase database;
+    private final TaskDao taskDao;
+    private final TaskObserver taskObserver;
+    private final Executor writer;
+    private final ScheduledExecutorService timer;
+
+    private final Object lock = new Object();
+    private List<PendingWrite> inserts = new ArrayList<>();
+    private Map<Long, PendingWrite> writes = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    @Inject
+    public TaskWriteBuffer(AppDatabase database, TaskObserver taskObserver) {
+        this(database, taskObserver, AppDatabase.databaseWriteExecutor);
+    }
+
+    TaskWriteBuffer(AppDatabase database, TaskObserver taskObserver, Executor writer) {
+        this.database = database;
+        this.taskDao = database.taskDao();
+        this.taskObserver = taskObserver;
+        this.writer = writer;
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "taskflow-write-buffer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        this.timer = timer;
+    }
+
+    void insert(Task task) {
+        enqueue(Op.INSERT, task);
+    }
+
+    void update(Task task) {
+        enqueue(Op.UPDATE, task);
+    }
+
+    void complete(Task task) {
+        enqueue(Op.COMPLETE, task);
+    }
+
+    void delete(Task task) {
+        enqueue(Op.DELETE, task);
+    }
+
+    private void enqueue(Op op, Task task) {
+        synchronized (lock) {
+            PendingWrite write = new PendingWrite(op, task);
+            if (op == Op.INSERT || task.getId() == 0) {
+                inserts.add(write);
+            } else {
+                // Re-inserting moves the id to the end so the commit order follows the last edit.
+                writes.remove(task.getId());
+                writes.put(task.getId(), write);
+            }
+            if (scheduledFlush == null) {
+                scheduledFlush = timer.schedule(() -> writer.execute(this::flush),
+                        WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /** Queues an immediate flush on the writer, e.g. when the app goes to the background. */
+    public void flushAsync() {
+        writer.execute(this::flush);
+    }
+
+    /**
+     * Commits everything pending in one transaction. Must run on the writer thread; writes that
+     * bypass the buffer call this first so they never overtake a buffered edit.
+     */
+    void flush() {
+        List<PendingWrite> pendingInserts;
+        Map<Long, PendingWrite> pendingWrites;
+        synchronized (lock) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (inserts.isEmpty() && writes.isEmpty()) {
+                return;
+            }
+            pendingInserts = inserts;
+            pendingWrites = writes;
+            inserts = new ArrayList<>();
+            writes = new LinkedHashMap<>();
+        }
+
+        List<PendingWrite> applied = new ArrayList<>(pendingInserts.size() + pendingWrites.size());
+        applied.addAll(pendingInserts);
+        applied.addAll(pendingWrites.values());
+
+        database.runInTransaction(() -> {
+            for (PendingWrite write : applied) {
+                switch (write.op) {
+                    case INSERT:
+                        write.task.setId(taskDao.insert(write.task));
+                        break;
+                    case UPDATE:
+                    case COMPLETE:
+                        taskDao.update(write.task);
+                        break;
+                    case DELETE:
+                        taskDao.delete(write.task);
+                        break;
+                }
+            }
+        });
+
+        for (PendingWrite write : applied) {
+            switch (write.op) {
+                case INSERT:
+                    taskObserver.notifyTaskAdded(write.task);
+                    break;
+                case UPDATE:
+                    taskObserver.notifyTaskUpdated(write.task);
+                    break;
+                case COMPLETE:
+                    taskObserver.notifyTaskCompleted(write.task);
+                    break;
+                case DELETE:
+                    taskObserver.notifyTaskDeleted(write.task);
+                    break;
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.roosoars.taskflow.strategy;
 import androidx.lifecycle.LiveData;
 
 import com.roosoars.taskflow.db.TaskDao;
+import com.roosoars.taskflow.db.TaskQuery;
 import com.roosoars.taskflow.model.Task;
 
 import java.util.List;
@@ -17,7 +18,7 @@ public class SortByDateStrategy implements SortStrategy {
 
     @Override
     public LiveData<List<Task>> getSortedTasks() {
-        return taskDao.getAllTasksByDate();
+        return taskDao.observeTasks(TaskQuery.all().sortedBy(TaskQuery.SortKey.DATE));
     }
 
     @Override
@@ -7,6 +7,10 @@ import com.roosoars.taskflow.model.Task;
 import java.util.List;
 
 
+/**
+ * Orders every task by one key. Pending tasks come before completed ones, as in the task list;
+ * the key orders each of the two groups.
+ */
 public interface SortStrategy {
 
     LiveData<List<Task>> getSortedTasks();
@@ -0,0 +1,75 @@
+package com.roosoars.taskflow.sync;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.List;
+
+
+/**
+ * {@link SyncTransport} over HTTP: {@code GET <base>/pull?since=&limit=} and
+ * {@code POST <base>/push}, both with {@link SyncCodec} bodies.
+ */
+public final class HttpSyncTransport implements SyncTransport {
+
+    private static final String CONTENT_TYPE = "application/vnd.taskflow.sync";
+    private static final int TIMEOUT_MILLIS = 30_000;
+
+    private final String baseUrl;
+
+    public HttpSyncTransport(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    @Override
+    public SyncBatch pull(long sinceToken, int limit) throws IOException {
+        HttpURLConnection connection = open("/pull?since=" + sinceToken + "&limit=" + limit);
+        return receive(connection);
+    }
+
+    @Override
+    public SyncBatch push(long token, List<SyncRow> rows) throws IOException {
+        HttpURLConnection connection = open("/push");
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(0);
+        connection.setRequestProperty("Content-Type", CONTENT_TYPE);
+        try (OutputStream out = connection.getOutputStream()) {
+            SyncCodec.write(new SyncBatch(token, false, 0, rows), out);
+        }
+        return receive(connection);
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(baseUrl + path).toURL().openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        connection.setRequestProperty("Accept", CONTENT_TYPE);
+        return connection;
+    }
+
+    private static SyncBatch receive(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        if (status != HttpURLConnection.HTTP_OK) {
+            connection.disconnect();
+            throw new IOException("Sync server answered " + status + " " + connection.getResponseMessage());
+        }
+        try (InputStream in = connection.getInputStream()) {
+            SyncBatch batch = SyncCodec.read(in);
+            drain(in);
+            return batch;
+        }
+    }
+
+    // The decoder stops short of the gzip trailer. A body read to the end and closed leaves the
+    // connection free for the next batch.
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[512];
+        int read;
+        do {
+            read = in.read(buffer);
+        } while (read >= 0);
+    }
+}
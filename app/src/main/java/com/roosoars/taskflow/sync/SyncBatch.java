@@ -0,0 +1,41 @@
+package com.roosoars.taskflow.sync;
+
+import java.util.List;
+
+
+/**
+ * One message of the sync protocol. A pull answer carries rows changed after the requested token,
+ * the token to ask from next time and whether more rows are waiting. A push carries the local
+ * changes and the client's token; its answer has no rows, the number of pushed fields that lost
+ * to later writes, and the token the client may move to.
+ */
+public final class SyncBatch {
+
+    private final long token;
+    private final boolean more;
+    private final int rejected;
+    private final List<SyncRow> rows;
+
+    public SyncBatch(long token, boolean more, int rejected, List<SyncRow> rows) {
+        this.token = token;
+        this.more = more;
+        this.rejected = rejected;
+        this.rows = rows;
+    }
+
+    public long getToken() {
+        return token;
+    }
+
+    public boolean hasMore() {
+        return more;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public List<SyncRow> getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,172 @@
+package com.roosoars.taskflow.sync;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * Wire format of a {@link SyncBatch}, gzipped: a {@code TFS} magic and version byte, the header,
+ * then each row as its uid, the bit set of fields it carries, its version and, per field, the
+ * distance of the field's timestamp below the version followed by the value. Fields written
+ * together share a timestamp, so most distances take a single byte. Numbers are zig-zag varints
+ * and strings length-prefixed UTF-8, as in the binary backup format.
+ */
+public final class SyncCodec {
+
+    private static final byte[] MAGIC = {'T', 'F', 'S'};
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private SyncCodec() {
+    }
+
+    public static void write(SyncBatch batch, OutputStream out) throws IOException {
+        // The fastest level: a third of the default's CPU for batches about an eighth larger.
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        };
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(gzip, BUFFER_SIZE));
+        data.write(MAGIC);
+        data.write(VERSION);
+        writeVarint(data, zigZag(batch.getToken()));
+        data.writeBoolean(batch.hasMore());
+        writeVarint(data, batch.getRejected());
+        writeVarint(data, batch.getRows().size());
+        for (SyncRow row : batch.getRows()) {
+            writeString(data, row.getUid());
+            writeVarint(data, row.getFields());
+            long version = row.getVersion();
+            writeVarint(data, version);
+            for (int field = 0; field < SyncRow.FIELD_COUNT; field++) {
+                if (row.has(field)) {
+                    writeVarint(data, version - row.getStamp(field));
+                    writeValue(data, field, row.getValue(field));
+                }
+            }
+        }
+        data.flush();
+        gzip.finish();
+    }
+
+    public static SyncBatch read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE));
+        byte[] magic = new byte[MAGIC.length];
+        data.readFully(magic);
+        if (magic[0] != MAGIC[0] || magic[1] != MAGIC[1] || magic[2] != MAGIC[2]) {
+            throw new IOException("Not a sync batch");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported sync batch version " + version);
+        }
+        long token = unZigZag(readVarint(data));
+        boolean more = data.readBoolean();
+        int rejected = (int) readVarint(data);
+        int count = (int) readVarint(data);
+        List<SyncRow> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SyncRow row = new SyncRow(readString(data));
+            int fields = (int) readVarint(data);
+            long rowVersion = readVarint(data);
+            for (int field = 0; field < SyncRow.FIELD_COUNT; field++) {
+                if ((fields & (1 << field)) != 0) {
+                    long stamp = rowVersion - readVarint(data);
+                    row.set(field, readValue(data, field), stamp);
+                }
+            }
+            rows.add(row);
+        }
+        return new SyncBatch(token, more, rejected, rows);
+    }
+
+    private static void writeValue(DataOutputStream data, int field, Object value) throws IOException {
+        switch (field) {
+            case SyncRow.PRIORITY:
+                writeVarint(data, zigZag((Integer) value));
+                break;
+            case SyncRow.COMPLETED:
+            case SyncRow.DELETED:
+                data.writeBoolean((Boolean) value);
+                break;
+            case SyncRow.DUE_DATE:
+                data.writeBoolean(value != null);
+                if (value != null) {
+                    writeVarint(data, zigZag((Long) value));
+                }
+                break;
+            default:
+                data.writeBoolean(value != null);
+                if (value != null) {
+                    writeString(data, (String) value);
+                }
+        }
+    }
+
+    private static Object readValue(DataInputStream data, int field) throws IOException {
+        switch (field) {
+            case SyncRow.PRIORITY:
+                return (int) unZigZag(readVarint(data));
+            case SyncRow.COMPLETED:
+            case SyncRow.DELETED:
+                return data.readBoolean();
+            case SyncRow.DUE_DATE:
+                return data.readBoolean() ? unZigZag(readVarint(data)) : null;
+            default:
+                return data.readBoolean() ? readString(data) : null;
+        }
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(data, bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        byte[] bytes = new byte[(int) readVarint(data)];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarint(DataOutputStream data, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            data.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        data.write((int) value);
+    }
+
+    private static long readVarint(DataInputStream data) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = data.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,54 @@
+package com.roosoars.taskflow.sync;
+
+import java.io.IOException;
+import java.util.List;
+
+
+/**
+ * Runs one sync round: pulls every server change since the store's token, then pushes the local
+ * changes, {@code batchSize} rows per message. Pulling first merges remote writes before local
+ * ones are sent, so a push from an up-to-date client lets it skip its own changes on the next
+ * pull. A failure leaves the store consistent: merged batches stay merged, and changes not
+ * acknowledged stay to be pushed.
+ */
+public final class SyncEngine {
+
+    private final SyncStore store;
+    private final SyncTransport transport;
+    private final int batchSize;
+
+    public SyncEngine(SyncStore store, SyncTransport transport, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.store = store;
+        this.transport = transport;
+        this.batchSize = batchSize;
+    }
+
+    public SyncResult sync() throws IOException {
+        long start = System.currentTimeMillis();
+        int pulled = 0;
+        int pushed = 0;
+        int conflicts = 0;
+        int batches = 0;
+
+        SyncBatch batch;
+        do {
+            batch = transport.pull(store.getSyncToken(), batchSize);
+            conflicts += store.apply(batch);
+            pulled += batch.getRows().size();
+            batches++;
+        } while (batch.hasMore());
+
+        List<SyncRow> changes;
+        while (!(changes = store.readChanges(batchSize)).isEmpty()) {
+            SyncBatch ack = transport.push(store.getSyncToken(), changes);
+            store.markPushed(changes, ack.getToken());
+            pushed += changes.size();
+            conflicts += ack.getRejected();
+            batches++;
+        }
+        return new SyncResult(pulled, pushed, conflicts, batches, System.currentTimeMillis() - start);
+    }
+}
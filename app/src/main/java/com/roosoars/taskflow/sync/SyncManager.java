@@ -0,0 +1,126 @@
+package com.roosoars.taskflow.sync;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.roosoars.taskflow.BuildConfig;
+import com.roosoars.taskflow.db.AppDatabase;
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.observer.TaskObserver;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+/**
+ * Keeps the tasks in sync with the server at {@code BuildConfig.SYNC_SERVER_URL}; sync is off
+ * when the build sets none. A round runs on the sync thread {@link #DEBOUNCE_MILLIS} after the
+ * last local change, at startup, and every {@link #INTERVAL_MILLIS} to pick up remote changes.
+ * A failed round is retried with the next one; nothing is lost, as unacknowledged changes stay
+ * marked in the database.
+ */
+@Singleton
+public class SyncManager implements TaskObserver.TaskChangeListener {
+
+    private static final String TAG = "SyncManager";
+
+    private static final long DEBOUNCE_MILLIS = 5_000;
+    private static final long INTERVAL_MILLIS = 15 * 60 * 1000;
+    private static final int BATCH_SIZE = 500;
+
+    @Nullable
+    private final SyncEngine engine;
+    private final ScheduledThreadPoolExecutor executor;
+    private volatile Thread syncThread;
+    private ScheduledFuture<?> scheduledSync;
+
+    @Inject
+    public SyncManager(AppDatabase database, TaskObserver taskObserver) {
+        String serverUrl = BuildConfig.SYNC_SERVER_URL;
+        this.engine = serverUrl.isEmpty() ? null : new SyncEngine(
+                new TaskSyncStore(database, taskObserver), new HttpSyncTransport(serverUrl), BATCH_SIZE);
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "taskflow-sync");
+            thread.setDaemon(true);
+            syncThread = thread;
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        if (engine != null) {
+            taskObserver.addListener(this);
+        }
+    }
+
+    public void start() {
+        if (engine == null) {
+            Log.d(TAG, "Sincronização desativada: nenhum servidor configurado");
+            return;
+        }
+        requestSync(0);
+    }
+
+    /** Runs a round after {@code delayMillis}, replacing one already scheduled. */
+    public synchronized void requestSync(long delayMillis) {
+        if (engine == null) {
+            return;
+        }
+        if (scheduledSync != null) {
+            scheduledSync.cancel(false);
+        }
+        scheduledSync = executor.schedule(this::sync, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void sync() {
+        try {
+            SyncResult result = engine.sync();
+            Log.d(TAG, "Sincronização concluída: " + result);
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Falha na sincronização", e);
+        }
+        requestSync(INTERVAL_MILLIS);
+    }
+
+    // Changes merged by a sync round are reported from the sync thread and need no new round.
+    private void onLocalChange() {
+        if (Thread.currentThread() != syncThread) {
+            requestSync(DEBOUNCE_MILLIS);
+        }
+    }
+
+    @Override
+    public void onTaskAdded(Task task) {
+        onLocalChange();
+    }
+
+    @Override
+    public void onTaskUpdated(Task task) {
+        onLocalChange();
+    }
+
+    @Override
+    public void onTaskDeleted(Task task) {
+        onLocalChange();
+    }
+
+    @Override
+    public void onTaskCompleted(Task task) {
+        onLocalChange();
+    }
+
+    @Override
+    public void onTasksUpdated(List<Task> tasks) {
+        onLocalChange();
+    }
+
+    @Override
+    public void onTasksDeleted(List<Task> tasks) {
+        onLocalChange();
+    }
+}
@@ -0,0 +1,47 @@
+package com.roosoars.taskflow.sync;
+
+
+/** What one {@link SyncEngine#sync()} moved, for logs and load tests. */
+public final class SyncResult {
+
+    private final int pulled;
+    private final int pushed;
+    private final int conflicts;
+    private final int batches;
+    private final long durationMillis;
+
+    public SyncResult(int pulled, int pushed, int conflicts, int batches, long durationMillis) {
+        this.pulled = pulled;
+        this.pushed = pushed;
+        this.conflicts = conflicts;
+        this.batches = batches;
+        this.durationMillis = durationMillis;
+    }
+
+    public int getPulled() {
+        return pulled;
+    }
+
+    public int getPushed() {
+        return pushed;
+    }
+
+    /** Fields written on two sides at once, where one side's write was overruled. */
+    public int getConflicts() {
+        return conflicts;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "pulled=" + pulled + " pushed=" + pushed + " conflicts=" + conflicts
+                + " batches=" + batches + " in " + durationMillis + " ms";
+    }
+}
@@ -0,0 +1,157 @@
+package com.roosoars.taskflow.sync;
+
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+
+/**
+ * One task as sync sees it: a global id, and each field's value with the {@link HybridClock}
+ * timestamp of its last write. A row may carry only some fields, the ones changed since the last
+ * push. Merging keeps, field by field, the write with the later timestamp, so devices converge
+ * whatever order the changes reach them in. Deletion is a field of its own: a row is deleted
+ * while its deletion is later than every other field, and a later edit brings it back.
+ */
+public final class SyncRow {
+
+    public static final int TITLE = 0;
+    public static final int DESCRIPTION = 1;
+    public static final int DUE_DATE = 2;
+    public static final int PRIORITY = 3;
+    public static final int CATEGORY = 4;
+    public static final int COMPLETED = 5;
+    public static final int TYPE = 6;
+    public static final int RECURRENCE_RULE = 7;
+    public static final int DELETED = 8;
+    public static final int FIELD_COUNT = 9;
+
+    private final String uid;
+    private int fields;
+    // Values are String, Long (DUE_DATE), Integer (PRIORITY) or Boolean (COMPLETED and DELETED).
+    private final Object[] values = new Object[FIELD_COUNT];
+    private final long[] stamps = new long[FIELD_COUNT];
+
+    public SyncRow(String uid) {
+        this.uid = uid;
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    /** The fields this row carries, as a bit set indexed by field. */
+    public int getFields() {
+        return fields;
+    }
+
+    public boolean has(int field) {
+        return (fields & (1 << field)) != 0;
+    }
+
+    @Nullable
+    public Object getValue(int field) {
+        return values[field];
+    }
+
+    public long getStamp(int field) {
+        return stamps[field];
+    }
+
+    public SyncRow set(int field, @Nullable Object value, long stamp) {
+        fields |= 1 << field;
+        values[field] = value;
+        stamps[field] = stamp;
+        return this;
+    }
+
+    public SyncRow delete(long stamp) {
+        return set(DELETED, Boolean.TRUE, stamp);
+    }
+
+    /** The latest timestamp among the fields carried. */
+    public long getVersion() {
+        long version = 0;
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            if (has(field)) {
+                version = Math.max(version, stamps[field]);
+            }
+        }
+        return version;
+    }
+
+    public boolean isDeleted() {
+        if (!has(DELETED)) {
+            return false;
+        }
+        for (int field = 0; field < DELETED; field++) {
+            if (has(field) && stamps[field] > stamps[DELETED]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes every field of {@code other} that was written after this row's, and returns them as a
+     * bit set. Equal timestamps, only possible across devices, go to the greater value, so both
+     * sides pick the same one.
+     */
+    public int merge(SyncRow other) {
+        int taken = 0;
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            if (other.has(field) && takes(other, field)) {
+                set(field, other.values[field], other.stamps[field]);
+                taken |= 1 << field;
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Fields {@link #merge} would not take from {@code other} although they hold another value:
+     * concurrent edits whose outcome differs from what the other side wrote.
+     */
+    public int conflicts(SyncRow other) {
+        int conflicts = 0;
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            if (other.has(field) && has(field) && !takes(other, field)
+                    && !Objects.equals(values[field], other.values[field])) {
+                conflicts |= 1 << field;
+            }
+        }
+        return conflicts;
+    }
+
+    private boolean takes(SyncRow other, int field) {
+        long theirs = other.stamps[field];
+        return !has(field) || theirs > stamps[field]
+                || (theirs == stamps[field] && compare(other.values[field], values[field]) > 0);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(@Nullable Object a, @Nullable Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SyncRow syncRow = (SyncRow) o;
+        if (fields != syncRow.fields || !uid.equals(syncRow.uid)) return false;
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            if (stamps[field] != syncRow.stamps[field] || !Objects.equals(values[field], syncRow.values[field])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return uid.hashCode();
+    }
+}
@@ -0,0 +1,95 @@
+package com.roosoars.taskflow.sync;
+
+
+/**
+ * Tables and triggers that track local changes for sync. {@code task_sync} has a row per task
+ * with its global uid and, per {@link SyncRow} field, the {@link HybridClock} timestamp of its
+ * last local write; a row with {@code version > pushedVersion} has changes to push. Triggers on
+ * {@code tasks} stamp every write, whatever code path made it, in the writing transaction.
+ * {@code sync_state} holds the clock, the sync token, and the flag that stops the triggers while
+ * remote rows are merged.
+ */
+public final class SyncSchema {
+
+    /** Version column of each field, by {@link SyncRow} field index. */
+    static final String[] VERSION_COLUMNS = {
+            "titleVersion", "descriptionVersion", "dueDateVersion", "priorityVersion",
+            "categoryVersion", "completedVersion", "typeVersion", "recurrenceRuleVersion",
+            "deletedVersion"
+    };
+
+    /** Column of {@code tasks} each field is written to; the category is synced by name. */
+    static final String[] TASK_COLUMNS = {
+            "title", "description", "dueDate", "priority", "categoryId", "completed", "type",
+            "recurrenceRule"
+    };
+
+    private static final String TICK = "UPDATE `sync_state` SET `clock` = " + HybridClock.SQL_TICK + ";";
+    private static final String CLOCK = "(SELECT `clock` FROM `sync_state`)";
+    private static final String NOT_APPLYING = "(SELECT `applying` FROM `sync_state`) = 0";
+    private static final String NEW_ROW = "lower(hex(randomblob(16))), `clock`, 0,"
+            + " `clock`, `clock`, `clock`, `clock`, `clock`, `clock`, `clock`, `clock`, 0";
+
+    /** Creates the tables and triggers; for a new database, or before {@link #BACKFILL}. */
+    public static final String[] CREATE = {
+            "CREATE TABLE IF NOT EXISTS `sync_state` (`id` INTEGER PRIMARY KEY NOT NULL CHECK (`id` = 0),"
+                    + " `clock` INTEGER NOT NULL, `token` INTEGER NOT NULL, `applying` INTEGER NOT NULL)",
+            "INSERT OR IGNORE INTO `sync_state` (`id`, `clock`, `token`, `applying`) VALUES (0, 0, 0, 0)",
+            "CREATE TABLE IF NOT EXISTS `task_sync` (`taskId` INTEGER PRIMARY KEY NOT NULL,"
+                    + " `uid` TEXT NOT NULL, `version` INTEGER NOT NULL, `pushedVersion` INTEGER NOT NULL,"
+                    + " `titleVersion` INTEGER NOT NULL, `descriptionVersion` INTEGER NOT NULL,"
+                    + " `dueDateVersion` INTEGER NOT NULL, `priorityVersion` INTEGER NOT NULL,"
+                    + " `categoryVersion` INTEGER NOT NULL, `completedVersion` INTEGER NOT NULL,"
+                    + " `typeVersion` INTEGER NOT NULL, `recurrenceRuleVersion` INTEGER NOT NULL,"
+                    + " `deletedVersion` INTEGER NOT NULL)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS `index_task_sync_uid` ON `task_sync` (`uid`)",
+            // Only rows waiting to be pushed, in the order they are read.
+            "CREATE INDEX IF NOT EXISTS `index_task_sync_pending` ON `task_sync` (`version`)"
+                    + " WHERE `version` > `pushedVersion`",
+            "CREATE TRIGGER IF NOT EXISTS `task_sync_AFTER_INSERT` AFTER INSERT ON `tasks`"
+                    + " WHEN " + NOT_APPLYING + " BEGIN " + TICK
+                    + " INSERT OR REPLACE INTO `task_sync` SELECT NEW.`id`, " + NEW_ROW + " FROM `sync_state`;"
+                    + " END",
+            "CREATE TRIGGER IF NOT EXISTS `task_sync_AFTER_UPDATE` AFTER UPDATE ON `tasks`"
+                    + " WHEN " + NOT_APPLYING + " AND (" + anyChanged() + ") BEGIN " + TICK
+                    + " UPDATE `task_sync` SET `version` = " + CLOCK + stampChanged() + " WHERE `taskId` = NEW.`id`;"
+                    + " END",
+            // A task that never reached the server leaves nothing behind.
+            "CREATE TRIGGER IF NOT EXISTS `task_sync_AFTER_DELETE` AFTER DELETE ON `tasks`"
+                    + " WHEN " + NOT_APPLYING + " BEGIN " + TICK
+                    + " DELETE FROM `task_sync` WHERE `taskId` = OLD.`id` AND `pushedVersion` = 0;"
+                    + " UPDATE `task_sync` SET `version` = " + CLOCK + ", `deletedVersion` = " + CLOCK
+                    + " WHERE `taskId` = OLD.`id`;"
+                    + " END"
+    };
+
+    /** Gives the tasks of an existing database their sync rows, as changes to push. */
+    public static final String[] BACKFILL = {
+            TICK.substring(0, TICK.length() - 1),
+            "INSERT OR IGNORE INTO `task_sync` SELECT `tasks`.`id`, " + NEW_ROW + " FROM `tasks`, `sync_state`"
+    };
+
+    private SyncSchema() {
+    }
+
+    private static String anyChanged() {
+        StringBuilder sql = new StringBuilder();
+        for (String column : TASK_COLUMNS) {
+            sql.append(sql.length() == 0 ? "" : " OR ")
+                    .append("NEW.`").append(column).append("` IS NOT OLD.`").append(column).append('`');
+        }
+        return sql.toString();
+    }
+
+    private static String stampChanged() {
+        StringBuilder sql = new StringBuilder();
+        for (int field = 0; field < TASK_COLUMNS.length; field++) {
+            String column = TASK_COLUMNS[field];
+            String version = VERSION_COLUMNS[field];
+            sql.append(", `").append(version).append("` = CASE WHEN NEW.`").append(column)
+                    .append("` IS NOT OLD.`").append(column).append("` THEN ").append(CLOCK)
+                    .append(" ELSE `").append(version).append("` END");
+        }
+        return sql.toString();
+    }
+}
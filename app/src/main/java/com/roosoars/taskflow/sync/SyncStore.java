@@ -0,0 +1,29 @@
+package com.roosoars.taskflow.sync;
+
+import java.util.List;
+
+
+/** The local side of sync: where changes are read from and remote rows are merged into. */
+public interface SyncStore {
+
+    /** Token of the last server change merged here; 0 before the first sync. */
+    long getSyncToken();
+
+    /**
+     * Up to {@code limit} rows changed since they were last pushed, oldest change first. Each
+     * carries only its fields written since then, deletion included.
+     */
+    List<SyncRow> readChanges(int limit);
+
+    /**
+     * Records that {@code rows}, as returned by {@link #readChanges}, reached the server, and
+     * moves the sync token to {@code token}. Changes made since the read stay to be pushed.
+     */
+    void markPushed(List<SyncRow> rows, long token);
+
+    /**
+     * Merges a pulled batch field by field and moves the sync token, in one transaction. Returns
+     * how many local fields not yet pushed lost to later remote writes.
+     */
+    int apply(SyncBatch batch);
+}
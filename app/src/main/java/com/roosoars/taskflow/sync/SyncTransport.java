@@ -0,0 +1,15 @@
+package com.roosoars.taskflow.sync;
+
+import java.io.IOException;
+import java.util.List;
+
+
+/** The server side of sync, as the {@link SyncEngine} talks to it. */
+public interface SyncTransport {
+
+    /** At most {@code limit} rows changed on the server after {@code sinceToken}, oldest first. */
+    SyncBatch pull(long sinceToken, int limit) throws IOException;
+
+    /** Sends local changes, made by a client that has pulled everything up to {@code token}. */
+    SyncBatch push(long token, List<SyncRow> rows) throws IOException;
+}
@@ -0,0 +1,361 @@
+package com.roosoars.taskflow.sync;
+
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.roosoars.taskflow.R;
+import com.roosoars.taskflow.db.AppDatabase;
+import com.roosoars.taskflow.db.TaskDao;
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.observer.TaskObserver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * {@link SyncStore} over the tasks table and the {@link SyncSchema} tables. Remote rows are
+ * merged through prepared statements with the change triggers switched off, so merged fields
+ * keep their remote timestamps and are not pushed back. Categories travel by name and are
+ * created when a pulled task uses one this device lacks.
+ *
+ * <p>Each batch is its own transaction, begun from the sync thread: the database lock serializes
+ * it with the writer's transactions, but nothing is queued on the writer executor while the
+ * network is slow.
+ */
+public class TaskSyncStore implements SyncStore {
+
+
+    private static final String SELECT_ROWS = "SELECT s.`taskId`, s.`uid`, s.`version`, s.`pushedVersion`,"
+            + " t.`id` IS NOT NULL, t.`title`, t.`description`, t.`dueDate`, t.`priority`, c.`name`,"
+            + " t.`completed`, t.`type`, t.`recurrenceRule`, " + versionColumns("s.")
+            + " FROM `task_sync` s LEFT JOIN `tasks` t ON t.`id` = s.`taskId`"
+            + " LEFT JOIN `categories` c ON c.`id` = t.`categoryId`";
+    // Columns of the first field value and of the first version in SELECT_ROWS; the deletion
+    // has a version but no value.
+    private static final int VALUES = 5;
+    private static final int VERSIONS = VALUES + SyncRow.DELETED;
+
+    private static final String SELECT_CHANGES = SELECT_ROWS
+            + " WHERE s.`version` > s.`pushedVersion` ORDER BY s.`version` LIMIT ?";
+    private static final String INSERT_TASK = "INSERT INTO `tasks` (`id`, `title`, `description`, `dueDate`,"
+            + " `priority`, `categoryId`, `completed`, `type`, `recurrenceRule`)"
+            + " VALUES (nullif(?, 0), ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_TASK = "UPDATE `tasks` SET `title` = ?, `description` = ?,"
+            + " `dueDate` = ?, `priority` = ?, `categoryId` = ?, `completed` = ?, `type` = ?,"
+            + " `recurrenceRule` = ? WHERE `id` = ?";
+    private static final String DELETE_TASK = "DELETE FROM `tasks` WHERE `id` = ?";
+    private static final String WRITE_SYNC_ROW = "INSERT OR REPLACE INTO `task_sync` (`taskId`, `uid`,"
+            + " `version`, `pushedVersion`, " + versionColumns("") + ")"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String MARK_PUSHED = "UPDATE `task_sync` SET `pushedVersion` = max(`pushedVersion`, ?)"
+            + " WHERE `uid` = ?";
+    // Tombstones the server has seen are of no further use.
+    private static final String PRUNE_TOMBSTONES = "DELETE FROM `task_sync`"
+            + " WHERE `deletedVersion` >= `version` AND `pushedVersion` >= `version`";
+    private static final String INSERT_CATEGORY = "INSERT INTO `categories` (`name`, `color`) VALUES (?, ?)";
+
+    private final AppDatabase database;
+    private final TaskDao taskDao;
+    private final TaskObserver taskObserver;
+
+    // A local row with what the sync columns say about it.
+    private static final class LocalRow {
+        final long taskId;
+        final long pushedVersion;
+        final boolean unpushed;
+        final boolean exists;
+        final SyncRow row;
+
+        LocalRow(long taskId, long version, long pushedVersion, boolean exists, SyncRow row) {
+            this.taskId = taskId;
+            this.pushedVersion = pushedVersion;
+            this.unpushed = version > pushedVersion;
+            this.exists = exists;
+            this.row = row;
+        }
+    }
+
+    public TaskSyncStore(AppDatabase database, TaskObserver taskObserver) {
+        this.database = database;
+        this.taskDao = database.taskDao();
+        this.taskObserver = taskObserver;
+    }
+
+    @Override
+    public long getSyncToken() {
+        try (Cursor cursor = database.query("SELECT `token` FROM `sync_state`", null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    @Override
+    public List<SyncRow> readChanges(int limit) {
+        List<SyncRow> changes = new ArrayList<>();
+        try (Cursor cursor = database.query(SELECT_CHANGES, new Object[]{limit})) {
+            while (cursor.moveToNext()) {
+                long pushedVersion = cursor.getLong(3);
+                SyncRow row = new SyncRow(cursor.getString(1));
+                if (cursor.getInt(4) == 0) {
+                    // Only the deletion: the fields of a deleted task are gone.
+                    row.delete(cursor.getLong(VERSIONS + SyncRow.DELETED));
+                } else {
+                    for (int field = 0; field < SyncRow.DELETED; field++) {
+                        long stamp = cursor.getLong(VERSIONS + field);
+                        if (stamp > pushedVersion) {
+                            row.set(field, value(cursor, field), stamp);
+                        }
+                    }
+                }
+                changes.add(row);
+            }
+        }
+        return changes;
+    }
+
+    @Override
+    public void markPushed(List<SyncRow> rows, long token) {
+        database.runInTransaction(() -> {
+            try (SupportSQLiteStatement mark = database.compileStatement(MARK_PUSHED)) {
+                for (SyncRow row : rows) {
+                    mark.bindLong(1, row.getVersion());
+                    mark.bindString(2, row.getUid());
+                    mark.executeUpdateDelete();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            execute(PRUNE_TOMBSTONES);
+            execute("UPDATE `sync_state` SET `token` = max(`token`, ?)", token);
+        });
+    }
+
+    @Override
+    public int apply(SyncBatch batch) {
+        List<Long> added = new ArrayList<>();
+        List<Long> updated = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        int[] conflicts = {0};
+        database.runInTransaction(() -> {
+            execute("UPDATE `sync_state` SET `applying` = 1");
+            Map<String, Long> categoryIds = loadCategoryIds();
+            long maxStamp = 0;
+            try (SupportSQLiteStatement insert = database.compileStatement(INSERT_TASK);
+                 SupportSQLiteStatement update = database.compileStatement(UPDATE_TASK);
+                 SupportSQLiteStatement delete = database.compileStatement(DELETE_TASK);
+                 SupportSQLiteStatement writeSyncRow = database.compileStatement(WRITE_SYNC_ROW)) {
+                List<SyncRow> rows = batch.getRows();
+                for (int from = 0; from < rows.size(); from += TaskDao.MAX_IDS_PER_STATEMENT) {
+                    int to = Math.min(from + TaskDao.MAX_IDS_PER_STATEMENT, rows.size());
+                    List<SyncRow> chunk = rows.subList(from, to);
+                    Map<String, LocalRow> locals = loadLocalRows(chunk);
+                    for (SyncRow remote : chunk) {
+                        maxStamp = Math.max(maxStamp, remote.getVersion());
+                        LocalRow local = locals.get(remote.getUid());
+                        if (local == null) {
+                            if (remote.isDeleted()) {
+                                continue;
+                            }
+                            local = new LocalRow(0, 0, 0, false, new SyncRow(remote.getUid()));
+                        } else if (local.unpushed) {
+                            conflicts[0] += Integer.bitCount(remote.conflicts(local.row)
+                                    & unpushedFields(local));
+                        }
+                        if (local.row.merge(remote) == 0) {
+                            continue;
+                        }
+
+                        long taskId = local.taskId;
+                        if (local.row.isDeleted()) {
+                            if (local.exists) {
+                                delete.bindLong(1, taskId);
+                                delete.executeUpdateDelete();
+                                deleted.add(taskId);
+                            }
+                        } else if (local.exists) {
+                            bindTask(update, 1, local.row, categoryIds);
+                            update.bindLong(9, taskId);
+                            update.executeUpdateDelete();
+                            updated.add(taskId);
+                        } else {
+                            insert.bindLong(1, taskId);
+                            bindTask(insert, 2, local.row, categoryIds);
+                            taskId = insert.executeInsert();
+                            added.add(taskId);
+                        }
+
+                        // Merged fields came from the server; only what was unpushed stays so.
+                        long version = local.row.getVersion();
+                        writeSyncRow.bindLong(1, taskId);
+                        writeSyncRow.bindString(2, remote.getUid());
+                        writeSyncRow.bindLong(3, version);
+                        writeSyncRow.bindLong(4, local.unpushed ? local.pushedVersion : version);
+                        for (int field = 0; field < SyncRow.FIELD_COUNT; field++) {
+                            writeSyncRow.bindLong(5 + field, local.row.has(field) ? local.row.getStamp(field) : 0);
+                        }
+                        writeSyncRow.executeInsert();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // The clock moves past every remote write, so later local writes win over them.
+            execute("UPDATE `sync_state` SET `clock` = max(`clock`, ?), `token` = ?, `applying` = 0",
+                    maxStamp, batch.getToken());
+        });
+
+        notifyObserver(added, updated, deleted);
+        return conflicts[0];
+    }
+
+    private Map<String, LocalRow> loadLocalRows(List<SyncRow> rows) {
+        StringBuilder sql = new StringBuilder(SELECT_ROWS).append(" WHERE s.`uid` IN (");
+        Object[] uids = new Object[rows.size()];
+        for (int i = 0; i < uids.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            uids[i] = rows.get(i).getUid();
+        }
+        sql.append(')');
+
+        Map<String, LocalRow> locals = new HashMap<>();
+        try (Cursor cursor = database.query(sql.toString(), uids)) {
+            while (cursor.moveToNext()) {
+                SyncRow row = new SyncRow(cursor.getString(1));
+                for (int field = 0; field < SyncRow.FIELD_COUNT; field++) {
+                    long stamp = cursor.getLong(VERSIONS + field);
+                    if (field == SyncRow.DELETED) {
+                        if (stamp != 0) {
+                            row.delete(stamp);
+                        }
+                    } else {
+                        row.set(field, value(cursor, field), stamp);
+                    }
+                }
+                locals.put(row.getUid(), new LocalRow(cursor.getLong(0), cursor.getLong(2),
+                        cursor.getLong(3), cursor.getInt(4) != 0, row));
+            }
+        }
+        return locals;
+    }
+
+    private static int unpushedFields(LocalRow local) {
+        int fields = 0;
+        for (int field = 0; field < SyncRow.FIELD_COUNT; field++) {
+            if (local.row.has(field) && local.row.getStamp(field) > local.pushedVersion) {
+                fields |= 1 << field;
+            }
+        }
+        return fields;
+    }
+
+    private static Object value(Cursor cursor, int field) {
+        int column = VALUES + field;
+        switch (field) {
+            case SyncRow.DUE_DATE:
+                return cursor.isNull(column) ? null : cursor.getLong(column);
+            case SyncRow.PRIORITY:
+                return cursor.getInt(column);
+            case SyncRow.COMPLETED:
+                return cursor.getInt(column) != 0;
+            default:
+                return cursor.getString(column);
+        }
+    }
+
+    private void bindTask(SupportSQLiteStatement statement, int first, SyncRow row,
+                          Map<String, Long> categoryIds) {
+        bindString(statement, first, (String) row.getValue(SyncRow.TITLE));
+        bindString(statement, first + 1, (String) row.getValue(SyncRow.DESCRIPTION));
+        Long dueDate = (Long) row.getValue(SyncRow.DUE_DATE);
+        if (dueDate != null) {
+            statement.bindLong(first + 2, dueDate);
+        } else {
+            statement.bindNull(first + 2);
+        }
+        Integer priority = (Integer) row.getValue(SyncRow.PRIORITY);
+        statement.bindLong(first + 3, priority != null ? priority : 0);
+        String category = (String) row.getValue(SyncRow.CATEGORY);
+        if (category != null) {
+            statement.bindLong(first + 4, categoryId(category, categoryIds));
+        } else {
+            statement.bindNull(first + 4);
+        }
+        statement.bindLong(first + 5, Boolean.TRUE.equals(row.getValue(SyncRow.COMPLETED)) ? 1 : 0);
+        bindString(statement, first + 6, (String) row.getValue(SyncRow.TYPE));
+        bindString(statement, first + 7, (String) row.getValue(SyncRow.RECURRENCE_RULE));
+    }
+
+    private Map<String, Long> loadCategoryIds() {
+        Map<String, Long> ids = new HashMap<>();
+        try (Cursor cursor = database.query("SELECT `id`, `name` FROM `categories` ORDER BY `id` DESC", null)) {
+            while (cursor.moveToNext()) {
+                if (!cursor.isNull(1)) {
+                    ids.put(cursor.getString(1), cursor.getLong(0));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private long categoryId(String name, Map<String, Long> categoryIds) {
+        Long id = categoryIds.get(name);
+        if (id == null) {
+            try (SupportSQLiteStatement insert = database.compileStatement(INSERT_CATEGORY)) {
+                insert.bindString(1, name);
+                insert.bindLong(2, R.color.colorPrimary);
+                id = insert.executeInsert();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            categoryIds.put(name, id);
+        }
+        return id;
+    }
+
+    private void notifyObserver(List<Long> added, List<Long> updated, List<Long> deleted) {
+        for (Task task : loadTasks(added)) {
+            taskObserver.notifyTaskAdded(task);
+        }
+        List<Task> changed = loadTasks(updated);
+        if (!changed.isEmpty()) {
+            taskObserver.notifyTasksUpdated(changed);
+        }
+        if (!deleted.isEmpty()) {
+            taskObserver.notifyTasksDeletedById(deleted);
+        }
+    }
+
+    private List<Task> loadTasks(List<Long> ids) {
+        List<Task> tasks = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += TaskDao.MAX_IDS_PER_STATEMENT) {
+            int to = Math.min(from + TaskDao.MAX_IDS_PER_STATEMENT, ids.size());
+            tasks.addAll(taskDao.getTasksByIdsSync(ids.subList(from, to)));
+        }
+        return tasks;
+    }
+
+    private void execute(String sql, Object... args) {
+        database.getOpenHelper().getWritableDatabase().execSQL(sql, args);
+    }
+
+    private static String versionColumns(String prefix) {
+        StringBuilder columns = new StringBuilder();
+        for (String column : SyncSchema.VERSION_COLUMNS) {
+            columns.append(columns.length() == 0 ? "" : ", ").append(prefix).append('`').append(column).append('`');
+        }
+        return columns.toString();
+    }
+
+    private static void bindString(SupportSQLiteStatement statement, int index, String value) {
+        if (value != null) {
+            statement.bindString(index, value);
+        } else {
+            statement.bindNull(index);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.roosoars.taskflow.ui;
 
+import android.Manifest;
+import android.content.pm.PackageManager;
 import android.os.Build;
 import android.os.Bundle;
 import android.view.MenuItem;
@@ -27,6 +29,8 @@ import javax.inject.Inject;
 
 public class MainActivity extends AppCompatActivity {
 
+    private static final int REQUEST_NOTIFICATIONS = 1;
+
     @Inject
     ViewModelFactory viewModelFactory;
 
@@ -77,6 +81,12 @@ public class MainActivity extends AppCompatActivity {
         });
 
         getLifecycle().addObserver(taskObserver);
+
+        // Task reminders are notifications, which need the user's consent from Android 13 on.
+        if (savedInstanceState == null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && checkSelfPermission(Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
+            requestPermissions(new String[]{Manifest.permission.POST_NOTIFICATIONS}, REQUEST_NOTIFICATIONS);
+        }
     }
 
     @Override
@@ -16,11 +16,15 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.roosoars.taskflow.R;
 import com.roosoars.taskflow.model.Category;
 
+import java.util.Collections;
+import java.util.Map;
+
 
 public class CategoryAdapter extends ListAdapter<Category, CategoryAdapter.CategoryViewHolder> {
 
     private final OnCategoryClickListener listener;
     private final Context context;
+    private Map<Long, Integer> taskCounts = Collections.emptyMap();
 
     public interface OnCategoryClickListener {
         void onCategoryClick(Category category);
@@ -33,6 +37,17 @@ public class CategoryAdapter extends ListAdapter<Category, CategoryAdapter.Categ
         this.listener = listener;
     }
 
+    /** Task count per category id, as delivered by the grouped count query. */
+    public void setTaskCounts(Map<Long, Integer> taskCounts) {
+        this.taskCounts = taskCounts;
+        notifyItemRangeChanged(0, getItemCount());
+    }
+
+    public int getTaskCount(long categoryId) {
+        Integer count = taskCounts.get(categoryId);
+        return count != null ? count : 0;
+    }
+
     @NonNull
     @Override
     public CategoryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -47,6 +62,10 @@ public class CategoryAdapter extends ListAdapter<Category, CategoryAdapter.Categ
 
         holder.categoryTextView.setText(category.getName());
 
+        int taskCount = getTaskCount(category.getId());
+        holder.taskCountTextView.setText(context.getResources()
+                .getQuantityString(R.plurals.category_task_count, taskCount, taskCount));
+
         try {
             holder.categoryColorView.setBackgroundColor(
                     ContextCompat.getColor(context, category.getColor()));
@@ -58,12 +77,14 @@ public class CategoryAdapter extends ListAdapter<Category, CategoryAdapter.Categ
 
     class CategoryViewHolder extends RecyclerView.ViewHolder {
         private final TextView categoryTextView;
+        private final TextView taskCountTextView;
         private final ImageView categoryColorView;
 
         public CategoryViewHolder(@NonNull View itemView) {
             super(itemView);
 
             categoryTextView = itemView.findViewById(R.id.category_name);
+            taskCountTextView = itemView.findViewById(R.id.text_view_task_count);
             categoryColorView = itemView.findViewById(R.id.image_view_category_color);
 
             itemView.setOnClickListener(v -> {
@@ -0,0 +1,100 @@
+package com.roosoars.taskflow.ui.adapters;
+
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.model.TaskWithCategory;
+
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * Item identity, content equality and change payloads used by the task list adapters' diff
+ * callback. A payload is an {@link Integer} of the flags below, so a row only rebinds the views
+ * whose data changed.
+ */
+public final class TaskDiff {
+
+    public static final int TITLE = 1;
+    public static final int COMPLETED = 1 << 1;
+    // Priority is not drawn by the row, the flag lets a priority-only change skip the rebind.
+    public static final int PRIORITY = 1 << 2;
+    public static final int DUE_DATE = 1 << 3;
+    public static final int CATEGORY = 1 << 4;
+    // Never produced by the diff: posted by the list when the multi-select set changes.
+    public static final int SELECTION = 1 << 5;
+
+    private TaskDiff() {
+    }
+
+    public static boolean areItemsTheSame(TaskWithCategory oldItem, TaskWithCategory newItem) {
+        return oldItem.getTask().getId() == newItem.getTask().getId();
+    }
+
+    public static boolean areContentsTheSame(TaskWithCategory oldItem, TaskWithCategory newItem) {
+        return changes(oldItem, newItem) == 0;
+    }
+
+    /** The flags of every field that differs between the two versions of a row. */
+    public static int changes(TaskWithCategory oldItem, TaskWithCategory newItem) {
+        Task oldTask = oldItem.getTask();
+        Task newTask = newItem.getTask();
+
+        int changes = 0;
+        if (!Objects.equals(oldTask.getTitle(), newTask.getTitle())) {
+            changes |= TITLE;
+        }
+        if (oldTask.isCompleted() != newTask.isCompleted()) {
+            changes |= COMPLETED;
+        }
+        if (oldTask.getPriority() != newTask.getPriority()) {
+            changes |= PRIORITY;
+        }
+        if (!Objects.equals(oldTask.getDueDate(), newTask.getDueDate())) {
+            changes |= DUE_DATE;
+        }
+        if (!Objects.equals(oldTask.getCategoryId(), newTask.getCategoryId())
+                || !sameCategory(oldItem.getCategory(), newItem.getCategory())) {
+            changes |= CATEGORY;
+        }
+        return changes;
+    }
+
+    public static boolean areItemsTheSame(TaskRowModel oldRow, TaskRowModel newRow) {
+        return oldRow.getTaskId() == newRow.getTaskId();
+    }
+
+    public static boolean areContentsTheSame(TaskRowModel oldRow, TaskRowModel newRow) {
+        return changes(oldRow, newRow) == 0;
+    }
+
+    /** Like {@link #changes(TaskWithCategory, TaskWithCategory)}, plus labels that aged with the clock. */
+    public static int changes(TaskRowModel oldRow, TaskRowModel newRow) {
+        int changes = changes(oldRow.getItem(), newRow.getItem());
+        if (!oldRow.sameDueDisplay(newRow)) {
+            changes |= DUE_DATE;
+        }
+        return changes;
+    }
+
+    // Rows carry the joined category, so a renamed or recolored category changes the row too.
+    private static boolean sameCategory(Category oldCategory, Category newCategory) {
+        if (oldCategory == null || newCategory == null) {
+            return oldCategory == newCategory;
+        }
+        return Objects.equals(oldCategory.getName(), newCategory.getName())
+                && oldCategory.getColor() == newCategory.getColor();
+    }
+
+    /** Merges the payloads RecyclerView collected for one bind; 0 means rebind everything. */
+    public static int merge(List<Object> payloads) {
+        int changes = 0;
+        for (Object payload : payloads) {
+            if (!(payload instanceof Integer)) {
+                return 0;
+            }
+            changes |= (Integer) payload;
+        }
+        return changes;
+    }
+}
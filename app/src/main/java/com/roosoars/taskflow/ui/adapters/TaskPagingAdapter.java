@@ -0,0 +1,60 @@
+package com.roosoars.taskflow.ui.adapters;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+
+import com.roosoars.taskflow.R;
+
+import java.util.List;
+
+import kotlin.coroutines.CoroutineContext;
+import kotlinx.coroutines.Dispatchers;
+import kotlinx.coroutines.ExecutorsKt;
+
+
+public class TaskPagingAdapter extends PagingDataAdapter<TaskRowModel, TaskViewHolder> {
+
+    private final TaskAdapter.OnTaskClickListener listener;
+    private final Context context;
+
+    public TaskPagingAdapter(Context context, TaskAdapter.OnTaskClickListener listener) {
+        super(TaskAdapter.DIFF_CALLBACK, (CoroutineContext) Dispatchers.getMain(),
+                ExecutorsKt.from(TaskAdapter.DIFF_EXECUTOR));
+        this.context = context;
+        this.listener = listener;
+    }
+
+    @NonNull
+    @Override
+    public TaskViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View itemView = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_task, parent, false);
+        return new TaskViewHolder(itemView, context, listener);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
+        TaskRowModel item = getItem(position);
+        if (item != null) {
+            holder.bind(item);
+        } else {
+            holder.bindPlaceholder();
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull TaskViewHolder holder, int position, @NonNull List<Object> payloads) {
+        TaskRowModel item = getItem(position);
+        int changes = TaskDiff.merge(payloads);
+        if (item == null || changes == 0) {
+            onBindViewHolder(holder, position);
+        } else {
+            holder.bindChanges(item, changes);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.roosoars.taskflow.ui.adapters;
+
+import android.content.Context;
+import android.content.res.Resources;
+
+import androidx.core.content.ContextCompat;
+
+import com.roosoars.taskflow.R;
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.model.TaskWithCategory;
+import com.roosoars.taskflow.ui.decorators.TaskStatus;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+
+/**
+ * Builds the {@link TaskRowModel} of each row as pages are emitted, on {@link #getExecutor()}.
+ * Models are cached by task id and reused while the row's content is unchanged and the clock has
+ * not crossed one of its due-date boundaries. The cache, the date format and the day boundaries
+ * are only touched from that single-threaded executor.
+ */
+public class TaskRowFormatter {
+
+    private static final String OVERDUE_PREFIX = "Overdue: ";
+    private static final String DUE_SOON_PREFIX = "Due soon: ";
+
+    // A few pages' worth of rows beyond what the pager keeps loaded.
+    private static final int MAX_CACHED_ROWS = 1000;
+
+    private final Context context;
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
+    private final Map<Integer, Integer> categoryColors = new HashMap<>();
+    private final Map<Long, TaskRowModel> cache = new LinkedHashMap<Long, TaskRowModel>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, TaskRowModel> eldest) {
+            return size() > MAX_CACHED_ROWS;
+        }
+    };
+
+    private final int overdueColor;
+    private final int dueSoonColor;
+    private final int mutedColor;
+    private final int defaultBarColor;
+    private final int fallbackCategoryColor;
+
+    private long startOfToday;
+    private long startOfTomorrow;
+    private long startOfDayAfter;
+
+    public TaskRowFormatter(Context context) {
+        this.context = context.getApplicationContext();
+        overdueColor = ContextCompat.getColor(context, android.R.color.holo_red_light);
+        dueSoonColor = ContextCompat.getColor(context, android.R.color.holo_orange_light);
+        mutedColor = ContextCompat.getColor(context, android.R.color.darker_gray);
+        defaultBarColor = ContextCompat.getColor(context, R.color.colorPrimary);
+        fallbackCategoryColor = ContextCompat.getColor(context, android.R.color.holo_blue_light);
+    }
+
+    public Executor getExecutor() {
+        return TaskAdapter.DIFF_EXECUTOR;
+    }
+
+    public TaskRowModel format(TaskWithCategory item) {
+        long now = System.currentTimeMillis();
+        if (now >= startOfTomorrow || now < startOfToday) {
+            updateDayBoundaries(now);
+        }
+
+        long id = item.getTask().getId();
+        TaskRowModel cached = cache.get(id);
+        if (cached != null && now < cached.getValidUntil()) {
+            if (cached.getItem() == item) {
+                return cached;
+            }
+            if (TaskDiff.areContentsTheSame(cached.getItem(), item)) {
+                TaskRowModel model = cached.withItem(item);
+                cache.put(id, model);
+                return model;
+            }
+        }
+
+        TaskRowModel model = create(item, now);
+        cache.put(id, model);
+        return model;
+    }
+
+    private TaskRowModel create(TaskWithCategory item, long now) {
+        Task task = item.getTask();
+
+        String dueDateText = null;
+        String pendingDueDateText = null;
+        int pendingDueDateColor = mutedColor;
+        int pendingBarColor = defaultBarColor;
+        long validUntil = Long.MAX_VALUE;
+
+        if (task.getDueDate() != null) {
+            long due = task.getDueDate().getTime();
+            dueDateText = dateFormat.format(task.getDueDate());
+
+            // Same thresholds as TaskStatus, applied as if the task were pending: a completed row
+            // uses the plain text, and the checkbox can switch between the two without reformatting.
+            long timeDiff = due - now;
+            if (timeDiff < 0) {
+                pendingDueDateText = OVERDUE_PREFIX + dueDateText;
+                pendingDueDateColor = overdueColor;
+            } else if (timeDiff > 0 && timeDiff <= TaskStatus.DUE_SOON_WINDOW_MILLIS) {
+                pendingDueDateText = DUE_SOON_PREFIX + dueDateText;
+                pendingDueDateColor = dueSoonColor;
+            } else {
+                pendingDueDateText = dueDateText;
+            }
+
+            if (due >= startOfToday && due < startOfTomorrow) {
+                pendingBarColor = overdueColor;
+            } else if (due >= startOfTomorrow && due < startOfDayAfter) {
+                pendingBarColor = dueSoonColor;
+            }
+
+            // The model is rebuilt at the next midnight or when the label moves to due soon or
+            // overdue, whichever comes first.
+            validUntil = startOfTomorrow;
+            if (due - TaskStatus.DUE_SOON_WINDOW_MILLIS > now) {
+                validUntil = Math.min(validUntil, due - TaskStatus.DUE_SOON_WINDOW_MILLIS);
+            } else if (due > now) {
+                validUntil = Math.min(validUntil, due);
+            }
+        }
+
+        String categoryName = null;
+        int categoryColor = fallbackCategoryColor;
+        Category category = item.getCategory();
+        if (category != null) {
+            categoryName = category.getName();
+            categoryColor = resolveCategoryColor(category.getColor());
+        }
+
+        return new TaskRowModel(item, dueDateText, pendingDueDateText, pendingDueDateColor,
+                pendingBarColor, mutedColor, categoryName, categoryColor, validUntil);
+    }
+
+    private int resolveCategoryColor(int colorRes) {
+        Integer color = categoryColors.get(colorRes);
+        if (color == null) {
+            try {
+                color = ContextCompat.getColor(context, colorRes);
+            } catch (Resources.NotFoundException e) {
+                color = fallbackCategoryColor;
+            }
+            categoryColors.put(colorRes, color);
+        }
+        return color;
+    }
+
+    private void updateDayBoundaries(long now) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(now);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        startOfToday = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_YEAR, 1);
+        startOfTomorrow = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_YEAR, 1);
+        startOfDayAfter = calendar.getTimeInMillis();
+    }
+}
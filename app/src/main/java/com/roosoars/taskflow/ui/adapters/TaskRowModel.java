@@ -0,0 +1,104 @@
+package com.roosoars.taskflow.ui.adapters;
+
+import androidx.annotation.Nullable;
+
+import com.roosoars.taskflow.model.TaskWithCategory;
+
+import java.util.Objects;
+
+
+/**
+ * Everything a task row draws, formatted and resolved by {@link TaskRowFormatter} before the list
+ * reaches the adapter, so binding only copies fields into views. The due-date text and colors are
+ * kept for both completion states, which lets the checkbox flip a row without reformatting it.
+ */
+public final class TaskRowModel {
+
+    private final TaskWithCategory item;
+    private final String dueDateText;
+    private final String pendingDueDateText;
+    private final int pendingDueDateColor;
+    private final int pendingBarColor;
+    private final int completedColor;
+    private final String categoryName;
+    private final int categoryColor;
+    private final long validUntil;
+
+    TaskRowModel(TaskWithCategory item, String dueDateText, String pendingDueDateText,
+                 int pendingDueDateColor, int pendingBarColor, int completedColor,
+                 String categoryName, int categoryColor, long validUntil) {
+        this.item = item;
+        this.dueDateText = dueDateText;
+        this.pendingDueDateText = pendingDueDateText;
+        this.pendingDueDateColor = pendingDueDateColor;
+        this.pendingBarColor = pendingBarColor;
+        this.completedColor = completedColor;
+        this.categoryName = categoryName;
+        this.categoryColor = categoryColor;
+        this.validUntil = validUntil;
+    }
+
+    TaskRowModel withItem(TaskWithCategory item) {
+        return new TaskRowModel(item, dueDateText, pendingDueDateText, pendingDueDateColor,
+                pendingBarColor, completedColor, categoryName, categoryColor, validUntil);
+    }
+
+    public TaskWithCategory getItem() {
+        return item;
+    }
+
+    public long getTaskId() {
+        return item.getTask().getId();
+    }
+
+    public String getTitle() {
+        return item.getTask().getTitle();
+    }
+
+    public boolean isCompleted() {
+        return item.getTask().isCompleted();
+    }
+
+    public boolean hasDueDate() {
+        return dueDateText != null;
+    }
+
+    @Nullable
+    public String getDueDateText(boolean completed) {
+        return completed ? dueDateText : pendingDueDateText;
+    }
+
+    public int getDueDateColor(boolean completed) {
+        return completed ? completedColor : pendingDueDateColor;
+    }
+
+    public int getBarColor(boolean completed) {
+        return completed ? completedColor : pendingBarColor;
+    }
+
+    public boolean hasCategory() {
+        return categoryName != null;
+    }
+
+    @Nullable
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public int getCategoryColor() {
+        return categoryColor;
+    }
+
+    /** Time until which the due-date label and bar color stay correct, or {@code Long.MAX_VALUE}. */
+    long getValidUntil() {
+        return validUntil;
+    }
+
+    /** Whether both rows draw the same due-date label and color bar, in either completion state. */
+    boolean sameDueDisplay(TaskRowModel other) {
+        return Objects.equals(dueDateText, other.dueDateText)
+                && Objects.equals(pendingDueDateText, other.pendingDueDateText)
+                && pendingDueDateColor == other.pendingDueDateColor
+                && pendingBarColor == other.pendingBarColor;
+    }
+}
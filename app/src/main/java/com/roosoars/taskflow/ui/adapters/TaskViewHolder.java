@@ -0,0 +1,191 @@
+package com.roosoars.taskflow.ui.adapters;
+
+import android.content.Context;
+import android.graphics.Paint;
+import android.view.View;
+import android.widget.CheckBox;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.cardview.widget.CardView;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.roosoars.taskflow.R;
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.model.TaskWithCategory;
+
+
+public class TaskViewHolder extends RecyclerView.ViewHolder {
+
+    private static final float COMPLETED_ALPHA = 0.8f;
+    private static final float PENDING_ALPHA = 1.0f;
+
+    private final TaskAdapter.OnTaskClickListener listener;
+
+    private final TextView textViewTitle;
+    private final TextView textViewDueDate;
+    private final TextView textViewCategory;
+    private final View categoryColorView;
+    private final CheckBox checkBoxCompleted;
+    private final CardView cardView;
+    private final View priorityColorBar;
+
+    // Resolved once per holder; everything else a bind needs comes precomputed in the row model.
+    private final int selectedColor;
+    private final int unselectedColor;
+    private final int placeholderBarColor;
+
+    private TaskRowModel boundRow;
+
+    public TaskViewHolder(@NonNull View itemView, Context context, TaskAdapter.OnTaskClickListener listener) {
+        super(itemView);
+        this.listener = listener;
+
+        textViewTitle = itemView.findViewById(R.id.text_view_task_title);
+        textViewDueDate = itemView.findViewById(R.id.text_view_due_date);
+        textViewCategory = itemView.findViewById(R.id.text_view_category);
+        categoryColorView = itemView.findViewById(R.id.image_view_category_color);
+        checkBoxCompleted = itemView.findViewById(R.id.checkbox_completed);
+        cardView = itemView.findViewById(R.id.card_view_task);
+        priorityColorBar = itemView.findViewById(R.id.priority_color_bar);
+
+        selectedColor = ContextCompat.getColor(context, R.color.colorPrimaryLight);
+        unselectedColor = ContextCompat.getColor(context, android.R.color.white);
+        placeholderBarColor = ContextCompat.getColor(context, android.R.color.darker_gray);
+
+        itemView.setOnClickListener(v -> {
+            if (listener != null && boundRow != null) {
+                listener.onTaskClick(boundRow.getItem());
+            }
+        });
+
+        itemView.setOnLongClickListener(v -> {
+            if (listener != null && boundRow != null) {
+                listener.onTaskLongClick(boundRow.getItem());
+                return true;
+            }
+            return false;
+        });
+
+        checkBoxCompleted.setOnClickListener(v -> {
+            if (listener != null && boundRow != null) {
+                Task task = boundRow.getItem().getTask();
+
+                boolean isCompleted = checkBoxCompleted.isChecked();
+
+                // The task stays as bound; the row is rebound from what the database emits.
+                if (isCompleted) {
+                    textViewTitle.setPaintFlags(textViewTitle.getPaintFlags() | Paint.STRIKE_THRU_TEXT_FLAG);
+                    cardView.animate()
+                            .alpha(COMPLETED_ALPHA)
+                            .setDuration(300)
+                            .start();
+                } else {
+                    textViewTitle.setPaintFlags(textViewTitle.getPaintFlags() & (~Paint.STRIKE_THRU_TEXT_FLAG));
+                    cardView.animate()
+                            .alpha(PENDING_ALPHA)
+                            .setDuration(300)
+                            .start();
+                }
+
+                bindDueDate(boundRow, isCompleted);
+
+                listener.onTaskCheckedChange(task, isCompleted);
+            }
+        });
+    }
+
+    @Nullable
+    public TaskWithCategory getBoundItem() {
+        return boundRow != null ? boundRow.getItem() : null;
+    }
+
+    public void bindPlaceholder() {
+        boundRow = null;
+
+        textViewTitle.setText(null);
+        textViewDueDate.setVisibility(View.GONE);
+        textViewCategory.setVisibility(View.GONE);
+        categoryColorView.setVisibility(View.GONE);
+        checkBoxCompleted.setChecked(false);
+        cardView.setAlpha(0.5f);
+        cardView.setActivated(false);
+        cardView.setBackgroundColor(unselectedColor);
+        priorityColorBar.setBackgroundColor(placeholderBarColor);
+    }
+
+    public void bind(TaskRowModel row) {
+        boundRow = row;
+
+        textViewTitle.setText(row.getTitle());
+        bindCompletion(row);
+        bindDueDate(row, row.isCompleted());
+        bindCategory(row);
+        bindSelection(row);
+    }
+
+    /** Rebinds only the views affected by the {@link TaskDiff} flags in {@code changes}. */
+    public void bindChanges(TaskRowModel row, int changes) {
+        boundRow = row;
+
+        if ((changes & TaskDiff.TITLE) != 0) {
+            textViewTitle.setText(row.getTitle());
+        }
+        if ((changes & TaskDiff.COMPLETED) != 0) {
+            bindCompletion(row);
+        }
+        if ((changes & (TaskDiff.COMPLETED | TaskDiff.DUE_DATE)) != 0) {
+            bindDueDate(row, row.isCompleted());
+        }
+        if ((changes & TaskDiff.CATEGORY) != 0) {
+            bindCategory(row);
+        }
+        if ((changes & TaskDiff.SELECTION) != 0) {
+            bindSelection(row);
+        }
+    }
+
+    private void bindCompletion(TaskRowModel row) {
+        if (row.isCompleted()) {
+            textViewTitle.setPaintFlags(textViewTitle.getPaintFlags() | Paint.STRIKE_THRU_TEXT_FLAG);
+            cardView.setAlpha(COMPLETED_ALPHA);
+        } else {
+            textViewTitle.setPaintFlags(textViewTitle.getPaintFlags() & (~Paint.STRIKE_THRU_TEXT_FLAG));
+            cardView.setAlpha(PENDING_ALPHA);
+        }
+        checkBoxCompleted.setChecked(row.isCompleted());
+    }
+
+    private void bindDueDate(TaskRowModel row, boolean completed) {
+        if (row.hasDueDate()) {
+            textViewDueDate.setText(row.getDueDateText(completed));
+            textViewDueDate.setTextColor(row.getDueDateColor(completed));
+            textViewDueDate.setVisibility(View.VISIBLE);
+        } else {
+            textViewDueDate.setVisibility(View.GONE);
+        }
+        if (priorityColorBar != null) {
+            priorityColorBar.setBackgroundColor(row.getBarColor(completed));
+        }
+    }
+
+    private void bindCategory(TaskRowModel row) {
+        if (row.hasCategory()) {
+            textViewCategory.setText(row.getCategoryName());
+            textViewCategory.setVisibility(View.VISIBLE);
+            categoryColorView.setBackgroundColor(row.getCategoryColor());
+            categoryColorView.setVisibility(View.VISIBLE);
+        } else {
+            textViewCategory.setVisibility(View.GONE);
+            categoryColorView.setVisibility(View.GONE);
+        }
+    }
+
+    private void bindSelection(TaskRowModel row) {
+        boolean isSelected = listener.isTaskSelected(row.getItem().getTask());
+        cardView.setActivated(isSelected);
+        cardView.setBackgroundColor(isSelected ? selectedColor : unselectedColor);
+    }
+}
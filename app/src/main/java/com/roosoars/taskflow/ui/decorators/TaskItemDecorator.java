@@ -8,8 +8,6 @@ import androidx.core.content.ContextCompat;
 import com.roosoars.taskflow.R;
 import com.roosoars.taskflow.model.Task;
 
-import java.util.Date;
-
 public class TaskItemDecorator {
 
     private final Task task;
@@ -19,38 +17,29 @@ public class TaskItemDecorator {
     }
 
 
-    public boolean isOverdue() {
-        if (task.isCompleted() || task.getDueDate() == null) {
-            return false;
-        }
+    public TaskStatus getStatus() {
+        return TaskStatus.of(task, System.currentTimeMillis());
+    }
 
-        return task.getDueDate().before(new Date());
+    public boolean isOverdue() {
+        return getStatus() == TaskStatus.OVERDUE;
     }
 
 
     public boolean isDueSoon() {
-        if (task.isCompleted() || task.getDueDate() == null) {
-            return false;
-        }
-
-        long currentTime = new Date().getTime();
-        long dueTime = task.getDueDate().getTime();
-        long timeDiff = dueTime - currentTime;
-
-        return timeDiff > 0 && timeDiff <= 24 * 60 * 60 * 1000;
+        return getStatus() == TaskStatus.DUE_SOON;
     }
 
     public int getCardBackgroundColor(Context context) {
-        if (task.isCompleted()) {
-            return ContextCompat.getColor(context, R.color.lightGray);
-        }
-
-        if (isOverdue()) {
-            return Color.argb(20, 255, 0, 0);
-        }
-
-        if (isDueSoon()) {
-            return Color.argb(20, 255, 255, 0);
+        switch (getStatus()) {
+            case COMPLETED:
+                return ContextCompat.getColor(context, R.color.lightGray);
+            case OVERDUE:
+                return Color.argb(20, 255, 0, 0);
+            case DUE_SOON:
+                return Color.argb(20, 255, 255, 0);
+            default:
+                break;
         }
 
         if ("project".equals(task.getType())) {
@@ -61,18 +50,15 @@ public class TaskItemDecorator {
     }
 
     public String getTaskIndicator() {
-        if (task.isCompleted()) {
-            return "✅ ";
-        }
-
-        if (isOverdue()) {
-            return "⚠️ ";
-        }
-
-        if (isDueSoon()) {
-            return "⏰ ";
+        switch (getStatus()) {
+            case COMPLETED:
+                return "✅ ";
+            case OVERDUE:
+                return "⚠️ ";
+            case DUE_SOON:
+                return "⏰ ";
+            default:
+                return "";
         }
-
-        return "";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package com.roosoars.taskflow.ui.decorators;
+
+import com.roosoars.taskflow.model.Task;
+
+
+public enum TaskStatus {
+    COMPLETED,
+    OVERDUE,
+    DUE_SOON,
+    NORMAL;
+
+    public static final long DUE_SOON_WINDOW_MILLIS = 24 * 60 * 60 * 1000;
+
+    public static TaskStatus of(Task task, long nowMillis) {
+        if (task.isCompleted()) {
+            return COMPLETED;
+        }
+        if (task.getDueDate() == null) {
+            return NORMAL;
+        }
+
+        long timeDiff = task.getDueDate().getTime() - nowMillis;
+        if (timeDiff < 0) {
+            return OVERDUE;
+        }
+        if (timeDiff > 0 && timeDiff <= DUE_SOON_WINDOW_MILLIS) {
+            return DUE_SOON;
+        }
+        return NORMAL;
+    }
+}
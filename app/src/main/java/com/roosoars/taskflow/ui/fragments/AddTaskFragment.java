@@ -30,6 +30,7 @@ import com.roosoars.taskflow.di.ViewModelFactory;
 import com.roosoars.taskflow.model.Category;
 import com.roosoars.taskflow.model.Priority;
 import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.recurrence.RecurrenceRule;
 import com.roosoars.taskflow.viewmodel.CategoryViewModel;
 import com.roosoars.taskflow.viewmodel.TaskViewModel;
 import com.google.android.material.button.MaterialButtonToggleGroup;
@@ -58,6 +59,7 @@ public class AddTaskFragment extends Fragment {
     private Spinner spinnerPriority;
     private Spinner spinnerCategory;
     private RadioGroup radioGroupTaskType;
+    private Spinner spinnerRecurrence;
     private MaterialButtonToggleGroup toggleGroup;
     private Button buttonSave;
 
@@ -95,12 +97,14 @@ public class AddTaskFragment extends Fragment {
         spinnerPriority = view.findViewById(R.id.spinner_priority);
         spinnerCategory = view.findViewById(R.id.spinner_category);
         radioGroupTaskType = view.findViewById(R.id.radio_group_task_type);
+        spinnerRecurrence = view.findViewById(R.id.spinner_recurrence);
         buttonSave = view.findViewById(R.id.button_save);
 
         setupDatePicker();
 
         setupPrioritySpinner();
         setupCategorySpinner();
+        setupRecurrenceSpinner();
 
         if (getArguments() != null) {
             taskId = getArguments().getLong("taskId", -1);
@@ -169,6 +173,15 @@ public class AddTaskFragment extends Fragment {
         spinnerPriority.setAdapter(adapter);
     }
 
+    private void setupRecurrenceSpinner() {
+        ArrayAdapter<CharSequence> adapter = ArrayAdapter.createFromResource(
+                requireContext(),
+                R.array.recurrence_options,
+                android.R.layout.simple_spinner_item);
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spinnerRecurrence.setAdapter(adapter);
+    }
+
     private void setupCategorySpinner() {
         categoryViewModel.getAllCategories().observe(getViewLifecycleOwner(), categoryList -> {
             categories = categoryList;
@@ -211,6 +224,9 @@ public class AddTaskFragment extends Fragment {
 
                 spinnerPriority.setSelection(task.getPriority());
 
+                RecurrenceRule rule = RecurrenceRule.tryParse(task.getRecurrenceRule());
+                spinnerRecurrence.setSelection(rule != null ? rule.getFrequency().ordinal() + 1 : 0);
+
                 if ("project".equals(task.getType())) {
                     radioGroupTaskType.check(R.id.radio_project_task);
                 } else {
@@ -259,9 +275,11 @@ public class AddTaskFragment extends Fragment {
             taskType = "project";
         }
 
+        RecurrenceRule recurrence = getSelectedRecurrence();
+
         if (taskId == -1) {
             taskViewModel.insertWithBuilder(
-                    title, description, selectedDate, priority, categoryId, taskType, false);
+                    title, description, selectedDate, priority, categoryId, taskType, false, recurrence);
             Toast.makeText(getContext(), getString(R.string.task_saved), Toast.LENGTH_SHORT).show();
         } else {
             currentTask.setTitle(title);
@@ -270,6 +288,7 @@ public class AddTaskFragment extends Fragment {
             currentTask.setPriorityEnum(priority);
             currentTask.setCategoryId(categoryId);
             currentTask.setType(taskType);
+            currentTask.setRecurrenceRule(recurrence != null ? recurrence.toString() : null);
 
             taskViewModel.update(currentTask);
             Toast.makeText(getContext(), getString(R.string.task_saved), Toast.LENGTH_SHORT).show();
@@ -278,6 +297,22 @@ public class AddTaskFragment extends Fragment {
         Navigation.findNavController(requireView()).navigateUp();
     }
 
+    // A rule set elsewhere, e.g. with BYDAY or an interval, is kept while its frequency stays selected.
+    @Nullable
+    private RecurrenceRule getSelectedRecurrence() {
+        int position = spinnerRecurrence.getSelectedItemPosition();
+        if (position <= 0) {
+            return null;
+        }
+        RecurrenceRule.Frequency frequency = RecurrenceRule.Frequency.values()[position - 1];
+        RecurrenceRule current = currentTask != null
+                ? RecurrenceRule.tryParse(currentTask.getRecurrenceRule()) : null;
+        if (current != null && current.getFrequency() == frequency) {
+            return current;
+        }
+        return RecurrenceRule.of(frequency);
+    }
+
     private void deleteTask() {
         if (currentTask != null) {
             taskViewModel.delete(currentTask);
@@ -72,12 +72,11 @@ public class CategoryFragment extends Fragment implements CategoryAdapter.OnCate
             }
         });
 
+        categoryViewModel.getTaskCounts().observe(getViewLifecycleOwner(), adapter::setTaskCounts);
+
         categoryViewModel.getActionFeedback().observe(getViewLifecycleOwner(), feedback -> {
             if (feedback != null) {
-                if (feedback.equals("CONFIRM_DELETE_WITH_TASKS")) {
-                } else {
-                    Snackbar.make(view, feedback, Snackbar.LENGTH_SHORT).show();
-                }
+                Snackbar.make(view, feedback, Snackbar.LENGTH_SHORT).show();
             }
         });
 
@@ -144,7 +143,8 @@ public class CategoryFragment extends Fragment implements CategoryAdapter.OnCate
         AlertDialog.Builder builder = new AlertDialog.Builder(requireContext());
         builder.setTitle(R.string.delete);
 
-        int taskCount = categoryViewModel.getTaskCountForCategory(category.getId());
+        // The counts are already loaded for the list rows, so the dialog opens without a query.
+        int taskCount = adapter.getTaskCount(category.getId());
 
         if (taskCount > 0) {
             String message = "Delete " + category.getName() + "?\n\n" +
@@ -1,6 +1,9 @@
 package com.roosoars.taskflow.ui.fragments;
 
+import android.app.AlertDialog;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuInflater;
@@ -12,42 +15,66 @@ import android.widget.ArrayAdapter;
 import android.widget.Spinner;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.view.ActionMode;
+import androidx.appcompat.widget.SearchView;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
+import androidx.paging.LoadState;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataTransforms;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.roosoars.taskflow.R;
 import com.roosoars.taskflow.TaskFlowApplication;
+import com.roosoars.taskflow.backup.BackupFormat;
+import com.roosoars.taskflow.db.TaskQuery;
 import com.roosoars.taskflow.di.ViewModelFactory;
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Priority;
 import com.roosoars.taskflow.model.Task;
 import com.roosoars.taskflow.model.TaskWithCategory;
 import com.roosoars.taskflow.ui.adapters.TaskAdapter;
+import com.roosoars.taskflow.ui.adapters.TaskDiff;
+import com.roosoars.taskflow.ui.adapters.TaskPagingAdapter;
+import com.roosoars.taskflow.ui.adapters.TaskRowFormatter;
 import com.roosoars.taskflow.ui.helpers.SwipeToActionHelper;
+import com.roosoars.taskflow.viewmodel.CategoryViewModel;
 import com.roosoars.taskflow.viewmodel.TaskViewModel;
-import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.floatingactionbutton.ExtendedFloatingActionButton;
 import com.google.android.material.snackbar.Snackbar;
 
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
+import kotlin.Unit;
+
 
 public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskClickListener {
 
+    private static final long SEARCH_DEBOUNCE_MS = 250;
+
     @Inject
     ViewModelFactory viewModelFactory;
 
     private TaskViewModel taskViewModel;
-    private TaskAdapter adapter;
+    private CategoryViewModel categoryViewModel;
+    private List<Category> categories = Collections.emptyList();
+    private TaskPagingAdapter adapter;
+    private TaskRowFormatter rowFormatter;
     private Spinner spinnerSort;
     private RecyclerView recyclerView;
     private View emptyView;
@@ -57,6 +84,14 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskClic
     private ActionMode actionMode;
     private boolean isMultiSelectActive = false;
 
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private Runnable pendingSearch;
+    private boolean isSearchActive = false;
+    private PagingData<TaskWithCategory> lastPagingData;
+
+    private final Map<BackupFormat, ActivityResultLauncher<String>> exportLaunchers = new EnumMap<>(BackupFormat.class);
+    private ActivityResultLauncher<String[]> importLauncher;
+
     private final ActionMode.Callback actionModeCallback = new ActionMode.Callback() {
         @Override
         public boolean onCreateActionMode(ActionMode mode, Menu menu) {
@@ -72,9 +107,25 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskClic
 
         @Override
         public boolean onActionItemClicked(ActionMode mode, MenuItem item) {
-            if (item.getItemId() == R.id.action_delete_selected) {
+            int id = item.getItemId();
+            if (id == R.id.action_delete_selected) {
                 deleteSelectedTasks();
                 return true;
+            } else if (id == R.id.action_complete_selected) {
+                showTasksUpdated(taskViewModel.setSelectedTasksCompleted(true));
+                return true;
+            } else if (id == R.id.action_uncomplete_selected) {
+                showTasksUpdated(taskViewModel.setSelectedTasksCompleted(false));
+                return true;
+            } else if (id == R.id.action_move_selected) {
+                showMoveToCategoryDialog();
+                return true;
+            } else if (id == R.id.action_priority_selected) {
+                showPriorityDialog();
+                return true;
+            } else if (id == R.id.action_reschedule_selected) {
+                showRescheduleDialog();
+                return true;
             }
             return false;
         }
@@ -94,6 +145,20 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskClic
         ((TaskFlowApplication) requireActivity().getApplication())
                 .getAppComponent().inject(this);
 
+        for (BackupFormat format : BackupFormat.values()) {
+            exportLaunchers.put(format, registerForActivityResult(
+                    new ActivityResultContracts.CreateDocument(format.getMimeType()), uri -> {
+                        if (uri != null) {
+                            taskViewModel.exportTasks(uri, format);
+                        }
+                    }));
+        }
+        importLauncher = registerForActivityResult(new ActivityResultContracts.OpenDocument(), uri -> {
+            if (uri != null) {
+                taskViewModel.importTasks(uri);
+            }
+        });
+
         setHasOptionsMenu(true);
     }
 
@@ -105,6 +170,10 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskClic
 
         taskViewModel = new ViewModelProvider(requireActivity(), viewModelFactory)
                 .get(TaskViewModel.class);
+        categoryViewModel = new ViewModelProvider(requireActivity(), viewModelFactory)
+                .get(CategoryViewModel.class);
+        categoryViewModel.getAllCategories().observe(getViewLifecycleOwner(), result ->
+                categories = result != null ? result : Collections.emptyList());
 
         recyclerView = view.findViewById(R.id.recycler_view_tasks);
         emptyView = view.findViewById(R.id.empty_view);
@@ -114,6 +183,9 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskClic
 
         setupRecyclerView();
 
+        observeTasks();
+        observeStatusTicks();
+
         setupFilterChips();
 
         setupSortSpinner();
@@ -122,33 +194,93 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskClic
 
         setupMultiSelectObservation();
 
+        setupSearchObservation();
+
+        taskViewModel.getBackupFeedback().observe(getViewLifecycleOwner(), message ->
+                Snackbar.make(requireView(), message, Snackbar.LENGTH_LONG).show());
+
         return view;
     }
 
+    @Override
+    public void onCreateOptionsMenu(@NonNull Menu menu, @NonNull MenuInflater inflater) {
+        inflater.inflate(R.menu.menu_task_list, menu);
+
+        SearchView searchView = (SearchView) menu.findItem(R.id.action_search).getActionView();
+        if (searchView != null) {
+            searchView.setQueryHint(getString(R.string.search_tasks));
+            searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+                @Override
+                public boolean onQueryTextSubmit(String query) {
+                    scheduleSearch(query, 0);
+                    return true;
+                }
+
+                @Override
+                public boolean onQueryTextChange(String newText) {
+                    scheduleSearch(newText, SEARCH_DEBOUNCE_MS);
+                    return true;
+                }
+            });
+        }
+
+        super.onCreateOptionsMenu(menu, inflater);
+    }
+
+    @Override
+    public void onDestroyView() {
+        searchHandler.removeCallbacksAndMessages(null);
+        super.onDestroyView();
+    }
+
     private void setupRecyclerView() {
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
         recyclerView.setHasFixedSize(true);
 
-        adapter = new TaskAdapter(requireContext(), this);
+        rowFormatter = new TaskRowFormatter(requireContext());
+        adapter = new TaskPagingAdapter(requireContext(), this);
         recyclerView.setAdapter(adapter);
 
+        adapter.addLoadStateListener(loadStates -> {
+            if (loadStates.getRefresh() instanceof LoadState.NotLoading) {
+                updateEmptyViewVisibility(adapter.getItemCount() == 0);
+            }
+            return Unit.INSTANCE;
+        });
+
         ItemTouchHelper itemTouchHelper = new ItemTouchHelper(
-                new SwipeToActionHelper(requireContext(), adapter));
+                new SwipeToActionHelper(requireContext(), this));
         itemTouchHelper.attachToRecyclerView(recyclerView);
     }
 
     private void setupFilterChips() {
-        Chip chipAll = filterChipGroup.findViewById(R.id.chip_all);
-        Chip chipPending = filterChipGroup.findViewById(R.id.chip_pending);
-        Chip chipCompleted = filterChipGroup.findViewById(R.id.chip_completed);
-
         filterChipGroup.setOnCheckedChangeListener((group, checkedId) -> {
             if (checkedId == R.id.chip_all) {
-                observeAllTasks();
+                taskViewModel.setFilter(TaskQuery.Filter.ALL);
             } else if (checkedId == R.id.chip_pending) {
-                observePendingTasks();
+                taskViewModel.setFilter(TaskQuery.Filter.PENDING);
             } else if (checkedId == R.id.chip_completed) {
-                observeCompletedTasks();
+                taskViewModel.setFilter(TaskQuery.Filter.COMPLETED);
+            }
+        });
+
+        // A recreated view starts from the layout's checked chip; show the ViewModel's filter instead.
+        taskViewModel.getListState().observe(getViewLifecycleOwner(), state -> {
+            int chipId;
+            switch (state.getFilter()) {
+                case PENDING:
+                    chipId = R.id.chip_pending;
+                    break;
+                case COMPLETED:
+                    chipId = R.id.chip_completed;
+                    break;
+                case ALL:
+                default:
+                    chipId = R.id.chip_all;
+                    break;
+            }
+            if (filterChipGroup.getCheckedChipId() != chipId) {
+                filterChipGroup.check(chipId);
             }
         });
     }
@@ -173,15 +305,6 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskClic
                     spinnerSort.setSelection(2);
                     break;
             }
-
-            int selectedChipId = filterChipGroup.getCheckedChipId();
-            if (selectedChipId == R.id.chip_all) {
-                observeAllTasks();
-            } else if (selectedChipId == R.id.chip_pending) {
-                observePendingTasks();
-            } else if (selectedChipId == R.id.chip_completed) {
-                observeCompletedTasks();
-            }
         });
 
         spinnerSort.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
@@ -239,29 +362,67 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskClic
                 actionMode.setTitle(count + " selected");
             }
         });
+
+        // Only the selection highlight of the visible rows changes, so rebind just that.
+        taskViewModel.getSelectedTasks().observe(getViewLifecycleOwner(), selected ->
+                adapter.notifyItemRangeChanged(0, adapter.getItemCount(), TaskDiff.SELECTION));
     }
 
-    private void observeAllTasks() {
-        taskViewModel.getAllTasksWithCategory().observe(getViewLifecycleOwner(), taskWithCategories -> {
-            adapter.submitList(taskWithCategories);
-            updateEmptyViewVisibility(taskWithCategories.isEmpty());
+    private void setupSearchObservation() {
+        taskViewModel.getSearchQuery().observe(getViewLifecycleOwner(), query -> {
+            boolean wasSearchActive = isSearchActive;
+            isSearchActive = query != null && !query.isEmpty();
+            if (wasSearchActive && !isSearchActive && lastPagingData != null) {
+                submitRows(lastPagingData);
+            }
         });
+
+        taskViewModel.getSearchResults().observe(getViewLifecycleOwner(), results -> {
+            if (isSearchActive) {
+                submitRows(PagingData.from(results));
+            }
+        });
+    }
+
+    // Only the last keystroke of a burst reaches the database.
+    private void scheduleSearch(String query, long delayMillis) {
+        if (pendingSearch != null) {
+            searchHandler.removeCallbacks(pendingSearch);
+        }
+        pendingSearch = () -> taskViewModel.setSearchQuery(query);
+        searchHandler.postDelayed(pendingSearch, delayMillis);
     }
 
-    private void observePendingTasks() {
-        taskViewModel.getPendingTasksWithCategory().observe(getViewLifecycleOwner(), taskWithCategories -> {
-            adapter.submitList(taskWithCategories);
-            updateEmptyViewVisibility(taskWithCategories.isEmpty());
+    // A task just became due soon or overdue, or the day changed: rows past their validity are
+    // reformatted when the current list is submitted again.
+    private void observeStatusTicks() {
+        taskViewModel.getStatusTicks().observe(getViewLifecycleOwner(), tick -> {
+            if (isSearchActive) {
+                List<TaskWithCategory> results = taskViewModel.getSearchResults().getValue();
+                if (results != null) {
+                    submitRows(PagingData.from(results));
+                }
+            } else if (lastPagingData != null) {
+                submitRows(lastPagingData);
+            }
         });
     }
 
-    private void observeCompletedTasks() {
-        taskViewModel.getCompletedTasksWithCategory().observe(getViewLifecycleOwner(), taskWithCategories -> {
-            adapter.submitList(taskWithCategories);
-            updateEmptyViewVisibility(taskWithCategories.isEmpty());
+    private void observeTasks() {
+        taskViewModel.getPagedTasks().observe(getViewLifecycleOwner(), pagingData -> {
+            lastPagingData = pagingData;
+            if (!isSearchActive) {
+                submitRows(pagingData);
+            }
         });
     }
 
+    // Row models are built on the formatter's thread as pages arrive, never while binding.
+    private void submitRows(PagingData<TaskWithCategory> pagingData) {
+        adapter.submitData(getViewLifecycleOwner().getLifecycle(),
+                PagingDataTransforms.map(pagingData, rowFormatter.getExecutor(), rowFormatter::format));
+    }
+
     private void updateEmptyViewVisibility(boolean isEmpty) {
         if (isEmpty) {
             emptyView.setVisibility(View.VISIBLE);
@@ -272,9 +433,95 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskClic
         }
     }
 
+    private void showMoveToCategoryDialog() {
+        String[] names = new String[categories.size() + 1];
+        names[0] = getString(R.string.no_category);
+        for (int i = 0; i < categories.size(); i++) {
+            names[i + 1] = categories.get(i).getName();
+        }
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.move_to_category)
+                .setItems(names, (dialog, which) -> {
+                    Long categoryId = which == 0 ? null : categories.get(which - 1).getId();
+                    showTasksUpdated(taskViewModel.moveSelectedTasksToCategory(categoryId));
+                })
+                .setNegativeButton(R.string.cancel, null)
+                .show();
+    }
+
+    private void showPriorityDialog() {
+        Priority[] priorities = {Priority.HIGH, Priority.MEDIUM, Priority.LOW};
+        String[] names = {
+                getString(R.string.priority_high),
+                getString(R.string.priority_medium),
+                getString(R.string.priority_low)
+        };
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.change_priority)
+                .setItems(names, (dialog, which) -> {
+                    showTasksUpdated(taskViewModel.setSelectedTasksPriority(priorities[which]));
+                })
+                .setNegativeButton(R.string.cancel, null)
+                .show();
+    }
+
+    private void showRescheduleDialog() {
+        long[] offsets = {TimeUnit.DAYS.toMillis(1), TimeUnit.DAYS.toMillis(7), -TimeUnit.DAYS.toMillis(1)};
+        String[] names = {
+                getString(R.string.reschedule_plus_one_day),
+                getString(R.string.reschedule_plus_one_week),
+                getString(R.string.reschedule_minus_one_day)
+        };
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.reschedule)
+                .setItems(names, (dialog, which) -> {
+                    showTasksUpdated(taskViewModel.rescheduleSelectedTasks(offsets[which]));
+                })
+                .setNegativeButton(R.string.cancel, null)
+                .show();
+    }
+
+    private void showExportDialog() {
+        BackupFormat[] formats = BackupFormat.values();
+        String[] names = {"NDJSON", "CSV", getString(R.string.backup_format_binary)};
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.export_format)
+                .setItems(names, (dialog, which) -> {
+                    BackupFormat format = formats[which];
+                    exportLaunchers.get(format).launch("taskflow." + format.getExtension());
+                })
+                .setNegativeButton(R.string.cancel, null)
+                .show();
+    }
+
+    private void showTasksUpdated(boolean undoable) {
+        showUndoable(Snackbar.make(requireView(), R.string.tasks_updated, Snackbar.LENGTH_SHORT), undoable);
+    }
+
+    private void showTasksDeleted(boolean undoable) {
+        showUndoable(Snackbar.make(requireView(), "Tarefa Deletada", Snackbar.LENGTH_SHORT), undoable);
+    }
+
+    // Offers to undo the change just made; once undone, to redo it.
+    private void showUndoable(Snackbar snackbar, boolean undoable) {
+        if (undoable) {
+            snackbar.setDuration(Snackbar.LENGTH_LONG).setAction(R.string.undo, v -> {
+                if (taskViewModel.undo()) {
+                    Snackbar.make(requireView(), R.string.change_undone, Snackbar.LENGTH_LONG)
+                            .setAction(R.string.redo, w -> taskViewModel.redo())
+                            .show();
+                }
+            });
+        }
+        snackbar.show();
+    }
+
     private void deleteSelectedTasks() {
-        taskViewModel.deleteSelectedTasks();
-        Snackbar.make(requireView(), "Tarefa Deletada", Snackbar.LENGTH_SHORT).show();
+        showTasksDeleted(taskViewModel.deleteSelectedTasks());
     }
 
     @Override
@@ -284,12 +531,18 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskClic
         if (id == R.id.action_filter_completed) {
             if (item.isChecked()) {
                 item.setChecked(false);
-                observeAllTasks();
+                taskViewModel.setFilter(TaskQuery.Filter.ALL);
             } else {
                 item.setChecked(true);
-                observePendingTasks();
+                taskViewModel.setFilter(TaskQuery.Filter.PENDING);
             }
             return true;
+        } else if (id == R.id.action_export) {
+            showExportDialog();
+            return true;
+        } else if (id == R.id.action_import) {
+            importLauncher.launch(new String[]{"*/*"});
+            return true;
         }
 
         return super.onOptionsItemSelected(item);
@@ -322,17 +575,15 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskClic
 
     @Override
     public void onTaskCheckedChange(Task task, boolean isChecked) {
-        task.setCompleted(isChecked);
-        taskViewModel.update(task);
+        showTasksUpdated(taskViewModel.toggleTaskCompletion(task));
     }
 
     @Override
     public void onTaskSwiped(Task task, int direction) {
         if (direction == SwipeToActionHelper.SWIPE_DIRECTION_LEFT) {
-            taskViewModel.delete(task);
-            Snackbar.make(requireView(), "Tarefa Deletada", Snackbar.LENGTH_SHORT).show();
+            showTasksDeleted(taskViewModel.delete(task));
         } else if (direction == SwipeToActionHelper.SWIPE_DIRECTION_RIGHT) {
-            taskViewModel.toggleTaskCompletion(task);
+            showTasksUpdated(taskViewModel.toggleTaskCompletion(task));
         }
     }
 
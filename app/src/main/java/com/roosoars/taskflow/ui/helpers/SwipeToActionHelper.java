@@ -16,7 +16,9 @@ import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.roosoars.taskflow.R;
+import com.roosoars.taskflow.model.TaskWithCategory;
 import com.roosoars.taskflow.ui.adapters.TaskAdapter;
+import com.roosoars.taskflow.ui.adapters.TaskViewHolder;
 
 
 public class SwipeToActionHelper extends ItemTouchHelper.SimpleCallback {
@@ -26,7 +28,7 @@ public class SwipeToActionHelper extends ItemTouchHelper.SimpleCallback {
     public static final int SWIPE_DIRECTION_LEFT = ItemTouchHelper.LEFT;
     public static final int SWIPE_DIRECTION_RIGHT = ItemTouchHelper.RIGHT;
 
-    private final TaskAdapter adapter;
+    private final TaskAdapter.OnTaskClickListener listener;
     private final ColorDrawable deleteBackground;
     private final ColorDrawable completeBackground;
     private final Drawable deleteIcon;
@@ -35,9 +37,9 @@ public class SwipeToActionHelper extends ItemTouchHelper.SimpleCallback {
     private final Paint clearPaint;
     private final Context context;
 
-    public SwipeToActionHelper(Context context, TaskAdapter adapter) {
+    public SwipeToActionHelper(Context context, TaskAdapter.OnTaskClickListener listener) {
         super(0, ItemTouchHelper.LEFT | ItemTouchHelper.RIGHT);
-        this.adapter = adapter;
+        this.listener = listener;
         this.context = context;
 
         deleteBackground = new ColorDrawable(ContextCompat.getColor(context, R.color.taskOverdue));
@@ -65,16 +67,27 @@ public class SwipeToActionHelper extends ItemTouchHelper.SimpleCallback {
         return false;
     }
 
+    @Override
+    public int getSwipeDirs(@NonNull RecyclerView recyclerView, @NonNull RecyclerView.ViewHolder viewHolder) {
+        if (boundItem(viewHolder) == null) {
+            return 0;
+        }
+        return super.getSwipeDirs(recyclerView, viewHolder);
+    }
+
     @Override
     public void onSwiped(@NonNull RecyclerView.ViewHolder viewHolder, int direction) {
-        int position = viewHolder.getAdapterPosition();
-        if (position != RecyclerView.NO_POSITION) {
-            if (adapter instanceof TaskAdapter.OnTaskClickListener) {
-                ((TaskAdapter.OnTaskClickListener) adapter).onTaskSwiped(
-                        adapter.getCurrentList().get(position).getTask(),
-                        direction);
-            }
+        TaskWithCategory item = boundItem(viewHolder);
+        if (item != null) {
+            listener.onTaskSwiped(item.getTask(), direction);
+        }
+    }
+
+    private static TaskWithCategory boundItem(RecyclerView.ViewHolder viewHolder) {
+        if (viewHolder instanceof TaskViewHolder) {
+            return ((TaskViewHolder) viewHolder).getBoundItem();
         }
+        return null;
     }
 
     @Override
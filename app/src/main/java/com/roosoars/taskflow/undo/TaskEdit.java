@@ -0,0 +1,292 @@
+package com.roosoars.taskflow.undo;
+
+import com.roosoars.taskflow.model.Task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+
+/**
+ * A change to tasks that can be undone and redone, built from the tasks as they were before it.
+ * An edit keeps what its inverse needs and no more: the ids of the tasks grouped by the value
+ * they had, or just the ids for a reschedule, which is undone by the opposite shift. Only a
+ * delete keeps whole tasks, copies of the ones the caller already held, so nothing is read back
+ * to undo it. Tasks are inserted as fresh copies, since inserting changes them and hands them to
+ * listeners.
+ */
+public abstract class TaskEdit {
+
+    // Rough heap cost of the parts of an edit, to bound what the undo stack keeps.
+    private static final long EDIT_BYTES = 48;
+    private static final long GROUP_BYTES = 64;
+    private static final long ID_BYTES = 8;
+    private static final long TASK_BYTES = 96;
+    private static final long STRING_BYTES = 40;
+
+    private final long sizeBytes;
+
+    private TaskEdit(long sizeBytes) {
+        this.sizeBytes = EDIT_BYTES + sizeBytes;
+    }
+
+    public abstract void undo(TaskEditor editor);
+
+    public abstract void redo(TaskEditor editor);
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public static TaskEdit delete(List<Task> tasks) {
+        return new Delete(tasks);
+    }
+
+    /**
+     * Completing tasks clears their rules and inserts the next occurrences of the recurring ones,
+     * {@code nextOccurrences}, which must have their ids by the time the edit is undone.
+     */
+    public static TaskEdit setCompleted(List<Task> tasks, boolean completed, List<Task> nextOccurrences) {
+        return completed ? new Complete(tasks, nextOccurrences) : new Reopen(tasks);
+    }
+
+    public static TaskEdit setPriority(List<Task> tasks, int priority) {
+        return new SetPriority(tasks, priority);
+    }
+
+    public static TaskEdit moveToCategory(List<Task> tasks, Long categoryId) {
+        return new MoveToCategory(tasks, categoryId);
+    }
+
+    public static TaskEdit reschedule(List<Task> tasks, long offsetMillis) {
+        return new Reschedule(idsOf(tasks), offsetMillis);
+    }
+
+    private static final class Delete extends TaskEdit {
+        private final List<Task> tasks;
+
+        Delete(List<Task> tasks) {
+            super(sizeOf(tasks));
+            this.tasks = copiesOf(tasks);
+        }
+
+        @Override
+        public void undo(TaskEditor editor) {
+            editor.insert(copiesOf(tasks));
+        }
+
+        @Override
+        public void redo(TaskEditor editor) {
+            editor.delete(idsOf(tasks));
+        }
+    }
+
+    private static final class Complete extends TaskEdit {
+        private final long[] taskIds;
+        private final long[] pendingIds;
+        private final Map<String, long[]> idsByRule;
+        private final List<Task> nextOccurrences;
+
+        Complete(List<Task> tasks, List<Task> nextOccurrences) {
+            this(idsOf(tasks), idsWhere(tasks, task -> !task.isCompleted()),
+                    groupIds(tasksWhere(tasks, Task::isRecurring), Task::getRecurrenceRule), nextOccurrences);
+        }
+
+        private Complete(long[] taskIds, long[] pendingIds, Map<String, long[]> idsByRule,
+                         List<Task> nextOccurrences) {
+            super(ID_BYTES * (taskIds.length + pendingIds.length) + sizeOf(idsByRule) + sizeOf(nextOccurrences));
+            this.taskIds = taskIds;
+            this.pendingIds = pendingIds;
+            this.idsByRule = idsByRule;
+            this.nextOccurrences = nextOccurrences;
+        }
+
+        @Override
+        public void undo(TaskEditor editor) {
+            editor.setCompleted(pendingIds, false);
+            for (Map.Entry<String, long[]> group : idsByRule.entrySet()) {
+                editor.setRecurrenceRule(group.getValue(), group.getKey());
+            }
+            editor.delete(idsOf(nextOccurrences));
+        }
+
+        @Override
+        public void redo(TaskEditor editor) {
+            editor.complete(taskIds);
+            editor.insert(copiesOf(nextOccurrences));
+        }
+    }
+
+    private static final class Reopen extends TaskEdit {
+        private final long[] taskIds;
+        private final long[] completedIds;
+
+        Reopen(List<Task> tasks) {
+            this(idsOf(tasks), idsWhere(tasks, Task::isCompleted));
+        }
+
+        private Reopen(long[] taskIds, long[] completedIds) {
+            super(ID_BYTES * (taskIds.length + completedIds.length));
+            this.taskIds = taskIds;
+            this.completedIds = completedIds;
+        }
+
+        @Override
+        public void undo(TaskEditor editor) {
+            editor.setCompleted(completedIds, true);
+        }
+
+        @Override
+        public void redo(TaskEditor editor) {
+            editor.setCompleted(taskIds, false);
+        }
+    }
+
+    private static final class SetPriority extends TaskEdit {
+        private final Map<Integer, long[]> idsByPriority;
+        private final int priority;
+
+        SetPriority(List<Task> tasks, int priority) {
+            this(groupIds(tasks, Task::getPriority), priority);
+        }
+
+        private SetPriority(Map<Integer, long[]> idsByPriority, int priority) {
+            super(sizeOf(idsByPriority));
+            this.idsByPriority = idsByPriority;
+            this.priority = priority;
+        }
+
+        @Override
+        public void undo(TaskEditor editor) {
+            for (Map.Entry<Integer, long[]> group : idsByPriority.entrySet()) {
+                editor.setPriority(group.getValue(), group.getKey());
+            }
+        }
+
+        @Override
+        public void redo(TaskEditor editor) {
+            for (long[] taskIds : idsByPriority.values()) {
+                editor.setPriority(taskIds, priority);
+            }
+        }
+    }
+
+    private static final class MoveToCategory extends TaskEdit {
+        private final Map<Long, long[]> idsByCategory;
+        private final Long categoryId;
+
+        MoveToCategory(List<Task> tasks, Long categoryId) {
+            this(groupIds(tasks, Task::getCategoryId), categoryId);
+        }
+
+        private MoveToCategory(Map<Long, long[]> idsByCategory, Long categoryId) {
+            super(sizeOf(idsByCategory));
+            this.idsByCategory = idsByCategory;
+            this.categoryId = categoryId;
+        }
+
+        @Override
+        public void undo(TaskEditor editor) {
+            for (Map.Entry<Long, long[]> group : idsByCategory.entrySet()) {
+                editor.setCategory(group.getValue(), group.getKey());
+            }
+        }
+
+        @Override
+        public void redo(TaskEditor editor) {
+            for (long[] taskIds : idsByCategory.values()) {
+                editor.setCategory(taskIds, categoryId);
+            }
+        }
+    }
+
+    private static final class Reschedule extends TaskEdit {
+        private final long[] taskIds;
+        private final long offsetMillis;
+
+        Reschedule(long[] taskIds, long offsetMillis) {
+            super(ID_BYTES * taskIds.length);
+            this.taskIds = taskIds;
+            this.offsetMillis = offsetMillis;
+        }
+
+        @Override
+        public void undo(TaskEditor editor) {
+            editor.shiftDueDates(taskIds, -offsetMillis);
+        }
+
+        @Override
+        public void redo(TaskEditor editor) {
+            editor.shiftDueDates(taskIds, offsetMillis);
+        }
+    }
+
+    private static long[] idsOf(List<Task> tasks) {
+        long[] taskIds = new long[tasks.size()];
+        for (int i = 0; i < taskIds.length; i++) {
+            taskIds[i] = tasks.get(i).getId();
+        }
+        return taskIds;
+    }
+
+    private static List<Task> copiesOf(List<Task> tasks) {
+        List<Task> copies = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            copies.add(task.copy());
+        }
+        return copies;
+    }
+
+    private static List<Task> tasksWhere(List<Task> tasks, Predicate<Task> filter) {
+        List<Task> matching = new ArrayList<>();
+        for (Task task : tasks) {
+            if (filter.test(task)) {
+                matching.add(task);
+            }
+        }
+        return matching;
+    }
+
+    private static long[] idsWhere(List<Task> tasks, Predicate<Task> filter) {
+        return idsOf(tasksWhere(tasks, filter));
+    }
+
+    // Ids of the tasks by the value of key, counted first so each group is a single array.
+    private static <K> Map<K, long[]> groupIds(List<Task> tasks, Function<Task, K> key) {
+        Map<K, int[]> counts = new HashMap<>();
+        for (Task task : tasks) {
+            counts.computeIfAbsent(key.apply(task), k -> new int[1])[0]++;
+        }
+        Map<K, long[]> groups = new HashMap<>(counts.size() * 2);
+        for (Task task : tasks) {
+            K group = key.apply(task);
+            int[] left = counts.get(group);
+            groups.computeIfAbsent(group, k -> new long[left[0]])[--left[0]] = task.getId();
+        }
+        return groups;
+    }
+
+    private static long sizeOf(Map<?, long[]> groups) {
+        long size = 0;
+        for (long[] taskIds : groups.values()) {
+            size += GROUP_BYTES + ID_BYTES * taskIds.length;
+        }
+        return size;
+    }
+
+    private static long sizeOf(List<Task> tasks) {
+        long size = 0;
+        for (Task task : tasks) {
+            size += TASK_BYTES + sizeOf(task.getTitle()) + sizeOf(task.getDescription())
+                    + sizeOf(task.getType()) + sizeOf(task.getRecurrenceRule());
+        }
+        return size;
+    }
+
+    private static long sizeOf(String value) {
+        return value == null ? 0 : STRING_BYTES + 2L * value.length();
+    }
+}
@@ -0,0 +1,31 @@
+package com.roosoars.taskflow.undo;
+
+import com.roosoars.taskflow.model.Task;
+
+import java.util.List;
+
+
+/**
+ * The writes a {@link TaskEdit} is undone and redone with. Calls are made inside one transaction
+ * on the database writer; the id arrays may be of any length.
+ */
+public interface TaskEditor {
+
+    /** Inserts the tasks with their own ids, back where they were. */
+    void insert(List<Task> tasks);
+
+    void delete(long[] taskIds);
+
+    void setCompleted(long[] taskIds, boolean completed);
+
+    /** Completes the tasks as a bulk completion does, clearing their rules. */
+    void complete(long[] taskIds);
+
+    void setRecurrenceRule(long[] taskIds, String recurrenceRule);
+
+    void setPriority(long[] taskIds, int priority);
+
+    void setCategory(long[] taskIds, Long categoryId);
+
+    void shiftDueDates(long[] taskIds, long offsetMillis);
+}
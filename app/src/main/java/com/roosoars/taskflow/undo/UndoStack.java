@@ -0,0 +1,85 @@
+package com.roosoars.taskflow.undo;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+
+/**
+ * Undo and redo history of {@link TaskEdit}s, bounded in count and in the bytes the edits are
+ * estimated to hold. Recording an edit drops the redo history and, past either bound, the oldest
+ * edits. An edit bigger than the whole budget is not kept, and neither is anything before it:
+ * those edits were made on tasks it has since changed. Thread-safe.
+ */
+public final class UndoStack {
+
+    private final Deque<TaskEdit> undo = new ArrayDeque<>();
+    private final Deque<TaskEdit> redo = new ArrayDeque<>();
+    private final int maxEdits;
+    private final long maxBytes;
+    private long sizeBytes;
+
+    public UndoStack(int maxEdits, long maxBytes) {
+        this.maxEdits = maxEdits;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Records {@code edit} as the latest one; returns false, leaving no history, if it is too
+     * big to be undone.
+     */
+    public synchronized boolean push(TaskEdit edit) {
+        while (!redo.isEmpty()) {
+            sizeBytes -= redo.pop().getSizeBytes();
+        }
+        if (edit.getSizeBytes() > maxBytes) {
+            clear();
+            return false;
+        }
+        undo.push(edit);
+        sizeBytes += edit.getSizeBytes();
+        while (undo.size() > maxEdits || sizeBytes > maxBytes) {
+            sizeBytes -= undo.removeLast().getSizeBytes();
+        }
+        return true;
+    }
+
+    /** Takes the latest edit to undo it, moving it to the redo history; null if there is none. */
+    public synchronized TaskEdit undo() {
+        TaskEdit edit = undo.poll();
+        if (edit != null) {
+            redo.push(edit);
+        }
+        return edit;
+    }
+
+    /** Takes the latest undone edit to redo it, moving it back to the undo history. */
+    public synchronized TaskEdit redo() {
+        TaskEdit edit = redo.poll();
+        if (edit != null) {
+            undo.push(edit);
+        }
+        return edit;
+    }
+
+    public synchronized boolean canUndo() {
+        return !undo.isEmpty();
+    }
+
+    public synchronized boolean canRedo() {
+        return !redo.isEmpty();
+    }
+
+    public synchronized int size() {
+        return undo.size() + redo.size();
+    }
+
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public synchronized void clear() {
+        undo.clear();
+        redo.clear();
+        sizeBytes = 0;
+    }
+}
@@ -6,8 +6,10 @@ import androidx.lifecycle.ViewModel;
 
 import com.roosoars.taskflow.model.Category;
 import com.roosoars.taskflow.repository.CategoryRepository;
+import com.roosoars.taskflow.repository.TaskRepository;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
@@ -15,10 +17,12 @@ public class CategoryViewModel extends ViewModel {
 
     private final CategoryRepository categoryRepository;
     private final MutableLiveData<String> actionFeedback = new MutableLiveData<>();
+    private final LiveData<Map<Long, Integer>> taskCounts;
 
     @Inject
-    public CategoryViewModel(CategoryRepository categoryRepository) {
+    public CategoryViewModel(CategoryRepository categoryRepository, TaskRepository taskRepository) {
         this.categoryRepository = categoryRepository;
+        this.taskCounts = taskRepository.getTaskCountsByCategory();
     }
 
     public LiveData<List<Category>> getAllCategories() {
@@ -39,15 +43,10 @@ public class CategoryViewModel extends ViewModel {
         actionFeedback.setValue("Category updated");
     }
 
+    /** Deletes the category and leaves its tasks uncategorized. */
     public void delete(Category category) {
-        boolean hasAssociatedTasks = getTaskCountForCategory(category.getId()) > 0;
-
-        if (hasAssociatedTasks) {
-            actionFeedback.setValue("CONFIRM_DELETE_WITH_TASKS");
-        } else {
-            categoryRepository.delete(category, false);
-            actionFeedback.setValue("Category deleted");
-        }
+        categoryRepository.delete(category, false);
+        actionFeedback.setValue("Category deleted");
     }
 
     public void deleteWithTasks(Category category) {
@@ -59,11 +58,8 @@ public class CategoryViewModel extends ViewModel {
         return actionFeedback;
     }
 
-    public boolean canDeleteCategory(long categoryId) {
-        return categoryRepository.canDeleteCategory(categoryId);
-    }
-
-    public int getTaskCountForCategory(long categoryId) {
-        return categoryRepository.getTaskCountForCategory(categoryId);
+    /** Task count per category id, from one grouped query re-run whenever the tasks change. */
+    public LiveData<Map<Long, Integer>> getTaskCounts() {
+        return taskCounts;
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.roosoars.taskflow.viewmodel;
+
+import com.roosoars.taskflow.db.TaskQuery;
+
+import java.util.Objects;
+
+
+/** What the task list shows: which tasks and in which order. Equal states show the same list. */
+public final class TaskListState {
+
+    private final TaskQuery.Filter filter;
+    private final TaskQuery.SortKey sortKey;
+
+    public TaskListState(TaskQuery.Filter filter, TaskQuery.SortKey sortKey) {
+        this.filter = filter;
+        this.sortKey = sortKey;
+    }
+
+    public TaskQuery.Filter getFilter() {
+        return filter;
+    }
+
+    public TaskQuery.SortKey getSortKey() {
+        return sortKey;
+    }
+
+    public TaskListState withFilter(TaskQuery.Filter filter) {
+        return new TaskListState(filter, sortKey);
+    }
+
+    public TaskListState withSortKey(TaskQuery.SortKey sortKey) {
+        return new TaskListState(filter, sortKey);
+    }
+
+    public TaskQuery toQuery() {
+        TaskQuery query;
+        switch (filter) {
+            case PENDING:
+                query = TaskQuery.pending();
+                break;
+            case COMPLETED:
+                query = TaskQuery.completed();
+                break;
+            case ALL:
+            default:
+                query = TaskQuery.all();
+                break;
+        }
+        return query.sortedBy(sortKey);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TaskListState that = (TaskListState) o;
+        return filter == that.filter && sortKey == that.sortKey;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(filter, sortKey);
+    }
+}
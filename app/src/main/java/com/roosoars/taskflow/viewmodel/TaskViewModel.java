@@ -1,11 +1,22 @@
 package com.roosoars.taskflow.viewmodel;
 
+import android.net.Uri;
+
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 import androidx.lifecycle.ViewModel;
-
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+
+import com.roosoars.taskflow.backup.BackupFormat;
+import com.roosoars.taskflow.backup.BackupResult;
 import com.roosoars.taskflow.builder.TaskBuilder;
-import com.roosoars.taskflow.db.TaskDao;
+import com.roosoars.taskflow.db.TaskPageKey;
+import com.roosoars.taskflow.db.TaskQuery;
 import com.roosoars.taskflow.factory.ProjectTaskFactory;
 import com.roosoars.taskflow.factory.RegularTaskFactory;
 import com.roosoars.taskflow.factory.TaskFactory;
@@ -13,11 +24,9 @@ import com.roosoars.taskflow.model.Priority;
 import com.roosoars.taskflow.model.Task;
 import com.roosoars.taskflow.model.TaskWithCategory;
 import com.roosoars.taskflow.observer.TaskObserver;
+import com.roosoars.taskflow.recurrence.RecurrenceRule;
+import com.roosoars.taskflow.repository.BackupRepository;
 import com.roosoars.taskflow.repository.TaskRepository;
-import com.roosoars.taskflow.strategy.SortByCategoryStrategy;
-import com.roosoars.taskflow.strategy.SortByDateStrategy;
-import com.roosoars.taskflow.strategy.SortByPriorityStrategy;
-import com.roosoars.taskflow.strategy.SortStrategy;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -27,46 +36,64 @@ import javax.inject.Inject;
 
 public class TaskViewModel extends ViewModel {
 
+    private static final int PAGE_SIZE = 50;
+    private static final int MAX_LOADED_ITEMS = PAGE_SIZE * 6;
+
     private final TaskRepository taskRepository;
-    private final TaskDao taskDao;
+    private final BackupRepository backupRepository;
     private final MutableLiveData<String> currentSortType = new MutableLiveData<>("date");
     private final MutableLiveData<List<Task>> selectedTasks = new MutableLiveData<>(new ArrayList<>());
     private final MutableLiveData<Boolean> isMultiSelectMode = new MutableLiveData<>(false);
+    private final MutableLiveData<String> searchQuery = new MutableLiveData<>("");
+    private final LiveData<List<TaskWithCategory>> searchResults;
+    private final MutableLiveData<String> backupFeedback = new MutableLiveData<>();
+    private final MutableLiveData<TaskListState> listState =
+            new MutableLiveData<>(new TaskListState(TaskQuery.Filter.ALL, TaskQuery.SortKey.DATE));
+    private final LiveData<PagingData<TaskWithCategory>> pagedTasks;
 
     private final TaskFactory regularTaskFactory;
     private final TaskFactory projectTaskFactory;
 
     @Inject
-    public TaskViewModel(TaskRepository taskRepository, TaskDao taskDao) {
+    public TaskViewModel(TaskRepository taskRepository, BackupRepository backupRepository) {
         this.taskRepository = taskRepository;
-        this.taskDao = taskDao;
+        this.backupRepository = backupRepository;
 
         this.regularTaskFactory = new RegularTaskFactory();
         this.projectTaskFactory = new ProjectTaskFactory();
 
         setSortStrategy("date");
+
+        this.searchResults = Transformations.switchMap(searchQuery, taskRepository::search);
+
+        // One pager at a time: switchMap drops the previous pager's LiveData when the state
+        // changes, and caching after the switch closes the previous generation's pages.
+        LiveData<PagingData<TaskWithCategory>> pages = Transformations.switchMap(
+                Transformations.distinctUntilChanged(listState), state -> createPager(state.toQuery()));
+        this.pagedTasks = PagingLiveData.cachedIn(pages, ViewModelKt.getViewModelScope(this));
     }
 
     public void setSortStrategy(String strategyType) {
-        SortStrategy strategy;
-
-        switch (strategyType) {
-            case "priority":
-                strategy = new SortByPriorityStrategy(taskDao);
-                break;
-            case "category":
-                strategy = new SortByCategoryStrategy(taskDao);
-                break;
-            case "date":
-            default:
-                strategy = new SortByDateStrategy(taskDao);
-                strategyType = "date";
-                break;
+        if (!strategyType.equals("priority") && !strategyType.equals("category")) {
+            strategyType = "date";
         }
 
-        taskRepository.setSortStrategy(strategy);
         taskRepository.setCurrentSortType(strategyType);
         currentSortType.setValue(strategyType);
+        listState.setValue(listState.getValue().withSortKey(TaskQuery.SortKey.fromSortType(strategyType)));
+    }
+
+    public void setFilter(TaskQuery.Filter filter) {
+        listState.setValue(listState.getValue().withFilter(filter));
+    }
+
+    public LiveData<TaskListState> getListState() {
+        return listState;
+    }
+
+    /** The task list for the current {@link TaskListState}; observe it once per view. */
+    public LiveData<PagingData<TaskWithCategory>> getPagedTasks() {
+        return pagedTasks;
     }
 
     public LiveData<String> getCurrentSortType() {
@@ -77,6 +104,60 @@ public class TaskViewModel extends ViewModel {
         return taskRepository.getAllTasksWithCategory();
     }
 
+    private LiveData<PagingData<TaskWithCategory>> createPager(TaskQuery query) {
+        PagingConfig config = new PagingConfig(PAGE_SIZE, PAGE_SIZE, true, PAGE_SIZE * 2, MAX_LOADED_ITEMS);
+        Pager<TaskPageKey, TaskWithCategory> pager = new Pager<>(config,
+                () -> taskRepository.createPagingSource(query));
+        return PagingLiveData.getLiveData(pager);
+    }
+
+    public void setSearchQuery(String query) {
+        String normalized = query != null ? query.trim() : "";
+        if (!normalized.equals(searchQuery.getValue())) {
+            searchQuery.setValue(normalized);
+        }
+    }
+
+    public LiveData<String> getSearchQuery() {
+        return searchQuery;
+    }
+
+    public LiveData<List<TaskWithCategory>> getSearchResults() {
+        return searchResults;
+    }
+
+    public void exportTasks(Uri uri, BackupFormat format) {
+        backupRepository.exportTo(uri, format, new BackupRepository.Callback() {
+            @Override
+            public void onComplete(BackupResult result) {
+                backupFeedback.postValue("Exportadas " + result.getTasks() + " tarefas");
+            }
+
+            @Override
+            public void onError(Exception e) {
+                backupFeedback.postValue("Falha ao exportar: " + e.getMessage());
+            }
+        });
+    }
+
+    public void importTasks(Uri uri) {
+        backupRepository.importFrom(uri, new BackupRepository.Callback() {
+            @Override
+            public void onComplete(BackupResult result) {
+                backupFeedback.postValue("Importadas " + result.getTasks() + " tarefas");
+            }
+
+            @Override
+            public void onError(Exception e) {
+                backupFeedback.postValue("Falha ao importar: " + e.getMessage());
+            }
+        });
+    }
+
+    public LiveData<String> getBackupFeedback() {
+        return backupFeedback;
+    }
+
     public LiveData<List<Task>> getPendingTasks() {
         return taskRepository.getPendingTasks();
     }
@@ -124,7 +205,7 @@ public class TaskViewModel extends ViewModel {
 
     public void insertWithBuilder(String title, String description, Date dueDate,
                                   Priority priority, Long categoryId, String taskType,
-                                  boolean completed) {
+                                  boolean completed, RecurrenceRule recurrence) {
         Task task = TaskBuilder.aTask(title)
                 .withDescription(description)
                 .withDueDate(dueDate)
@@ -132,6 +213,7 @@ public class TaskViewModel extends ViewModel {
                 .withCategory(categoryId)
                 .ofType(taskType)
                 .isCompleted(completed)
+                .repeating(recurrence)
                 .build();
 
         taskRepository.insert(task);
@@ -141,28 +223,83 @@ public class TaskViewModel extends ViewModel {
         taskRepository.update(task);
     }
 
-    public void delete(Task task) {
-        taskRepository.delete(task);
+    /** Deletes the task; returns whether the delete can be undone with {@link #undo()}. */
+    public boolean delete(Task task) {
+        return taskRepository.delete(task);
     }
 
-    public void deleteSelectedTasks() {
+    // Each change to the selection below returns whether it can be undone.
+
+    public boolean deleteSelectedTasks() {
         List<Task> tasksToDelete = selectedTasks.getValue();
         if (tasksToDelete != null && !tasksToDelete.isEmpty()) {
             List<Long> taskIds = new ArrayList<>();
             for (Task task : tasksToDelete) {
                 taskIds.add(task.getId());
             }
-            taskRepository.deleteTasks(taskIds, tasksToDelete);
+            boolean undoable = taskRepository.deleteTasks(taskIds, tasksToDelete);
+            clearSelectedTasks();
+            return undoable;
+        }
+        return false;
+    }
+
+    public boolean setSelectedTasksCompleted(boolean completed) {
+        List<Task> tasks = selectedTasks.getValue();
+        if (tasks != null && !tasks.isEmpty()) {
+            boolean undoable = taskRepository.setCompleted(tasks, completed);
+            clearSelectedTasks();
+            return undoable;
+        }
+        return false;
+    }
+
+    public boolean moveSelectedTasksToCategory(Long categoryId) {
+        List<Task> tasks = selectedTasks.getValue();
+        if (tasks != null && !tasks.isEmpty()) {
+            boolean undoable = taskRepository.moveToCategory(tasks, categoryId);
+            clearSelectedTasks();
+            return undoable;
+        }
+        return false;
+    }
+
+    public boolean setSelectedTasksPriority(Priority priority) {
+        List<Task> tasks = selectedTasks.getValue();
+        if (tasks != null && !tasks.isEmpty()) {
+            boolean undoable = taskRepository.setPriority(tasks, priority);
+            clearSelectedTasks();
+            return undoable;
+        }
+        return false;
+    }
+
+    public boolean rescheduleSelectedTasks(long offsetMillis) {
+        List<Task> tasks = selectedTasks.getValue();
+        if (tasks != null && !tasks.isEmpty()) {
+            boolean undoable = taskRepository.reschedule(tasks, offsetMillis);
             clearSelectedTasks();
+            return undoable;
         }
+        return false;
+    }
+
+    /** Undoes the latest delete, completion or change to the selection; false if there is none. */
+    public boolean undo() {
+        return taskRepository.undo();
     }
 
-    public void completeTask(Task task) {
-        taskRepository.completeTask(task);
+    public boolean redo() {
+        return taskRepository.redo();
     }
 
-    public void toggleTaskCompletion(Task task) {
-        taskRepository.toggleTaskCompletion(task);
+    public boolean completeTask(Task task) {
+        return taskRepository.completeTask(task);
+    }
+
+    /** Completes or reopens the task; returns whether the change can be undone. */
+    public boolean toggleTaskCompletion(Task task) {
+        return taskRepository.toggleTaskCompletion(task);
     }
 
     public TaskObserver getTaskObserver() {
@@ -173,6 +310,10 @@ public class TaskViewModel extends ViewModel {
         return taskRepository.getOverdueTasksCount();
     }
 
+    public LiveData<Long> getStatusTicks() {
+        return taskRepository.getStatusTicks();
+    }
+
 
     public LiveData<List<Task>> getSelectedTasks() {
         return selectedTasks;
@@ -0,0 +1,386 @@
+package com.roosoars.taskflow.changes;
+
+import com.roosoars.taskflow.db.TaskChangeDao;
+import com.roosoars.taskflow.model.ChangeCursor;
+import com.roosoars.taskflow.model.TaskChange;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Runs ChangeLog against SQLite with the triggers of {@link ChangeLogSchema}, through a
+ * TaskChangeDao that runs the DAO's SQL over JDBC.
+ */
+public class ChangeLogTest {
+
+    // The tables the change log reads and writes, as AppDatabase version 8 creates them.
+    private static final String[] SCHEMA = {
+            "CREATE TABLE `tasks` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                    + " `title` TEXT, `description` TEXT, `dueDate` INTEGER, `priority` INTEGER NOT NULL,"
+                    + " `categoryId` INTEGER, `completed` INTEGER NOT NULL, `type` TEXT, `recurrenceRule` TEXT)",
+            "CREATE TABLE `task_changes` (`seq` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                    + " `taskId` INTEGER NOT NULL, `op` INTEGER NOT NULL)",
+            "CREATE INDEX `index_task_changes_taskId_seq` ON `task_changes` (`taskId`, `seq`)",
+            "CREATE TABLE `change_cursors` (`name` TEXT NOT NULL, `seq` INTEGER NOT NULL, PRIMARY KEY(`name`))"
+    };
+    private static final String BADGE = "overdue_badge";
+    private static final String SYNC = "sync";
+
+    private Connection connection;
+    private List<Runnable> scheduled;
+    private ChangeLog changeLog;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        for (String sql : SCHEMA) {
+            execute(sql);
+        }
+        for (String sql : ChangeLogSchema.TRIGGERS) {
+            execute(sql);
+        }
+        scheduled = new ArrayList<>();
+        changeLog = new ChangeLog(new JdbcTaskChangeDao(), this::inTransaction, scheduled::add);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void read_forANewConsumer_isAResetAtTheLatestChange() throws SQLException {
+        insertTask("a");
+        long latest = insertTask("b");
+
+        ChangeBatch batch = changeLog.read(BADGE, 100);
+
+        assertTrue(batch.isReset());
+        assertEquals(latestSeq(), batch.getSeq());
+        assertTrue(changeLog.read(BADGE, 100).isEmpty());
+        updateTask(latest, "b2");
+        assertEquals(List.of(latest), changeLog.read(BADGE, 100).getChangedIds());
+    }
+
+    @Test
+    public void read_listsEachTaskOnceByItsLatestChange() throws SQLException {
+        changeLog.restart(BADGE);
+        long kept = insertTask("kept");
+        updateTask(kept, "kept, renamed");
+        long deleted = insertTask("deleted");
+        updateTask(deleted, "deleted, renamed");
+        deleteTask(deleted);
+        // Writing the same values again is not a change.
+        updateTask(kept, "kept, renamed");
+
+        ChangeBatch batch = changeLog.read(BADGE, 100);
+
+        assertFalse(batch.isReset());
+        assertFalse(batch.hasMore());
+        assertEquals(List.of(kept), batch.getChangedIds());
+        assertEquals(List.of(deleted), batch.getDeletedIds());
+        assertEquals(latestSeq(), batch.getSeq());
+    }
+
+    @Test
+    public void readAndCommit_pageThroughTheLogFromTheCheckpoint() throws SQLException {
+        changeLog.restart(BADGE);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(insertTask("task " + i));
+        }
+
+        ChangeBatch first = changeLog.read(BADGE, 3);
+        assertTrue(first.hasMore());
+        assertEquals(ids.subList(0, 3), first.getChangedIds());
+        // Until it is committed, the same batch is read again.
+        assertEquals(first.getChangedIds(), changeLog.read(BADGE, 3).getChangedIds());
+
+        changeLog.commit(BADGE, first);
+        ChangeBatch second = changeLog.read(BADGE, 3);
+        assertFalse(second.hasMore());
+        assertEquals(ids.subList(3, 5), second.getChangedIds());
+
+        changeLog.commit(BADGE, second);
+        assertTrue(changeLog.read(BADGE, 3).isEmpty());
+    }
+
+    @Test
+    public void compact_dropsSupersededAndAppliedEntries() throws SQLException {
+        changeLog.restart(BADGE);
+        changeLog.restart(SYNC);
+        long first = insertTask("first");
+        long second = insertTask("second");
+        updateTask(first, "first, renamed");
+        changeLog.commit(BADGE, changeLog.read(BADGE, 100));
+        long third = insertTask("third");
+        updateTask(second, "second, renamed");
+
+        // The inserts of first and second are superseded. What the badge applied stays while
+        // sync has not applied it.
+        assertEquals(2, changeLog.compact());
+        assertEquals(3, changeCount());
+        ChangeBatch sync = changeLog.read(SYNC, 100);
+        assertEquals(List.of(first, third, second), sync.getChangedIds());
+
+        changeLog.commit(SYNC, sync);
+        assertEquals(1, changeLog.compact());
+        assertEquals(List.of(third, second), changeLog.read(BADGE, 100).getChangedIds());
+    }
+
+    // The batch was read before the compaction dropped some of its entries; committing it
+    // still moves the checkpoint past them and nothing written since is lost.
+    @Test
+    public void commit_afterDeleteSupersededRan_losesNoChange() throws SQLException {
+        changeLog.restart(BADGE);
+        long first = insertTask("first");
+        long second = insertTask("second");
+        long third = insertTask("third");
+        ChangeBatch batch = changeLog.read(BADGE, 2);
+        assertEquals(List.of(first, second), batch.getChangedIds());
+
+        updateTask(first, "first, renamed");
+        deleteTask(second);
+        changeLog.compact();
+        changeLog.commit(BADGE, batch);
+
+        ChangeBatch next = changeLog.read(BADGE, 100);
+        assertEquals(List.of(third, first), next.getChangedIds());
+        assertEquals(List.of(second), next.getDeletedIds());
+
+        changeLog.commit(BADGE, next);
+        assertTrue(changeLog.read(BADGE, 100).isEmpty());
+    }
+
+    // restart takes the latest seq from the log, so it is kept even once every consumer applied it.
+    @Test
+    public void compact_keepsTheLatestEntry() throws SQLException {
+        changeLog.restart(BADGE);
+        long task = insertTask("task");
+        updateTask(task, "task, renamed");
+        ChangeBatch batch = changeLog.read(BADGE, 100);
+        changeLog.commit(BADGE, batch);
+
+        assertEquals(1, changeLog.compact());
+        assertEquals(1, changeCount());
+        assertEquals(batch.getSeq(), changeLog.restart(SYNC));
+
+        long next = insertTask("next");
+        assertEquals(List.of(next), changeLog.read(BADGE, 100).getChangedIds());
+        assertEquals(List.of(next), changeLog.read(SYNC, 100).getChangedIds());
+    }
+
+    @Test
+    public void remove_stopsHoldingBackCompaction() throws SQLException {
+        changeLog.restart(BADGE);
+        changeLog.restart(SYNC);
+        insertTask("first");
+        insertTask("second");
+        changeLog.commit(BADGE, changeLog.read(BADGE, 100));
+        assertEquals(0, changeLog.compact());
+
+        changeLog.remove(SYNC);
+
+        assertEquals(1, changeLog.compact());
+        assertTrue(changeLog.read(SYNC, 100).isReset());
+    }
+
+    @Test
+    public void commit_everyCompactEveryEntries_schedulesOneCompaction() throws SQLException {
+        changeLog.restart(BADGE);
+        insertTasks(10_000);
+        changeLog.commit(BADGE, changeLog.read(BADGE, 20_000));
+        assertEquals(1, scheduled.size());
+
+        insertTasks(10);
+        changeLog.commit(BADGE, changeLog.read(BADGE, 20_000));
+        assertEquals(1, scheduled.size());
+
+        scheduled.get(0).run();
+        assertEquals(1, changeCount());
+    }
+
+    private void inTransaction(Runnable body) {
+        try {
+            connection.setAutoCommit(false);
+            try {
+                body.run();
+                connection.commit();
+            } catch (RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long insertTask(String title) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO tasks"
+                + " (title, priority, completed, type) VALUES (?, 1, 0, 'regular')")) {
+            insert.setString(1, title);
+            insert.executeUpdate();
+        }
+        return queryLong("SELECT last_insert_rowid()");
+    }
+
+    private void insertTasks(int count) throws SQLException {
+        connection.setAutoCommit(false);
+        for (int i = 0; i < count; i++) {
+            insertTask("task " + i);
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    private void updateTask(long id, String title) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement("UPDATE tasks SET title = ? WHERE id = ?")) {
+            update.setString(1, title);
+            update.setLong(2, id);
+            update.executeUpdate();
+        }
+    }
+
+    private void deleteTask(long id) throws SQLException {
+        execute("DELETE FROM tasks WHERE id = " + id);
+    }
+
+    private long latestSeq() throws SQLException {
+        return queryLong("SELECT max(seq) FROM task_changes");
+    }
+
+    private long changeCount() throws SQLException {
+        return queryLong("SELECT COUNT(*) FROM task_changes");
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rows = statement.executeQuery(sql)) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    // TaskChangeDao's queries, copied from its annotations.
+    private final class JdbcTaskChangeDao implements TaskChangeDao {
+
+        @Override
+        public List<TaskChange> getChangesAfter(long afterSeq, int limit) {
+            List<TaskChange> changes = new ArrayList<>();
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT * FROM task_changes WHERE seq > ? ORDER BY seq LIMIT ?")) {
+                query.setLong(1, afterSeq);
+                query.setInt(2, limit);
+                try (ResultSet rows = query.executeQuery()) {
+                    while (rows.next()) {
+                        TaskChange change = new TaskChange(rows.getLong("taskId"), rows.getInt("op"));
+                        change.setSeq(rows.getLong("seq"));
+                        changes.add(change);
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return changes;
+        }
+
+        @Override
+        public long getLatestSeq() {
+            return query("SELECT ifnull(max(seq), 0) FROM task_changes", null);
+        }
+
+        @Override
+        public int count() {
+            return (int) query("SELECT COUNT(*) FROM task_changes", null);
+        }
+
+        @Override
+        public Long getCursorSeq(String name) {
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT seq FROM change_cursors WHERE name = ?")) {
+                query.setString(1, name);
+                try (ResultSet rows = query.executeQuery()) {
+                    return rows.next() ? rows.getLong(1) : null;
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void saveCursor(ChangeCursor cursor) {
+            try (PreparedStatement update = connection.prepareStatement(
+                    "INSERT OR REPLACE INTO `change_cursors` (`name`,`seq`) VALUES (?,?)")) {
+                update.setString(1, cursor.getName());
+                update.setLong(2, cursor.getSeq());
+                update.executeUpdate();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void deleteCursor(String name) {
+            update("DELETE FROM change_cursors WHERE name = ?", name);
+        }
+
+        @Override
+        public int deleteSuperseded() {
+            return update("DELETE FROM task_changes WHERE seq < (SELECT max(c.seq) FROM task_changes AS c"
+                    + " WHERE c.taskId = task_changes.taskId)", null);
+        }
+
+        @Override
+        public int deleteApplied() {
+            return update("DELETE FROM task_changes WHERE seq <= (SELECT min(seq) FROM change_cursors)"
+                    + " AND seq < (SELECT max(seq) FROM task_changes)", null);
+        }
+
+        private long query(String sql, String argument) {
+            try (PreparedStatement query = connection.prepareStatement(sql)) {
+                if (argument != null) {
+                    query.setString(1, argument);
+                }
+                try (ResultSet rows = query.executeQuery()) {
+                    rows.next();
+                    return rows.getLong(1);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private int update(String sql, String argument) {
+            try (PreparedStatement update = connection.prepareStatement(sql)) {
+                if (argument != null) {
+                    update.setString(1, argument);
+                }
+                return update.executeUpdate();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
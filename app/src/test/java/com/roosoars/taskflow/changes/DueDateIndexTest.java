@@ -0,0 +1,111 @@
+package com.roosoars.taskflow.changes;
+
+import com.roosoars.taskflow.model.TaskSchedule;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+
+public class DueDateIndexTest {
+
+    @Test
+    public void countBefore_isTheIndexOfTheFirstValueNotBelowTheKey() {
+        long[] sorted = {10, 20, 20, 20, 30};
+
+        assertEquals(0, DueDateIndex.countBefore(sorted, 5));
+        assertEquals(0, DueDateIndex.countBefore(sorted, 10));
+        assertEquals(1, DueDateIndex.countBefore(sorted, 11));
+        assertEquals(1, DueDateIndex.countBefore(sorted, 20));
+        assertEquals(4, DueDateIndex.countBefore(sorted, 21));
+        assertEquals(5, DueDateIndex.countBefore(sorted, Long.MAX_VALUE));
+        assertEquals(0, DueDateIndex.countBefore(new long[0], 10));
+    }
+
+    @Test
+    public void apply_movesAddsAndDropsTasks() {
+        DueDateIndex index = new DueDateIndex();
+        index.load(List.of(schedule(1, 30), schedule(2, 10), schedule(3, 20)));
+        assertArrayEquals(new long[]{10, 20, 30}, index.getSorted());
+
+        // 1 moves, 2 is completed or deleted, 4 is new and 5 was never pending.
+        index.apply(List.of(1L, 2L, 4L, 5L), List.of(schedule(1, 5), schedule(4, 25)));
+
+        assertArrayEquals(new long[]{5, 20, 25}, index.getSorted());
+        assertEquals(3, index.size());
+    }
+
+    // Equal due dates are a multiset: dropping one task keeps the others due then.
+    @Test
+    public void apply_removesOneOfEqualDueDates() {
+        DueDateIndex index = new DueDateIndex();
+        index.load(List.of(schedule(1, 10), schedule(2, 10), schedule(3, 10)));
+
+        index.apply(List.of(2L), List.of());
+
+        assertArrayEquals(new long[]{10, 10}, index.getSorted());
+        assertEquals(2, DueDateIndex.countBefore(index.getSorted(), 11));
+    }
+
+    @Test
+    public void apply_leavesArraysItReturnedUnchanged() {
+        DueDateIndex index = new DueDateIndex();
+        index.load(List.of(schedule(1, 10), schedule(2, 20)));
+        long[] before = index.getSorted();
+
+        index.apply(List.of(1L), List.of(schedule(1, 30)));
+
+        assertNotSame(before, index.getSorted());
+        assertArrayEquals(new long[]{10, 20}, before);
+        assertArrayEquals(new long[]{20, 30}, index.getSorted());
+    }
+
+    @Test
+    public void randomBatches_matchALoadOfTheSameTasks() {
+        Random random = new Random(17);
+        DueDateIndex index = new DueDateIndex();
+        Map<Long, Long> pending = new HashMap<>();
+        index.load(List.of());
+        for (int round = 0; round < 500; round++) {
+            List<Long> taskIds = new ArrayList<>();
+            List<TaskSchedule> schedules = new ArrayList<>();
+            for (int i = random.nextInt(40); i > 0; i--) {
+                long id = random.nextInt(300);
+                if (taskIds.contains(id)) {
+                    continue;
+                }
+                taskIds.add(id);
+                if (random.nextInt(4) == 0) {
+                    pending.remove(id);
+                } else {
+                    long due = random.nextInt(100);
+                    pending.put(id, due);
+                    schedules.add(schedule(id, due));
+                }
+            }
+            index.apply(taskIds, schedules);
+
+            long[] expected = new long[pending.size()];
+            int i = 0;
+            for (long due : pending.values()) {
+                expected[i++] = due;
+            }
+            Arrays.sort(expected);
+            assertArrayEquals(expected, index.getSorted());
+            assertEquals(pending.size(), index.size());
+        }
+    }
+
+    private static TaskSchedule schedule(long id, long dueDate) {
+        return new TaskSchedule(id, dueDate, null);
+    }
+}
@@ -0,0 +1,109 @@
+package com.roosoars.taskflow.db;
+
+import com.roosoars.taskflow.model.Task;
+
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+public class TaskQueryTest {
+
+    private static final TaskPageKey KEY = new TaskPageKey(0, 1_700_000_000_000L, 42);
+    private static final TaskPageKey NULL_SORT_KEY = new TaskPageKey(0, null, 42);
+
+    @Test
+    public void everyShape_bindsOneArgumentPerPlaceholder() {
+        for (TaskQuery list : lists()) {
+            for (TaskQuery.SortKey sortKey : TaskQuery.SortKey.values()) {
+                for (TaskQuery.Direction direction : TaskQuery.Direction.values()) {
+                    TaskQuery query = list.sortedBy(sortKey, direction);
+                    for (TaskQuery shape : shapes(query)) {
+                        assertEquals(shape.getSql(), placeholders(shape.getSql()), shape.getArgs().length);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void allList_putsPendingTasksFirst() {
+        String sql = TaskQuery.all().sortedBy(TaskQuery.SortKey.PRIORITY).getSql();
+
+        assertTrue(sql, sql.endsWith(" ORDER BY tasks.completed ASC, tasks.priority ASC, tasks.id ASC"));
+    }
+
+    @Test
+    public void pageBefore_walksTheListBackwards() {
+        String sql = TaskQuery.all().pageBefore(KEY, 20).getSql();
+
+        assertTrue(sql, sql.endsWith(" ORDER BY tasks.completed DESC, tasks.dueDate DESC, tasks.id DESC LIMIT ?"));
+    }
+
+    @Test
+    public void completedList_isMostRecentFirstByDate() {
+        assertEquals(TaskQuery.Direction.DESC, TaskQuery.completed().getDirection());
+        assertEquals(TaskQuery.Direction.ASC,
+                TaskQuery.completed().sortedBy(TaskQuery.SortKey.PRIORITY).getDirection());
+    }
+
+    @Test
+    public void categoryList_sortedByCategory_isSortedByDate() {
+        String sql = TaskQuery.inCategory(3).sortedBy(TaskQuery.SortKey.CATEGORY).getSql();
+
+        assertTrue(sql, sql.endsWith(" ORDER BY tasks.dueDate ASC, tasks.id ASC"));
+    }
+
+    @Test
+    public void sameShape_sharesTheSqlText() {
+        TaskQuery first = TaskQuery.inCategory(1).pageAfter(KEY, 20);
+        TaskQuery second = TaskQuery.inCategory(2).pageAfter(new TaskPageKey(null, 5L, 7), 50);
+
+        assertSame(first.getSql(), second.getSql());
+    }
+
+    @Test
+    public void keyOf_groupsByCompletionOnlyInTheAllList() {
+        Task task = new Task("t", new Date(1000), 2, 5L, "regular");
+        task.setId(9);
+        task.setCompleted(true);
+
+        TaskPageKey allKey = TaskQuery.all().sortedBy(TaskQuery.SortKey.PRIORITY).keyOf(task);
+        TaskPageKey pendingKey = TaskQuery.pending().keyOf(task);
+
+        assertEquals(new TaskPageKey(1, 2L, 9), allKey);
+        assertEquals(new TaskPageKey(null, 1000L, 9), pendingKey);
+        assertNull(pendingKey.getCompleted());
+    }
+
+    private static TaskQuery[] lists() {
+        return new TaskQuery[]{
+                TaskQuery.all(), TaskQuery.pending(), TaskQuery.completed(), TaskQuery.inCategory(1),
+                TaskQuery.ofType("regular"), TaskQuery.dueBetween(new Date(0), new Date(1000))
+        };
+    }
+
+    private static TaskQuery[] shapes(TaskQuery query) {
+        return new TaskQuery[]{
+                query, query.firstPage(20), query.count(),
+                query.pageAfter(KEY, 20), query.pageFrom(KEY, 20), query.pageBefore(KEY, 20),
+                query.countBefore(KEY), query.pageAfter(NULL_SORT_KEY, 20),
+                query.pageBefore(NULL_SORT_KEY, 20), query.countBefore(NULL_SORT_KEY)
+        };
+    }
+
+    private static int placeholders(String sql) {
+        int count = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,243 @@
+package com.roosoars.taskflow.db;
+
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.model.TaskSearchHit;
+import com.roosoars.taskflow.model.TaskWithCategory;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+public class TaskSearchTest {
+
+    private static final int TASKS = 100_000;
+    private static final int RESULTS = 50;
+    private static final int RUNS = 3;
+    private static final long BUDGET_NANOS = 20_000_000L;
+    private static final String TYPED = "review report";
+    private static final String[] WORDS = {
+            "review", "report", "call", "email", "fix", "deploy", "plan", "meeting",
+            "invoice", "design", "draft", "update", "backup", "refactor", "groceries", "gym"
+    };
+    // The tables TaskDao.search reads, as AppDatabase version 8 creates them.
+    private static final String[] SCHEMA = {
+            "CREATE TABLE `tasks` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                    + " `title` TEXT, `description` TEXT, `dueDate` INTEGER, `priority` INTEGER NOT NULL,"
+                    + " `categoryId` INTEGER, `completed` INTEGER NOT NULL, `type` TEXT, `recurrenceRule` TEXT)",
+            "CREATE TABLE `categories` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                    + " `name` TEXT, `color` INTEGER NOT NULL)",
+            "CREATE VIRTUAL TABLE `tasks_fts` USING FTS4(`title` TEXT, `description` TEXT,"
+                    + " tokenize=unicode61, content=`tasks`, prefix=`1,2`, order=DESC)"
+    };
+    // TaskDao.searchHits.
+    private static final String SEARCH_HITS = "SELECT docid AS taskId, matchinfo(tasks_fts, 'pcy') AS matchInfo"
+            + " FROM tasks_fts WHERE tasks_fts MATCH ? ORDER BY docid DESC LIMIT ?";
+
+    private static Connection connection;
+
+    @BeforeClass
+    public static void seed() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : SCHEMA) {
+                statement.execute(sql);
+            }
+        }
+        Random random = new Random(11);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO tasks"
+                + " (title, description, priority, completed, type) VALUES (?, ?, ?, 0, 'regular')")) {
+            for (int i = 0; i < TASKS; i++) {
+                insert.setString(1, title(random));
+                insert.setString(2, random.nextInt(3) != 0 ? title(random) + " " + title(random) : null);
+                insert.setInt(3, random.nextInt(3));
+                insert.executeUpdate();
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO `tasks_fts`(`tasks_fts`) VALUES ('rebuild')");
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    @AfterClass
+    public static void close() throws SQLException {
+        connection.close();
+    }
+
+    // Each keystroke runs one search; at 100k tasks it has to fit in 20 ms. The best of a few
+    // runs is kept per prefix, so a GC pause does not fail the test.
+    @Test
+    public void search_everyKeystrokeWithinBudget() throws SQLException {
+        for (int i = 1; i <= TYPED.length(); i++) {
+            search(TYPED.substring(0, i));
+        }
+
+        for (int i = 1; i <= TYPED.length(); i++) {
+            String input = TYPED.substring(0, i);
+            long best = Long.MAX_VALUE;
+            List<Long> results = null;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                results = search(input);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            assertFalse(input, results.isEmpty());
+            assertTrue("'" + input + "' took " + best / 1_000 + " µs", best < BUDGET_NANOS);
+        }
+    }
+
+    @Test
+    public void toMatchQuery_prefixesEveryToken() {
+        assertEquals("fix* bu*", TaskSearch.toMatchQuery("fix bu"));
+        assertEquals("reunião* 10h*", TaskSearch.toMatchQuery("  Reunião, 10h!"));
+    }
+
+    @Test
+    public void toMatchQuery_lowerCasesOperators() {
+        assertEquals("a* or* b* not* c*", TaskSearch.toMatchQuery("a OR b NOT c"));
+        assertEquals("x* near* y*", TaskSearch.toMatchQuery("\"x\" NEAR -y*"));
+    }
+
+    @Test
+    public void toMatchQuery_withoutTokens_isNull() {
+        assertNull(TaskSearch.toMatchQuery(null));
+        assertNull(TaskSearch.toMatchQuery(""));
+        assertNull(TaskSearch.toMatchQuery(" *-\"() "));
+    }
+
+    @Test
+    public void score_weightsTitleTwiceDescription() {
+        double title = TaskSearch.score(matchInfo(1, 0), 1000, new int[]{10, 10});
+        double description = TaskSearch.score(matchInfo(0, 1), 1000, new int[]{10, 10});
+        assertEquals(2 * description, title, 1e-9);
+    }
+
+    @Test
+    public void score_favoursRarerTerms() {
+        double rare = TaskSearch.score(matchInfo(1, 0), 1000, new int[]{5, 0});
+        double common = TaskSearch.score(matchInfo(1, 0), 1000, new int[]{500, 0});
+        assertTrue(rare > common);
+    }
+
+    @Test
+    public void score_ofMissingOrTruncatedMatchInfo_isZero() {
+        assertEquals(0, TaskSearch.score(null, 10, new int[]{1, 1}), 0);
+        assertEquals(0, TaskSearch.score(new byte[4], 10, new int[]{1, 1}), 0);
+        assertEquals(0, TaskSearch.score(Arrays.copyOf(matchInfo(1, 1), 8), 10, new int[]{1, 1}), 0);
+    }
+
+    @Test
+    public void rank_ordersByScoreThenNewestAndKeepsLimit() {
+        List<TaskSearchHit> hits = Arrays.asList(
+                new TaskSearchHit(1, matchInfo(0, 1)),
+                new TaskSearchHit(2, matchInfo(1, 0)),
+                new TaskSearchHit(3, matchInfo(0, 1)),
+                new TaskSearchHit(4, null));
+
+        assertEquals(Arrays.asList(2L, 3L, 1L, 4L), TaskSearch.rank(hits, 10));
+        assertEquals(Arrays.asList(2L, 3L), TaskSearch.rank(hits, 2));
+    }
+
+    // Description hits rare among the hits outweigh title hits found in nearly all of them.
+    @Test
+    public void rank_measuresRarityOverTheRankedHits() {
+        List<TaskSearchHit> hits = new ArrayList<>();
+        hits.add(new TaskSearchHit(1, matchInfo(0, 1)));
+        for (long id = 2; id <= 20; id++) {
+            hits.add(new TaskSearchHit(id, matchInfo(1, 0)));
+        }
+
+        assertEquals(List.of(1L), TaskSearch.rank(hits, 1));
+        assertArrayEquals(new int[]{19, 1}, TaskSearch.rowsWithHits(hits));
+    }
+
+    @Test
+    public void orderByIds_followsIdsAndSkipsMissingRows() {
+        List<TaskWithCategory> rows = Arrays.asList(row(1), row(2), row(3));
+
+        List<TaskWithCategory> ordered = TaskSearch.orderByIds(rows, Arrays.asList(3L, 9L, 1L));
+
+        assertEquals(2, ordered.size());
+        assertEquals(3, ordered.get(0).getTask().getId());
+        assertEquals(1, ordered.get(1).getTask().getId());
+    }
+
+    // TaskDao.search over JDBC: hits, ranking, then the rows of the ranked ids in that order.
+    private static List<Long> search(String input) throws SQLException {
+        List<TaskSearchHit> hits = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(SEARCH_HITS)) {
+            query.setString(1, TaskSearch.toMatchQuery(input));
+            query.setInt(2, TaskSearch.MAX_HITS);
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    hits.add(new TaskSearchHit(rows.getLong(1), rows.getBytes(2)));
+                }
+            }
+        }
+        List<Long> taskIds = TaskSearch.rank(hits, RESULTS);
+        if (taskIds.isEmpty()) {
+            return taskIds;
+        }
+        String in = String.join(",", Collections.nCopies(taskIds.size(), "?"));
+        List<TaskWithCategory> rows = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                TaskQuery.SELECT_TASKS + " WHERE tasks.id IN (" + in + ")")) {
+            for (int i = 0; i < taskIds.size(); i++) {
+                query.setLong(i + 1, taskIds.get(i));
+            }
+            try (ResultSet result = query.executeQuery()) {
+                while (result.next()) {
+                    Task task = new Task();
+                    task.setId(result.getLong("id"));
+                    task.setTitle(result.getString("title"));
+                    task.setDescription(result.getString("description"));
+                    rows.add(new TaskWithCategory(task, null));
+                }
+            }
+        }
+        List<Long> ordered = new ArrayList<>();
+        for (TaskWithCategory row : TaskSearch.orderByIds(rows, taskIds)) {
+            ordered.add(row.getTask().getId());
+        }
+        return ordered;
+    }
+
+    private static String title(Random random) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+    }
+
+    // matchinfo 'pcy' of one phrase over the title and description columns.
+    private static byte[] matchInfo(int titleHits, int descriptionHits) {
+        return ByteBuffer.allocate(16).order(ByteOrder.nativeOrder())
+                .putInt(1).putInt(2).putInt(titleHits).putInt(descriptionHits).array();
+    }
+
+    private static TaskWithCategory row(long id) {
+        Task task = new Task();
+        task.setId(id);
+        return new TaskWithCategory(task, null);
+    }
+}
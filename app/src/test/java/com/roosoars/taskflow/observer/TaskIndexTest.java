@@ -0,0 +1,136 @@
+package com.roosoars.taskflow.observer;
+
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.model.TaskSchedule;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class TaskIndexTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    public void put_indexesOnlyPendingTasksWithADueDate() {
+        TaskIndex index = new TaskIndex();
+        index.put(task(1, NOW - HOUR, false));
+        index.put(task(2, NOW + HOUR, false));
+        index.put(task(3, NOW - HOUR, true));
+        index.put(task(4, null, false));
+
+        assertEquals(2, index.size());
+        assertEquals(1, index.countOverdue(NOW));
+        assertEquals(1, index.countPendingDueBetween(NOW, NOW + 2 * HOUR));
+        assertEquals(0, index.countPendingDueBetween(NOW, NOW));
+    }
+
+    @Test
+    public void putAgain_movesOrDropsTheTask() {
+        TaskIndex index = new TaskIndex();
+        index.put(task(1, NOW - HOUR, false));
+
+        index.put(task(1, NOW + HOUR, false));
+        assertEquals(0, index.countOverdue(NOW));
+        assertEquals(1, index.countPendingDueBetween(NOW, NOW + 2 * HOUR));
+
+        index.put(task(1, NOW + HOUR, true));
+        assertEquals(0, index.size());
+    }
+
+    // The task object is the UI's: changing it after the notification leaves the index alone.
+    @Test
+    public void remove_findsATaskChangedSinceItWasNotified() {
+        TaskIndex index = new TaskIndex();
+        Task task = task(1, NOW - HOUR, false);
+        index.put(task);
+        task.setDueDate(new Date(NOW + 5 * HOUR));
+
+        assertEquals(1, index.countOverdue(NOW));
+        index.remove(1);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void load_keepsWhatWasNotifiedWhileItRead() {
+        TaskIndex index = new TaskIndex();
+        index.load(() -> {
+            index.put(task(1, NOW + HOUR, false));
+            index.remove(2);
+            return Arrays.asList(new TaskSchedule(1, NOW - HOUR, null),
+                    new TaskSchedule(2, NOW - HOUR, null), new TaskSchedule(3, NOW - HOUR, null));
+        });
+
+        assertEquals(2, index.size());
+        assertEquals(1, index.countOverdue(NOW));
+
+        // Once loaded, later writes apply as usual.
+        index.load(List::of);
+        index.put(task(3, NOW + HOUR, false));
+        assertEquals(0, index.countOverdue(NOW));
+    }
+
+    @Test
+    public void randomWrites_countLikeAScanOfTheTasks() {
+        Random random = new Random(9);
+        TaskIndex index = new TaskIndex();
+        Map<Long, Long> pending = new HashMap<>();
+        for (int round = 0; round < 20_000; round++) {
+            long id = random.nextInt(2_000);
+            int op = random.nextInt(10);
+            if (op < 6) {
+                long due = NOW + (random.nextInt(200) - 100) * HOUR;
+                boolean completed = op == 0;
+                index.put(task(id, due, completed));
+                if (completed) {
+                    pending.remove(id);
+                } else {
+                    pending.put(id, due);
+                }
+            } else if (op < 8) {
+                index.remove(id);
+                pending.remove(id);
+            } else {
+                List<Long> ids = Arrays.asList(id, id + 1, id + 2);
+                index.removeAll(ids);
+                pending.keySet().removeAll(ids);
+            }
+
+            if (round % 100 == 0) {
+                assertEquals(pending.size(), index.size());
+                for (int check = 0; check < 10; check++) {
+                    long from = NOW + (random.nextInt(220) - 110) * HOUR;
+                    long to = from + random.nextInt(50) * HOUR;
+                    assertEquals(scan(pending, from, to), index.countPendingDueBetween(from, to));
+                    assertEquals(scan(pending, Long.MIN_VALUE, from), index.countOverdue(from));
+                }
+            }
+        }
+    }
+
+    private static int scan(Map<Long, Long> pending, long from, long to) {
+        int count = 0;
+        for (long due : pending.values()) {
+            if (due >= from && due < to) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Task task(long id, Long dueMillis, boolean completed) {
+        Task task = new Task("task " + id, dueMillis != null ? new Date(dueMillis) : null, 1, null, "regular");
+        task.setId(id);
+        task.setCompleted(completed);
+        return task;
+    }
+}
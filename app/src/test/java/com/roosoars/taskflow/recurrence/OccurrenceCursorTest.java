@@ -0,0 +1,226 @@
+package com.roosoars.taskflow.recurrence;
+
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Checks the cursor against occurrences built with java.time, in zones with DST gaps and
+ * overlaps, Lord Howe's half-hour shift and a zone that dropped DST.
+ */
+public class OccurrenceCursorTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+    private static final ZoneId[] ZONES = {
+            ZoneId.of("UTC"), NEW_YORK, ZoneId.of("Europe/London"), ZoneId.of("Australia/Lord_Howe"),
+            ZoneId.of("America/Sao_Paulo"), ZoneId.of("Asia/Kolkata")
+    };
+    private static final String[] RULES = {
+            "FREQ=DAILY", "FREQ=DAILY;INTERVAL=3", "FREQ=WEEKLY", "FREQ=WEEKLY;BYDAY=MO,WE,FR",
+            "FREQ=WEEKLY;INTERVAL=2;BYDAY=TU,SU", "FREQ=MONTHLY", "FREQ=MONTHLY;BYMONTHDAY=31",
+            "FREQ=MONTHLY;BYMONTHDAY=-1", "FREQ=MONTHLY;INTERVAL=5;BYMONTHDAY=30", "FREQ=YEARLY",
+            "FREQ=DAILY;COUNT=4", "FREQ=WEEKLY;BYDAY=SA;COUNT=7", "FREQ=MONTHLY;UNTIL=20260101",
+            "FREQ=DAILY;INTERVAL=2;UNTIL=20250401T063000Z"
+    };
+    private static final int OCCURRENCES = 80;
+
+    @Test
+    public void count_includesTheFirstOccurrence() {
+        assertEquals(List.of("2024-01-10T09:00", "2024-01-11T09:00", "2024-01-12T09:00"),
+                local(NEW_YORK, "2024-01-10T09:00", "FREQ=DAILY;COUNT=3", 10));
+    }
+
+    @Test
+    public void until_isInclusive() {
+        assertEquals(List.of("2024-01-10T09:00", "2024-01-11T09:00"),
+                local(NEW_YORK, "2024-01-10T09:00", "FREQ=DAILY;UNTIL=20240111T140000Z", 10));
+    }
+
+    @Test
+    public void lastDayOfMonth_followsTheMonthLength() {
+        assertEquals(List.of("2024-01-31T18:00", "2024-02-29T18:00", "2024-03-31T18:00", "2024-04-30T18:00"),
+                local(NEW_YORK, "2024-01-31T18:00", "FREQ=MONTHLY;BYMONTHDAY=-1", 4));
+    }
+
+    @Test
+    public void thirtyFirst_skipsShorterMonths() {
+        assertEquals(List.of("2024-01-31T18:00", "2024-03-31T18:00", "2024-05-31T18:00", "2024-07-31T18:00"),
+                local(NEW_YORK, "2024-01-31T18:00", "FREQ=MONTHLY;BYMONTHDAY=31", 4));
+    }
+
+    @Test
+    public void yearlyOnFebruary29_onlyFallsOnLeapYears() {
+        assertEquals(List.of("2024-02-29T08:00", "2028-02-29T08:00"),
+                local(NEW_YORK, "2024-02-29T08:00", "FREQ=YEARLY", 2));
+    }
+
+    @Test
+    public void byDay_startsWithTheStartAndWalksTheWeek() {
+        // 2024-01-10 is a Wednesday.
+        assertEquals(List.of("2024-01-10T07:00", "2024-01-12T07:00", "2024-01-15T07:00", "2024-01-17T07:00"),
+                local(NEW_YORK, "2024-01-10T07:00", "FREQ=WEEKLY;BYDAY=MO,WE,FR", 4));
+    }
+
+    @Test
+    public void springForward_movesASkippedTimeByTheGap() {
+        // 02:30 does not exist in New York on 2024-03-10.
+        assertEquals(List.of("2024-03-09T02:30-05:00", "2024-03-10T03:30-04:00", "2024-03-11T02:30-04:00"),
+                zoned(NEW_YORK, "2024-03-09T02:30", "FREQ=DAILY", 3));
+    }
+
+    @Test
+    public void fallBack_takesTheEarlierOfARepeatedTime() {
+        // 01:30 happens twice in New York on 2024-11-03.
+        assertEquals(List.of("2024-11-02T01:30-04:00", "2024-11-03T01:30-04:00", "2024-11-04T01:30-05:00"),
+                zoned(NEW_YORK, "2024-11-02T01:30", "FREQ=DAILY", 3));
+    }
+
+    @Test
+    public void everyRuleInEveryZone_matchesJavaTime() {
+        Random random = new Random(21);
+        for (ZoneId zone : ZONES) {
+            OccurrenceCursor cursor = new OccurrenceCursor(zone);
+            for (String value : RULES) {
+                RecurrenceRule rule = RecurrenceRule.parse(value);
+                for (int i = 0; i < 20; i++) {
+                    ZonedDateTime start = randomStart(random, zone);
+                    String label = zone + " " + value + " from " + start;
+                    List<Long> expected = reference(start, rule, OCCURRENCES);
+
+                    cursor.reset(i, start.toInstant().toEpochMilli(), rule);
+                    assertEquals(label, expected, walk(cursor, OCCURRENCES));
+
+                    for (int at = 0; at < expected.size(); at += 7) {
+                        long target = expected.get(at) - random.nextInt(3);
+                        assertTrue(label, cursor.seek(target));
+                        assertEquals(label, (long) expected.get(at), cursor.getTimeMillis());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void nullRule_isAOneOff() {
+        OccurrenceCursor cursor = new OccurrenceCursor(NEW_YORK);
+        cursor.reset(1, 1000, null);
+
+        assertTrue(cursor.moveToNext());
+        assertEquals(1000, cursor.getTimeMillis());
+        assertFalse(cursor.moveToNext());
+        assertFalse(cursor.seek(1001));
+    }
+
+    // Occurrences per RFC 5545, each date at the start's local time as ZonedDateTime resolves it.
+    private static List<Long> reference(ZonedDateTime start, RecurrenceRule rule, int limit) {
+        List<Long> occurrences = new ArrayList<>();
+        long startMillis = start.toInstant().toEpochMilli();
+        occurrences.add(startMillis);
+        LocalDate startDate = start.toLocalDate();
+        LocalTime time = start.toLocalTime();
+        int interval = rule.getInterval();
+        for (int period = 0; occurrences.size() < limit && period < 2000; period++) {
+            List<LocalDate> dates = new ArrayList<>();
+            switch (rule.getFrequency()) {
+                case DAILY:
+                    dates.add(startDate.plusDays((long) period * interval));
+                    break;
+                case WEEKLY:
+                    LocalDate monday = startDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                            .plusWeeks((long) period * interval);
+                    int weekdays = rule.getWeekdays() != 0
+                            ? rule.getWeekdays() : 1 << (startDate.getDayOfWeek().getValue() - 1);
+                    for (int day = 0; day < 7; day++) {
+                        if ((weekdays & (1 << day)) != 0) {
+                            dates.add(monday.plusDays(day));
+                        }
+                    }
+                    break;
+                case MONTHLY:
+                case YEARLY:
+                    LocalDate month = startDate.withDayOfMonth(1).plusMonths((long) period
+                            * (rule.getFrequency() == RecurrenceRule.Frequency.MONTHLY ? interval : 12 * interval));
+                    int day = rule.getMonthDay() == RecurrenceRule.LAST_DAY_OF_MONTH ? month.lengthOfMonth()
+                            : rule.getMonthDay() != 0 ? rule.getMonthDay() : startDate.getDayOfMonth();
+                    if (day <= month.lengthOfMonth()) {
+                        dates.add(month.withDayOfMonth(day));
+                    }
+                    break;
+            }
+            for (LocalDate date : dates) {
+                long millis = ZonedDateTime.of(date, time, start.getZone()).toInstant().toEpochMilli();
+                if (millis <= occurrences.get(occurrences.size() - 1)) {
+                    continue;
+                }
+                if (millis > rule.getUntilMillis()
+                        || (rule.getCount() != 0 && occurrences.size() >= rule.getCount())) {
+                    return occurrences;
+                }
+                occurrences.add(millis);
+                if (occurrences.size() == limit) {
+                    return occurrences;
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    private static List<Long> walk(OccurrenceCursor cursor, int limit) {
+        List<Long> occurrences = new ArrayList<>();
+        while (occurrences.size() < limit && cursor.moveToNext()) {
+            occurrences.add(cursor.getTimeMillis());
+        }
+        return occurrences;
+    }
+
+    // Starts from 2018 to 2027, often on a DST change day and at a time that may be skipped.
+    private static ZonedDateTime randomStart(Random random, ZoneId zone) {
+        LocalDate date = LocalDate.of(2018 + random.nextInt(10), 1 + random.nextInt(12), 1 + random.nextInt(28));
+        LocalTime time = random.nextBoolean()
+                ? LocalTime.of(random.nextInt(4), 30 * random.nextInt(2))
+                : LocalTime.of(random.nextInt(24), random.nextInt(60), random.nextInt(60));
+        return ZonedDateTime.of(date, time, zone);
+    }
+
+    private static List<String> local(ZoneId zone, String start, String rule, int limit) {
+        List<String> dates = new ArrayList<>();
+        for (ZonedDateTime occurrence : occurrences(zone, start, rule, limit)) {
+            dates.add(occurrence.toLocalDateTime().toString());
+        }
+        return dates;
+    }
+
+    private static List<String> zoned(ZoneId zone, String start, String rule, int limit) {
+        List<String> dates = new ArrayList<>();
+        for (ZonedDateTime occurrence : occurrences(zone, start, rule, limit)) {
+            dates.add(occurrence.toOffsetDateTime().toString());
+        }
+        return dates;
+    }
+
+    private static List<ZonedDateTime> occurrences(ZoneId zone, String start, String rule, int limit) {
+        OccurrenceCursor cursor = new OccurrenceCursor(zone);
+        cursor.reset(1, ZonedDateTime.of(LocalDateTime.parse(start), zone).toInstant().toEpochMilli(),
+                RecurrenceRule.parse(rule));
+        List<ZonedDateTime> occurrences = new ArrayList<>();
+        for (long millis : walk(cursor, limit)) {
+            occurrences.add(ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), zone));
+        }
+        return occurrences;
+    }
+}
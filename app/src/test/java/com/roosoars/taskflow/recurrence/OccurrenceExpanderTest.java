@@ -0,0 +1,65 @@
+package com.roosoars.taskflow.recurrence;
+
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class OccurrenceExpanderTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/London");
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final String[] RULES = {
+            null, "FREQ=DAILY", "FREQ=WEEKLY;BYDAY=MO,TH", "FREQ=MONTHLY;BYMONTHDAY=-1",
+            "FREQ=DAILY;INTERVAL=7;COUNT=5", "FREQ=YEARLY"
+    };
+
+    // Many series over a year with DST changes, against each series walked on its own and merged.
+    @Test
+    public void expand_mergesEverySeriesInTimeOrder() {
+        Random random = new Random(21);
+        long from = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZONE).toInstant().toEpochMilli();
+        long to = from + 366 * DAY;
+        OccurrenceExpander expander = new OccurrenceExpander(ZONE);
+        List<long[]> expected = new ArrayList<>();
+        OccurrenceCursor cursor = new OccurrenceCursor(ZONE);
+        for (long taskId = 1; taskId <= 300; taskId++) {
+            long start = from - 60 * DAY + (long) (random.nextDouble() * 400 * DAY);
+            RecurrenceRule rule = RecurrenceRule.tryParse(RULES[random.nextInt(RULES.length)]);
+            expander.add(taskId, start, rule);
+            cursor.reset(taskId, start, rule);
+            while (cursor.moveToNext() && cursor.getTimeMillis() < to) {
+                if (cursor.getTimeMillis() >= from) {
+                    expected.add(new long[]{cursor.getTimeMillis(), taskId});
+                }
+            }
+        }
+        expected.sort(Comparator.<long[]>comparingLong(occurrence -> occurrence[0])
+                .thenComparingLong(occurrence -> occurrence[1]));
+
+        List<long[]> actual = new ArrayList<>();
+        int count = expander.expand(from, to, (taskId, timeMillis) -> actual.add(new long[]{timeMillis, taskId}));
+
+        assertEquals(expected.size(), count);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i)[0], actual.get(i)[0]);
+            assertEquals(expected.get(i)[1], actual.get(i)[1]);
+        }
+    }
+
+    @Test
+    public void nextOccurrence_isTheSecondOneOrNone() {
+        long start = ZonedDateTime.of(2024, 3, 30, 1, 30, 0, 0, ZONE).toInstant().toEpochMilli();
+
+        assertEquals(ZonedDateTime.of(2024, 3, 31, 2, 30, 0, 0, ZONE).toInstant().toEpochMilli(),
+                OccurrenceExpander.nextOccurrence(start, RecurrenceRule.parse("FREQ=DAILY"), ZONE));
+        assertEquals(-1, OccurrenceExpander.nextOccurrence(start, RecurrenceRule.parse("FREQ=DAILY;COUNT=1"), ZONE));
+    }
+}
@@ -0,0 +1,81 @@
+package com.roosoars.taskflow.recurrence;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+
+public class RecurrenceRuleTest {
+
+    @Test
+    public void parse_readsEveryPartAndPrintsItCanonically() {
+        RecurrenceRule rule = RecurrenceRule.parse("RRULE:freq=weekly;byday=fr,mo;interval=2;count=5");
+
+        assertEquals(RecurrenceRule.Frequency.WEEKLY, rule.getFrequency());
+        assertEquals(2, rule.getInterval());
+        assertEquals(1 | 1 << 4, rule.getWeekdays());
+        assertEquals(5, rule.getCount());
+        assertEquals("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,FR;COUNT=5", rule.toString());
+        assertEquals(rule, RecurrenceRule.parse(rule.toString()));
+    }
+
+    @Test
+    public void parse_lastDayOfMonth() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=-1");
+
+        assertEquals(RecurrenceRule.LAST_DAY_OF_MONTH, rule.getMonthDay());
+        assertEquals("FREQ=MONTHLY;BYMONTHDAY=-1", rule.toString());
+    }
+
+    @Test
+    public void parse_untilDate_isTheLastSecondOfThatDayInUtc() {
+        RecurrenceRule date = RecurrenceRule.parse("FREQ=DAILY;UNTIL=20240310");
+        RecurrenceRule dateTime = RecurrenceRule.parse("FREQ=DAILY;UNTIL=20240310T120000Z");
+
+        assertEquals(utc(2024, 3, 10, 23, 59, 59), date.getUntilMillis());
+        assertEquals(utc(2024, 3, 10, 12, 0, 0), dateTime.getUntilMillis());
+        assertEquals("FREQ=DAILY;UNTIL=20240310T120000Z", dateTime.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_rejectsCountWithUntil() {
+        RecurrenceRule.parse("FREQ=DAILY;COUNT=2;UNTIL=20240310");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_rejectsByDayOutsideWeeklyRules() {
+        RecurrenceRule.parse("FREQ=MONTHLY;BYDAY=MO");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_rejectsMonthDaysOutOfRange() {
+        RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=32");
+    }
+
+    @Test
+    public void tryParse_ofBlankOrUnsupportedRules_isNull() {
+        assertNull(RecurrenceRule.tryParse(null));
+        assertNull(RecurrenceRule.tryParse(" "));
+        assertNull(RecurrenceRule.tryParse("FREQ=HOURLY"));
+        assertNull(RecurrenceRule.tryParse("FREQ=DAILY;BYSETPOS=1"));
+    }
+
+    @Test
+    public void afterFirstOccurrence_countsDownToNull() {
+        RecurrenceRule unbounded = RecurrenceRule.parse("FREQ=DAILY");
+        RecurrenceRule two = RecurrenceRule.parse("FREQ=DAILY;COUNT=2");
+
+        assertSame(unbounded, unbounded.afterFirstOccurrence());
+        assertEquals(RecurrenceRule.parse("FREQ=DAILY;COUNT=1"), two.afterFirstOccurrence());
+        assertNull(two.afterFirstOccurrence().afterFirstOccurrence());
+    }
+
+    private static long utc(int year, int month, int day, int hour, int minute, int second) {
+        return LocalDateTime.of(year, month, day, hour, minute, second).toEpochSecond(ZoneOffset.UTC) * 1000;
+    }
+}
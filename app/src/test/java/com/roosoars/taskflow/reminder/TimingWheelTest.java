@@ -0,0 +1,160 @@
+package com.roosoars.taskflow.reminder;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Drives the wheel with a fake clock, the {@code now} given to each call, against a map of the
+ * reminders that should still be pending.
+ */
+public class TimingWheelTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long DAY = 24 * 60 * MINUTE;
+    private static final long START = 28_333_333L * MINUTE;
+
+    private final List<Long> expiredIds = new ArrayList<>();
+    private final List<Long> expiredDeadlines = new ArrayList<>();
+    private final TimingWheel.Visitor recorder = (id, deadlineMillis) -> {
+        expiredIds.add(id);
+        expiredDeadlines.add(deadlineMillis);
+    };
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tickMustBePositive() {
+        new TimingWheel(0, START);
+    }
+
+    @Test
+    public void expiresOnlyOnceTheirTickIsReached() {
+        TimingWheel wheel = new TimingWheel(MINUTE, START);
+        wheel.schedule(1, START + 5 * MINUTE);
+        wheel.schedule(2, START + 2 * DAY);
+
+        assertEquals(0, wheel.advanceTo(START + 5 * MINUTE - 1, recorder));
+        assertEquals(1, wheel.advanceTo(START + 5 * MINUTE, recorder));
+        assertEquals(List.of(1L), expiredIds);
+        assertEquals(List.of(START + 5 * MINUTE), expiredDeadlines);
+
+        assertEquals(0, wheel.advanceTo(START + 2 * DAY - MINUTE, recorder));
+        assertEquals(1, wheel.advanceTo(START + 3 * DAY, recorder));
+        assertEquals(List.of(1L, 2L), expiredIds);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void pastDeadline_expiresOnTheNextAdvance() {
+        TimingWheel wheel = new TimingWheel(MINUTE, START);
+        wheel.schedule(7, START - DAY);
+
+        assertEquals(1, wheel.advanceTo(START, recorder));
+        assertEquals(List.of(7L), expiredIds);
+    }
+
+    @Test
+    public void rescheduleReplacesAndCancelRemoves() {
+        TimingWheel wheel = new TimingWheel(MINUTE, START);
+        wheel.schedule(1, START + MINUTE);
+        wheel.schedule(1, START + 10 * MINUTE);
+        wheel.schedule(2, START + 2 * MINUTE);
+
+        assertTrue(wheel.cancel(2));
+        assertFalse(wheel.cancel(2));
+        assertEquals(0, wheel.advanceTo(START + 9 * MINUTE, recorder));
+        assertEquals(1, wheel.advanceTo(START + 10 * MINUTE, recorder));
+        assertEquals(List.of(1L), expiredIds);
+        assertFalse(wheel.contains(1));
+    }
+
+    @Test
+    public void nextDeadline_isNeverLaterThanTheNextReminder() {
+        TimingWheel wheel = new TimingWheel(MINUTE, START);
+        assertEquals(-1, wheel.nextDeadline());
+
+        wheel.schedule(1, START + 300 * DAY);
+        wheel.schedule(2, START + 3 * DAY + 17 * MINUTE);
+        wheel.schedule(3, START + 45 * MINUTE);
+        assertEquals(START + 45 * MINUTE, wheel.nextDeadline());
+
+        wheel.advanceTo(START + 45 * MINUTE, recorder);
+        assertEquals(START + 3 * DAY + 17 * MINUTE, wheel.nextDeadline());
+
+        wheel.clear();
+        assertEquals(-1, wheel.nextDeadline());
+        assertEquals(0, wheel.advanceTo(START + 400 * DAY, recorder));
+    }
+
+    // Random schedules, cancels and jumps of the clock, from a minute to months, checked against
+    // the deadlines still pending: each advance expires exactly the due ones, earliest tick first.
+    @Test
+    public void randomSchedule_matchesTheExpectedExpiries() {
+        Random random = new Random(22);
+        TimingWheel wheel = new TimingWheel(MINUTE, START);
+        Map<Long, Long> pending = new HashMap<>();
+        long now = START;
+
+        for (int round = 0; round < 2_000; round++) {
+            for (int i = random.nextInt(20); i > 0; i--) {
+                long id = random.nextInt(500);
+                if (random.nextInt(4) == 0) {
+                    assertEquals(pending.remove(id) != null, wheel.cancel(id));
+                } else {
+                    long deadline = now + (long) (random.nextDouble() * randomSpan(random)) - MINUTE;
+                    wheel.schedule(id, deadline);
+                    pending.put(id, deadline);
+                }
+            }
+            long startTick = now / MINUTE;
+            now += (long) (random.nextDouble() * randomSpan(random));
+
+            Set<Long> due = new HashSet<>();
+            for (Map.Entry<Long, Long> entry : pending.entrySet()) {
+                if (entry.getValue() / MINUTE <= now / MINUTE) {
+                    due.add(entry.getKey());
+                }
+            }
+            expiredIds.clear();
+            expiredDeadlines.clear();
+
+            assertEquals(due.size(), wheel.advanceTo(now, recorder));
+            assertEquals(due, new HashSet<>(expiredIds));
+            long previousTick = startTick;
+            for (long deadline : expiredDeadlines) {
+                long tick = Math.max(deadline / MINUTE, startTick);
+                assertTrue(tick >= previousTick);
+                previousTick = tick;
+            }
+            pending.keySet().removeAll(due);
+            assertEquals(pending.size(), wheel.size());
+            if (!pending.isEmpty()) {
+                long next = pending.values().stream().mapToLong(Long::longValue).min().getAsLong();
+                assertTrue(wheel.nextDeadline() <= next);
+            }
+        }
+    }
+
+    private static long randomSpan(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return 10 * MINUTE;
+            case 1:
+                return DAY;
+            case 2:
+                return 30 * DAY;
+            default:
+                return 365 * DAY;
+        }
+    }
+}
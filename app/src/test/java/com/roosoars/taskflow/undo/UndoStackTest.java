@@ -0,0 +1,185 @@
+package com.roosoars.taskflow.undo;
+
+import com.roosoars.taskflow.model.Task;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+public class UndoStackTest {
+
+    @Test
+    public void push_pastMaxEdits_dropsTheOldest() {
+        UndoStack stack = new UndoStack(3, Long.MAX_VALUE);
+        List<TaskEdit> edits = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            TaskEdit edit = reschedule(i);
+            edits.add(edit);
+            assertTrue(stack.push(edit));
+        }
+
+        assertEquals(3, stack.size());
+        assertEquals(bytesOf(edits.subList(2, 5)), stack.getSizeBytes());
+        assertSame(edits.get(4), stack.undo());
+        assertSame(edits.get(3), stack.undo());
+        assertSame(edits.get(2), stack.undo());
+        assertNull(stack.undo());
+    }
+
+    @Test
+    public void push_pastMaxBytes_dropsTheOldestUntilItFits() {
+        TaskEdit small = reschedule(1);
+        TaskEdit big = reschedule(100);
+        UndoStack stack = new UndoStack(100, big.getSizeBytes() + small.getSizeBytes());
+
+        assertTrue(stack.push(small));
+        assertTrue(stack.push(reschedule(1)));
+        assertTrue(stack.push(big));
+
+        assertEquals(2, stack.size());
+        assertEquals(big.getSizeBytes() + small.getSizeBytes(), stack.getSizeBytes());
+        assertSame(big, stack.undo());
+    }
+
+    @Test
+    public void push_dropsTheRedoHistoryAndItsBytes() {
+        UndoStack stack = new UndoStack(10, Long.MAX_VALUE);
+        TaskEdit first = reschedule(1);
+        stack.push(first);
+        stack.push(reschedule(20));
+        stack.undo();
+        assertTrue(stack.canRedo());
+
+        TaskEdit next = reschedule(3);
+        stack.push(next);
+
+        assertFalse(stack.canRedo());
+        assertEquals(2, stack.size());
+        assertEquals(first.getSizeBytes() + next.getSizeBytes(), stack.getSizeBytes());
+    }
+
+    @Test
+    public void undoAndRedo_moveEditsWithoutChangingTheBytes() {
+        UndoStack stack = new UndoStack(10, Long.MAX_VALUE);
+        TaskEdit edit = reschedule(4);
+        stack.push(edit);
+
+        assertSame(edit, stack.undo());
+        assertFalse(stack.canUndo());
+        assertEquals(edit.getSizeBytes(), stack.getSizeBytes());
+        assertSame(edit, stack.redo());
+        assertNull(stack.redo());
+        assertEquals(edit.getSizeBytes(), stack.getSizeBytes());
+    }
+
+    // The edits before one that cannot be undone were made on tasks it has since changed.
+    @Test
+    public void push_ofAnEditOverTheBudget_isRejectedAndClearsTheHistory() {
+        TaskEdit huge = reschedule(1_000);
+        UndoStack stack = new UndoStack(10, huge.getSizeBytes() - 1);
+        stack.push(reschedule(1));
+        stack.push(reschedule(2));
+        stack.undo();
+
+        assertFalse(stack.push(huge));
+
+        assertFalse(stack.canUndo());
+        assertFalse(stack.canRedo());
+        assertEquals(0, stack.size());
+        assertEquals(0, stack.getSizeBytes());
+    }
+
+    @Test
+    public void delete_keepsItsOwnCopiesOfTheTasks() {
+        Task task = new Task("draft", new Date(1_000), 2, 7L, "regular");
+        task.setId(5);
+        TaskEdit edit = TaskEdit.delete(Collections.singletonList(task));
+        task.setTitle("changed after the delete");
+
+        RecordingEditor editor = new RecordingEditor();
+        edit.undo(editor);
+        edit.undo(editor);
+
+        assertEquals(2, editor.inserted.size());
+        for (Task inserted : editor.inserted) {
+            assertNotSame(task, inserted);
+            assertEquals(5, inserted.getId());
+            assertEquals("draft", inserted.getTitle());
+        }
+        // The first undo's insert changed its tasks, not what the second one inserts.
+        assertEquals(List.of(7L, 7L), editor.insertedCategoryIds);
+        assertNotSame(editor.inserted.get(0), editor.inserted.get(1));
+    }
+
+    private static TaskEdit reschedule(int tasks) {
+        List<Task> list = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            Task task = new Task();
+            task.setId(i + 1);
+            list.add(task);
+        }
+        return TaskEdit.reschedule(list, 60_000);
+    }
+
+    private static long bytesOf(List<TaskEdit> edits) {
+        long bytes = 0;
+        for (TaskEdit edit : edits) {
+            bytes += edit.getSizeBytes();
+        }
+        return bytes;
+    }
+
+    // Changes what it inserts, as TransactionEditor uncategorizes tasks of deleted categories.
+    private static final class RecordingEditor implements TaskEditor {
+        final List<Task> inserted = new ArrayList<>();
+        final List<Long> insertedCategoryIds = new ArrayList<>();
+
+        @Override
+        public void insert(List<Task> tasks) {
+            for (Task task : tasks) {
+                inserted.add(task);
+                insertedCategoryIds.add(task.getCategoryId());
+                task.setCategoryId(null);
+            }
+        }
+
+        @Override
+        public void delete(long[] taskIds) {
+        }
+
+        @Override
+        public void setCompleted(long[] taskIds, boolean completed) {
+        }
+
+        @Override
+        public void complete(long[] taskIds) {
+        }
+
+        @Override
+        public void setRecurrenceRule(long[] taskIds, String recurrenceRule) {
+        }
+
+        @Override
+        public void setPriority(long[] taskIds, int priority) {
+        }
+
+        @Override
+        public void setCategory(long[] taskIds, Long categoryId) {
+        }
+
+        @Override
+        public void shiftDueDates(long[] taskIds, long offsetMillis) {
+        }
+    }
+}
@@ -0,0 +1,71 @@
+// JVM-only JMH benchmarks for the parts of the app that do not need a device.
+// Run with ./gradlew :benchmark:jmh; results land in build/results/jmh/results.json.
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_18
+    targetCompatibility = JavaVersion.VERSION_18
+}
+
+// Compile the plain-Java app sources directly instead of depending on the Android module.
+val appSources = "../app/src/main/java"
+
+sourceSets {
+    main {
+        java {
+            srcDir(appSources)
+            include(
+                "android/**",
+                "androidx/**",
+                "com/roosoars/taskflow/model/**",
+                "com/roosoars/taskflow/builder/**",
+                "com/roosoars/taskflow/changes/ChangeBatch.java",
+                "com/roosoars/taskflow/changes/ChangeLogSchema.java",
+                "com/roosoars/taskflow/changes/DueDateIndex.java",
+                "com/roosoars/taskflow/factory/**",
+                "com/roosoars/taskflow/observer/**",
+                "com/roosoars/taskflow/recurrence/**",
+                "com/roosoars/taskflow/reminder/TimingWheel.java",
+                "com/roosoars/taskflow/db/Converters.java",
+                "com/roosoars/taskflow/db/TaskQuery.java",
+                "com/roosoars/taskflow/db/TaskPageKey.java",
+                "com/roosoars/taskflow/db/TaskSearch.java",
+                "com/roosoars/taskflow/ui/adapters/TaskDiff.java",
+                "com/roosoars/taskflow/ui/adapters/TaskRowModel.java",
+                "com/roosoars/taskflow/ui/decorators/TaskStatus.java",
+                "com/roosoars/taskflow/backup/**",
+                "com/roosoars/taskflow/sync/**",
+                "com/roosoars/taskflow/undo/**"
+            )
+            exclude(
+                "com/roosoars/taskflow/observer/TaskStatusClock.java",
+                "com/roosoars/taskflow/backup/TaskExporter.java",
+                "com/roosoars/taskflow/backup/TaskImporter.java",
+                "com/roosoars/taskflow/sync/TaskSyncStore.java",
+                "com/roosoars/taskflow/sync/SyncManager.java"
+            )
+        }
+    }
+}
+
+dependencies {
+    implementation(libs.room.common)
+    implementation(libs.androidx.annotation)
+    implementation(libs.androidx.lifecycle.common)
+
+    jmh(libs.jmh.core)
+    jmh(libs.sqlite.jdbc)
+    jmhAnnotationProcessor(libs.jmh.generator.annprocess)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
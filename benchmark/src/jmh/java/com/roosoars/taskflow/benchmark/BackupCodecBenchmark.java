@@ -0,0 +1,92 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.backup.BackupFormat;
+import com.roosoars.taskflow.backup.BackupReader;
+import com.roosoars.taskflow.backup.BackupSink;
+import com.roosoars.taskflow.backup.BackupWriter;
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/** Export and import throughput of each backup format, reported in tasks per second. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BackupCodecBenchmark {
+
+    private static final int TASKS = 100_000;
+
+    @Param({"NDJSON", "CSV", "BINARY"})
+    public BackupFormat format;
+
+    private List<Category> categories;
+    private List<Task> tasks;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        TaskGenerator generator = new TaskGenerator(3);
+        categories = generator.categories();
+        tasks = generator.tasks(TASKS);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out);
+        encoded = out.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public void export() throws IOException {
+        write(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public long importTasks() throws IOException {
+        long[] count = new long[1];
+        BackupSink sink = new BackupSink() {
+            @Override
+            public void onCategory(Category category) {
+                count[0]++;
+            }
+
+            @Override
+            public void onTask(Task task) {
+                count[0] += task.getPriority();
+            }
+        };
+        try (BackupReader reader = format.newReader(new ByteArrayInputStream(encoded))) {
+            while (reader.next(sink)) {
+                // Every record goes through the sink.
+            }
+        }
+        return count[0];
+    }
+
+    private void write(OutputStream out) throws IOException {
+        try (BackupWriter writer = format.newWriter(out)) {
+            for (Category category : categories) {
+                writer.writeCategory(category);
+            }
+            for (Task task : tasks) {
+                writer.writeTask(task);
+            }
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.changes.ChangeLogSchema;
+import com.roosoars.taskflow.db.Converters;
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.model.TaskChange;
+import com.roosoars.taskflow.model.TaskSchedule;
+import com.roosoars.taskflow.model.TaskSearchHit;
+import com.roosoars.taskflow.model.TaskWithCategory;
+import com.roosoars.taskflow.sync.SyncSchema;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * In-memory SQLite database (sqlite-jdbc) with the schema Room creates for AppDatabase version 8
+ * and the SQL the generated DAOs run, so queries can be timed on the JVM. Rows are mapped into
+ * entities the way the generated cursor code does, and statements are cached per SQL string like
+ * the framework's per-connection statement cache.
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+
+    // Keep in sync with the entities and migrations in AppDatabase.
+    private static final String[] TABLES = {
+            "CREATE TABLE IF NOT EXISTS `tasks` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                    + " `title` TEXT, `description` TEXT, `dueDate` INTEGER, `priority` INTEGER NOT NULL,"
+                    + " `categoryId` INTEGER, `completed` INTEGER NOT NULL, `type` TEXT, `recurrenceRule` TEXT,"
+                    + " FOREIGN KEY(`categoryId`) REFERENCES `categories`(`id`)"
+                    + " ON UPDATE NO ACTION ON DELETE SET NULL )",
+            "CREATE TABLE IF NOT EXISTS `categories` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                    + " `name` TEXT, `color` INTEGER NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS `task_changes` (`seq` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                    + " `taskId` INTEGER NOT NULL, `op` INTEGER NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS `index_task_changes_taskId_seq` ON `task_changes` (`taskId`, `seq`)",
+            "CREATE TABLE IF NOT EXISTS `change_cursors` (`name` TEXT NOT NULL, `seq` INTEGER NOT NULL,"
+                    + " PRIMARY KEY(`name`))"
+    };
+
+    // Created after seeding: building indices and the FTS table once over the loaded rows is
+    // much faster than maintaining them row by row, and leaves the same database.
+    private static final String[] INDICES_AND_FTS = {
+            "CREATE INDEX IF NOT EXISTS `index_tasks_completed_dueDate` ON `tasks` (`completed`, `dueDate`)",
+            "CREATE INDEX IF NOT EXISTS `index_tasks_completed_priority` ON `tasks` (`completed`, `priority`)",
+            "CREATE INDEX IF NOT EXISTS `index_tasks_completed_categoryId` ON `tasks` (`completed`, `categoryId`)",
+            "CREATE INDEX IF NOT EXISTS `index_tasks_categoryId_dueDate` ON `tasks` (`categoryId`, `dueDate`)",
+            "CREATE INDEX IF NOT EXISTS `index_tasks_type_dueDate` ON `tasks` (`type`, `dueDate`)",
+            "CREATE VIRTUAL TABLE IF NOT EXISTS `tasks_fts` USING FTS4("
+                    + "`title` TEXT, `description` TEXT, tokenize=unicode61, content=`tasks`, prefix=`1,2`, order=DESC)",
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_tasks_fts_BEFORE_UPDATE"
+                    + " BEFORE UPDATE ON `tasks` BEGIN DELETE FROM `tasks_fts` WHERE `docid`=OLD.`rowid`; END",
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_tasks_fts_BEFORE_DELETE"
+                    + " BEFORE DELETE ON `tasks` BEGIN DELETE FROM `tasks_fts` WHERE `docid`=OLD.`rowid`; END",
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_tasks_fts_AFTER_UPDATE"
+                    + " AFTER UPDATE ON `tasks` BEGIN INSERT INTO `tasks_fts`(`docid`, `title`, `description`)"
+                    + " VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`); END",
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_tasks_fts_AFTER_INSERT"
+                    + " AFTER INSERT ON `tasks` BEGIN INSERT INTO `tasks_fts`(`docid`, `title`, `description`)"
+                    + " VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`); END",
+            "INSERT INTO `tasks_fts`(`tasks_fts`) VALUES ('rebuild')",
+            "ANALYZE"
+    };
+
+    // The statements Room generates for the @Insert, @Update and @Delete methods.
+    static final String INSERT_TASK = "INSERT OR ABORT INTO `tasks` (`id`,`title`,`description`,"
+            + "`dueDate`,`priority`,`categoryId`,`completed`,`type`,`recurrenceRule`)"
+            + " VALUES (nullif(?, 0),?,?,?,?,?,?,?,?)";
+    static final String UPDATE_TASK = "UPDATE OR ABORT `tasks` SET `id` = ?,`title` = ?,"
+            + "`description` = ?,`dueDate` = ?,`priority` = ?,`categoryId` = ?,`completed` = ?,"
+            + "`type` = ?,`recurrenceRule` = ? WHERE `id` = ?";
+    static final String DELETE_TASK = "DELETE FROM `tasks` WHERE `id` = ?";
+    // TaskDao.insertAll, which skips ids already taken.
+    static final String INSERT_TASK_OR_IGNORE = INSERT_TASK.replace("OR ABORT", "OR IGNORE");
+    private static final String INSERT_CATEGORY = "INSERT OR ABORT INTO `categories` (`id`,`name`,`color`)"
+            + " VALUES (nullif(?, 0),?,?)";
+
+    private static final int SEED_BATCH = 10_000;
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    private BenchmarkDatabase(Connection connection) {
+        this.connection = connection;
+    }
+
+    /** A fresh database with {@code taskCount} generated tasks spread over the generated categories. */
+    public static BenchmarkDatabase seeded(int taskCount, long seed) throws SQLException {
+        BenchmarkDatabase database = new BenchmarkDatabase(DriverManager.getConnection("jdbc:sqlite::memory:"));
+        try (Statement statement = database.connection.createStatement()) {
+            statement.execute("PRAGMA foreign_keys = ON");
+            for (String sql : TABLES) {
+                statement.execute(sql);
+            }
+            database.seed(taskCount, new TaskGenerator(seed));
+            for (String sql : INDICES_AND_FTS) {
+                statement.execute(sql);
+            }
+            // As MIGRATION_4_5 leaves a database that had tasks.
+            for (String sql : SyncSchema.CREATE) {
+                statement.execute(sql);
+            }
+            for (String sql : SyncSchema.BACKFILL) {
+                statement.execute(sql);
+            }
+            // As MIGRATION_5_6: the log starts empty.
+            for (String sql : ChangeLogSchema.TRIGGERS) {
+                statement.execute(sql);
+            }
+        }
+        return database;
+    }
+
+    private void seed(int taskCount, TaskGenerator generator) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            for (Category category : generator.categories()) {
+                insertCategory(category);
+            }
+            PreparedStatement insert = statement(INSERT_TASK);
+            for (int i = 1; i <= taskCount; i++) {
+                bindTask(insert, generator.task(i));
+                insert.addBatch();
+                if (i % SEED_BATCH == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    public long insertCategory(Category category) throws SQLException {
+        PreparedStatement insert = statement(INSERT_CATEGORY);
+        insert.setLong(1, category.getId());
+        insert.setString(2, category.getName());
+        insert.setInt(3, category.getColor());
+        insert.executeUpdate();
+        return queryLong("SELECT last_insert_rowid()");
+    }
+
+    public PreparedStatement statement(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    public PreparedStatement bind(String sql, Object... args) throws SQLException {
+        PreparedStatement statement = statement(sql);
+        statement.clearParameters();
+        for (int i = 0; i < args.length; i++) {
+            statement.setObject(i + 1, args[i]);
+        }
+        return statement;
+    }
+
+    /** Expands a Room {@code IN (:ids)} parameter into one placeholder per id. */
+    public static String expandIds(String sql, int count) {
+        StringBuilder placeholders = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            placeholders.append(i == 0 ? "?" : ",?");
+        }
+        return sql.replace(":ids", placeholders);
+    }
+
+    public List<Task> queryTasks(String sql, Object... args) throws SQLException {
+        try (ResultSet rows = bind(sql, args).executeQuery()) {
+            int id = rows.findColumn("id");
+            int title = rows.findColumn("title");
+            int description = rows.findColumn("description");
+            int dueDate = rows.findColumn("dueDate");
+            int priority = rows.findColumn("priority");
+            int categoryId = rows.findColumn("categoryId");
+            int completed = rows.findColumn("completed");
+            int type = rows.findColumn("type");
+            int recurrenceRule = rows.findColumn("recurrenceRule");
+            List<Task> tasks = new ArrayList<>();
+            while (rows.next()) {
+                tasks.add(readTask(rows, id, title, description, dueDate, priority, categoryId,
+                        completed, type, recurrenceRule));
+            }
+            return tasks;
+        }
+    }
+
+    public List<TaskWithCategory> queryTasksWithCategory(String sql, Object... args) throws SQLException {
+        try (ResultSet rows = bind(sql, args).executeQuery()) {
+            int id = rows.findColumn("id");
+            int title = rows.findColumn("title");
+            int description = rows.findColumn("description");
+            int dueDate = rows.findColumn("dueDate");
+            int priority = rows.findColumn("priority");
+            int categoryId = rows.findColumn("categoryId");
+            int completed = rows.findColumn("completed");
+            int type = rows.findColumn("type");
+            int recurrenceRule = rows.findColumn("recurrenceRule");
+            int categoryRowId = rows.findColumn("category_id");
+            int categoryName = rows.findColumn("category_name");
+            int categoryColor = rows.findColumn("category_color");
+            List<TaskWithCategory> result = new ArrayList<>();
+            while (rows.next()) {
+                Task task = readTask(rows, id, title, description, dueDate, priority, categoryId,
+                        completed, type, recurrenceRule);
+                Category category = null;
+                // Room leaves an embedded object null when all of its columns are null.
+                rows.getLong(categoryRowId);
+                if (!rows.wasNull()) {
+                    category = new Category(rows.getString(categoryName), rows.getInt(categoryColor));
+                    category.setId(rows.getLong(categoryRowId));
+                }
+                result.add(new TaskWithCategory(task, category));
+            }
+            return result;
+        }
+    }
+
+    public List<Category> queryCategories(String sql, Object... args) throws SQLException {
+        try (ResultSet rows = bind(sql, args).executeQuery()) {
+            List<Category> categories = new ArrayList<>();
+            while (rows.next()) {
+                Category category = new Category(rows.getString("name"), rows.getInt("color"));
+                category.setId(rows.getLong("id"));
+                categories.add(category);
+            }
+            return categories;
+        }
+    }
+
+    public List<TaskChange> queryChanges(String sql, Object... args) throws SQLException {
+        try (ResultSet rows = bind(sql, args).executeQuery()) {
+            List<TaskChange> changes = new ArrayList<>();
+            while (rows.next()) {
+                TaskChange change = new TaskChange(rows.getLong("taskId"), rows.getInt("op"));
+                change.setSeq(rows.getLong("seq"));
+                changes.add(change);
+            }
+            return changes;
+        }
+    }
+
+    public List<TaskSchedule> querySchedules(String sql, Object... args) throws SQLException {
+        try (ResultSet rows = bind(sql, args).executeQuery()) {
+            List<TaskSchedule> schedules = new ArrayList<>();
+            while (rows.next()) {
+                schedules.add(new TaskSchedule(rows.getLong(1), rows.getLong(2), rows.getString(3)));
+            }
+            return schedules;
+        }
+    }
+
+    public List<TaskSearchHit> querySearchHits(String sql, Object... args) throws SQLException {
+        try (ResultSet rows = bind(sql, args).executeQuery()) {
+            List<TaskSearchHit> hits = new ArrayList<>();
+            while (rows.next()) {
+                hits.add(new TaskSearchHit(rows.getLong(1), rows.getBytes(2)));
+            }
+            return hits;
+        }
+    }
+
+    public int queryInt(String sql, Object... args) throws SQLException {
+        try (ResultSet rows = bind(sql, args).executeQuery()) {
+            return rows.next() ? rows.getInt(1) : 0;
+        }
+    }
+
+    public long queryLong(String sql, Object... args) throws SQLException {
+        try (ResultSet rows = bind(sql, args).executeQuery()) {
+            return rows.next() ? rows.getLong(1) : 0;
+        }
+    }
+
+    public List<Long> queryLongs(String sql, Object... args) throws SQLException {
+        try (ResultSet rows = bind(sql, args).executeQuery()) {
+            List<Long> values = new ArrayList<>();
+            while (rows.next()) {
+                values.add(rows.getLong(1));
+            }
+            return values;
+        }
+    }
+
+    /** Rows of a {@code groupKey, count} query; a null key is kept as null. */
+    public Map<Long, Integer> queryGroupCounts(String sql, Object... args) throws SQLException {
+        try (ResultSet rows = bind(sql, args).executeQuery()) {
+            Map<Long, Integer> counts = new HashMap<>();
+            while (rows.next()) {
+                long key = rows.getLong(1);
+                counts.put(rows.wasNull() ? null : key, rows.getInt(2));
+            }
+            return counts;
+        }
+    }
+
+    public int update(String sql, Object... args) throws SQLException {
+        return bind(sql, args).executeUpdate();
+    }
+
+    public long insertTask(Task task) throws SQLException {
+        PreparedStatement insert = statement(INSERT_TASK);
+        bindTask(insert, task);
+        insert.executeUpdate();
+        try (ResultSet keys = insert.getGeneratedKeys()) {
+            return keys.next() ? keys.getLong(1) : -1;
+        }
+    }
+
+    /** Inserts the tasks in one batch, as TaskDao.insertAll; -1 in place of each one skipped. */
+    public long[] insertTasksOrIgnore(List<Task> tasks) throws SQLException {
+        PreparedStatement insert = statement(INSERT_TASK_OR_IGNORE);
+        for (Task task : tasks) {
+            bindTask(insert, task);
+            insert.addBatch();
+        }
+        int[] counts = insert.executeBatch();
+        long[] rowIds = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            rowIds[i] = counts[i] > 0 ? tasks.get(i).getId() : -1;
+        }
+        return rowIds;
+    }
+
+    public int updateTask(Task task) throws SQLException {
+        PreparedStatement update = statement(UPDATE_TASK);
+        bindTask(update, task);
+        update.setLong(10, task.getId());
+        return update.executeUpdate();
+    }
+
+    public int deleteTask(Task task) throws SQLException {
+        PreparedStatement delete = statement(DELETE_TASK);
+        delete.setLong(1, task.getId());
+        return delete.executeUpdate();
+    }
+
+    public void beginTransaction() throws SQLException {
+        connection.setAutoCommit(false);
+    }
+
+    public void endTransaction() throws SQLException {
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    private static void bindTask(PreparedStatement statement, Task task) throws SQLException {
+        statement.setLong(1, task.getId());
+        statement.setString(2, task.getTitle());
+        statement.setString(3, task.getDescription());
+        Long dueDate = Converters.dateToTimestamp(task.getDueDate());
+        if (dueDate == null) {
+            statement.setNull(4, Types.INTEGER);
+        } else {
+            statement.setLong(4, dueDate);
+        }
+        statement.setInt(5, task.getPriority());
+        if (task.getCategoryId() == null) {
+            statement.setNull(6, Types.INTEGER);
+        } else {
+            statement.setLong(6, task.getCategoryId());
+        }
+        statement.setInt(7, task.isCompleted() ? 1 : 0);
+        statement.setString(8, task.getType());
+        statement.setString(9, task.getRecurrenceRule());
+    }
+
+    private static Task readTask(ResultSet rows, int id, int title, int description, int dueDate,
+                                 int priority, int categoryId, int completed, int type,
+                                 int recurrenceRule)
+            throws SQLException {
+        Task task = new Task();
+        task.setId(rows.getLong(id));
+        task.setTitle(rows.getString(title));
+        task.setDescription(rows.getString(description));
+        long due = rows.getLong(dueDate);
+        task.setDueDate(rows.wasNull() ? null : Converters.fromTimestamp(due));
+        task.setPriority(rows.getInt(priority));
+        long category = rows.getLong(categoryId);
+        task.setCategoryId(rows.wasNull() ? null : category);
+        task.setCompleted(rows.getInt(completed) != 0);
+        task.setType(rows.getString(type));
+        task.setRecurrenceRule(rows.getString(recurrenceRule));
+        return task;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        for (PreparedStatement statement : statements.values()) {
+            statement.close();
+        }
+        statements.clear();
+        connection.close();
+    }
+}
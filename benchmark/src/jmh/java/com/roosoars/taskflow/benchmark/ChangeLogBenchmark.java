@@ -0,0 +1,165 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.changes.ChangeBatch;
+import com.roosoars.taskflow.changes.DueDateIndex;
+import com.roosoars.taskflow.model.TaskSchedule;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The overdue badge as a change log consumer (OverdueCounter) against the alternatives: after
+ * {@code changed} task writes it catches up from its checkpoint, re-reading only those tasks,
+ * where a consumer without the log reloads every pending due date or runs the COUNT query the
+ * badge ran before. Also times a compaction after heavy churn. SQL copied from TaskChangeDao and
+ * TaskDao.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChangeLogBenchmark {
+
+    private static final int TASKS = 100_000;
+    private static final int BATCH_SIZE = 2000;
+    private static final int MAX_IDS_PER_STATEMENT = 900;
+    private static final String CONSUMER = "overdue_badge";
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    private static final String GET_CHANGES_AFTER =
+            "SELECT * FROM task_changes WHERE seq > ? ORDER BY seq LIMIT ?";
+    private static final String GET_LATEST_SEQ = "SELECT ifnull(max(seq), 0) FROM task_changes";
+    private static final String SAVE_CURSOR = "INSERT OR REPLACE INTO `change_cursors` (`name`,`seq`) VALUES (?,?)";
+    private static final String GET_CURSOR_SEQ = "SELECT seq FROM change_cursors WHERE name = ?";
+    private static final String DELETE_SUPERSEDED = "DELETE FROM task_changes WHERE seq < (SELECT max(c.seq)"
+            + " FROM task_changes AS c WHERE c.taskId = task_changes.taskId)";
+    private static final String DELETE_APPLIED = "DELETE FROM task_changes WHERE seq <= (SELECT min(seq)"
+            + " FROM change_cursors) AND seq < (SELECT max(seq) FROM task_changes)";
+    private static final String GET_PENDING_SCHEDULES = "SELECT id, dueDate, recurrenceRule FROM tasks"
+            + " WHERE completed = 0 AND dueDate < ? AND (recurrenceRule IS NOT NULL OR dueDate >= ?)";
+    private static final String GET_PENDING_SCHEDULES_BY_IDS = "SELECT id, dueDate, recurrenceRule FROM tasks"
+            + " WHERE id IN (:ids) AND completed = 0 AND dueDate IS NOT NULL";
+    private static final String COUNT_OVERDUE = "SELECT COUNT(*) FROM tasks WHERE completed = 0 AND dueDate < ?";
+    private static final String SHIFT_DUE_DATE = "UPDATE tasks SET dueDate = dueDate + ? WHERE id = ?";
+    private static final String TOGGLE_COMPLETED = "UPDATE tasks SET completed = 1 - completed WHERE id = ?";
+
+    @Param({"10", "1000"})
+    public int changed;
+
+    private BenchmarkDatabase database;
+    private DueDateIndex index;
+    private Random random;
+
+    @Setup
+    public void setUp() throws SQLException {
+        database = BenchmarkDatabase.seeded(TASKS, 29);
+        random = new Random(31);
+        index = new DueDateIndex();
+        database.update(SAVE_CURSOR, CONSUMER, database.queryLong(GET_LATEST_SEQ));
+        index.load(loadAll());
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        database.close();
+    }
+
+    // Writes land between two catch-ups, as edits between two invalidations.
+    @Setup(Level.Invocation)
+    public void write() throws SQLException {
+        writeRandom(changed);
+    }
+
+    private void writeRandom(int count) throws SQLException {
+        database.beginTransaction();
+        for (int i = 0; i < count; i++) {
+            long id = 1 + random.nextInt(TASKS);
+            if (random.nextBoolean()) {
+                database.update(SHIFT_DUE_DATE, random.nextBoolean() ? DAY : -DAY, id);
+            } else {
+                database.update(TOGGLE_COMPLETED, id);
+            }
+        }
+        database.endTransaction();
+    }
+
+    @Benchmark
+    public int catchUp() throws SQLException {
+        ChangeBatch batch;
+        do {
+            long checkpoint = database.queryLong(GET_CURSOR_SEQ, CONSUMER);
+            batch = ChangeBatch.of(checkpoint, database.queryChanges(GET_CHANGES_AFTER, checkpoint, BATCH_SIZE),
+                    BATCH_SIZE);
+            List<Long> taskIds = new ArrayList<>(batch.getChangedIds());
+            taskIds.addAll(batch.getDeletedIds());
+            index.apply(taskIds, schedulesOf(batch.getChangedIds()));
+            database.update(SAVE_CURSOR, CONSUMER, batch.getSeq());
+        } while (batch.hasMore());
+        return DueDateIndex.countBefore(index.getSorted(), TaskGenerator.NOW);
+    }
+
+    @Benchmark
+    public int reload() throws SQLException {
+        DueDateIndex reloaded = new DueDateIndex();
+        reloaded.load(loadAll());
+        return DueDateIndex.countBefore(reloaded.getSorted(), TaskGenerator.NOW);
+    }
+
+    @Benchmark
+    public int countQuery() throws SQLException {
+        return database.queryInt(COUNT_OVERDUE, TaskGenerator.NOW);
+    }
+
+    private List<TaskSchedule> loadAll() throws SQLException {
+        return database.querySchedules(GET_PENDING_SCHEDULES, Long.MAX_VALUE, Long.MIN_VALUE);
+    }
+
+    private List<TaskSchedule> schedulesOf(List<Long> taskIds) throws SQLException {
+        List<TaskSchedule> schedules = new ArrayList<>();
+        for (int from = 0; from < taskIds.size(); from += MAX_IDS_PER_STATEMENT) {
+            List<Long> chunk = taskIds.subList(from, Math.min(from + MAX_IDS_PER_STATEMENT, taskIds.size()));
+            schedules.addAll(database.querySchedules(
+                    BenchmarkDatabase.expandIds(GET_PENDING_SCHEDULES_BY_IDS, chunk.size()), chunk.toArray()));
+        }
+        return schedules;
+    }
+
+    /** A log grown by 50k writes over 10k tasks, which the consumer has read halfway. */
+    @State(Scope.Thread)
+    public static class Churned {
+        @Setup(Level.Invocation)
+        public void setUp(ChangeLogBenchmark benchmark) throws SQLException {
+            BenchmarkDatabase database = benchmark.database;
+            long before = database.queryLong(GET_LATEST_SEQ);
+            database.beginTransaction();
+            for (int i = 0; i < 50_000; i++) {
+                database.update(TOGGLE_COMPLETED, 1 + benchmark.random.nextInt(10_000));
+            }
+            database.endTransaction();
+            database.update(SAVE_CURSOR, CONSUMER, before + 25_000);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int compact(Churned churned) throws SQLException {
+        database.beginTransaction();
+        int removed = database.update(DELETE_SUPERSEDED) + database.update(DELETE_APPLIED);
+        database.endTransaction();
+        return removed;
+    }
+}
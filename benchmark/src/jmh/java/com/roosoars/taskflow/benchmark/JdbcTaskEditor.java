@@ -0,0 +1,129 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.undo.TaskEditor;
+
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * The TaskEditor of TaskRepository over a benchmark database: the same statements, copied from
+ * TaskDao, run in chunks of at most {@link #MAX_IDS_PER_STATEMENT} ids. The caller owns the
+ * transaction.
+ */
+final class JdbcTaskEditor implements TaskEditor {
+
+    private static final int MAX_IDS_PER_STATEMENT = 900;
+
+    private static final String DELETE_TASKS = "DELETE FROM tasks WHERE id IN (:ids)";
+    private static final String SET_COMPLETED = "UPDATE tasks SET completed = ? WHERE id IN (:ids)";
+    private static final String COMPLETE_TASKS =
+            "UPDATE tasks SET completed = 1, recurrenceRule = NULL WHERE id IN (:ids)";
+    private static final String SET_RECURRENCE_RULE = "UPDATE tasks SET recurrenceRule = ? WHERE id IN (:ids)";
+    private static final String SET_PRIORITY = "UPDATE tasks SET priority = ? WHERE id IN (:ids)";
+    private static final String SET_CATEGORY = "UPDATE tasks SET categoryId = ? WHERE id IN (:ids)";
+    private static final String SHIFT_DUE_DATES =
+            "UPDATE tasks SET dueDate = dueDate + ? WHERE id IN (:ids) AND dueDate IS NOT NULL";
+    private static final String GET_ALL_CATEGORY_IDS = "SELECT id FROM categories";
+
+    private final BenchmarkDatabase database;
+    private Set<Long> categoryIds;
+    private int inserted;
+
+    JdbcTaskEditor(BenchmarkDatabase database) {
+        this.database = database;
+    }
+
+    int getInserted() {
+        return inserted;
+    }
+
+    @Override
+    public void insert(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        try {
+            for (Task task : tasks) {
+                if (task.getCategoryId() != null && !categoryExists(task.getCategoryId())) {
+                    task.setCategoryId(null);
+                }
+            }
+            for (long rowId : database.insertTasksOrIgnore(tasks)) {
+                if (rowId != -1) {
+                    inserted++;
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void delete(long[] taskIds) {
+        run(DELETE_TASKS, taskIds);
+    }
+
+    @Override
+    public void setCompleted(long[] taskIds, boolean completed) {
+        run(SET_COMPLETED, taskIds, completed ? 1 : 0);
+    }
+
+    @Override
+    public void complete(long[] taskIds) {
+        run(COMPLETE_TASKS, taskIds);
+    }
+
+    @Override
+    public void setRecurrenceRule(long[] taskIds, String recurrenceRule) {
+        run(SET_RECURRENCE_RULE, taskIds, recurrenceRule);
+    }
+
+    @Override
+    public void setPriority(long[] taskIds, int priority) {
+        run(SET_PRIORITY, taskIds, priority);
+    }
+
+    @Override
+    public void setCategory(long[] taskIds, Long categoryId) {
+        if (categoryId == null || categoryExists(categoryId)) {
+            run(SET_CATEGORY, taskIds, categoryId);
+        }
+    }
+
+    @Override
+    public void shiftDueDates(long[] taskIds, long offsetMillis) {
+        run(SHIFT_DUE_DATES, taskIds, offsetMillis);
+    }
+
+    // Binds the leading arguments, then the ids of the chunk.
+    private void run(String sql, long[] taskIds, Object... args) {
+        try {
+            for (int from = 0; from < taskIds.length; from += MAX_IDS_PER_STATEMENT) {
+                int to = Math.min(from + MAX_IDS_PER_STATEMENT, taskIds.length);
+                Object[] bound = new Object[args.length + to - from];
+                System.arraycopy(args, 0, bound, 0, args.length);
+                for (int i = from; i < to; i++) {
+                    bound[args.length + i - from] = taskIds[i];
+                }
+                database.update(BenchmarkDatabase.expandIds(sql, to - from), bound);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean categoryExists(long categoryId) {
+        if (categoryIds == null) {
+            try {
+                categoryIds = new HashSet<>(database.queryLongs(GET_ALL_CATEGORY_IDS));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return categoryIds.contains(categoryId);
+    }
+}
@@ -0,0 +1,121 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.sync.HybridClock;
+import com.roosoars.taskflow.sync.SyncBatch;
+import com.roosoars.taskflow.sync.SyncRow;
+import com.roosoars.taskflow.sync.SyncStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A device replica held in memory, with the bookkeeping TaskSyncStore keeps in {@code task_sync}:
+ * per row the timestamp up to which it was pushed, and the rows waiting to be pushed in the order
+ * they changed. The clock is driven by the caller, so runs are repeatable.
+ */
+final class MemorySyncStore implements SyncStore {
+
+    private final Map<String, SyncRow> rows = new HashMap<>();
+    private final Map<String, Long> pushedVersions = new HashMap<>();
+    private final LinkedHashSet<String> pending = new LinkedHashSet<>();
+    private long clock;
+    private long token;
+
+    MemorySyncStore(long nowMillis) {
+        clock = HybridClock.pack(nowMillis, 0);
+    }
+
+    /** A local write of {@code field}, as the change triggers stamp it. */
+    void write(String uid, int field, Object value) {
+        clock = HybridClock.tick(clock, HybridClock.physicalMillis(clock));
+        rows.computeIfAbsent(uid, SyncRow::new).set(field, value, clock);
+        pending.remove(uid);
+        pending.add(uid);
+    }
+
+    SyncRow get(String uid) {
+        return rows.get(uid);
+    }
+
+    int size() {
+        return rows.size();
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public long getSyncToken() {
+        return token;
+    }
+
+    @Override
+    public List<SyncRow> readChanges(int limit) {
+        List<SyncRow> changes = new ArrayList<>(Math.min(limit, pending.size()));
+        Iterator<String> uids = pending.iterator();
+        while (changes.size() < limit && uids.hasNext()) {
+            SyncRow row = rows.get(uids.next());
+            long pushedVersion = pushedVersions.getOrDefault(row.getUid(), 0L);
+            SyncRow change = new SyncRow(row.getUid());
+            for (int field = 0; field < SyncRow.FIELD_COUNT; field++) {
+                if (row.has(field) && row.getStamp(field) > pushedVersion) {
+                    change.set(field, row.getValue(field), row.getStamp(field));
+                }
+            }
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    @Override
+    public void markPushed(List<SyncRow> changes, long token) {
+        for (SyncRow change : changes) {
+            long pushedVersion = pushedVersions.merge(change.getUid(), change.getVersion(), Math::max);
+            if (rows.get(change.getUid()).getVersion() <= pushedVersion) {
+                pending.remove(change.getUid());
+            }
+        }
+        this.token = Math.max(this.token, token);
+    }
+
+    @Override
+    public int apply(SyncBatch batch) {
+        int conflicts = 0;
+        for (SyncRow remote : batch.getRows()) {
+            SyncRow local = rows.get(remote.getUid());
+            if (local == null) {
+                local = new SyncRow(remote.getUid());
+                rows.put(remote.getUid(), local);
+            }
+            boolean unpushed = pending.contains(remote.getUid());
+            if (unpushed) {
+                conflicts += Integer.bitCount(remote.conflicts(local) & unpushedFields(local));
+            }
+            local.merge(remote);
+            // Merged fields came from the server; only what was unpushed stays so.
+            if (!unpushed) {
+                pushedVersions.put(remote.getUid(), local.getVersion());
+            }
+            clock = Math.max(clock, remote.getVersion());
+        }
+        token = batch.getToken();
+        return conflicts;
+    }
+
+    private int unpushedFields(SyncRow row) {
+        long pushedVersion = pushedVersions.getOrDefault(row.getUid(), 0L);
+        int fields = 0;
+        for (int field = 0; field < SyncRow.FIELD_COUNT; field++) {
+            if (row.has(field) && row.getStamp(field) > pushedVersion) {
+                fields |= 1 << field;
+            }
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,132 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.recurrence.OccurrenceExpander;
+import com.roosoars.taskflow.recurrence.RecurrenceRule;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Expanding recurring tasks into their occurrences over the year after NOW, the work behind
+ * TaskRepository.expandOccurrences. Run with {@code -prof gc}: a reused expander should allocate
+ * next to nothing per occurrence, against materializing every occurrence with java.time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RecurrenceBenchmark {
+
+    private static final long YEAR = 365L * 24 * 60 * 60 * 1000;
+    private static final ZoneId ZONE = ZoneId.of("America/Sao_Paulo");
+
+    @Param({"10000"})
+    public int size;
+
+    private long[] ids;
+    private long[] starts;
+    private RecurrenceRule[] rules;
+    private OccurrenceExpander expander;
+
+    private static final class Checksum implements OccurrenceExpander.Visitor {
+        long value;
+
+        @Override
+        public void onOccurrence(long taskId, long timeMillis) {
+            value += taskId ^ timeMillis;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        TaskGenerator generator = new TaskGenerator(7);
+        ids = new long[size];
+        starts = new long[size];
+        rules = new RecurrenceRule[size];
+        for (int i = 0; i < size; i++) {
+            Task task = generator.recurringTask(i + 1);
+            ids[i] = task.getId();
+            starts[i] = task.getDueDate().getTime();
+            rules[i] = RecurrenceRule.parse(task.getRecurrenceRule());
+        }
+        expander = new OccurrenceExpander(ZONE);
+    }
+
+    @Benchmark
+    public long expandYear() {
+        expander.clear();
+        for (int i = 0; i < size; i++) {
+            expander.add(ids[i], starts[i], rules[i]);
+        }
+        Checksum checksum = new Checksum();
+        expander.expand(TaskGenerator.NOW, TaskGenerator.NOW + YEAR, checksum);
+        return checksum.value;
+    }
+
+    @Benchmark
+    public long expandYearNewExpander() {
+        OccurrenceExpander fresh = new OccurrenceExpander(ZONE);
+        for (int i = 0; i < size; i++) {
+            fresh.add(ids[i], starts[i], rules[i]);
+        }
+        Checksum checksum = new Checksum();
+        fresh.expand(TaskGenerator.NOW, TaskGenerator.NOW + YEAR, checksum);
+        return checksum.value;
+    }
+
+    // Baseline: every occurrence of every task as a list, then sorted.
+    @Benchmark
+    public long materializeYear() {
+        long from = TaskGenerator.NOW;
+        long to = from + YEAR;
+        List<long[]> occurrences = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ZonedDateTime start = ZonedDateTime.ofInstant(Instant.ofEpochMilli(starts[i]), ZONE);
+            for (int k = 0; ; k++) {
+                ZonedDateTime occurrence = step(start, rules[i], k);
+                long millis = occurrence.toInstant().toEpochMilli();
+                if (millis >= to) {
+                    break;
+                }
+                if (millis >= from) {
+                    occurrences.add(new long[]{ids[i], millis});
+                }
+            }
+        }
+        occurrences.sort((a, b) -> Long.compare(a[1], b[1]));
+        long checksum = 0;
+        for (long[] occurrence : occurrences) {
+            checksum += occurrence[0] ^ occurrence[1];
+        }
+        return checksum;
+    }
+
+    // Close enough to the rules' semantics for a cost baseline: BYDAY and BYMONTHDAY are ignored.
+    private static ZonedDateTime step(ZonedDateTime start, RecurrenceRule rule, int k) {
+        long n = (long) k * rule.getInterval();
+        switch (rule.getFrequency()) {
+            case DAILY:
+                return start.plusDays(n);
+            case WEEKLY:
+                return start.plusWeeks(n);
+            case MONTHLY:
+                return start.plusMonths(n);
+            default:
+                return start.plusYears(n);
+        }
+    }
+}
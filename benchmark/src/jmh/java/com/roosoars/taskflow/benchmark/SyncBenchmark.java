@@ -0,0 +1,159 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.sync.HttpSyncTransport;
+import com.roosoars.taskflow.sync.SyncEngine;
+import com.roosoars.taskflow.sync.SyncResult;
+import com.roosoars.taskflow.sync.SyncRow;
+import com.roosoars.taskflow.sync.SyncTransport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Sync rounds of SyncEngine against the stand-in server, over loopback HTTP with the real codec
+ * or in-process: a device pushing every task, a new device pulling them all, and two devices
+ * that edited the same tasks offline syncing one after the other. Each invocation starts from
+ * freshly prepared replicas, so setup stays out of the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SyncBenchmark {
+
+    private static final int TASKS = 100_000;
+    private static final int EDITED_EVERY = 10;
+
+    @Param({"500", "5000"})
+    public int batchSize;
+
+    @Param({"HTTP", "IN_PROCESS"})
+    public String transport;
+
+    private List<Category> categories;
+    private List<Task> tasks;
+    private SyncStandInServer server;
+    private SyncTransport client;
+
+    @State(Scope.Thread)
+    public static class Pushing {
+        MemorySyncStore device;
+
+        @Setup(Level.Invocation)
+        public void setUp(SyncBenchmark benchmark) {
+            benchmark.server.clear();
+            device = benchmark.loadedDevice();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Pulling {
+        MemorySyncStore device;
+
+        @Setup(Level.Iteration)
+        public void load(SyncBenchmark benchmark) throws IOException {
+            benchmark.server.clear();
+            benchmark.engine(benchmark.loadedDevice(), benchmark.server).sync();
+        }
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            device = new MemorySyncStore(TaskGenerator.NOW);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Conflicting {
+        MemorySyncStore first;
+        MemorySyncStore second;
+
+        @Setup(Level.Invocation)
+        public void setUp(SyncBenchmark benchmark) throws IOException {
+            benchmark.server.clear();
+            first = benchmark.loadedDevice();
+            second = new MemorySyncStore(TaskGenerator.NOW);
+            benchmark.engine(first, benchmark.server).sync();
+            benchmark.engine(second, benchmark.server).sync();
+            for (int i = 1; i <= TASKS; i += EDITED_EVERY) {
+                String uid = uid(i);
+                first.write(uid, SyncRow.TITLE, first.get(uid).getValue(SyncRow.TITLE) + " (1)");
+                first.write(uid, SyncRow.COMPLETED, Boolean.TRUE);
+                second.write(uid, SyncRow.TITLE, second.get(uid).getValue(SyncRow.TITLE) + " (2)");
+                second.write(uid, SyncRow.PRIORITY, 2);
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        TaskGenerator generator = new TaskGenerator(23);
+        categories = generator.categories();
+        tasks = generator.tasks(TASKS);
+        server = new SyncStandInServer();
+        client = "HTTP".equals(transport) ? new HttpSyncTransport(server.start(0)) : server;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public int pushAll(Pushing state) throws IOException {
+        return engine(state.device, client).sync().getPushed();
+    }
+
+    @Benchmark
+    public int pullAll(Pulling state) throws IOException {
+        return engine(state.device, client).sync().getPulled();
+    }
+
+    // The second device loses the titles to the first and keeps its priorities; the first then
+    // pulls the merged rows back.
+    @Benchmark
+    public int conflictingSync(Conflicting state) throws IOException {
+        SyncResult first = engine(state.first, client).sync();
+        SyncResult second = engine(state.second, client).sync();
+        SyncResult settled = engine(state.first, client).sync();
+        return first.getConflicts() + second.getConflicts() + settled.getPulled();
+    }
+
+    private SyncEngine engine(MemorySyncStore device, SyncTransport transport) {
+        return new SyncEngine(device, transport, batchSize);
+    }
+
+    private MemorySyncStore loadedDevice() {
+        MemorySyncStore device = new MemorySyncStore(TaskGenerator.NOW);
+        for (Task task : tasks) {
+            String uid = uid(task.getId());
+            device.write(uid, SyncRow.TITLE, task.getTitle());
+            device.write(uid, SyncRow.DESCRIPTION, task.getDescription());
+            device.write(uid, SyncRow.DUE_DATE, task.getDueDate() == null ? null : task.getDueDate().getTime());
+            device.write(uid, SyncRow.PRIORITY, task.getPriority());
+            device.write(uid, SyncRow.CATEGORY, task.getCategoryId() == null
+                    ? null : categories.get((int) (task.getCategoryId() - 1)).getName());
+            device.write(uid, SyncRow.COMPLETED, task.isCompleted());
+            device.write(uid, SyncRow.TYPE, task.getType());
+            device.write(uid, SyncRow.RECURRENCE_RULE, task.getRecurrenceRule());
+        }
+        return device;
+    }
+
+    private static String uid(long id) {
+        return String.format("%032x", id);
+    }
+}
@@ -0,0 +1,192 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.sync.SyncBatch;
+import com.roosoars.taskflow.sync.SyncCodec;
+import com.roosoars.taskflow.sync.SyncRow;
+import com.roosoars.taskflow.sync.SyncTransport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+
+
+/**
+ * Local stand-in for the sync server, speaking the protocol of HttpSyncTransport. Rows are kept
+ * in memory and merged field by field like on the devices; each row that changes gets the next
+ * sequence number, which is the token clients pull from. Calls can also be made in-process, as a
+ * {@link SyncTransport}, to time the engine without the network.
+ *
+ * <p>Run {@link #main} to serve an emulator: {@code -PsyncServerUrl=http://10.0.2.2:8080}.
+ */
+public final class SyncStandInServer implements SyncTransport, AutoCloseable {
+
+    private static final String CONTENT_TYPE = "application/vnd.taskflow.sync";
+
+    private final Map<String, SyncRow> rows = new HashMap<>();
+    private final Map<String, Long> sequences = new HashMap<>();
+    private final TreeMap<Long, String> log = new TreeMap<>();
+    private long sequence;
+    private HttpServer http;
+
+    static {
+        // Without it every small response waits out the client's delayed ACK, about 40 ms.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        SyncStandInServer server = new SyncStandInServer();
+        server.listen(new InetSocketAddress(port));
+        System.out.println("Sync stand-in server on port " + port);
+    }
+
+    /** Serves on a loopback port, chosen when {@code port} is 0; returns the base URL. */
+    public String start(int port) throws IOException {
+        return "http://127.0.0.1:" + listen(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    private int listen(InetSocketAddress address) throws IOException {
+        http = HttpServer.create(address, 0);
+        http.createContext("/pull", this::handlePull);
+        http.createContext("/push", this::handlePush);
+        http.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "sync-stand-in");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        http.start();
+        return http.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        if (http != null) {
+            http.stop(0);
+            http = null;
+        }
+    }
+
+    public synchronized int size() {
+        return rows.size();
+    }
+
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    public synchronized void clear() {
+        rows.clear();
+        sequences.clear();
+        log.clear();
+        sequence = 0;
+    }
+
+    @Override
+    public synchronized SyncBatch pull(long sinceToken, int limit) {
+        List<SyncRow> batch = new ArrayList<>(Math.min(limit, log.size()));
+        long token = sinceToken;
+        Iterator<Map.Entry<Long, String>> changes = log.tailMap(sinceToken, false).entrySet().iterator();
+        while (batch.size() < limit && changes.hasNext()) {
+            Map.Entry<Long, String> change = changes.next();
+            batch.add(copy(rows.get(change.getValue())));
+            token = change.getKey();
+        }
+        return new SyncBatch(token, changes.hasNext(), 0, batch);
+    }
+
+    /**
+     * Merges the pushed rows. A client that had pulled every change before this push may skip
+     * the ones it caused, so its token moves past them; any other client keeps its token.
+     */
+    @Override
+    public synchronized SyncBatch push(long token, List<SyncRow> pushed) {
+        boolean upToDate = token == sequence;
+        int rejected = 0;
+        for (SyncRow incoming : pushed) {
+            SyncRow stored = rows.get(incoming.getUid());
+            if (stored == null) {
+                stored = new SyncRow(incoming.getUid());
+                rows.put(incoming.getUid(), stored);
+            }
+            rejected += Integer.bitCount(stored.conflicts(incoming));
+            if (stored.merge(incoming) != 0) {
+                Long previous = sequences.put(incoming.getUid(), ++sequence);
+                if (previous != null) {
+                    log.remove(previous);
+                }
+                log.put(sequence, incoming.getUid());
+            }
+        }
+        return new SyncBatch(upToDate ? sequence : token, false, rejected, new ArrayList<>());
+    }
+
+    private void handlePull(HttpExchange exchange) throws IOException {
+        try {
+            long since = 0;
+            int limit = Integer.MAX_VALUE;
+            String query = exchange.getRequestURI().getRawQuery();
+            for (String parameter : query == null ? new String[0] : query.split("&")) {
+                int equals = parameter.indexOf('=');
+                String value = parameter.substring(equals + 1);
+                if (parameter.startsWith("since=")) {
+                    since = Long.parseLong(value);
+                } else if (parameter.startsWith("limit=")) {
+                    limit = Integer.parseInt(value);
+                }
+            }
+            respond(exchange, pull(since, limit));
+        } catch (RuntimeException e) {
+            fail(exchange, 400);
+        }
+    }
+
+    private void handlePush(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            fail(exchange, 405);
+            return;
+        }
+        SyncBatch request;
+        try (InputStream in = exchange.getRequestBody()) {
+            request = SyncCodec.read(in);
+            in.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException | RuntimeException e) {
+            fail(exchange, 400);
+            return;
+        }
+        respond(exchange, push(request.getToken(), request.getRows()));
+    }
+
+    private static void respond(HttpExchange exchange, SyncBatch batch) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        SyncCodec.write(batch, body);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, body.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            body.writeTo(out);
+        }
+    }
+
+    private static void fail(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    // In-process callers must not share rows with the server.
+    private static SyncRow copy(SyncRow row) {
+        SyncRow copy = new SyncRow(row.getUid());
+        copy.merge(row);
+        return copy;
+    }
+}
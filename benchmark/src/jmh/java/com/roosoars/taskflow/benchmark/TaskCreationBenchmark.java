@@ -0,0 +1,52 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.builder.TaskBuilder;
+import com.roosoars.taskflow.factory.ProjectTaskFactory;
+import com.roosoars.taskflow.factory.RegularTaskFactory;
+import com.roosoars.taskflow.factory.TaskFactory;
+import com.roosoars.taskflow.model.Priority;
+import com.roosoars.taskflow.model.Task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskCreationBenchmark {
+
+    private final TaskFactory regularFactory = new RegularTaskFactory();
+    private final TaskFactory projectFactory = new ProjectTaskFactory();
+    private final Date dueDate = new Date(TaskGenerator.NOW);
+    private final Long categoryId = 3L;
+
+    @Benchmark
+    public Task builderBuild() {
+        return TaskBuilder.aTask("Write report")
+                .withDescription("Quarterly numbers")
+                .withDueDate(dueDate)
+                .withPriority(Priority.HIGH)
+                .withCategory(categoryId)
+                .ofType("regular")
+                .isCompleted(false)
+                .build();
+    }
+
+    @Benchmark
+    public Task regularFactoryCreate() {
+        return regularFactory.createTask("Write report", "Quarterly numbers", dueDate, Priority.HIGH, categoryId);
+    }
+
+    @Benchmark
+    public Task projectFactoryCreate() {
+        return projectFactory.createTask("Ship release", "Milestone", dueDate, Priority.MEDIUM, categoryId);
+    }
+}
@@ -0,0 +1,271 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.db.TaskSearch;
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.model.TaskWithCategory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The TaskDao and CategoryDao queries and writes, with the SQL copied from their annotations.
+ * Sample mode reports p50/p99 latency; throughput mode adds rows per second from {@link RowCounter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+public class TaskDaoBenchmark {
+
+    private static final int BATCH = 100;
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    private static final String SELECT_TASKS = "SELECT tasks.*, categories.id AS category_id,"
+            + " categories.name AS category_name, categories.color AS category_color"
+            + " FROM tasks LEFT JOIN categories ON categories.id = tasks.categoryId";
+
+    private static final String GET_TASK_BY_ID = "SELECT * FROM tasks WHERE id = ?";
+    private static final String GET_TASKS_BY_IDS = BenchmarkDatabase.expandIds(
+            "SELECT * FROM tasks WHERE id IN (:ids)", BATCH);
+    private static final String GET_TASKS_WITH_CATEGORY_BY_IDS = BenchmarkDatabase.expandIds(
+            SELECT_TASKS + " WHERE tasks.id IN (:ids)", BATCH);
+    private static final String SEARCH_HITS = "SELECT docid AS taskId, matchinfo(tasks_fts, 'pcy')"
+            + " AS matchInfo FROM tasks_fts WHERE tasks_fts MATCH ?"
+            + " ORDER BY docid DESC LIMIT ?";
+    private static final String SET_COMPLETED = BenchmarkDatabase.expandIds(
+            "UPDATE tasks SET completed = ? WHERE id IN (:ids)", BATCH);
+    private static final String SHIFT_DUE_DATES = BenchmarkDatabase.expandIds(
+            "UPDATE tasks SET dueDate = dueDate + ? WHERE id IN (:ids) AND dueDate IS NOT NULL", BATCH);
+    private static final String DELETE_TASKS = BenchmarkDatabase.expandIds(
+            "DELETE FROM tasks WHERE id IN (:ids)", BATCH);
+    private static final String GET_TASK_IDS_FOR_CATEGORY = "SELECT id FROM tasks WHERE categoryId = ?";
+    private static final String DELETE_TASKS_FOR_CATEGORY = "DELETE FROM tasks WHERE categoryId = ?";
+    private static final String DELETE_CATEGORY = "DELETE FROM `categories` WHERE `id` = ?";
+    private static final String GET_ALL_CATEGORIES = "SELECT * FROM categories ORDER BY name ASC";
+    private static final String COUNT_BY_CATEGORY =
+            "SELECT categoryId AS groupKey, COUNT(*) AS count FROM tasks GROUP BY categoryId";
+    private static final String COUNT_OVERDUE =
+            "SELECT COUNT(*) FROM tasks WHERE completed = 0 AND dueDate < ?";
+    private static final String COUNT_BY_STATUS =
+            "SELECT 0 AS groupKey, COUNT(*) AS count FROM tasks WHERE completed = 1"
+            + " UNION ALL SELECT 1, COUNT(*) FROM tasks WHERE completed = 0 AND dueDate < ?"
+            + " UNION ALL SELECT 2, COUNT(*) FROM tasks WHERE completed = 0 AND dueDate > ? AND dueDate <= ?"
+            + " UNION ALL SELECT 3, COUNT(*) FROM tasks";
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private BenchmarkDatabase database;
+    private TaskGenerator generator;
+    private Random random;
+    private boolean completedFlag;
+    private long shiftMillis = DAY;
+
+    @Setup
+    public void setUp() throws SQLException {
+        database = BenchmarkDatabase.seeded(size, 1);
+        generator = new TaskGenerator(2);
+        random = new Random(3);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        database.close();
+    }
+
+    // Inserted rows are removed after each iteration so every iteration sees the seeded size.
+    @TearDown(Level.Iteration)
+    public void removeInserted() throws SQLException {
+        database.update("DELETE FROM tasks WHERE id > ?", size);
+    }
+
+    private long randomId() {
+        return 1 + random.nextInt(size);
+    }
+
+    private Object[] randomIds(Object first) {
+        Object[] args = new Object[BATCH + (first != null ? 1 : 0)];
+        int offset = 0;
+        if (first != null) {
+            args[offset++] = first;
+        }
+        for (int i = 0; i < BATCH; i++) {
+            args[offset + i] = randomId();
+        }
+        return args;
+    }
+
+    @Benchmark
+    public List<Task> getTaskById(RowCounter counter) throws SQLException {
+        return count(database.queryTasks(GET_TASK_BY_ID, randomId()), counter);
+    }
+
+    @Benchmark
+    public List<Task> getTasksByIdsSync(RowCounter counter) throws SQLException {
+        return count(database.queryTasks(GET_TASKS_BY_IDS, randomIds(null)), counter);
+    }
+
+    @Benchmark
+    public List<TaskWithCategory> getTasksWithCategoryByIds(RowCounter counter) throws SQLException {
+        return count(database.queryTasksWithCategory(GET_TASKS_WITH_CATEGORY_BY_IDS, randomIds(null)),
+                counter);
+    }
+
+    // Mirrors TaskDao.search: FTS hits, ranking, then the TaskWithCategory load of the best ones.
+    @Benchmark
+    public List<TaskWithCategory> search(RowCounter counter) throws SQLException {
+        String match = TaskSearch.toMatchQuery(random.nextBoolean() ? "fix" : "rev rep");
+        List<Long> taskIds = TaskSearch.rank(
+                database.querySearchHits(SEARCH_HITS, match, TaskSearch.MAX_HITS), BATCH);
+        if (taskIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String sql = BenchmarkDatabase.expandIds(SELECT_TASKS + " WHERE tasks.id IN (:ids)", taskIds.size());
+        List<TaskWithCategory> rows = TaskSearch.orderByIds(
+                database.queryTasksWithCategory(sql, taskIds.toArray()), taskIds);
+        return count(rows, counter);
+    }
+
+    @Benchmark
+    public List<Category> getAllCategories(RowCounter counter) throws SQLException {
+        return count(database.queryCategories(GET_ALL_CATEGORIES), counter);
+    }
+
+    // Every category's count at once, as the category list shows them.
+    @Benchmark
+    public Map<Long, Integer> countByCategory(RowCounter counter) throws SQLException {
+        Map<Long, Integer> counts = database.queryGroupCounts(COUNT_BY_CATEGORY);
+        counter.rows += counts.size();
+        return counts;
+    }
+
+    // The bottom navigation badge.
+    @Benchmark
+    public int countOverdue(RowCounter counter) throws SQLException {
+        int tasks = database.queryInt(COUNT_OVERDUE, TaskGenerator.NOW);
+        counter.rows += tasks;
+        return tasks;
+    }
+
+    // Group 3 is every task, which is what the repository derives the normal count from.
+    @Benchmark
+    public int countByStatus(RowCounter counter) throws SQLException {
+        int tasks = database.queryGroupCounts(COUNT_BY_STATUS,
+                TaskGenerator.NOW, TaskGenerator.NOW, TaskGenerator.NOW + DAY).get(3L);
+        counter.rows += tasks;
+        return tasks;
+    }
+
+    @Benchmark
+    public long insert(RowCounter counter) throws SQLException {
+        counter.rows++;
+        return database.insertTask(generator.task(0));
+    }
+
+    @Benchmark
+    public int update(RowCounter counter) throws SQLException {
+        Task task = generator.task(randomId());
+        int rows = database.updateTask(task);
+        counter.rows += rows;
+        return rows;
+    }
+
+    // Deletes a row inserted in the same invocation so the table keeps its size; the insert is
+    // part of the measurement, compare with the insert benchmark to isolate the delete.
+    @Benchmark
+    public int insertAndDelete(RowCounter counter) throws SQLException {
+        Task task = generator.task(0);
+        task.setId(database.insertTask(task));
+        int rows = database.deleteTask(task);
+        counter.rows += rows;
+        return rows;
+    }
+
+    @Benchmark
+    public int setCompleted(RowCounter counter) throws SQLException {
+        completedFlag = !completedFlag;
+        int rows = database.update(SET_COMPLETED, randomIds(completedFlag ? 1 : 0));
+        counter.rows += rows;
+        return rows;
+    }
+
+    @Benchmark
+    public int shiftDueDates(RowCounter counter) throws SQLException {
+        shiftMillis = -shiftMillis;
+        int rows = database.update(SHIFT_DUE_DATES, randomIds(shiftMillis));
+        counter.rows += rows;
+        return rows;
+    }
+
+    // Inserts a batch and deletes it by id in one transaction so the table keeps its size.
+    @Benchmark
+    public int deleteTasks(RowCounter counter) throws SQLException {
+        database.beginTransaction();
+        try {
+            List<Task> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                Task task = generator.task(0);
+                task.setId(database.insertTask(task));
+                batch.add(task);
+            }
+            Object[] ids = new Object[BATCH];
+            for (int i = 0; i < BATCH; i++) {
+                ids[i] = batch.get(i).getId();
+            }
+            int rows = database.update(DELETE_TASKS, ids);
+            counter.rows += rows;
+            return rows;
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    // CategoryDao.deleteWithTasks on a category of BATCH tasks, created in the same transaction
+    // so the table keeps its size; compare with deleteTasks, which also includes the inserts.
+    @Benchmark
+    public int deleteCategoryWithTasks(RowCounter counter) throws SQLException {
+        database.beginTransaction();
+        try {
+            Category category = new Category("Temp", 0);
+            long categoryId = database.insertCategory(category);
+            for (int i = 0; i < BATCH; i++) {
+                Task task = generator.task(0);
+                task.setCategoryId(categoryId);
+                database.insertTask(task);
+            }
+            List<Long> taskIds = database.queryLongs(GET_TASK_IDS_FOR_CATEGORY, categoryId);
+            int rows = database.update(DELETE_TASKS_FOR_CATEGORY, categoryId);
+            database.update(DELETE_CATEGORY, categoryId);
+            counter.rows += taskIds.size();
+            return rows;
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    private static <T> List<T> count(List<T> rows, RowCounter counter) {
+        counter.rows += rows.size();
+        return rows;
+    }
+}
@@ -0,0 +1,89 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.model.TaskWithCategory;
+import com.roosoars.taskflow.ui.adapters.TaskDiff;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Cost of the adapters' diff callback over a full list refresh. {@code aligned} is the common
+ * case DiffUtil hits when rows only change in place; {@code byId} is the lookup it falls back
+ * to once rows have moved; {@code payloads} adds the change payload computed for changed rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskDiffBenchmark {
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    @Param({"1", "10"})
+    public int changedPercent;
+
+    private List<TaskWithCategory> oldRows;
+    private List<TaskWithCategory> newRows;
+
+    @Setup
+    public void setUp() {
+        TaskGenerator generator = new TaskGenerator(42);
+        oldRows = generator.rows(size);
+        newRows = generator.edit(oldRows, changedPercent);
+    }
+
+    @Benchmark
+    public int aligned() {
+        int changed = 0;
+        for (int i = 0; i < size; i++) {
+            TaskWithCategory oldItem = oldRows.get(i);
+            TaskWithCategory newItem = newRows.get(i);
+            if (!TaskDiff.areItemsTheSame(oldItem, newItem) || !TaskDiff.areContentsTheSame(oldItem, newItem)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    @Benchmark
+    public int payloads() {
+        int flags = 0;
+        for (int i = 0; i < size; i++) {
+            TaskWithCategory oldItem = oldRows.get(i);
+            TaskWithCategory newItem = newRows.get(i);
+            if (TaskDiff.areItemsTheSame(oldItem, newItem) && !TaskDiff.areContentsTheSame(oldItem, newItem)) {
+                flags |= TaskDiff.changes(oldItem, newItem);
+            }
+        }
+        return flags;
+    }
+
+    @Benchmark
+    public int byId() {
+        Map<Long, TaskWithCategory> oldById = new HashMap<>(size * 2);
+        for (TaskWithCategory row : oldRows) {
+            oldById.put(row.getTask().getId(), row);
+        }
+        int changed = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            TaskWithCategory newItem = newRows.get(i);
+            TaskWithCategory oldItem = oldById.get(newItem.getTask().getId());
+            if (oldItem == null || !TaskDiff.areContentsTheSame(oldItem, newItem)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,123 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.model.Category;
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.model.TaskWithCategory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Deterministic synthetic data: the same seed always yields the same tasks, so runs on
+ * different commits compare like with like.
+ */
+public final class TaskGenerator {
+
+    public static final long NOW = 1_700_000_000_000L;
+    public static final int CATEGORY_COUNT = 8;
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final String[] WORDS = {
+            "review", "report", "call", "email", "fix", "deploy", "plan", "meeting",
+            "invoice", "design", "draft", "update", "backup", "refactor", "groceries", "gym"
+    };
+
+    private static final String[] RECURRENCE_RULES = {
+            "FREQ=DAILY", "FREQ=DAILY;INTERVAL=2", "FREQ=WEEKLY", "FREQ=WEEKLY;BYDAY=MO,WE,FR",
+            "FREQ=MONTHLY", "FREQ=MONTHLY;BYMONTHDAY=-1", "FREQ=YEARLY"
+    };
+
+    private final Random random;
+
+    public TaskGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public List<Category> categories() {
+        List<Category> categories = new ArrayList<>(CATEGORY_COUNT);
+        for (int i = 0; i < CATEGORY_COUNT; i++) {
+            Category category = new Category("Category " + i, i);
+            category.setId(i + 1);
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    public Task task(long id) {
+        Task task = new Task(title(), dueDate(), random.nextInt(3), categoryId(),
+                random.nextInt(5) == 0 ? "project" : "regular");
+        task.setId(id);
+        task.setDescription(random.nextInt(3) == 0 ? null : title() + " " + title());
+        task.setCompleted(random.nextInt(4) == 0);
+        return task;
+    }
+
+    /** A pending task repeating on one of a few common rules, started within the year before NOW. */
+    public Task recurringTask(long id) {
+        Task task = task(id);
+        task.setCompleted(false);
+        task.setDueDate(new Date(NOW - (long) (random.nextDouble() * 365 * DAY)));
+        task.setRecurrenceRule(RECURRENCE_RULES[random.nextInt(RECURRENCE_RULES.length)]);
+        return task;
+    }
+
+    public List<Task> tasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(task(i + 1));
+        }
+        return tasks;
+    }
+
+    public List<TaskWithCategory> rows(int count) {
+        List<Category> categories = categories();
+        List<TaskWithCategory> rows = new ArrayList<>(count);
+        for (Task task : tasks(count)) {
+            Category category = task.getCategoryId() != null
+                    ? categories.get((int) (task.getCategoryId() - 1)) : null;
+            rows.add(new TaskWithCategory(task, category));
+        }
+        return rows;
+    }
+
+    /** Copies {@code rows} with a fresh Task per row and {@code changedPercent} of them edited. */
+    public List<TaskWithCategory> edit(List<TaskWithCategory> rows, int changedPercent) {
+        List<TaskWithCategory> edited = new ArrayList<>(rows.size());
+        for (TaskWithCategory row : rows) {
+            Task copy = copy(row.getTask());
+            if (random.nextInt(100) < changedPercent) {
+                copy.setCompleted(!copy.isCompleted());
+            }
+            edited.add(new TaskWithCategory(copy, row.getCategory()));
+        }
+        return edited;
+    }
+
+    public static Task copy(Task task) {
+        Task copy = new Task(task.getTitle(), task.getDueDate(), task.getPriority(),
+                task.getCategoryId(), task.getType());
+        copy.setId(task.getId());
+        copy.setDescription(task.getDescription());
+        copy.setCompleted(task.isCompleted());
+        copy.setRecurrenceRule(task.getRecurrenceRule());
+        return copy;
+    }
+
+    public String title() {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+    }
+
+    public Date dueDate() {
+        if (random.nextInt(10) == 0) {
+            return null;
+        }
+        return new Date(NOW + (long) (random.nextGaussian() * 14 * DAY));
+    }
+
+    private Long categoryId() {
+        return random.nextInt(6) == 0 ? null : (long) (random.nextInt(CATEGORY_COUNT) + 1);
+    }
+}
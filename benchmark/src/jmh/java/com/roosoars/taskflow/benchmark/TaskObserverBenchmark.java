@@ -0,0 +1,81 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.observer.TaskObserver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskObserverBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Param({"1", "10"})
+    public int listeners;
+
+    private TaskObserver observer;
+    private List<Task> tasks;
+    private int next;
+    private long sink;
+
+    @Setup
+    public void setUp() {
+        observer = new TaskObserver();
+        tasks = new TaskGenerator(11).tasks(size);
+        observer.notifyTasksAdded(tasks);
+        for (int i = 0; i < listeners; i++) {
+            observer.addListener(new TaskObserver.TaskChangeListener() {
+                @Override
+                public void onTaskAdded(Task task) {
+                    sink += task.getId();
+                }
+
+                @Override
+                public void onTaskUpdated(Task task) {
+                    sink += task.getId();
+                }
+
+                @Override
+                public void onTaskDeleted(Task task) {
+                    sink -= task.getId();
+                }
+
+                @Override
+                public void onTaskCompleted(Task task) {
+                    sink ^= task.getId();
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public long notifyUpdated() {
+        Task task = tasks.get(next++ % size);
+        observer.notifyTaskUpdated(task);
+        return sink;
+    }
+
+    @Benchmark
+    public int upcomingCount() {
+        return observer.getUpcomingTasksCount();
+    }
+
+    @Benchmark
+    public int overdueCount() {
+        return observer.getOverdueTasksCount();
+    }
+}
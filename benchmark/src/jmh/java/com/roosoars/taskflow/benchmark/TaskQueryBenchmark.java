@@ -0,0 +1,115 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.db.TaskPageKey;
+import com.roosoars.taskflow.db.TaskQuery;
+import com.roosoars.taskflow.model.TaskWithCategory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The list queries the paging source issues, built by {@link TaskQuery} for every filter and
+ * sort key: the first page, a keyset page from the middle of the list and the row count.
+ * Sample mode reports p50/p99 latency; throughput mode adds rows per second from {@link RowCounter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+public class TaskQueryBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+    private static final long WEEK = 7L * 24 * 60 * 60 * 1000;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"ALL", "PENDING", "COMPLETED", "CATEGORY", "TYPE", "DATE_RANGE"})
+    public TaskQuery.Filter filter;
+
+    @Param({"DATE", "PRIORITY", "CATEGORY"})
+    public TaskQuery.SortKey sort;
+
+    private BenchmarkDatabase database;
+    private TaskQuery firstPage;
+    private TaskQuery middlePage;
+    private TaskQuery count;
+
+    @Setup
+    public void setUp() throws SQLException {
+        database = BenchmarkDatabase.seeded(size, 1);
+        TaskQuery list = list().sortedBy(sort);
+        firstPage = list.firstPage(PAGE_SIZE);
+        count = list.count();
+
+        int rows = database.queryInt(count.getSql(), count.getArgs());
+        TaskQuery head = list.firstPage(Math.max(1, rows / 2));
+        List<TaskWithCategory> firstHalf = database.queryTasksWithCategory(head.getSql(), head.getArgs());
+        TaskPageKey middle = firstHalf.isEmpty()
+                ? null : list.keyOf(firstHalf.get(firstHalf.size() - 1).getTask());
+        middlePage = middle != null ? list.pageAfter(middle, PAGE_SIZE) : firstPage;
+    }
+
+    private TaskQuery list() {
+        switch (filter) {
+            case PENDING:
+                return TaskQuery.pending();
+            case COMPLETED:
+                return TaskQuery.completed();
+            case CATEGORY:
+                return TaskQuery.inCategory(1);
+            case TYPE:
+                return TaskQuery.ofType("project");
+            case DATE_RANGE:
+                return TaskQuery.dueBetween(new Date(TaskGenerator.NOW - WEEK),
+                        new Date(TaskGenerator.NOW + WEEK));
+            case ALL:
+            default:
+                return TaskQuery.all();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        database.close();
+    }
+
+    @Benchmark
+    public List<TaskWithCategory> firstPage(RowCounter counter) throws SQLException {
+        return load(firstPage, counter);
+    }
+
+    @Benchmark
+    public List<TaskWithCategory> middlePage(RowCounter counter) throws SQLException {
+        return load(middlePage, counter);
+    }
+
+    @Benchmark
+    public int count(RowCounter counter) throws SQLException {
+        int rows = database.queryInt(count.getSql(), count.getArgs());
+        counter.rows += rows;
+        return rows;
+    }
+
+    private List<TaskWithCategory> load(TaskQuery query, RowCounter counter) throws SQLException {
+        List<TaskWithCategory> rows = database.queryTasksWithCategory(query.getSql(), query.getArgs());
+        counter.rows += rows.size();
+        return rows;
+    }
+}
@@ -0,0 +1,43 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.ui.decorators.TaskStatus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/** Status computation behind TaskItemDecorator, per task. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskStatusBenchmark {
+
+    private static final int SIZE = 10_000;
+
+    private List<Task> tasks;
+
+    @Setup
+    public void setUp() {
+        tasks = new TaskGenerator(7).tasks(SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void status(Blackhole blackhole) {
+        long now = TaskGenerator.NOW;
+        for (Task task : tasks) {
+            blackhole.consume(TaskStatus.of(task, now));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.reminder.TimingWheel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The reminder wheel of ReminderScheduler with its clock faked: reminders spread over the month
+ * after NOW, scheduled, moved, cancelled, and drained by jumping the clock from one wake-up to
+ * the next as the alarm would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TimingWheelBenchmark {
+
+    private static final long MINUTE = 60 * 1000;
+    private static final long MONTH = 30L * 24 * 60 * MINUTE;
+
+    @Param({"100000"})
+    public int size;
+
+    private long[] deadlines;
+    private TimingWheel loaded;
+    private int next;
+
+    private static final class Checksum implements TimingWheel.Visitor {
+        long value;
+        int count;
+
+        @Override
+        public void onExpired(long id, long deadlineMillis) {
+            value += id ^ deadlineMillis;
+            count++;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(13);
+        deadlines = new long[size];
+        for (int i = 0; i < size; i++) {
+            deadlines[i] = TaskGenerator.NOW + (long) (random.nextDouble() * MONTH);
+        }
+        loaded = load();
+    }
+
+    private TimingWheel load() {
+        TimingWheel wheel = new TimingWheel(MINUTE, TaskGenerator.NOW);
+        for (int i = 0; i < size; i++) {
+            wheel.schedule(i + 1, deadlines[i]);
+        }
+        return wheel;
+    }
+
+    @Benchmark
+    public int scheduleAll() {
+        return load().size();
+    }
+
+    @Benchmark
+    public int scheduleThenCancelAll() {
+        TimingWheel wheel = load();
+        for (int i = 0; i < size; i++) {
+            wheel.cancel(i + 1);
+        }
+        return wheel.size();
+    }
+
+    // One wake-up per minute that has reminders: nextDeadline, then advanceTo.
+    @Benchmark
+    public long drainMonth() {
+        TimingWheel wheel = load();
+        Checksum checksum = new Checksum();
+        long wakeUps = 0;
+        for (long deadline = wheel.nextDeadline(); deadline >= 0; deadline = wheel.nextDeadline()) {
+            wheel.advanceTo(deadline, checksum);
+            wakeUps++;
+        }
+        return checksum.value + wakeUps;
+    }
+
+    // A task edit against a full wheel: the reminder moves to another deadline.
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long rescheduleOne() {
+        int i = next;
+        next = next + 1 == size ? 0 : next + 1;
+        loaded.schedule(i + 1, deadlines[(i + 7919) % size]);
+        return loaded.nextDeadline();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long cancelAndScheduleOne() {
+        int i = next;
+        next = next + 1 == size ? 0 : next + 1;
+        loaded.cancel(i + 1);
+        loaded.schedule(i + 1, deadlines[i]);
+        return loaded.nextDeadline();
+    }
+}
@@ -0,0 +1,147 @@
+package com.roosoars.taskflow.benchmark;
+
+import com.roosoars.taskflow.model.Priority;
+import com.roosoars.taskflow.model.Task;
+import com.roosoars.taskflow.undo.TaskEdit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+
+/**
+ * Undo of the multi-select actions over {@code selected} of 100k tasks, each undo in one
+ * transaction through the statements TaskRepository runs. Recording an edit only reads the
+ * selection already in memory; {@code snapshotRows} is what copying the rows from disk before
+ * the change would cost instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UndoBenchmark {
+
+    private static final int TASKS = 100_000;
+    private static final int MAX_IDS_PER_STATEMENT = 900;
+    private static final String GET_TASKS_BY_IDS = "SELECT * FROM tasks WHERE id IN (:ids)";
+
+    @Param({"100", "5000"})
+    public int selected;
+
+    private BenchmarkDatabase database;
+    private List<Task> selection;
+    private long[] selectedIds;
+
+    @Setup
+    public void setUp() throws SQLException {
+        database = BenchmarkDatabase.seeded(TASKS, 37);
+        Random random = new Random(41);
+        List<Long> ids = new ArrayList<>(selected);
+        while (ids.size() < selected) {
+            long id = 1 + random.nextInt(TASKS);
+            if (!ids.contains(id)) {
+                ids.add(id);
+            }
+        }
+        selection = readTasks(ids);
+        selectedIds = new long[selection.size()];
+        for (int i = 0; i < selectedIds.length; i++) {
+            selectedIds[i] = selection.get(i).getId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        database.close();
+    }
+
+    /** The selection deleted, as by a multi-select delete. */
+    @State(Scope.Thread)
+    public static class Deleted {
+        TaskEdit edit;
+
+        @Setup(Level.Invocation)
+        public void setUp(UndoBenchmark benchmark) throws SQLException {
+            edit = TaskEdit.delete(benchmark.selection);
+            benchmark.inTransaction(editor -> editor.delete(benchmark.selectedIds));
+        }
+    }
+
+    /** The selection moved to high priority. */
+    @State(Scope.Thread)
+    public static class Prioritized {
+        TaskEdit edit;
+
+        @Setup(Level.Invocation)
+        public void setUp(UndoBenchmark benchmark) throws SQLException {
+            edit = TaskEdit.setPriority(benchmark.selection, Priority.HIGH.toInt());
+            benchmark.inTransaction(editor -> editor.setPriority(benchmark.selectedIds, Priority.HIGH.toInt()));
+        }
+    }
+
+    @Benchmark
+    public int undoDelete(Deleted deleted) throws SQLException {
+        JdbcTaskEditor editor = new JdbcTaskEditor(database);
+        database.beginTransaction();
+        deleted.edit.undo(editor);
+        database.endTransaction();
+        return editor.getInserted();
+    }
+
+    @Benchmark
+    public TaskEdit undoPriority(Prioritized prioritized) throws SQLException {
+        inTransaction(prioritized.edit::undo);
+        return prioritized.edit;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long recordDelete() {
+        return TaskEdit.delete(selection).getSizeBytes();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long recordPriority() {
+        return TaskEdit.setPriority(selection, Priority.HIGH.toInt()).getSizeBytes();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Task> snapshotRows() throws SQLException {
+        List<Long> ids = new ArrayList<>(selectedIds.length);
+        for (long id : selectedIds) {
+            ids.add(id);
+        }
+        return readTasks(ids);
+    }
+
+    private List<Task> readTasks(List<Long> ids) throws SQLException {
+        List<Task> tasks = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_STATEMENT, ids.size()));
+            tasks.addAll(database.queryTasks(
+                    BenchmarkDatabase.expandIds(GET_TASKS_BY_IDS, chunk.size()), chunk.toArray()));
+        }
+        return tasks;
+    }
+
+    private void inTransaction(Consumer<JdbcTaskEditor> change) throws SQLException {
+        database.beginTransaction();
+        change.accept(new JdbcTaskEditor(database));
+        database.endTransaction();
+    }
+}
@@ -0,0 +1,7 @@
+package androidx.lifecycle;
+
+
+/** JVM copy of the LiveData observer interface, which only ships in an Android archive. */
+public interface Observer<T> {
+    void onChanged(T value);
+}